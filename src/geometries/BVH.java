@@ -0,0 +1,774 @@
+package geometries;
+
+import primitives.BoundingBox;
+import primitives.Ray;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * The BVH class is a bounding volume hierarchy of intersectable objects - a binary tree of bounding
+ * boxes with a single object in every leaf. A ray visits only the subtrees whose boxes it crosses,
+ * instead of testing every object of the collection. Unbounded objects (e.g. planes) are kept
+ * outside the tree and are tested by every ray.
+ * <p>
+ * For animated scenes the tree is refitted instead of rebuilt: after the objects have moved (e.g. a
+ * scene-graph {@link Node} got a new transform), {@link #refit()} recalculates the boxes bottom-up in
+ * linear time, keeping the structure of the tree. The quality of the tree is measured by its cost -
+ * the total surface area of the inner boxes relative to the surface area of the root box, which
+ * estimates the number of boxes a random ray tests. Once a refit has degraded the cost by the
+ * rebuild threshold relative to the last build, the tree is rebuilt from scratch. The tree must not
+ * be refitted while rays are traced through it.
+ * </p>
+ * <p>
+ * For large models the tree may be built in parallel as a linear BVH: every object gets a 63-bit
+ * Morton code of its box center, which interleaves the bits of its quantized coordinates so that
+ * sorting by the code orders the objects along a space filling curve. The codes are radix-sorted
+ * in parallel, every inner node is emitted independently from the sorted codes, and the boxes are
+ * united bottom-up in a parallel pass. Such a tree is built much faster than a median split tree
+ * but its boxes are somewhat worse; {@link #optimize()} improves them by local tree rotations.
+ * </p>
+ * <p>
+ * A built tree may be saved to a compact binary file - the flattened array of its nodes, with the
+ * index of the object of every leaf - and loaded back into the nodes of the tree, which skips the
+ * build. Only the topology and the boxes of the tree are cached: the objects themselves are not
+ * saved, the scene still constructs them, and the mapped file is copied into the node objects,
+ * which the refits and the rotations need. The tree depends only on the bounding boxes of the
+ * objects and on their order, so the file is keyed by a content hash of the classes and the boxes
+ * of the objects: a changed scene gets a different key, and a file that does not match the objects
+ * is never used.
+ * </p>
+ */
+public class BVH extends Intersectable {
+    /** A node of the tree - an inner node with two children or a leaf with a single object */
+    private static final class TreeNode {
+        private BoundingBox box;
+        private TreeNode left, right;
+        private final Intersectable member;
+
+        /**
+         * Constructs a leaf node.
+         *
+         * @param member the object of the leaf
+         */
+        TreeNode(Intersectable member) {
+            this.member = member;
+            this.box = member.getBoundingBox();
+            this.left = this.right = null;
+        }
+
+        /**
+         * Constructs an inner node.
+         *
+         * @param left  the first child
+         * @param right the second child
+         */
+        TreeNode(TreeNode left, TreeNode right) {
+            this(left.box.union(right.box), left, right);
+        }
+
+        /**
+         * Constructs an inner node with a known box.
+         *
+         * @param box   the box of the node
+         * @param left  the first child
+         * @param right the second child
+         */
+        TreeNode(BoundingBox box, TreeNode left, TreeNode right) {
+            this.member = null;
+            this.left = left;
+            this.right = right;
+            this.box = box;
+        }
+    }
+
+    /** The default cost ratio to the last build at which a refit rebuilds the tree */
+    private static final double DEFAULT_REBUILD_THRESHOLD = 1.5;
+    /** The number of bits of each quantized coordinate in a Morton code */
+    private static final int MORTON_BITS = 21;
+    /** The number of bits sorted by each pass of the radix sort */
+    private static final int RADIX_BITS = 8;
+    /** The minimal number of codes sorted by a single task of the parallel radix sort */
+    private static final int MIN_SORT_CHUNK = 4096;
+    /** The first bytes of a saved tree file ("BVH1") */
+    private static final int FILE_MAGIC = 0x42564831;
+    /** The size of the header of a saved tree file: magic, hash, number of objects and of nodes */
+    private static final int FILE_HEADER_SIZE = Integer.BYTES + 32 + Integer.BYTES * 2;
+    /** The size of a node in a saved tree file: the box and two child fields */
+    private static final int FILE_NODE_SIZE = Double.BYTES * 6 + Integer.BYTES * 2;
+    /** The extension of the saved tree files */
+    private static final String FILE_EXTENSION = ".bvh";
+
+    /** The bounded objects, which are kept in the tree */
+    private final List<Intersectable> members = new ArrayList<>();
+    /** The unbounded objects, which are tested by every ray */
+    private final List<Intersectable> unbounded = new ArrayList<>();
+    /** The root of the tree, null if there are no bounded objects */
+    private TreeNode root = null;
+    /** The cost of the tree when it was last built */
+    private double builtCost = 0;
+    /** The cost ratio to the last build at which a refit rebuilds the tree */
+    private double rebuildThreshold = DEFAULT_REBUILD_THRESHOLD;
+    /** Whether the tree is built in parallel from Morton codes */
+    private final boolean parallel;
+
+    /**
+     * Constructs the hierarchy of the given objects.
+     *
+     * @param geometries the objects
+     */
+    public BVH(Intersectable... geometries) {
+        this(List.of(geometries));
+    }
+
+    /**
+     * Constructs the hierarchy of the given objects.
+     *
+     * @param geometries the objects
+     */
+    public BVH(List<? extends Intersectable> geometries) {
+        this(geometries, false);
+    }
+
+    /**
+     * Constructs the hierarchy of the given objects.
+     *
+     * @param geometries the objects
+     * @param parallel   true to build the tree in parallel from Morton codes (a linear BVH),
+     *                   false to build it by median splits
+     */
+    public BVH(List<? extends Intersectable> geometries, boolean parallel) {
+        this(geometries, parallel, true);
+    }
+
+    /**
+     * Constructs the hierarchy of the given objects, optionally without building the tree.
+     *
+     * @param geometries the objects
+     * @param parallel   true to build the tree in parallel from Morton codes
+     * @param build      true to build the tree
+     */
+    private BVH(List<? extends Intersectable> geometries, boolean parallel, boolean build) {
+        this.parallel = parallel;
+        for (Intersectable geometry : geometries)
+            (geometry.getBoundingBox() == null ? unbounded : members).add(geometry);
+        if (build) rebuild();
+    }
+
+    /**
+     * Constructs the hierarchy of the given objects, loading the tree from a cache directory if
+     * it was saved there for the same objects, or building the tree and saving it there otherwise.
+     *
+     * @param geometries the objects
+     * @param parallel   true to build the tree in parallel from Morton codes,
+     *                   false to build it by median splits
+     * @param directory  the cache directory, created if it does not exist
+     * @return the hierarchy
+     * @throws IllegalStateException if the tree cannot be saved
+     */
+    public static BVH cached(List<? extends Intersectable> geometries, boolean parallel, Path directory) {
+        BVH bvh = new BVH(geometries, parallel, false);
+        byte[] digest = contentDigest(bvh.objects(), parallel);
+        Path file = directory.resolve(HexFormat.of().formatHex(digest) + FILE_EXTENSION);
+        if (!bvh.read(file, digest)) {
+            bvh.rebuild();
+            bvh.save(file, digest);
+        }
+        return bvh;
+    }
+
+    /**
+     * Sets the cost ratio to the last build at which a refit rebuilds the tree.
+     *
+     * @param rebuildThreshold the cost ratio, at least 1
+     * @return the hierarchy instance
+     * @throws IllegalArgumentException if the ratio is less than 1
+     */
+    public BVH setRebuildThreshold(double rebuildThreshold) {
+        if (rebuildThreshold < 1) throw new IllegalArgumentException("Rebuild threshold must be at least 1");
+        this.rebuildThreshold = rebuildThreshold;
+        return this;
+    }
+
+    /**
+     * Rebuilds the tree from scratch, by splitting the objects at the median of the largest axis
+     * of their box centers, or in parallel from their Morton codes.
+     */
+    public void rebuild() {
+        root = members.isEmpty() ? null
+                : parallel ? buildLinear(members)
+                : build(members.stream().map(TreeNode::new).toList());
+        builtCost = getCost();
+    }
+
+    /**
+     * Builds a subtree by splitting the nodes at the median of the largest axis of their centers.
+     *
+     * @param nodes the leaves of the subtree
+     * @return the root of the subtree
+     */
+    private static TreeNode build(List<TreeNode> nodes) {
+        if (nodes.size() == 1) return nodes.get(0);
+
+        BoundingBox bounds = nodes.get(0).box;
+        for (TreeNode node : nodes) bounds = bounds.union(node.box);
+        int axis = bounds.getLongestAxis();
+
+        List<TreeNode> sorted = new ArrayList<>(nodes);
+        Collections.sort(sorted, Comparator.comparingDouble(node -> node.box.getCenter(axis)));
+        int middle = sorted.size() / 2;
+        return new TreeNode(build(sorted.subList(0, middle)), build(sorted.subList(middle, sorted.size())));
+    }
+
+    /**
+     * Builds a linear BVH in parallel: the objects are sorted by the Morton codes of their box
+     * centers, and the tree is emitted from the sorted codes.
+     *
+     * @param members the bounded objects, at least one
+     * @return the root of the tree
+     */
+    private static TreeNode buildLinear(List<Intersectable> members) {
+        int n = members.size();
+        TreeNode[] leaves = new TreeNode[n];
+        IntStream.range(0, n).parallel().forEach(k -> leaves[k] = new TreeNode(members.get(k)));
+        if (n == 1) return leaves[0];
+
+        // The codes quantize the box centers within the box of all the centers
+        double[] bounds = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (TreeNode leaf : leaves)
+            for (int axis = 0; axis < 3; ++axis) {
+                bounds[axis] = Math.min(bounds[axis], leaf.box.getCenter(axis));
+                bounds[axis + 3] = Math.max(bounds[axis + 3], leaf.box.getCenter(axis));
+            }
+        long[] codes = new long[n];
+        int[] order = new int[n];
+        IntStream.range(0, n).parallel().forEach(k -> {
+            codes[k] = mortonCode(leaves[k].box, bounds);
+            order[k] = k;
+        });
+        radixSort(codes, order);
+
+        TreeNode[] sorted = new TreeNode[n];
+        IntStream.range(0, n).parallel().forEach(k -> sorted[k] = leaves[order[k]]);
+        return emitLinear(codes, sorted);
+    }
+
+    /**
+     * Calculates the 63-bit Morton code of the center of a box - the interleaved bits of its
+     * coordinates quantized to 21 bits each.
+     *
+     * @param box    the box
+     * @param bounds the minimal (0 - 2) and maximal (3 - 5) coordinates of all the centers
+     * @return the Morton code
+     */
+    private static long mortonCode(BoundingBox box, double[] bounds) {
+        long code = 0;
+        for (int axis = 0; axis < 3; ++axis) {
+            double extent = bounds[axis + 3] - bounds[axis];
+            double relative = extent > 0 ? (box.getCenter(axis) - bounds[axis]) / extent : 0;
+            long quantized = Math.min((long) (relative * (1L << MORTON_BITS)), (1L << MORTON_BITS) - 1);
+            code |= spreadBits(quantized) << (2 - axis);
+        }
+        return code;
+    }
+
+    /**
+     * Spreads the 21 low bits of a number so that there are two zero bits between every two bits.
+     *
+     * @param v the number
+     * @return the spread bits
+     */
+    private static long spreadBits(long v) {
+        v &= 0x1fffffL;
+        v = (v | v << 32) & 0x1f00000000ffffL;
+        v = (v | v << 16) & 0x1f0000ff0000ffL;
+        v = (v | v << 8) & 0x100f00f00f00f00fL;
+        v = (v | v << 4) & 0x10c30c30c30c30c3L;
+        v = (v | v << 2) & 0x1249249249249249L;
+        return v;
+    }
+
+    /**
+     * Sorts non-negative codes together with their indices by a parallel least significant digit
+     * radix sort. Every pass counts the digits of separate chunks of the codes in parallel, and
+     * then each chunk scatters its codes to its own offsets, which keeps the sort stable.
+     *
+     * @param codes   the codes, sorted in place
+     * @param indices the indices of the codes, reordered with them
+     */
+    private static void radixSort(long[] codes, int[] indices) {
+        int n = codes.length;
+        int buckets = 1 << RADIX_BITS;
+        int chunks = Math.max(1, Math.min(n / MIN_SORT_CHUNK, Runtime.getRuntime().availableProcessors() * 4));
+        int chunkSize = (n + chunks - 1) / chunks;
+        long[] codeBuffer = new long[n];
+        int[] indexBuffer = new int[n];
+        long[] fromCodes = codes, toCodes = codeBuffer;
+        int[] fromIndices = indices, toIndices = indexBuffer;
+
+        for (int shift = 0; shift < Long.SIZE - 1; shift += RADIX_BITS) {
+            int digitShift = shift;
+            long[] source = fromCodes;
+            int[][] counts = new int[chunks][buckets];
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                for (int k = c * chunkSize; k < Math.min(n, (c + 1) * chunkSize); ++k)
+                    ++counts[c][(int) (source[k] >>> digitShift) & (buckets - 1)];
+            });
+
+            // A digit shared by all the codes leaves the order unchanged
+            int[] totals = new int[buckets];
+            for (int[] count : counts)
+                for (int d = 0; d < buckets; ++d) totals[d] += count[d];
+            boolean trivial = false;
+            for (int total : totals) trivial |= total == n;
+            if (trivial) continue;
+
+            // The offset of every chunk within every digit
+            int offset = 0;
+            for (int d = 0; d < buckets; ++d)
+                for (int c = 0; c < chunks; ++c) {
+                    int count = counts[c][d];
+                    counts[c][d] = offset;
+                    offset += count;
+                }
+
+            long[] targetCodes = toCodes;
+            int[] sourceIndices = fromIndices, targetIndices = toIndices;
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int[] offsets = counts[c];
+                for (int k = c * chunkSize; k < Math.min(n, (c + 1) * chunkSize); ++k) {
+                    int position = offsets[(int) (source[k] >>> digitShift) & (buckets - 1)]++;
+                    targetCodes[position] = source[k];
+                    targetIndices[position] = sourceIndices[k];
+                }
+            });
+            fromCodes = targetCodes;
+            toCodes = source;
+            fromIndices = targetIndices;
+            toIndices = sourceIndices;
+        }
+
+        if (fromCodes != codes) {
+            System.arraycopy(fromCodes, 0, codes, 0, n);
+            System.arraycopy(fromIndices, 0, indices, 0, n);
+        }
+    }
+
+    /**
+     * Emits the tree of the sorted leaves in parallel. Every inner node covers a range of the
+     * leaves, split where the highest differing bit of their codes changes, and it is found
+     * independently of the other nodes. Then every leaf climbs towards the root, and the second
+     * of the two children to arrive at an inner node constructs it, so the boxes are united
+     * bottom-up without locks.
+     *
+     * @param codes  the sorted Morton codes
+     * @param leaves the leaves, in the order of the codes (at least two)
+     * @return the root of the tree
+     */
+    private static TreeNode emitLinear(long[] codes, TreeNode[] leaves) {
+        int n = leaves.length;
+        // A child is encoded as the index of an inner node, or as the complement of a leaf index
+        int[] leftChild = new int[n - 1], rightChild = new int[n - 1];
+        int[] innerParent = new int[n - 1], leafParent = new int[n];
+        innerParent[0] = -1;
+
+        IntStream.range(0, n - 1).parallel().forEach(i -> {
+            // The direction of the range and its other end
+            int d = commonPrefix(codes, i, i + 1) > commonPrefix(codes, i, i - 1) ? 1 : -1;
+            int minPrefix = commonPrefix(codes, i, i - d);
+            int maxLength = 2;
+            while (commonPrefix(codes, i, i + maxLength * d) > minPrefix) maxLength *= 2;
+            int length = 0;
+            for (int t = maxLength / 2; t >= 1; t /= 2)
+                if (commonPrefix(codes, i, i + (length + t) * d) > minPrefix) length += t;
+            int j = i + length * d;
+
+            // The split position - the last leaf that shares more bits with i than j does
+            int nodePrefix = commonPrefix(codes, i, j);
+            int split = 0;
+            for (int t = length, divisor = 2; t > 1; divisor *= 2) {
+                t = (length + divisor - 1) / divisor;
+                if (commonPrefix(codes, i, i + (split + t) * d) > nodePrefix) split += t;
+            }
+            int gamma = i + split * d + Math.min(d, 0);
+
+            if (Math.min(i, j) == gamma) {
+                leftChild[i] = ~gamma;
+                leafParent[gamma] = i;
+            } else {
+                leftChild[i] = gamma;
+                innerParent[gamma] = i;
+            }
+            if (Math.max(i, j) == gamma + 1) {
+                rightChild[i] = ~(gamma + 1);
+                leafParent[gamma + 1] = i;
+            } else {
+                rightChild[i] = gamma + 1;
+                innerParent[gamma + 1] = i;
+            }
+        });
+
+        TreeNode[] inner = new TreeNode[n - 1];
+        AtomicIntegerArray arrivals = new AtomicIntegerArray(n - 1);
+        IntStream.range(0, n).parallel().forEach(k -> {
+            for (int p = leafParent[k]; p >= 0; p = innerParent[p]) {
+                if (arrivals.getAndIncrement(p) == 0) return; // the other child is not ready yet
+                int left = leftChild[p], right = rightChild[p];
+                inner[p] = new TreeNode(left < 0 ? leaves[~left] : inner[left], right < 0 ? leaves[~right] : inner[right]);
+            }
+        });
+        return inner[0];
+    }
+
+    /**
+     * Calculates the length of the common prefix of two sorted codes. Equal codes are told apart
+     * by their indices, so that every range of leaves is split.
+     *
+     * @param codes the sorted codes
+     * @param i     the index of the first code
+     * @param j     the index of the second code
+     * @return the number of equal leading bits, -1 if the second index is out of range
+     */
+    private static int commonPrefix(long[] codes, int i, int j) {
+        if (j < 0 || j >= codes.length) return -1;
+        return codes[i] == codes[j] ? Long.SIZE + Integer.numberOfLeadingZeros(i ^ j)
+                : Long.numberOfLeadingZeros(codes[i] ^ codes[j]);
+    }
+
+    /**
+     * Improves the tree by local rotations, bottom-up: at every inner node, a child is swapped
+     * with a grandchild under the other child if the swap reduces the surface area of that child.
+     * The leaves and the root box are unchanged, and the cost of the tree never grows.
+     *
+     * @return the hierarchy instance
+     */
+    public BVH optimize() {
+        if (root != null) optimize(root);
+        builtCost = Math.min(builtCost, getCost());
+        return this;
+    }
+
+    /**
+     * Improves a subtree by local rotations, bottom-up.
+     *
+     * @param node the root of the subtree
+     */
+    private static void optimize(TreeNode node) {
+        if (node.member != null) return;
+        optimize(node.left);
+        optimize(node.right);
+
+        // The gains of swapping the left child with a child of the right child, and vice versa
+        double bestGain = 0;
+        int best = -1;
+        double[] gains = {
+                swapGain(node.right, node.right.right, node.left),
+                swapGain(node.right, node.right.left, node.left),
+                swapGain(node.left, node.left.right, node.right),
+                swapGain(node.left, node.left.left, node.right)};
+        for (int k = 0; k < gains.length; ++k)
+            if (gains[k] > bestGain) {
+                bestGain = gains[k];
+                best = k;
+            }
+
+        switch (best) {
+            case 0 -> { TreeNode moved = node.right.left; node.right.left = node.left; node.left = moved; }
+            case 1 -> { TreeNode moved = node.right.right; node.right.right = node.left; node.left = moved; }
+            case 2 -> { TreeNode moved = node.left.left; node.left.left = node.right; node.right = moved; }
+            case 3 -> { TreeNode moved = node.left.right; node.left.right = node.right; node.right = moved; }
+            default -> { return; }
+        }
+        if (best < 2) node.right.box = node.right.left.box.union(node.right.right.box);
+        else node.left.box = node.left.left.box.union(node.left.right.box);
+    }
+
+    /**
+     * Calculates the reduction of the surface area of an inner child when one of its children is
+     * replaced by its sibling.
+     *
+     * @param child  the inner child, or a leaf
+     * @param kept   the child of the inner child that stays
+     * @param moved  the sibling that replaces the other child
+     * @return the area reduction, 0 if the child is a leaf
+     */
+    private static double swapGain(TreeNode child, TreeNode kept, TreeNode moved) {
+        if (child.member != null) return 0;
+        return child.box.surfaceArea() - kept.box.union(moved.box).surfaceArea();
+    }
+
+    /**
+     * Updates the boxes of the tree bottom-up after the objects have moved, without changing its
+     * structure. If the cost of the refitted tree has degraded by the rebuild threshold relative
+     * to the last build, the tree is rebuilt.
+     *
+     * @return true if the tree was rebuilt
+     * @throws IllegalStateException if an object of the tree has become unbounded
+     */
+    public boolean refit() {
+        if (root == null) return false;
+        refit(root);
+        if (getCost() > builtCost * rebuildThreshold) {
+            rebuild();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Updates the boxes of a subtree bottom-up.
+     *
+     * @param node the root of the subtree
+     */
+    private static void refit(TreeNode node) {
+        if (node.member != null) {
+            node.box = node.member.getBoundingBox();
+            if (node.box == null) throw new IllegalStateException("A member of the hierarchy became unbounded");
+            return;
+        }
+        refit(node.left);
+        refit(node.right);
+        node.box = node.left.box.union(node.right.box);
+    }
+
+    /**
+     * Calculates the cost of the tree - the total surface area of the inner boxes relative to the
+     * surface area of the root box, which estimates the number of boxes that a random ray crossing
+     * the root box tests. It grows when a refit has left large overlapping boxes.
+     *
+     * @return the cost of the tree, 0 for a tree with a single leaf
+     */
+    public double getCost() {
+        if (root == null || root.member != null) return 0;
+        double rootArea = root.box.surfaceArea();
+        return rootArea == 0 ? 0 : innerArea(root) / rootArea;
+    }
+
+    /**
+     * Sums the surface areas of the inner boxes of a subtree.
+     *
+     * @param node the root of the subtree
+     * @return the total surface area of the inner boxes
+     */
+    private static double innerArea(TreeNode node) {
+        return node.member != null ? 0 : node.box.surfaceArea() + innerArea(node.left) + innerArea(node.right);
+    }
+
+    /**
+     * Saves the tree to a binary file, keyed by the content hash of its objects. The file is
+     * written to a temporary file first and then moved, so a concurrent reader never sees a
+     * partial file.
+     *
+     * @param file the file
+     * @throws IllegalStateException if the file cannot be written
+     */
+    public void save(Path file) {
+        save(file, contentDigest(objects(), parallel));
+    }
+
+    /**
+     * Saves the tree to a binary file.
+     *
+     * @param file   the file
+     * @param digest the content digest of the objects
+     * @throws IllegalStateException if the file cannot be written
+     */
+    private void save(Path file, byte[] digest) {
+        List<TreeNode> nodes = new ArrayList<>();
+        if (root != null) flatten(root, nodes);
+        Map<Intersectable, Integer> indices = new IdentityHashMap<>();
+        for (int k = 0; k < members.size(); ++k) indices.put(members.get(k), k);
+
+        ByteBuffer buffer = ByteBuffer.allocate(FILE_HEADER_SIZE + nodes.size() * FILE_NODE_SIZE);
+        buffer.putInt(FILE_MAGIC).put(digest)
+                .putInt(members.size()).putInt(nodes.size());
+        Map<TreeNode, Integer> positions = new IdentityHashMap<>();
+        for (int k = 0; k < nodes.size(); ++k) positions.put(nodes.get(k), k);
+        for (TreeNode node : nodes) {
+            for (int axis = 0; axis < 3; ++axis) buffer.putDouble(node.box.getMin(axis));
+            for (int axis = 0; axis < 3; ++axis) buffer.putDouble(node.box.getMax(axis));
+            // A leaf keeps the complement of the index of its object
+            buffer.putInt(node.member != null ? ~indices.get(node.member) : positions.get(node.left));
+            buffer.putInt(node.member != null ? -1 : positions.get(node.right));
+        }
+
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), "bvh", ".tmp");
+            Files.write(temporary, buffer.array());
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error - cannot save the hierarchy to " + file, e);
+        }
+    }
+
+    /**
+     * Loads the tree of the given objects from a binary file.
+     *
+     * @param geometries the objects, in the order that they had when the tree was saved
+     * @param parallel   the build method of the saved tree, also used by later rebuilds
+     * @param file       the file
+     * @return the hierarchy, or null if the file does not exist, is damaged or was saved for
+     *         other objects
+     */
+    public static BVH load(List<? extends Intersectable> geometries, boolean parallel, Path file) {
+        BVH bvh = new BVH(geometries, parallel, false);
+        return bvh.read(file, contentDigest(bvh.objects(), parallel)) ? bvh : null;
+    }
+
+    /**
+     * Reads the tree from a binary file. The file is mapped read-only, like the data blocks of a
+     * {@link scene.SceneFile}, and its nodes are restored as the nodes of the tree, which are
+     * needed for the refits and the rotations.
+     *
+     * @param file   the file
+     * @param digest the content digest of the objects
+     * @return true if the tree was read, false if the file does not exist, is damaged or was
+     *         saved for other objects
+     */
+    private boolean read(Path file, byte[] digest) {
+        if (!Files.isRegularFile(file)) return false;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < FILE_HEADER_SIZE || channel.size() > Integer.MAX_VALUE) return false;
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] saved = new byte[digest.length];
+            if (buffer.getInt() != FILE_MAGIC) return false;
+            buffer.get(saved);
+            if (!MessageDigest.isEqual(saved, digest)) return false;
+            int memberCount = buffer.getInt(), nodeCount = buffer.getInt();
+            if (memberCount != members.size() || (nodeCount == 0) != members.isEmpty()
+                    || buffer.limit() != FILE_HEADER_SIZE + (long) nodeCount * FILE_NODE_SIZE) return false;
+
+            // The nodes are saved in pre-order, so the children of a node follow it
+            TreeNode[] nodes = new TreeNode[nodeCount];
+            for (int k = nodeCount - 1; k >= 0; --k) {
+                int position = FILE_HEADER_SIZE + k * FILE_NODE_SIZE;
+                BoundingBox box = new BoundingBox(buffer.getDouble(position), buffer.getDouble(position + 8),
+                        buffer.getDouble(position + 16), buffer.getDouble(position + 24),
+                        buffer.getDouble(position + 32), buffer.getDouble(position + 40));
+                int left = buffer.getInt(position + 48), right = buffer.getInt(position + 52);
+                if (left >= 0 && (left <= k || right <= k)) return false;
+                nodes[k] = left < 0 ? new TreeNode(members.get(~left)) : new TreeNode(box, nodes[left], nodes[right]);
+            }
+            root = nodeCount == 0 ? null : nodes[0];
+        } catch (IOException | RuntimeException e) {
+            return false; // a damaged file is rebuilt
+        }
+        builtCost = getCost();
+        return true;
+    }
+
+    /**
+     * Lists the nodes of a subtree in pre-order.
+     *
+     * @param node  the root of the subtree
+     * @param nodes the list of the nodes, appended in place
+     */
+    private static void flatten(TreeNode node, List<TreeNode> nodes) {
+        nodes.add(node);
+        if (node.member != null) return;
+        flatten(node.left, nodes);
+        flatten(node.right, nodes);
+    }
+
+    /**
+     * Lists the objects of the hierarchy - the bounded objects and then the unbounded ones.
+     *
+     * @return the objects
+     */
+    private List<Intersectable> objects() {
+        List<Intersectable> objects = new ArrayList<>(members);
+        objects.addAll(unbounded);
+        return objects;
+    }
+
+    /**
+     * Calculates the SHA-256 digest of the classes and the bounding boxes of the objects, in their
+     * order, and of the build method.
+     *
+     * @param objects  the objects
+     * @param parallel the build method of the tree
+     * @return the digest
+     */
+    private static byte[] contentDigest(List<Intersectable> objects, boolean parallel) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+        ByteBuffer box = ByteBuffer.allocate(Double.BYTES * 6);
+        digest.update((byte) (parallel ? 1 : 0));
+        for (Intersectable object : objects) {
+            digest.update(object.getClass().getName().getBytes(StandardCharsets.UTF_8));
+            BoundingBox bounds = object.getBoundingBox();
+            if (bounds == null) continue;
+            box.clear();
+            for (int axis = 0; axis < 3; ++axis) box.putDouble(bounds.getMin(axis));
+            for (int axis = 0; axis < 3; ++axis) box.putDouble(bounds.getMax(axis));
+            digest.update(box.array());
+        }
+        return digest.digest();
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return root == null || !unbounded.isEmpty() ? null : root.box;
+    }
+
+    @Override
+    protected List<Intersection> calculateIntersectionsHelper(Ray ray) {
+        List<Intersection> intersections = null;
+        for (Intersectable geometry : unbounded)
+            intersections = addAll(intersections, geometry.calculateIntersectionsHelper(ray));
+        if (root != null) intersections = traverse(root, ray, intersections);
+        return intersections;
+    }
+
+    /**
+     * Intersects a ray with the objects of a subtree whose boxes it crosses.
+     *
+     * @param node          the root of the subtree
+     * @param ray           the ray
+     * @param intersections the intersections found so far, null if there are none
+     * @return the intersections found so far, null if there are none
+     */
+    private static List<Intersection> traverse(TreeNode node, Ray ray, List<Intersection> intersections) {
+        if (!node.box.intersects(ray)) return intersections;
+        if (node.member != null) return addAll(intersections, node.member.calculateIntersectionsHelper(ray));
+        return traverse(node.right, ray, traverse(node.left, ray, intersections));
+    }
+
+    /**
+     * Appends intersections to a list, creating the list when needed.
+     *
+     * @param intersections the list, null if there are no intersections yet
+     * @param found         the intersections to append, null if there are none
+     * @return the list, null if both are empty
+     */
+    private static List<Intersection> addAll(List<Intersection> intersections, List<Intersection> found) {
+        if (found == null) return intersections;
+        if (intersections == null) intersections = new LinkedList<>();
+        intersections.addAll(found);
+        return intersections;
+    }
+}
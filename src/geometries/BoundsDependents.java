@@ -0,0 +1,32 @@
+package geometries;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * The composites whose cached bounding boxes depend on the bounding box of an object whose bounds
+ * may change - a scene graph node, or a collection or an instance that may hold one. When the box
+ * of the object changes, the cached boxes of all its dependents are invalidated, and so on upward
+ * through their own dependents, up to the collection of the scene.
+ */
+final class BoundsDependents {
+    /** The dependents, compared by identity */
+    private final Set<Intersectable> dependents = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Adds a dependent.
+     *
+     * @param dependent the composite whose cached box depends on the object
+     */
+    void add(Intersectable dependent) {
+        dependents.add(dependent);
+    }
+
+    /**
+     * Invalidates the cached boxes of all the dependents.
+     */
+    void invalidate() {
+        for (Intersectable dependent : dependents) dependent.invalidateBoundingBox();
+    }
+}
@@ -1,5 +1,6 @@
 package geometries;
 
+import primitives.BoundingBox;
 import primitives.Point;
 import primitives.Vector;
 import primitives.Ray;
@@ -13,6 +14,10 @@ public class Cylinder extends Tube {
      * The height of the cylinder.
      */
     private final double height;
+    /**
+     * The bounding box of the cylinder - the box of the spheres around its two bases.
+     */
+    private final BoundingBox boundingBox;
 
     /**
      * Constructs a cylinder with the given radius, central axis, and height.
@@ -24,6 +29,16 @@ public class Cylinder extends Tube {
     public Cylinder(double radius, Ray axis, double height) {
         super(radius, axis);
         this.height = height;
+        Vector diagonal = new Vector(radius, radius, radius);
+        Point base = axis.getHead();
+        Point top = axis.getPoint(height);
+        this.boundingBox = BoundingBox.of(base.add(diagonal.scale(-1)), base.add(diagonal))
+                .union(BoundingBox.of(top.add(diagonal.scale(-1)), top.add(diagonal)));
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return boundingBox;
     }
 
     public Vector getNormal(Point p){
@@ -1,8 +1,11 @@
 package geometries;
 
+import primitives.BoundingBox;
 import primitives.Point;
 import primitives.Ray;
+import primitives.RayPacket;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -19,6 +22,18 @@ public class Geometries extends Intersectable{
      * A list containing all the geometries in the collection.
      */
     List<Intersectable> geometries= new LinkedList<Intersectable>();
+    /**
+     * The cached bounding box of the collection, null if it is unbounded or not calculated yet.
+     */
+    private BoundingBox boundingBox = null;
+    /**
+     * Whether the cached bounding box is up to date.
+     */
+    private boolean boundingBoxValid = false;
+    /**
+     * The composites whose cached boxes depend on the box of the collection, null if there are none.
+     */
+    private BoundsDependents dependents = null;
     /**
      * Default constructor that initializes an empty collection of geometries.
      */
@@ -39,12 +54,61 @@ public class Geometries extends Intersectable{
      */
     public void add(Intersectable... geometries) {
         Collections.addAll(this.geometries, geometries); //add all the geometries to the list
+        for (Intersectable geometry : geometries)
+            geometry.addDependent(this); // e.g. a moved node invalidates the cached box
+        invalidateBoundingBox();
+    }
+
+    /**
+     * Getter for the members of the collection.
+     *
+     * @return an unmodifiable view of the members
+     */
+    public List<Intersectable> getGeometries() {
+        return Collections.unmodifiableList(geometries);
+    }
+
+    @Override
+    void addDependent(Intersectable dependent) {
+        if (dependents == null) dependents = new BoundsDependents();
+        dependents.add(dependent);
+    }
+
+    /**
+     * Marks the cached bounding box as out of date, after a member has changed its bounds
+     * (e.g. a scene-graph node that was moved), together with the boxes of the collections
+     * and the nodes that hold the collection.
+     */
+    @Override
+    void invalidateBoundingBox() {
+        boundingBoxValid = false;
+        if (dependents != null) dependents.invalidate();
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        if (!boundingBoxValid) {
+            BoundingBox box = null;
+            for (Intersectable geometry : geometries) {
+                BoundingBox geoBox = geometry.getBoundingBox();
+                if (geoBox == null) { // an unbounded member makes the whole collection unbounded
+                    box = null;
+                    break;
+                }
+                box = box == null ? geoBox : box.union(geoBox);
+            }
+            boundingBox = box;
+            boundingBoxValid = true;
+        }
+        return boundingBox;
     }
 
     @Override
     public List<Intersection> calculateIntersectionsHelper(Ray ray) {
         List<Intersection> intersections = null;
         for (Intersectable geometry : geometries) {
+            BoundingBox box = geometry.getBoundingBox();
+            if (box != null && !box.intersects(ray)) continue; // the ray misses the member's box
             List<Intersection> geoIntersections = geometry.calculateIntersectionsHelper(ray);
             if (geoIntersections != null) {
                 if (intersections == null) {
@@ -55,6 +119,46 @@ public class Geometries extends Intersectable{
         }
         return intersections;
     }
+
+    @Override
+    public List<List<Intersection>> calculateIntersections(Ray[] rays) {
+        // Geometry-major traversal: each member is visited once for the whole batch
+        List<List<Intersection>> batch = new ArrayList<>(Collections.nCopies(rays.length, null));
+        for (Intersectable geometry : geometries) {
+            List<List<Intersection>> geoBatch = geometry.calculateIntersections(rays);
+            for (int i = 0; i < rays.length; ++i) {
+                List<Intersection> geoIntersections = geoBatch.get(i);
+                if (geoIntersections != null) {
+                    if (batch.get(i) == null) {
+                        batch.set(i, new LinkedList<>());
+                    }
+                    batch.get(i).addAll(geoIntersections);
+                }
+            }
+        }
+        return batch;
+    }
+
+    @Override
+    public List<List<Intersection>> calculateIntersections(RayPacket packet) {
+        List<List<Intersection>> batch = new ArrayList<>(Collections.nCopies(packet.size(), null));
+        for (Intersectable geometry : geometries) {
+            // A coherent packet rejects the member's box with a single test for all its rays
+            BoundingBox box = geometry.getBoundingBox();
+            if (box != null && packet.isCoherent() && !box.mayIntersect(packet)) continue;
+            List<List<Intersection>> geoBatch = geometry.calculateIntersections(packet);
+            for (int i = 0; i < packet.size(); ++i) {
+                List<Intersection> geoIntersections = geoBatch.get(i);
+                if (geoIntersections != null) {
+                    if (batch.get(i) == null) {
+                        batch.set(i, new LinkedList<>());
+                    }
+                    batch.get(i).addAll(geoIntersections);
+                }
+            }
+        }
+        return batch;
+    }
 }
 
 
@@ -4,7 +4,7 @@ import primitives.Point;
 import primitives.Vector;
 import primitives.Color;
 import primitives.Material;
-import primitives.Color;
+import primitives.MaterialRegistry;
 
 
 /**
@@ -12,8 +12,8 @@ import primitives.Color;
  */
 public abstract class Geometry extends Intersectable {
 
-    protected Color emission= new Color(java.awt.Color.BLACK);
-    private Material material= new Material();
+    protected Color emission= Color.BLACK;
+    private Material material= MaterialRegistry.DEFAULT_MATERIAL;
 
     /**
      * Computes and returns the normal vector to the geometry at a given point.
@@ -22,6 +22,29 @@ public abstract class Geometry extends Intersectable {
      */
     public abstract Vector getNormal(Point p);
 
+    /**
+     * Computes and returns the normal vector to the geometry at an intersection point. The normal
+     * is found only for the intersections that are shaded, not for every hit that is found.
+     * The default implementation finds it by the point; a mesh finds it by the triangle of the hit.
+     * @param intersection An intersection of the geometry, found in the space of the geometry.
+     * @return The normal vector to the geometry at the intersection.
+     */
+    public Vector getNormal(Intersection intersection) {
+        return getNormal(intersection.point());
+    }
+
+    /**
+     * Finds the geometric normal of the surface at an intersection point, when it differs from
+     * the shading normal of {@link #getNormal(Intersection)} - e.g. the normal of the triangle of a
+     * smooth shaded mesh, whose shading normal is interpolated. The geometric normal is used to
+     * offset the secondary rays and to tell the sides of the surface apart.
+     * @param intersection An intersection of the geometry, found in the space of the geometry.
+     * @return The geometric normal at the intersection, or null if it is the shading normal.
+     */
+    public Vector getGeometricNormal(Intersection intersection) {
+        return null;
+    }
+
     /**
      * Getter for the emission color of the geometry
      * @return The emission color of the geometry
@@ -31,17 +54,19 @@ public abstract class Geometry extends Intersectable {
     }
 
     /**
-     * Setter for the emission color of the geometry
+     * Setter for the emission color of the geometry.
+     * The geometry keeps the shared instance of the color from the {@link MaterialRegistry}.
      * @param emission The emission color of the geometry
      * @return The geometry object
      */
     public Geometry setEmission(Color emission) {
-        this.emission = emission;
+        this.emission = MaterialRegistry.intern(emission);
         return this;
     }
 
     /**
-     * Getter for the material of the geometry
+     * Getter for the material of the geometry - the shared frozen material from the
+     * {@link MaterialRegistry}, which must not be changed.
      * @return The material of the geometry
      */
     public Material getMaterial() {
@@ -49,12 +74,14 @@ public abstract class Geometry extends Intersectable {
     }
 
     /**
-     * Setter for the material of the geometry
+     * Setter for the material of the geometry.
+     * The geometry keeps the shared frozen copy of the material from the {@link MaterialRegistry},
+     * so changing the given material afterwards does not change the geometry.
      * @param material The material of the geometry
      * @return The geometry object
      */
     public Geometry setMaterial(Material material) {
-        this.material = material;
+        this.material = MaterialRegistry.intern(material);
         return this;
     }
 }
\ No newline at end of file
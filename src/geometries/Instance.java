@@ -0,0 +1,126 @@
+package geometries;
+
+import primitives.BoundingBox;
+import primitives.Ray;
+import primitives.Transform;
+import primitives.Vector;
+
+import java.util.List;
+
+/**
+ * The Instance class represents a placed copy of a shared prototype (usually a {@link Geometries}
+ * collection of a whole model) through an affine transform. Many instances may reference the same
+ * prototype, so the memory scales with the unique models rather than with the placed copies, and
+ * the scene collection holds a single bounded member for each copy.
+ * <p>
+ * The prototype is never transformed: the ray is moved into the object space of the prototype by
+ * the inverse transform, and the intersection points are moved back into the world space. The
+ * normal is found at the point in the object space, transformed by the inverse transpose of the
+ * matrix and set in the intersection. The intersection refers to the geometry of the prototype,
+ * so the copies share its emission and material.
+ * </p>
+ */
+public class Instance extends Intersectable {
+    /** The shared prototype, in its object space */
+    private final Intersectable prototype;
+    /** The transform from the object space of the prototype to the world space */
+    private final Transform transform;
+    /** The cached world space bounding box of the instance, null if the prototype is unbounded */
+    private BoundingBox boundingBox = null;
+    /** Whether the cached bounding box is up to date with the box of the prototype */
+    private boolean boundingBoxValid = false;
+    /** The composites whose cached boxes depend on the box of the instance, null if there are none */
+    private BoundsDependents dependents = null;
+
+    /**
+     * Constructs an instance of a prototype.
+     *
+     * @param prototype the shared prototype, in its object space
+     * @param transform the transform from the object space of the prototype to the world space
+     */
+    public Instance(Intersectable prototype, Transform transform) {
+        this.prototype = prototype;
+        this.transform = transform;
+        prototype.addDependent(this); // e.g. a prototype node that is moved changes the box
+    }
+
+    /**
+     * Getter for the shared prototype.
+     *
+     * @return the prototype, in its object space
+     */
+    public Intersectable getPrototype() {
+        return prototype;
+    }
+
+    /**
+     * Getter for the transform of the instance.
+     *
+     * @return the transform from the object space of the prototype to the world space
+     */
+    public Transform getTransform() {
+        return transform;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        if (!boundingBoxValid) {
+            boundingBox = transform.transform(prototype.getBoundingBox());
+            boundingBoxValid = true;
+        }
+        return boundingBox;
+    }
+
+    @Override
+    void addDependent(Intersectable dependent) {
+        if (dependents == null) dependents = new BoundsDependents();
+        dependents.add(dependent);
+    }
+
+    @Override
+    void invalidateBoundingBox() {
+        boundingBoxValid = false;
+        if (dependents != null) dependents.invalidate();
+    }
+
+    @Override
+    protected List<Intersection> calculateIntersectionsHelper(Ray ray) {
+        return intersectTransformed(prototype, transform, ray);
+    }
+
+    /**
+     * Intersects a ray with an object placed through a transform. The ray is moved into the
+     * object space, and the intersections are moved back with their normals.
+     *
+     * @param object    the object, in its object space
+     * @param transform the transform from the object space to the space of the ray
+     * @param ray       the ray
+     * @return the intersections in the space of the ray, or null if there are none
+     */
+    static List<Intersection> intersectTransformed(Intersectable object, Transform transform, Ray ray) {
+        Vector objectDirection = transform.inverseTransform(ray.getDirection());
+        Ray objectRay = new Ray(transform.inverseTransform(ray.getHead()), objectDirection, ray.getTime());
+        // The object space distance along the ray of a unit of distance in the space of the ray
+        double scale = objectDirection.length();
+        BoundingBox box = object.getBoundingBox();
+        if (box != null && !box.intersects(objectRay)) return null;
+        List<Intersection> intersections = object.calculateIntersectionsHelper(objectRay);
+        if (intersections == null) return null;
+        return intersections.stream().map(intersection -> {
+            Intersection placed = Double.isNaN(intersection.t)
+                    ? new Intersection(intersection.geometry, transform.transform(intersection.point()))
+                    : new Intersection(intersection.geometry, ray, intersection.t / scale);
+            placed.transformed = true;
+            placed.primitive = intersection.primitive;
+            placed.beta = intersection.beta;
+            placed.gamma = intersection.gamma;
+            // A nested instance or a moving geometry has already found the normal in its own space
+            placed.normal = transform.transformNormal(intersection.normal != null ? intersection.normal
+                    : intersection.geometry.getNormal(intersection));
+            Vector geometricNormal = intersection.normal != null ? intersection.geometricNormal
+                    : intersection.geometry.getGeometricNormal(intersection);
+            if (geometricNormal != null) placed.geometricNormal = transform.transformNormal(geometricNormal);
+            return placed;
+        }).toList();
+    }
+}
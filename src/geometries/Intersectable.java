@@ -2,8 +2,8 @@ package geometries;
 
 import primitives.*;
 
+import java.util.ArrayList;
 import java.util.List;
-import lighting.LightSource;
 
 /**
  * Abstract class representing an object in the scene that can be intersected by a ray.
@@ -18,37 +18,80 @@ public abstract class Intersectable {
      */
     public final List<Point> findIntersections(Ray ray) {
         var list = calculateIntersections(ray);
-        return list == null ? null : list.stream().map(intersection -> intersection.point).toList();
+        return list == null ? null : list.stream().map(Intersection::point).toList();
     }
     /**
-     * Represents an intersection between a ray and a geometry,
-     * including additional data used for shading calculations.
+     * Represents an intersection between a ray and a geometry. It holds only the data of the hit;
+     * the values that are derived from it for the shading are kept by the ray tracer.
+     * <p>
+     * A geometry creates an intersection from its ray and the distance of the hit along it, and the
+     * point is calculated only when it is first requested. Most of the intersections that are
+     * found lose the closest hit comparison, which needs only the distance, so they never create
+     * their points. A mesh also keeps the triangle and the barycentric coordinates of the hit,
+     * so that its normal is found only for the intersection that is shaded.
+     * </p>
      */
     public static class Intersection {
         public final Geometry geometry;
-        public final Point point;
-        public final Material material;
-        public Vector normal;
-        public Vector v;
-        public double vNormal;
-        public LightSource light;
-        public Vector l;
-        public double lNormal;
+        public final double t; // the distance of the hit along the ray that found it, NaN if unknown
+        public int primitive = -1; // the triangle of a mesh hit, -1 for other geometries
+        public double beta; // the barycentric coordinate of the second vertex of the mesh triangle
+        public double gamma; // the barycentric coordinate of the third vertex of the mesh triangle
+        public Vector normal; // the normal found by a transforming geometry, null to ask the intersected geometry
+        public Vector geometricNormal; // the geometric normal found with the normal, null if it is the normal
+        public boolean transformed; // found through an instance transform, not in the space of the geometry
+        /** The ray that found the intersection, null if the point was given */
+        private final Ray ray;
+        /** The intersection point, null until it is calculated */
+        private Point point;
 
         /**
-         * Constructs an `Intersection` object with the specified geometry and point.
+         * Constructs an `Intersection` object with the specified geometry and point,
+         * whose distance along the ray is unknown.
          *
          * @param geometry The geometry that was intersected.
          * @param point    The intersection point on the geometry.
          */
         public Intersection(Geometry geometry, Point point) {
+            this(geometry, null, Double.NaN, point);
+        }
+
+        /**
+         * Constructs an `Intersection` object at a distance along a ray. The point is
+         * calculated when it is first requested.
+         *
+         * @param geometry The geometry that was intersected.
+         * @param ray      The ray that intersected the geometry.
+         * @param t        The distance of the intersection along the ray.
+         */
+        public Intersection(Geometry geometry, Ray ray, double t) {
+            this(geometry, ray, t, null);
+        }
+
+        /**
+         * Constructs an `Intersection` object at a distance along a ray, with its point
+         * that was already calculated.
+         *
+         * @param geometry The geometry that was intersected.
+         * @param ray      The ray that intersected the geometry, may be null if the point is given.
+         * @param t        The distance of the intersection along the ray.
+         * @param point    The intersection point, or null to calculate it when requested.
+         */
+        public Intersection(Geometry geometry, Ray ray, double t, Point point) {
             this.geometry = geometry;
+            this.ray = ray;
+            this.t = t;
             this.point = point;
-            if (geometry != null) {
-                this.material = geometry.getMaterial();
-            } else {
-                this.material = null;
-            }
+        }
+
+        /**
+         * Getter for the intersection point, calculated from the ray at the first call.
+         *
+         * @return The intersection point.
+         */
+        public Point point() {
+            if (point == null) point = ray.getPoint(t);
+            return point;
         }
 
         /**
@@ -65,7 +108,7 @@ public abstract class Intersectable {
             if (this == o) return true;
             if (!(o instanceof Intersection)) return false;
             return ((Intersection) o).geometry == geometry &&
-                    ((Intersection) o).point.equals(point);
+                    ((Intersection) o).point().equals(point());
         }
 
         /**
@@ -77,7 +120,7 @@ public abstract class Intersectable {
         public String toString() {
             return "Intersection{" +
                     "geometry=" + geometry +
-                    ", point=" + point +
+                    ", point=" + point() +
                     '}';
         }
     }
@@ -100,4 +143,65 @@ public abstract class Intersectable {
     public final List<Intersection> calculateIntersections(Ray ray){
         return calculateIntersectionsHelper(ray);
     }
+
+    /**
+     * Getter for the axis-aligned bounding box of the intersectable object.
+     *
+     * @return the bounding box, or null if the object is unbounded (e.g. a plane)
+     */
+    public BoundingBox getBoundingBox() {
+        return null;
+    }
+
+    /**
+     * Registers a composite whose cached bounding box depends on the box of this object, e.g. a
+     * collection that holds it. Only the objects whose bounds may change keep their dependents;
+     * the default does nothing.
+     *
+     * @param dependent the composite
+     */
+    void addDependent(Intersectable dependent) {
+    }
+
+    /**
+     * Marks the cached bounding box of the object, and those of its dependents, as out of date
+     * after the bounds have changed. The default does nothing, as the object caches no box.
+     */
+    void invalidateBoundingBox() {
+    }
+
+    /**
+     * Computes intersection data for a packet of rays.
+     * The default implementation tests the rays one by one, skipping the rays
+     * that miss the bounding box of the object.
+     *
+     * @param packet The ray packet to test for intersection.
+     * @return A list of the intersection lists of the packet rays, in the order of the rays
+     *         (an element is null if the appropriate ray has no intersections).
+     */
+    public List<List<Intersection>> calculateIntersections(RayPacket packet) {
+        BoundingBox box = getBoundingBox();
+        List<List<Intersection>> batch = new ArrayList<>(packet.size());
+        for (Ray ray : packet.getRays())
+            batch.add(box == null || box.intersects(ray) ? calculateIntersectionsHelper(ray) : null);
+        return batch;
+    }
+
+    /**
+     * Computes intersection data for a batch of rays.
+     * The default implementation intersects the rays one by one, skipping the rays that
+     * miss the bounding box; composite geometries override it to traverse their members
+     * once for the whole batch.
+     *
+     * @param rays The rays to test for intersection.
+     * @return A list of the intersection lists of the rays, in the order of the rays
+     *         (an element is null if the appropriate ray has no intersections).
+     */
+    public List<List<Intersection>> calculateIntersections(Ray[] rays) {
+        BoundingBox box = getBoundingBox();
+        List<List<Intersection>> batch = new ArrayList<>(rays.length);
+        for (Ray ray : rays)
+            batch.add(box == null || box.intersects(ray) ? calculateIntersectionsHelper(ray) : null);
+        return batch;
+    }
 }
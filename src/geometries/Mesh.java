@@ -0,0 +1,949 @@
+package geometries;
+
+import primitives.BoundingBox;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.nio.Buffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+
+/**
+ * The Mesh class represents a triangle mesh stored in compact buffers - the coordinates of the
+ * vertices and three vertex indices for every triangle - instead of an object for every triangle
+ * and point. Several meshes (e.g. the material groups of a loaded model) may share the same
+ * vertex buffer. The buffers are read by absolute positions from 0 to their limits, so they may
+ * wrap heap arrays or be mapped straight from a file (see {@link scene.SceneFile}).
+ * <p>
+ * The mesh keeps its own bounding volume hierarchy of its triangles, also in flat buffers: the
+ * nodes are laid out depth first, so the first child of an inner node follows it, and every leaf
+ * refers to a range of a permutation of the triangles. The tree is built by splitting the
+ * triangles at the median of their centers along the longest axis, and the large subtrees are
+ * built in parallel; a hierarchy that was built before may be given instead. The buffers may
+ * also be allocated off the heap (see {@link OffHeap}), so that large meshes do not load the
+ * garbage collector. The intersections keep their triangles and barycentric coordinates, and the
+ * normal of the triangle is found only for an intersection that is shaded (see
+ * {@link #getNormal(Intersection)}), like a flat {@link Triangle}. Unlike a separate triangle, a
+ * triangle of a mesh includes its edges and its vertices, within the {@link primitives.Util#alignZero(double)}
+ * tolerance of the barycentric coordinates, so that the mesh has no holes along the edges that its
+ * triangles share; a ray through a shared edge or vertex finds the mesh once.
+ * </p>
+ * <p>
+ * The coordinates of the vertices and of the hierarchy may be stored in single precision (see
+ * {@link Precision}), which halves the memory and the memory bandwidth of the largest buffers.
+ * The bounds of the hierarchy are rounded outwards, so they still contain their triangles, and
+ * the intersections are calculated in double precision from the stored coordinates. The
+ * widening is exact, so the triangles that share an edge see exactly the same edge, and the
+ * inclusive edge test keeps the mesh watertight in both precisions.
+ * </p>
+ * <p>
+ * A mesh may be smooth shaded by vertex normals (see {@link #setNormals(DoubleBuffer, IntBuffer)}
+ * and {@link #setSmoothNormals()}): the normal at an intersection is interpolated from the normals
+ * of the corners of its triangle by the barycentric coordinates of the hit, so a curved surface
+ * looks smooth with far fewer triangles. The normals have three normal indices for every
+ * triangle, like the vertices, so a corner on a crease may have a different normal in each of
+ * its triangles.
+ * </p>
+ */
+public class Mesh extends Geometry {
+    /** The maximal number of triangles in a leaf of the hierarchy */
+    private static final int LEAF_SIZE = 4;
+    /** The minimal number of triangles of a subtree that is built by a separate task */
+    private static final int PARALLEL_BUILD_SIZE = 1 << 15;
+    /** The maximal depth of the hierarchy traversal stack */
+    private static final int STACK_SIZE = 64;
+    /** Tolerance of the slab tests, so that flat boxes and box faces are still hit */
+    private static final double EPSILON = 1e-7;
+
+    /**
+     * The bounding volume hierarchy of the triangles of a mesh, in flat buffers.
+     *
+     * @param bounds the minimal and maximal coordinates of the nodes, six for every node - a
+     *               {@link DoubleBuffer}, or a {@link FloatBuffer} for a single precision mesh
+     * @param nodes  two numbers for every node: for a leaf - its first position in the order and
+     *               the number of its triangles, for an inner node - the index of its second
+     *               child and 0
+     * @param order  the triangles in the order of the leaves
+     */
+    public record Hierarchy(Buffer bounds, IntBuffer nodes, IntBuffer order) {
+        /**
+         * Checks the type of the bounds.
+         *
+         * @throws IllegalArgumentException if the bounds are neither doubles nor floats
+         */
+        public Hierarchy {
+            if (!(bounds instanceof DoubleBuffer) && !(bounds instanceof FloatBuffer))
+                throw new IllegalArgumentException("The bounds must be doubles or floats");
+        }
+    }
+
+    /** The coordinates of the vertices, three for every vertex, or null in single precision */
+    private final DoubleBuffer vertices;
+    /** The coordinates of the vertices, three for every vertex, or null in double precision */
+    private final FloatBuffer floatVertices;
+    /** The vertex indices of the triangles, three for every triangle */
+    private final IntBuffer indices;
+    /** The number of triangles */
+    private final int size;
+    /** The bounding volume hierarchy of the triangles */
+    private final Hierarchy hierarchy;
+    /** The minimal and maximal coordinates of the nodes, six for every node, or null in single precision */
+    private final DoubleBuffer nodeBounds;
+    /** The minimal and maximal coordinates of the nodes, six for every node, or null in double precision */
+    private final FloatBuffer floatBounds;
+    /** The first position or the second child, and the number of triangles, of every node */
+    private final IntBuffer nodes;
+    /** The triangles in the order of the leaves of the hierarchy */
+    private final IntBuffer order;
+    /** The bounding box of the mesh */
+    private final BoundingBox boundingBox;
+    /** The coordinates of the vertex normals, three for every normal, or null in single precision or for flat shading */
+    private DoubleBuffer normals = null;
+    /** The coordinates of the vertex normals, three for every normal, or null in double precision or for flat shading */
+    private FloatBuffer floatNormals = null;
+    /** The normal indices of the corners of the triangles, three for every triangle, or null for flat shading */
+    private IntBuffer normalIndices = null;
+
+    /**
+     * Constructs a mesh from its arrays. The arrays are kept, not copied.
+     *
+     * @param vertices the coordinates of the vertices, three for every vertex
+     * @param indices  the vertex indices of the triangles, three for every triangle
+     * @throws IllegalArgumentException if there are no triangles or an index is out of range
+     */
+    public Mesh(double[] vertices, int[] indices) {
+        this(DoubleBuffer.wrap(vertices), IntBuffer.wrap(indices));
+    }
+
+    /**
+     * Constructs a single precision mesh from its arrays. The arrays are kept, not copied.
+     *
+     * @param vertices the coordinates of the vertices, three for every vertex
+     * @param indices  the vertex indices of the triangles, three for every triangle
+     * @throws IllegalArgumentException if there are no triangles or an index is out of range
+     */
+    public Mesh(float[] vertices, int[] indices) {
+        this(FloatBuffer.wrap(vertices), IntBuffer.wrap(indices));
+    }
+
+    /**
+     * Constructs a mesh from its buffers and builds its hierarchy. The buffers are kept, not copied.
+     *
+     * @param vertices the coordinates of the vertices, three for every vertex
+     * @param indices  the vertex indices of the triangles, three for every triangle
+     * @throws IllegalArgumentException if there are no triangles or an index is out of range
+     */
+    public Mesh(DoubleBuffer vertices, IntBuffer indices) {
+        this(vertices, indices, buildHierarchy(vertices, indices));
+    }
+
+    /**
+     * Constructs a single precision mesh from its buffers and builds its hierarchy. The buffers
+     * are kept, not copied.
+     *
+     * @param vertices the coordinates of the vertices, three for every vertex
+     * @param indices  the vertex indices of the triangles, three for every triangle
+     * @throws IllegalArgumentException if there are no triangles or an index is out of range
+     */
+    public Mesh(FloatBuffer vertices, IntBuffer indices) {
+        this(vertices, indices, buildHierarchy(vertices, indices));
+    }
+
+    /**
+     * Constructs a mesh from its buffers and a hierarchy that was built before for the same
+     * triangles. The buffers are kept, not copied, and only their sizes are checked, so that the
+     * buffers of a mapped file are not read before they are needed.
+     *
+     * @param vertices  the coordinates of the vertices, three for every vertex
+     * @param indices   the vertex indices of the triangles, three for every triangle
+     * @param hierarchy the hierarchy of the triangles
+     * @throws IllegalArgumentException if there are no triangles or the sizes do not match
+     */
+    public Mesh(DoubleBuffer vertices, IntBuffer indices, Hierarchy hierarchy) {
+        this((Buffer) vertices, indices, hierarchy);
+    }
+
+    /**
+     * Constructs a single precision mesh from its buffers and a hierarchy that was built before
+     * for the same triangles, with single precision bounds. The buffers are kept, not copied, and
+     * only their sizes are checked.
+     *
+     * @param vertices  the coordinates of the vertices, three for every vertex
+     * @param indices   the vertex indices of the triangles, three for every triangle
+     * @param hierarchy the hierarchy of the triangles
+     * @throws IllegalArgumentException if there are no triangles or the sizes or the precisions do not match
+     */
+    public Mesh(FloatBuffer vertices, IntBuffer indices, Hierarchy hierarchy) {
+        this((Buffer) vertices, indices, hierarchy);
+    }
+
+    /**
+     * Constructs a mesh of either precision from its buffers and its hierarchy.
+     *
+     * @param vertices  the coordinates of the vertices - doubles or floats
+     * @param indices   the vertex indices of the triangles
+     * @param hierarchy the hierarchy of the triangles, with bounds of the same precision
+     * @throws IllegalArgumentException if there are no triangles or the sizes or the precisions do not match
+     */
+    private Mesh(Buffer vertices, IntBuffer indices, Hierarchy hierarchy) {
+        checkSizes(vertices, indices);
+        if ((vertices instanceof FloatBuffer) != (hierarchy.bounds instanceof FloatBuffer))
+            throw new IllegalArgumentException("The hierarchy must have the precision of the vertices");
+        this.vertices = vertices instanceof DoubleBuffer doubles ? doubles : null;
+        this.floatVertices = vertices instanceof FloatBuffer floats ? floats : null;
+        this.indices = indices;
+        this.size = indices.limit() / 3;
+        int nodeTotal = nodeTotal(size);
+        if (hierarchy.bounds.limit() != nodeTotal * 6 || hierarchy.nodes.limit() != nodeTotal * 2
+                || hierarchy.order.limit() != size)
+            throw new IllegalArgumentException("The hierarchy does not match the triangles");
+        this.hierarchy = hierarchy;
+        this.nodeBounds = hierarchy.bounds instanceof DoubleBuffer doubles ? doubles : null;
+        this.floatBounds = hierarchy.bounds instanceof FloatBuffer floats ? floats : null;
+        this.nodes = hierarchy.nodes;
+        this.order = hierarchy.order;
+        this.boundingBox = new BoundingBox(bound(0), bound(1), bound(2), bound(3), bound(4), bound(5));
+    }
+
+    /**
+     * Checks the sizes of the buffers of a mesh.
+     *
+     * @param vertices the coordinates of the vertices
+     * @param indices  the vertex indices of the triangles
+     * @throws IllegalArgumentException if there are no triangles or the sizes are not multiples of 3
+     */
+    private static void checkSizes(Buffer vertices, IntBuffer indices) {
+        if (vertices.limit() % 3 != 0) throw new IllegalArgumentException("Vertex coordinates must come in triples");
+        if (indices.limit() == 0 || indices.limit() % 3 != 0)
+            throw new IllegalArgumentException("A mesh must have triangles of three vertex indices");
+    }
+
+    /**
+     * Creates a copy of the mesh whose vertices, indices, normals and hierarchy are stored off the
+     * heap (see {@link OffHeap}), with the same material and emission color. The meshes that share
+     * a vertex buffer should rather be loaded off the heap (see {@link scene.MeshLoader#setOffHeap}),
+     * so that they still share it.
+     *
+     * @return the off-heap copy
+     */
+    public Mesh toOffHeap() {
+        Mesh copy = vertices != null
+                ? new Mesh(OffHeap.copy(vertices), OffHeap.copy(indices), new Hierarchy(
+                OffHeap.copy(nodeBounds), OffHeap.copy(nodes), OffHeap.copy(order)))
+                : new Mesh(OffHeap.copy(floatVertices), OffHeap.copy(indices), new Hierarchy(
+                OffHeap.copy(floatBounds), OffHeap.copy(nodes), OffHeap.copy(order)));
+        if (normalIndices != null) {
+            IntBuffer copyIndices = normalIndices == indices ? copy.indices : OffHeap.copy(normalIndices);
+            if (normals != null) copy.setNormals(OffHeap.copy(normals), copyIndices);
+            else copy.setNormals(OffHeap.copy(floatNormals), copyIndices);
+        }
+        copy.setMaterial(getMaterial()).setEmission(getEmission());
+        return copy;
+    }
+
+    /**
+     * Creates a copy of the mesh whose coordinates and normals are stored in another precision, with
+     * the same material and emission color. The copy shares the indices and the hierarchy nodes with
+     * the mesh, and its buffers are in the same kind of memory as those of the mesh. The bounds of the
+     * hierarchy are converted, rounded outwards, instead of rebuilding the hierarchy. The meshes
+     * that share a vertex buffer should rather be loaded in the precision (see
+     * {@link scene.MeshLoader#setPrecision}), so that they still share it.
+     *
+     * @param precision the precision of the copy
+     * @return the copy, or this mesh if it already has the precision
+     */
+    public Mesh toPrecision(Precision precision) {
+        if (precision == getPrecision()) return this;
+        boolean offHeap = indices.isDirect();
+        Mesh copy;
+        if (precision == Precision.FLOAT) {
+            FloatBuffer floats = offHeap ? OffHeap.floats(vertices.limit()) : FloatBuffer.allocate(vertices.limit());
+            for (int k = 0; k < vertices.limit(); ++k) floats.put(k, (float) vertices.get(k));
+            FloatBuffer bounds = offHeap ? OffHeap.floats(nodeBounds.limit()) : FloatBuffer.allocate(nodeBounds.limit());
+            for (int k = 0; k < nodeBounds.limit(); ++k)
+                bounds.put(k, k % 6 < 3 ? floorFloat(nodeBounds.get(k)) : ceilFloat(nodeBounds.get(k)));
+            copy = new Mesh(floats, indices, new Hierarchy(bounds, nodes, order));
+            if (normalIndices != null) {
+                FloatBuffer converted = offHeap ? OffHeap.floats(normals.limit()) : FloatBuffer.allocate(normals.limit());
+                for (int k = 0; k < normals.limit(); ++k) converted.put(k, (float) normals.get(k));
+                copy.setNormals(converted, normalIndices);
+            }
+        } else {
+            DoubleBuffer doubles = offHeap ? OffHeap.doubles(floatVertices.limit()) : DoubleBuffer.allocate(floatVertices.limit());
+            for (int k = 0; k < floatVertices.limit(); ++k) doubles.put(k, floatVertices.get(k));
+            DoubleBuffer bounds = offHeap ? OffHeap.doubles(floatBounds.limit()) : DoubleBuffer.allocate(floatBounds.limit());
+            for (int k = 0; k < floatBounds.limit(); ++k) bounds.put(k, floatBounds.get(k));
+            copy = new Mesh(doubles, indices, new Hierarchy(bounds, nodes, order));
+            if (normalIndices != null) {
+                DoubleBuffer converted = offHeap ? OffHeap.doubles(floatNormals.limit()) : DoubleBuffer.allocate(floatNormals.limit());
+                for (int k = 0; k < floatNormals.limit(); ++k) converted.put(k, floatNormals.get(k));
+                copy.setNormals(converted, normalIndices);
+            }
+        }
+        copy.setMaterial(getMaterial()).setEmission(getEmission());
+        return copy;
+    }
+
+    /**
+     * Rounds a coordinate down to single precision.
+     *
+     * @param value the coordinate
+     * @return the largest float that is not greater than the coordinate
+     */
+    private static float floorFloat(double value) {
+        float rounded = (float) value;
+        return rounded > value ? Math.nextDown(rounded) : rounded;
+    }
+
+    /**
+     * Rounds a coordinate up to single precision.
+     *
+     * @param value the coordinate
+     * @return the smallest float that is not less than the coordinate
+     */
+    private static float ceilFloat(double value) {
+        float rounded = (float) value;
+        return rounded < value ? Math.nextUp(rounded) : rounded;
+    }
+
+    /**
+     * Getter for the precision of the coordinates of the mesh.
+     *
+     * @return the precision
+     */
+    public Precision getPrecision() {
+        return vertices != null ? Precision.DOUBLE : Precision.FLOAT;
+    }
+
+    /**
+     * Getter for the number of the triangles of the mesh.
+     *
+     * @return the number of triangles
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Getter for the vertex buffer, which may be shared by other meshes. It must not be changed.
+     *
+     * @return the coordinates of the vertices, three for every vertex, or null for a single
+     *         precision mesh
+     */
+    public DoubleBuffer getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Getter for the single precision vertex buffer, which may be shared by other meshes. It must
+     * not be changed.
+     *
+     * @return the coordinates of the vertices, three for every vertex, or null for a double
+     *         precision mesh
+     */
+    public FloatBuffer getFloatVertices() {
+        return floatVertices;
+    }
+
+    /**
+     * Reads a coordinate of a vertex.
+     *
+     * @param k the position of the coordinate in the vertex buffer
+     * @return the coordinate
+     */
+    private double coordinate(int k) {
+        return vertices != null ? vertices.get(k) : floatVertices.get(k);
+    }
+
+    /**
+     * Reads a coordinate of the bounds of a node.
+     *
+     * @param k the position of the coordinate in the bounds buffer
+     * @return the coordinate
+     */
+    private double bound(int k) {
+        return nodeBounds != null ? nodeBounds.get(k) : floatBounds.get(k);
+    }
+
+    /**
+     * Getter for the index buffer. It must not be changed.
+     *
+     * @return the vertex indices of the triangles, three for every triangle
+     */
+    public IntBuffer getIndices() {
+        return indices;
+    }
+
+    /**
+     * Getter for the hierarchy of the triangles, e.g. to store it with the mesh. It must not be changed.
+     *
+     * @return the hierarchy
+     */
+    public Hierarchy getHierarchy() {
+        return hierarchy;
+    }
+
+    /**
+     * Sets the vertex normals of the mesh, for smooth shading. The buffers are kept, not copied,
+     * and may be shared by other meshes; the normals need not be normalized.
+     *
+     * @param normals       the coordinates of the normals, three for every normal
+     * @param normalIndices the normal indices of the corners of the triangles, three for every
+     *                      triangle in the order of the vertex indices, -1 for a corner without a
+     *                      normal - its triangle is shaded flat. It may be the index buffer, when
+     *                      every vertex has its own normal
+     * @return the mesh itself
+     * @throws IllegalArgumentException if the mesh is in single precision, or the sizes do not match
+     */
+    public Mesh setNormals(DoubleBuffer normals, IntBuffer normalIndices) {
+        if (vertices == null) throw new IllegalArgumentException("The normals must have the precision of the vertices");
+        checkNormals(normals, normalIndices);
+        this.normals = normals;
+        this.normalIndices = normalIndices;
+        return this;
+    }
+
+    /**
+     * Sets the single precision vertex normals of a single precision mesh, for smooth shading.
+     * The buffers are kept, not copied, and may be shared by other meshes; the normals need not be
+     * normalized.
+     *
+     * @param normals       the coordinates of the normals, three for every normal
+     * @param normalIndices the normal indices of the corners of the triangles, three for every
+     *                      triangle, -1 for a corner without a normal
+     * @return the mesh itself
+     * @throws IllegalArgumentException if the mesh is in double precision, or the sizes do not match
+     */
+    public Mesh setNormals(FloatBuffer normals, IntBuffer normalIndices) {
+        if (floatVertices == null) throw new IllegalArgumentException("The normals must have the precision of the vertices");
+        checkNormals(normals, normalIndices);
+        this.floatNormals = normals;
+        this.normalIndices = normalIndices;
+        return this;
+    }
+
+    /**
+     * Checks the sizes of the normal buffers of the mesh and the range of the normal indices.
+     *
+     * @param normals       the coordinates of the normals
+     * @param normalIndices the normal indices of the corners of the triangles
+     * @throws IllegalArgumentException if a buffer is null, the sizes do not match or an index is out of range
+     */
+    private void checkNormals(Buffer normals, IntBuffer normalIndices) {
+        if (normals == null || normalIndices == null) throw new IllegalArgumentException("Normals must not be null");
+        if (normals.limit() % 3 != 0) throw new IllegalArgumentException("Normal coordinates must come in triples");
+        if (normalIndices.limit() != indices.limit())
+            throw new IllegalArgumentException("Every corner of every triangle must have a normal index");
+        int normalCount = normals.limit() / 3;
+        for (int k = 0; k < normalIndices.limit(); ++k) {
+            int index = normalIndices.get(k);
+            if (index < -1 || index >= normalCount) throw new IllegalArgumentException("Normal index out of range");
+        }
+    }
+
+    /**
+     * Calculates a normal for every vertex of the mesh from its triangles - the sum of the normals
+     * of the triangles around the vertex, weighted by their areas - and sets them for smooth
+     * shading. The normals are stored in the precision and in the kind of memory of the vertices,
+     * and they are indexed by the vertex indices.
+     *
+     * @return the mesh itself
+     */
+    public Mesh setSmoothNormals() {
+        int count = vertices != null ? vertices.limit() : floatVertices.limit();
+        double[] sums = new double[count];
+        for (int triangle = 0; triangle < size; ++triangle) {
+            int a = indices.get(triangle * 3) * 3, b = indices.get(triangle * 3 + 1) * 3, c = indices.get(triangle * 3 + 2) * 3;
+            double ax = coordinate(a), ay = coordinate(a + 1), az = coordinate(a + 2);
+            double e1x = coordinate(b) - ax, e1y = coordinate(b + 1) - ay, e1z = coordinate(b + 2) - az;
+            double e2x = coordinate(c) - ax, e2y = coordinate(c + 1) - ay, e2z = coordinate(c + 2) - az;
+            // The length of the cross product is twice the area of the triangle
+            double nx = e1y * e2z - e1z * e2y, ny = e1z * e2x - e1x * e2z, nz = e1x * e2y - e1y * e2x;
+            addNormal(sums, a, nx, ny, nz);
+            addNormal(sums, b, nx, ny, nz);
+            addNormal(sums, c, nx, ny, nz);
+        }
+        boolean offHeap = indices.isDirect();
+        if (vertices != null) {
+            DoubleBuffer smooth = offHeap ? OffHeap.doubles(count) : DoubleBuffer.allocate(count);
+            smooth.put(sums).rewind();
+            return setNormals(smooth, indices);
+        }
+        FloatBuffer smooth = offHeap ? OffHeap.floats(count) : FloatBuffer.allocate(count);
+        for (int k = 0; k < count; ++k) smooth.put(k, (float) sums[k]);
+        return setNormals(smooth, indices);
+    }
+
+    /**
+     * Adds a triangle normal to the normal sum of a vertex.
+     *
+     * @param sums   the normal sums of the vertices
+     * @param vertex the position of the vertex in the sums
+     * @param nx     the x coordinate of the triangle normal
+     * @param ny     the y coordinate of the triangle normal
+     * @param nz     the z coordinate of the triangle normal
+     */
+    private static void addNormal(double[] sums, int vertex, double nx, double ny, double nz) {
+        sums[vertex] += nx;
+        sums[vertex + 1] += ny;
+        sums[vertex + 2] += nz;
+    }
+
+    /**
+     * Checks whether the mesh is smooth shaded by vertex normals.
+     *
+     * @return true if the mesh has vertex normals
+     */
+    public boolean hasNormals() {
+        return normalIndices != null;
+    }
+
+    /**
+     * Getter for the vertex normals, which may be shared by other meshes. They must not be changed.
+     *
+     * @return the coordinates of the normals, three for every normal - doubles or floats by the
+     *         precision of the mesh, or null for a flat shaded mesh
+     */
+    public Buffer getNormals() {
+        return normals != null ? normals : floatNormals;
+    }
+
+    /**
+     * Getter for the normal indices of the corners of the triangles. They must not be changed.
+     *
+     * @return the normal indices, three for every triangle, or null for a flat shaded mesh
+     */
+    public IntBuffer getNormalIndices() {
+        return normalIndices;
+    }
+
+    /**
+     * Reads a coordinate of a vertex normal.
+     *
+     * @param k the position of the coordinate in the normal buffer
+     * @return the coordinate
+     */
+    private double normalCoordinate(int k) {
+        return normals != null ? normals.get(k) : floatNormals.get(k);
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return boundingBox;
+    }
+
+    /**
+     * Calculates the number of nodes of a subtree. It depends only on the number of triangles,
+     * so the subtrees can be laid out and built independently.
+     *
+     * @param count the number of triangles of the subtree
+     * @return the number of nodes
+     */
+    private static int nodeTotal(int count) {
+        return count <= LEAF_SIZE ? 1 : 1 + nodeTotal(count / 2) + nodeTotal(count - count / 2);
+    }
+
+    /**
+     * Checks the indices of a mesh and builds its hierarchy.
+     *
+     * @param vertices the coordinates of the vertices
+     * @param indices  the vertex indices of the triangles
+     * @return the hierarchy
+     * @throws IllegalArgumentException if there are no triangles or an index is out of range
+     */
+    private static Hierarchy buildHierarchy(Buffer vertices, IntBuffer indices) {
+        checkSizes(vertices, indices);
+        int vertexCount = vertices.limit() / 3;
+        for (int k = 0; k < indices.limit(); ++k) {
+            int index = indices.get(k);
+            if (index < 0 || index >= vertexCount) throw new IllegalArgumentException("Vertex index out of range");
+        }
+        return new HierarchyBuilder(vertices, indices).build();
+    }
+
+    /**
+     * Builds the hierarchy of the triangles of a mesh. It is kept in the same kind of memory as
+     * the index buffer - on the heap, or off the heap for a direct index buffer (see {@link OffHeap}),
+     * and its bounds have the precision of the vertices.
+     */
+    private static final class HierarchyBuilder {
+        /** The coordinates of the vertices, or null in single precision */
+        private final DoubleBuffer vertices;
+        /** The coordinates of the vertices, or null in double precision */
+        private final FloatBuffer floatVertices;
+        /** The vertex indices of the triangles */
+        private final IntBuffer indices;
+        /** The triangles in the order of the leaves */
+        private final IntBuffer order;
+        /** The minimal and maximal coordinates of the nodes, or null in single precision */
+        private final DoubleBuffer bounds;
+        /** The minimal and maximal coordinates of the nodes, or null in double precision */
+        private final FloatBuffer floatBounds;
+        /** The first position or the second child, and the number of triangles, of every node */
+        private final IntBuffer nodes;
+
+        /**
+         * Constructs the builder.
+         *
+         * @param vertices the coordinates of the vertices
+         * @param indices  the vertex indices of the triangles
+         */
+        HierarchyBuilder(Buffer vertices, IntBuffer indices) {
+            this.vertices = vertices instanceof DoubleBuffer doubles ? doubles : null;
+            this.floatVertices = vertices instanceof FloatBuffer floats ? floats : null;
+            this.indices = indices;
+            int triangles = indices.limit() / 3;
+            int nodeTotal = nodeTotal(triangles);
+            boolean offHeap = indices.isDirect();
+            this.order = offHeap ? OffHeap.ints(triangles) : IntBuffer.allocate(triangles);
+            for (int k = 0; k < triangles; ++k) order.put(k, k);
+            if (floatVertices == null) {
+                this.bounds = offHeap ? OffHeap.doubles(nodeTotal * 6) : DoubleBuffer.allocate(nodeTotal * 6);
+                this.floatBounds = null;
+            } else {
+                this.bounds = null;
+                this.floatBounds = offHeap ? OffHeap.floats(nodeTotal * 6) : FloatBuffer.allocate(nodeTotal * 6);
+            }
+            this.nodes = offHeap ? OffHeap.ints(nodeTotal * 2) : IntBuffer.allocate(nodeTotal * 2);
+        }
+
+        /**
+         * Builds the whole hierarchy.
+         *
+         * @return the hierarchy
+         */
+        Hierarchy build() {
+            build(0, 0, order.limit());
+            return new Hierarchy(bounds != null ? bounds : floatBounds, nodes, order);
+        }
+
+        /**
+         * Builds a subtree of the hierarchy.
+         *
+         * @param node  the index of the root of the subtree
+         * @param start the first position of its triangles in the order
+         * @param count the number of its triangles
+         */
+        private void build(int node, int start, int count) {
+            double[] box = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                    Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+            double[] centers = box.clone();
+            for (int k = start; k < start + count; ++k) {
+                int triangle = order.get(k);
+                for (int axis = 0; axis < 3; ++axis) {
+                    for (int corner = 0; corner < 3; ++corner) {
+                        double c = coordinate(indices.get(triangle * 3 + corner) * 3 + axis);
+                        box[axis] = Math.min(box[axis], c);
+                        box[axis + 3] = Math.max(box[axis + 3], c);
+                    }
+                    double center = center(triangle, axis);
+                    centers[axis] = Math.min(centers[axis], center);
+                    centers[axis + 3] = Math.max(centers[axis + 3], center);
+                }
+            }
+            if (bounds != null) bounds.put(node * 6, box);
+            else for (int k = 0; k < 6; ++k) floatBounds.put(node * 6 + k, k < 3 ? floorFloat(box[k]) : ceilFloat(box[k]));
+
+            if (count <= LEAF_SIZE) {
+                nodes.put(node * 2, start);
+                nodes.put(node * 2 + 1, count);
+                return;
+            }
+
+            double x = centers[3] - centers[0], y = centers[4] - centers[1], z = centers[5] - centers[2];
+            int axis = x >= y && x >= z ? 0 : y >= z ? 1 : 2;
+            int half = count / 2;
+            select(start, start + count, start + half, axis);
+
+            int left = node + 1, right = node + 1 + nodeTotal(half);
+            nodes.put(node * 2, right);
+            nodes.put(node * 2 + 1, 0);
+            if (count >= PARALLEL_BUILD_SIZE)
+                ForkJoinTask.invokeAll(ForkJoinTask.adapt(() -> build(left, start, half)),
+                        ForkJoinTask.adapt(() -> build(right, start + half, count - half)));
+            else {
+                build(left, start, half);
+                build(right, start + half, count - half);
+            }
+        }
+
+        /**
+         * Calculates a coordinate of the center of a triangle, times three.
+         *
+         * @param triangle the triangle index
+         * @param axis     the axis index (0 - X, 1 - Y, 2 - Z)
+         * @return the sum of the coordinates of the vertices
+         */
+        private double center(int triangle, int axis) {
+            return coordinate(indices.get(triangle * 3) * 3 + axis)
+                    + coordinate(indices.get(triangle * 3 + 1) * 3 + axis)
+                    + coordinate(indices.get(triangle * 3 + 2) * 3 + axis);
+        }
+
+        /**
+         * Reads a coordinate of a vertex.
+         *
+         * @param k the position of the coordinate in the vertex buffer
+         * @return the coordinate
+         */
+        private double coordinate(int k) {
+            return vertices != null ? vertices.get(k) : floatVertices.get(k);
+        }
+
+        /**
+         * Partially sorts a range of the triangle order by quickselect, so that the triangle at a
+         * given position has the center it would have in a sorted order, with no greater centers
+         * before it and no smaller centers after it.
+         *
+         * @param start    the first position of the range
+         * @param end      the position after the range
+         * @param position the position to select
+         * @param axis     the axis of the centers
+         */
+        private void select(int start, int end, int position, int axis) {
+            while (end - start > 1) {
+                double pivot = center(order.get(start + (end - start) / 2), axis);
+                int i = start, j = end - 1;
+                while (i <= j) {
+                    while (center(order.get(i), axis) < pivot) ++i;
+                    while (center(order.get(j), axis) > pivot) --j;
+                    if (i <= j) {
+                        int swap = order.get(i);
+                        order.put(i++, order.get(j));
+                        order.put(j--, swap);
+                    }
+                }
+                if (position <= j) end = j + 1;
+                else if (position >= i) start = i;
+                else return;
+            }
+        }
+    }
+
+    @Override
+    protected List<Intersection> calculateIntersectionsHelper(Ray ray) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double[] origin = {head.getX(), head.getY(), head.getZ()};
+        double[] dir = {direction.getX(), direction.getY(), direction.getZ()};
+        double[] barycentric = new double[2];
+
+        List<Intersection> intersections = null;
+        int[] stack = new int[STACK_SIZE];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (!crossesNode(node, origin, dir)) continue;
+            int start = nodes.get(node * 2), count = nodes.get(node * 2 + 1);
+            if (count == 0) {
+                stack[top++] = start;
+                stack[top++] = node + 1;
+                continue;
+            }
+            for (int k = start; k < start + count; ++k) {
+                int triangle = order.get(k);
+                double t = intersect(triangle, origin, dir, barycentric);
+                if (t > 0 && !hasDistance(intersections, t)) { // a shared edge is found once
+                    if (intersections == null) intersections = new LinkedList<>();
+                    Intersection intersection = new Intersection(this, ray, t);
+                    intersection.primitive = triangle;
+                    intersection.beta = barycentric[0];
+                    intersection.gamma = barycentric[1];
+                    intersections.add(intersection);
+                }
+            }
+        }
+        return intersections;
+    }
+
+    /**
+     * Checks whether a distance along the ray was already found, e.g. by another triangle that
+     * shares the edge or the vertex that the ray passes through.
+     *
+     * @param intersections the intersections that were found, or null
+     * @param t             the distance
+     * @return true if an intersection at the distance was found
+     */
+    private static boolean hasDistance(List<Intersection> intersections, double t) {
+        if (intersections == null) return false;
+        for (Intersection intersection : intersections)
+            if (isZero(intersection.t - t)) return true;
+        return false;
+    }
+
+    /**
+     * Checks whether a ray crosses the box of a node, using the slab method.
+     *
+     * @param node   the node index
+     * @param origin the coordinates of the head of the ray
+     * @param dir    the coordinates of the direction of the ray
+     * @return true if the ray (in its positive direction) passes through the box
+     */
+    private boolean crossesNode(int node, double[] origin, double[] dir) {
+        double enter = 0, exit = Double.POSITIVE_INFINITY;
+        for (int axis = 0; axis < 3; ++axis) {
+            double min = bound(node * 6 + axis) - EPSILON, max = bound(node * 6 + axis + 3) + EPSILON;
+            if (dir[axis] == 0) {
+                if (origin[axis] < min || origin[axis] > max) return false;
+                continue;
+            }
+            double t1 = (min - origin[axis]) / dir[axis], t2 = (max - origin[axis]) / dir[axis];
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+            if (enter > exit) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Intersects a ray with a triangle by the Möller-Trumbore algorithm.
+     *
+     * @param triangle    the triangle index
+     * @param origin      the coordinates of the head of the ray
+     * @param dir         the coordinates of the direction of the ray
+     * @param barycentric the barycentric coordinates of the second and the third vertex at the
+     *                    intersection, filled in place
+     * @return the distance of the intersection along the ray, or 0 if the ray does not cross the
+     *         triangle, including its edges and its vertices, in its positive direction
+     */
+    private double intersect(int triangle, double[] origin, double[] dir, double[] barycentric) {
+        int a = indices.get(triangle * 3) * 3, b = indices.get(triangle * 3 + 1) * 3, c = indices.get(triangle * 3 + 2) * 3;
+        double ax = coordinate(a), ay = coordinate(a + 1), az = coordinate(a + 2);
+        double e1x = coordinate(b) - ax, e1y = coordinate(b + 1) - ay, e1z = coordinate(b + 2) - az;
+        double e2x = coordinate(c) - ax, e2y = coordinate(c + 1) - ay, e2z = coordinate(c + 2) - az;
+        double px = dir[1] * e2z - dir[2] * e2y, py = dir[2] * e2x - dir[0] * e2z, pz = dir[0] * e2y - dir[1] * e2x;
+        double det = alignZero(e1x * px + e1y * py + e1z * pz);
+        if (det == 0) return 0; // the ray is parallel to the triangle
+
+        double sx = origin[0] - ax, sy = origin[1] - ay, sz = origin[2] - az;
+        double u = alignZero((sx * px + sy * py + sz * pz) / det);
+        if (u < 0) return 0;
+        double qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+        double v = alignZero((dir[0] * qx + dir[1] * qy + dir[2] * qz) / det);
+        if (v < 0 || alignZero(1 - u - v) < 0) return 0; // outside - the edges and the vertices are inside
+        barycentric[0] = u;
+        barycentric[1] = v;
+        return alignZero((e2x * qx + e2y * qy + e2z * qz) / det);
+    }
+
+    /**
+     * Calculates the normal of a triangle, by the order of its vertices.
+     *
+     * @param triangle the triangle index
+     * @return the normalized normal
+     * @throws ArithmeticException if the triangle is degenerate
+     */
+    private Vector triangleNormal(int triangle) {
+        int a = indices.get(triangle * 3) * 3, b = indices.get(triangle * 3 + 1) * 3, c = indices.get(triangle * 3 + 2) * 3;
+        double ax = coordinate(a), ay = coordinate(a + 1), az = coordinate(a + 2);
+        Vector ab = new Vector(coordinate(b) - ax, coordinate(b + 1) - ay, coordinate(b + 2) - az);
+        Vector ac = new Vector(coordinate(c) - ax, coordinate(c + 1) - ay, coordinate(c + 2) - az);
+        return ab.crossProduct(ac).normalize();
+    }
+
+    /**
+     * Interpolates the vertex normals of a triangle by the barycentric coordinates of a point.
+     *
+     * @param triangle the triangle index
+     * @param beta     the barycentric coordinate of the second vertex
+     * @param gamma    the barycentric coordinate of the third vertex
+     * @return the normalized normal, or null if a corner has no normal or the normals cancel out
+     */
+    private Vector interpolatedNormal(int triangle, double beta, double gamma) {
+        int a = normalIndices.get(triangle * 3), b = normalIndices.get(triangle * 3 + 1), c = normalIndices.get(triangle * 3 + 2);
+        if (a < 0 || b < 0 || c < 0) return null;
+        a *= 3;
+        b *= 3;
+        c *= 3;
+        double alpha = 1 - beta - gamma;
+        double x = alpha * normalCoordinate(a) + beta * normalCoordinate(b) + gamma * normalCoordinate(c);
+        double y = alpha * normalCoordinate(a + 1) + beta * normalCoordinate(b + 1) + gamma * normalCoordinate(c + 1);
+        double z = alpha * normalCoordinate(a + 2) + beta * normalCoordinate(b + 2) + gamma * normalCoordinate(c + 2);
+        double length = Math.sqrt(x * x + y * y + z * z);
+        return isZero(length) ? null : new Vector(x / length, y / length, z / length);
+    }
+
+    /**
+     * Finds the normal of the mesh at an intersection by its triangle - interpolated from the
+     * vertex normals by the barycentric coordinates of the hit for a smooth shaded mesh, or the
+     * normal of the triangle otherwise.
+     *
+     * @param intersection an intersection of the mesh
+     * @return the normal at the intersection
+     */
+    @Override
+    public Vector getNormal(Intersection intersection) {
+        int triangle = intersection.primitive;
+        if (triangle < 0) return getNormal(intersection.point());
+        if (normalIndices != null) {
+            Vector normal = interpolatedNormal(triangle, intersection.beta, intersection.gamma);
+            if (normal != null) return normal;
+        }
+        return triangleNormal(triangle);
+    }
+
+    /**
+     * Finds the normal of the triangle of an intersection of a smooth shaded mesh, whose shading
+     * normal is interpolated.
+     *
+     * @param intersection an intersection of the mesh
+     * @return the normal of the triangle, or null for a flat mesh
+     */
+    @Override
+    public Vector getGeometricNormal(Intersection intersection) {
+        return normalIndices == null || intersection.primitive < 0 ? null : triangleNormal(intersection.primitive);
+    }
+
+    /**
+     * Finds the normal of the mesh at a point by searching for the triangle that is the closest
+     * to the point - by the distance from its plane and from its bounding box. The normal is the
+     * flat normal of the triangle, even for a smooth shaded mesh. The intersections of the mesh
+     * find their normals by their triangles, so this is needed only for points that were not
+     * found by a ray.
+     *
+     * @param point the point on the mesh
+     * @return the normal of the closest triangle
+     */
+    @Override
+    public Vector getNormal(Point point) {
+        double[] p = {point.getX(), point.getY(), point.getZ()};
+        Vector closest = null;
+        double best = Double.POSITIVE_INFINITY;
+        for (int triangle = 0; triangle < size; ++triangle) {
+            int a = indices.get(triangle * 3) * 3;
+            double distance = 0;
+            for (int axis = 0; axis < 3; ++axis) {
+                double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+                for (int corner = 0; corner < 3; ++corner) {
+                    double c = coordinate(indices.get(triangle * 3 + corner) * 3 + axis);
+                    min = Math.min(min, c);
+                    max = Math.max(max, c);
+                }
+                distance += Math.max(0, Math.max(min - p[axis], p[axis] - max));
+            }
+            if (distance >= best) continue;
+            Vector normal;
+            try {
+                normal = triangleNormal(triangle);
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                continue; // a degenerate triangle has no normal
+            }
+            distance += Math.abs(normal.getX() * (p[0] - coordinate(a)) + normal.getY() * (p[1] - coordinate(a + 1))
+                    + normal.getZ() * (p[2] - coordinate(a + 2)));
+            if (distance < best) {
+                best = distance;
+                closest = normal;
+            }
+        }
+        return closest;
+    }
+}
@@ -0,0 +1,82 @@
+package geometries;
+
+import primitives.BoundingBox;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.List;
+
+import static primitives.Util.isZero;
+
+/**
+ * The MovingGeometry class represents a geometry that moves in a straight line while the camera
+ * shutter is open, for motion blur. The time of a ray is the fraction of the shutter interval,
+ * from 0 (the shutter opens) to 1 (the shutter closes), and at time t the geometry is translated
+ * by t times its motion, so the rays of a pixel that are cast at different times see it at
+ * different places.
+ * <p>
+ * The ray is intersected with the still geometry after moving it back by the translation, and the
+ * intersection points are moved forward again. The normal is found at the point on the still
+ * geometry and is set in the intersection.
+ * </p>
+ */
+public class MovingGeometry extends Intersectable {
+    /** The moving geometry, at its position at time 0 */
+    private final Geometry geometry;
+    /** The translation of the geometry during the whole shutter interval */
+    private final Vector motion;
+    /** The bounding box of the whole path of the geometry during the shutter interval */
+    private final BoundingBox boundingBox;
+
+    /**
+     * Constructs a moving geometry.
+     *
+     * @param geometry the geometry, at its position when the shutter opens
+     * @param motion   the translation of the geometry while the shutter is open
+     */
+    public MovingGeometry(Geometry geometry, Vector motion) {
+        this.geometry = geometry;
+        this.motion = motion;
+        BoundingBox box = geometry.getBoundingBox();
+        this.boundingBox = box == null ? null
+                : box.union(BoundingBox.of(box.getMin().add(motion), box.getMax().add(motion)));
+    }
+
+    /**
+     * Getter for the moving geometry.
+     *
+     * @return the geometry at its position when the shutter opens
+     */
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return boundingBox;
+    }
+
+    @Override
+    protected List<Intersection> calculateIntersectionsHelper(Ray ray) {
+        double time = ray.getTime();
+        if (isZero(time)) return geometry.calculateIntersectionsHelper(ray);
+
+        Vector translation = motion.scale(time);
+        Ray stillRay = new Ray(ray.getHead().add(translation.scale(-1)), ray.getDirection(), time);
+        List<Intersection> intersections = geometry.calculateIntersectionsHelper(stillRay);
+        if (intersections == null) return null;
+        return intersections.stream().map(intersection -> {
+            Intersection moved = Double.isNaN(intersection.t)
+                    ? new Intersection(geometry, intersection.point().add(translation))
+                    : new Intersection(geometry, ray, intersection.t);
+            moved.primitive = intersection.primitive;
+            moved.beta = intersection.beta;
+            moved.gamma = intersection.gamma;
+            moved.normal = intersection.normal != null ? intersection.normal : geometry.getNormal(intersection);
+            moved.geometricNormal = intersection.normal != null ? intersection.geometricNormal
+                    : geometry.getGeometricNormal(intersection);
+            return moved;
+        }).toList();
+    }
+}
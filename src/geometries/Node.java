@@ -0,0 +1,127 @@
+package geometries;
+
+import primitives.BoundingBox;
+import primitives.Ray;
+import primitives.Transform;
+
+import java.util.List;
+
+/**
+ * The Node class represents a node of a scene graph - an assembly of geometries in its own local
+ * space, placed in the space of its parent by an affine transform. Nodes nest: a child node is
+ * placed in the local space of its parent node, so an assembly of thousands of primitives is moved
+ * or rotated by changing a single transform, without rebuilding any primitive.
+ * <p>
+ * Unlike an {@link Instance}, which places a shared prototype, a node owns its children and each
+ * child node has a single parent. The ray is moved into the local space by the inverse matrix,
+ * which is kept in the transform. The bounding box in the parent space is cached, and it is
+ * invalidated together with the boxes of the ancestors and of every collection or instance that
+ * holds the node or one of its ancestors, up to the geometries of the scene, when the transform or
+ * the children change.
+ * </p>
+ */
+public class Node extends Intersectable {
+    /** The children of the node, in its local space */
+    private final Geometries children = new Geometries();
+    /** The transform from the local space of the node to the space of its parent */
+    private Transform transform = Transform.IDENTITY;
+    /** The parent node, null for a root node */
+    private Node parent = null;
+    /** The composites whose cached boxes depend on the box of the node - its parent and its collections */
+    private final BoundsDependents dependents = new BoundsDependents();
+    /** The cached bounding box in the parent space, null if it is unbounded or not calculated yet */
+    private BoundingBox boundingBox = null;
+    /** Whether the cached bounding box is up to date */
+    private boolean boundingBoxValid = false;
+
+    /**
+     * Constructs a node with the identity transform.
+     *
+     * @param children the children of the node, in its local space
+     */
+    public Node(Intersectable... children) {
+        this.children.addDependent(this);
+        add(children);
+    }
+
+    /**
+     * Adds children to the node.
+     *
+     * @param children the children to add, in the local space of the node
+     * @return the node instance
+     * @throws IllegalArgumentException if a child node already has a parent, or is this node
+     *                                  or one of its ancestors
+     */
+    public Node add(Intersectable... children) {
+        for (Intersectable child : children) {
+            if (child instanceof Node node) {
+                if (node.parent != null) throw new IllegalArgumentException("The node already has a parent");
+                for (Node ancestor = this; ancestor != null; ancestor = ancestor.parent)
+                    if (ancestor == node) throw new IllegalArgumentException("A node cannot contain itself");
+                node.parent = this;
+            }
+        }
+        this.children.add(children); // invalidates the box of the node through its children
+        return this;
+    }
+
+    /**
+     * Getter for the transform of the node.
+     *
+     * @return the transform from the local space of the node to the space of its parent
+     */
+    public Transform getTransform() {
+        return transform;
+    }
+
+    /**
+     * Setter for the transform of the node. The children are not changed.
+     *
+     * @param transform the transform from the local space of the node to the space of its parent
+     * @return the node instance
+     */
+    public Node setTransform(Transform transform) {
+        this.transform = transform;
+        invalidateBoundingBox();
+        return this;
+    }
+
+    /**
+     * Getter for the transform from the local space of the node to the world space -
+     * the transforms of the node and of all its ancestors.
+     *
+     * @return the local to world transform
+     */
+    public Transform getWorldTransform() {
+        return parent == null ? transform : parent.getWorldTransform().multiply(transform);
+    }
+
+    @Override
+    void addDependent(Intersectable dependent) {
+        dependents.add(dependent);
+    }
+
+    /**
+     * Marks the cached bounding box of the node as out of date, together with the boxes of its
+     * ancestors and of the collections and the instances that hold it.
+     */
+    @Override
+    void invalidateBoundingBox() {
+        boundingBoxValid = false;
+        dependents.invalidate();
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        if (!boundingBoxValid) {
+            boundingBox = transform.transform(children.getBoundingBox());
+            boundingBoxValid = true;
+        }
+        return boundingBox;
+    }
+
+    @Override
+    protected List<Intersection> calculateIntersectionsHelper(Ray ray) {
+        return Instance.intersectTransformed(children, transform, ray);
+    }
+}
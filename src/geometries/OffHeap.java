@@ -0,0 +1,116 @@
+package geometries;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * The OffHeap class allocates geometry buffers outside the Java heap - direct buffers in the
+ * native byte order - for the vertices, indices and hierarchies of {@link Mesh} objects. The
+ * garbage collector sees only the small buffer objects, so the heap size and the collection
+ * pauses do not depend on the size of the scene.
+ * <p>
+ * The memory of a buffer is released when the buffer is no longer reachable. The total size of
+ * the direct buffers is limited by the {@code -XX:MaxDirectMemorySize} option of the JVM, which
+ * is the maximal heap size by default, so it should be raised for scenes that are larger than the
+ * heap. A single buffer is limited to 2GB, which bounds a mesh to about 89 million vertices of
+ * three doubles (178 million in single precision) and 178 million triangles of three indices.
+ * </p>
+ * <p>
+ * The buffers are direct byte buffers rather than memory segments of the Foreign Function &amp;
+ * Memory API, since the project targets JDK 21, where that API is still a preview feature and
+ * needs {@code --enable-preview} at compile time and at run time. Segments would lift the 2GB
+ * limit of a single buffer.
+ * </p>
+ */
+public final class OffHeap {
+    /** Utility class - no instances */
+    private OffHeap() {
+    }
+
+    /**
+     * Allocates an off-heap buffer of doubles, initialized to 0.
+     *
+     * @param count the number of doubles
+     * @return the buffer
+     * @throws IllegalArgumentException if the buffer would be larger than 2GB
+     */
+    public static DoubleBuffer doubles(int count) {
+        return allocate(count, Double.BYTES).asDoubleBuffer();
+    }
+
+    /**
+     * Allocates an off-heap buffer of floats, initialized to 0.
+     *
+     * @param count the number of floats
+     * @return the buffer
+     * @throws IllegalArgumentException if the buffer would be larger than 2GB
+     */
+    public static FloatBuffer floats(int count) {
+        return allocate(count, Float.BYTES).asFloatBuffer();
+    }
+
+    /**
+     * Allocates an off-heap buffer of integers, initialized to 0.
+     *
+     * @param count the number of integers
+     * @return the buffer
+     * @throws IllegalArgumentException if the buffer would be larger than 2GB
+     */
+    public static IntBuffer ints(int count) {
+        return allocate(count, Integer.BYTES).asIntBuffer();
+    }
+
+    /**
+     * Copies a buffer of doubles off the heap.
+     *
+     * @param values the values, from 0 to the limit
+     * @return the off-heap copy
+     */
+    public static DoubleBuffer copy(DoubleBuffer values) {
+        DoubleBuffer copy = doubles(values.limit());
+        copy.put(values.duplicate().rewind()).rewind();
+        return copy;
+    }
+
+    /**
+     * Copies a buffer of floats off the heap.
+     *
+     * @param values the values, from 0 to the limit
+     * @return the off-heap copy
+     */
+    public static FloatBuffer copy(FloatBuffer values) {
+        FloatBuffer copy = floats(values.limit());
+        copy.put(values.duplicate().rewind()).rewind();
+        return copy;
+    }
+
+    /**
+     * Copies a buffer of integers off the heap.
+     *
+     * @param values the values, from 0 to the limit
+     * @return the off-heap copy
+     */
+    public static IntBuffer copy(IntBuffer values) {
+        IntBuffer copy = ints(values.limit());
+        copy.put(values.duplicate().rewind()).rewind();
+        return copy;
+    }
+
+    /**
+     * Allocates a direct byte buffer in the native byte order.
+     *
+     * @param count the number of values
+     * @param size  the size of a value in bytes
+     * @return the buffer
+     * @throws IllegalArgumentException if the buffer would be larger than 2GB
+     */
+    private static ByteBuffer allocate(int count, int size) {
+        if (count < 0) throw new IllegalArgumentException("Buffer size must be non-negative");
+        long bytes = (long) count * size;
+        if (bytes > Integer.MAX_VALUE) throw new IllegalArgumentException("An off-heap buffer is limited to 2GB");
+        return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    }
+}
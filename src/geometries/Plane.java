@@ -63,7 +63,7 @@ public class Plane extends Geometry {
         }
         double t = alignZero(normal.dotProduct(q.subtract(ray.getHead())) / nv);
         if (t > 0) {
-            return List.of(new Intersection(this,ray.getPoint(t)));
+            return List.of(new Intersection(this, ray, t));
         } else {
             return null;
 
@@ -18,6 +18,8 @@ public class Polygon extends Geometry {
    protected final Plane       plane;
    /** The size of the polygon - the amount of the vertices in the polygon */
    private final int           size;
+   /** The bounding box of the polygon */
+   private final BoundingBox   boundingBox;
 
    /**
     * Polygon constructor based on vertices list. The list must be ordered by edge
@@ -45,6 +47,7 @@ public class Polygon extends Geometry {
          throw new IllegalArgumentException("A polygon can't have less than 3 vertices");
       this.vertices = List.of(vertices);
       size          = vertices.length;
+      boundingBox   = BoundingBox.of(vertices);
 
       // Generate the plane according to the first three vertices and associate the
       // polygon with this plane.
@@ -82,7 +85,7 @@ public class Polygon extends Geometry {
    public List<Intersection> calculateIntersectionsHelper(Ray ray) {
       //check if the ray intersects the plane of the polygon- the polygon is on a plane
       Plane plane = new Plane(vertices.get(0), vertices.get(1), vertices.get(2));
-      List<Point> intersections = plane.findIntersections(ray);
+      List<Intersection> intersections = plane.calculateIntersections(ray);
       if (intersections == null) {
          return null;
       }
@@ -91,7 +94,8 @@ public class Polygon extends Geometry {
       Vector v = ray.getDirection();
 
       // Check if the intersection point is inside the polygon
-      Point p = intersections.get(0);
+      Intersection hit = intersections.get(0);
+      Point p = hit.point();
       int numVertices = vertices.size();
       for (Point vi : vertices) {
          int nextIndex = (vertices.indexOf(vi) + 1) % vertices.size();
@@ -105,10 +109,13 @@ public class Polygon extends Geometry {
          }
       }
       //if all dot products are positive, the point is inside the polygon
-      return List.of(new Intersection(this, p));
+      return List.of(new Intersection(this, ray, hit.t, p));
    }
 
    @Override
    public Vector getNormal(Point point) { return plane.getNormal(point); }
 
+   @Override
+   public BoundingBox getBoundingBox() { return boundingBox; }
+
 }
@@ -0,0 +1,14 @@
+package geometries;
+
+/**
+ * The precision of the coordinates that a {@link Mesh} stores for its vertices and its hierarchy.
+ */
+public enum Precision {
+    /** 64 bit coordinates - exact like the rest of the geometries */
+    DOUBLE,
+    /**
+     * 32 bit coordinates - half the memory and the memory bandwidth of the mesh, with vertices
+     * rounded to about 7 significant digits
+     */
+    FLOAT
+}
@@ -1,5 +1,6 @@
 package geometries;
 
+import primitives.BoundingBox;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
@@ -17,6 +18,10 @@ public class Sphere extends RadialGeometry {
      * The center point of the sphere.
      */
     protected final Point center;
+    /**
+     * The bounding box of the sphere.
+     */
+    private final BoundingBox boundingBox;
 
     /**
      * Constructs a Sphere object with the specified center and radius.
@@ -27,6 +32,13 @@ public class Sphere extends RadialGeometry {
     public Sphere(Point center, double radius) {
         super(radius);
         this.center = center;
+        Vector diagonal = new Vector(radius, radius, radius);
+        this.boundingBox = BoundingBox.of(center.add(diagonal.scale(-1)), center.add(diagonal));
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return boundingBox;
     }
 
     @Override
@@ -37,7 +49,7 @@ public class Sphere extends RadialGeometry {
 
         //if the ray starts at the center of the sphere
         if (p0.equals(center)) {
-            return List.of(new Intersection(this,p0.add(v.scale(radius))));
+            return List.of(new Intersection(this, ray, radius));
         }
         Vector u = center.subtract(p0);
         double tm = alignZero(v.dotProduct(u));
@@ -52,14 +64,14 @@ public class Sphere extends RadialGeometry {
         double t2 = alignZero(tm + th);
 
         if (t1 > 0 && t2 > 0) {
-            return List.of(new Intersection(this,ray.getPoint(t1)), new Intersection(this,ray.getPoint(t2)));
+            return List.of(new Intersection(this, ray, t1), new Intersection(this, ray, t2));
         }
         if (t1 > 0) {
-            return List.of(new Intersection(this, ray.getPoint(t1)));
+            return List.of(new Intersection(this, ray, t1));
         }
 
         if (t2 > 0) {
-            return List.of(new Intersection(this,ray.getPoint(t2)));
+            return List.of(new Intersection(this, ray, t2));
         }
         return null;
     }
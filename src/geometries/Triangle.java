@@ -56,7 +56,7 @@ public class Triangle extends Polygon {
         }
         // Check if the intersection point is inside the triangle
         if (isPointInTriangle(intersectionPoint, p1, p2, p3)) {
-            return List.of(new Intersection(this,intersectionPoint));
+            return List.of(new Intersection(this, ray, t, intersectionPoint));
         }
 
         return null;
@@ -0,0 +1,25 @@
+package lighting;
+
+import primitives.Point;
+import primitives.Point2D;
+
+/**
+ * Interface representing a light source with an emitting surface, that casts soft shadows.
+ * <p>
+ * The shading of an area light is calculated as of a point light at its center, while its
+ * shadows are calculated by sampling points on the light surface. A sample is given as a
+ * point of the unit square, e.g. from a {@code Blackboard}, that is mapped onto the surface
+ * of the light as seen from the shaded point. The corners of the unit square are mapped onto
+ * the boundary of the light.
+ * </p>
+ */
+public interface AreaLight extends LightSource {
+    /**
+     * Maps a sample of the unit square onto the light surface, as seen from a shaded point.
+     *
+     * @param p  the shaded point
+     * @param uv the sample, with both coordinates in range [0, 1]
+     * @return the point on the light surface
+     */
+    Point getSamplePoint(Point p, Point2D uv);
+}
@@ -3,6 +3,8 @@ import primitives.*;
 
 public class DirectionalLight extends Light implements LightSource {
     private final Vector direction;
+    /** The constant illumination of every point */
+    private final Illumination illumination;
 
     /**
      * Constructs a DirectionalLight with the specified intensity and direction.
@@ -12,7 +14,17 @@ public class DirectionalLight extends Light implements LightSource {
      */
     public DirectionalLight(Color intensity, Vector direction) {
         super(intensity);
-        this.direction = direction;
+        this.direction = direction.normalize();
+        this.illumination = new Illumination(this.direction, Double.POSITIVE_INFINITY, intensity);
+    }
+
+    /**
+     * Getter for the direction of the light.
+     *
+     * @return the normalized direction vector of the light
+     */
+    public Vector getDirection() {
+        return direction;
     }
 
     @Override
@@ -22,8 +34,13 @@ public class DirectionalLight extends Light implements LightSource {
 
     @Override
     public Vector getL(Point p) {
-        return direction.normalize();
+        return direction;
     }
     @Override
     public double getDistance(Point point){return Double.POSITIVE_INFINITY;}
+
+    @Override
+    public Illumination illuminate(Point p) {
+        return illumination;
+    }
 }
@@ -7,6 +7,16 @@ import primitives.*;
  * Provides methods to calculate the intensity and direction of light at a given point.
  */
 public interface LightSource {
+    /**
+     * The illumination of a point by a light source, evaluated in a single call.
+     *
+     * @param l         the normalized direction from the light source to the point
+     * @param distance  the distance from the light source to the point
+     * @param intensity the intensity of the light at the point
+     */
+    record Illumination(Vector l, double distance, Color intensity) {
+    }
+
     /**
      * Calculates the intensity of the light at a specific point.
      *
@@ -30,4 +40,40 @@ public interface LightSource {
      * @return The distance from the light source to the given point.
      */
     double getDistance(Point point);
+
+    /**
+     * Calculates the radius of the influence region of the light source: beyond this
+     * distance the intensity of the light is below the threshold in every color component.
+     * The default is an unbounded influence region.
+     *
+     * @param threshold the minimal intensity that is considered a contribution
+     * @return the influence radius, {@link Double#POSITIVE_INFINITY} if it is unbounded
+     */
+    default double getInfluenceRadius(double threshold) {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Checks whether the light may contribute to a point with an intensity above the threshold.
+     * The check is conservative and cheap - it does not cast any shadow ray.
+     *
+     * @param point     the point to check
+     * @param threshold the minimal intensity that is considered a contribution
+     * @return false if the light surely does not contribute to the point above the threshold
+     */
+    default boolean mayContribute(Point point, double threshold) {
+        return getDistance(point) <= getInfluenceRadius(threshold);
+    }
+
+    /**
+     * Evaluates the direction, the distance and the intensity of the light at a point at once.
+     * Implementations share the intermediate results (the vector to the point and its length)
+     * between the three values. The default evaluates them separately.
+     *
+     * @param p the illuminated point
+     * @return the illumination of the point
+     */
+    default Illumination illuminate(Point p) {
+        return new Illumination(getL(p), getDistance(p), getIntensity(p));
+    }
 }
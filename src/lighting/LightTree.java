@@ -0,0 +1,188 @@
+package lighting;
+
+import primitives.BoundingBox;
+import primitives.Double3;
+import primitives.Point;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class LightTree is a bounding volume hierarchy of the positioned light sources
+ * (point lights and spotlights) of a scene, used to render scenes with many lights.
+ * <p>
+ * Every node keeps the bounding box and the total power of its lights. Instead of
+ * evaluating all the lights at a shading point, a light is selected stochastically by
+ * descending the tree from the root and choosing each child with a probability that is
+ * proportional to its estimated contribution at the point - its power divided by its
+ * squared distance, bounded by the size of its box. The probability of the selected
+ * light is returned with it, so that its contribution can be weighted without bias.
+ * </p>
+ */
+public class LightTree {
+    /**
+     * A light selected by the tree.
+     *
+     * @param light the selected light source
+     * @param pdf   the probability of selecting the light at the point
+     */
+    public record Sample(LightSource light, double pdf) {
+    }
+
+    /** A node of the tree - an inner node with two children or a leaf with a single light */
+    private static final class Node {
+        private final BoundingBox box;
+        private final Point center;
+        private final double power;
+        private final double radiusSquared;
+        private final Node left, right;
+        private final PointLight light;
+
+        /**
+         * Constructs a leaf node.
+         *
+         * @param light the light of the leaf
+         */
+        Node(PointLight light) {
+            this.light = light;
+            this.box = BoundingBox.of(light.getPosition());
+            this.center = light.getPosition();
+            this.power = maxComponent(light.getIntensity().getRgb());
+            this.radiusSquared = 0;
+            this.left = this.right = null;
+        }
+
+        /**
+         * Constructs an inner node.
+         *
+         * @param left  the first child
+         * @param right the second child
+         */
+        Node(Node left, Node right) {
+            this.light = null;
+            this.left = left;
+            this.right = right;
+            this.box = left.box.union(right.box);
+            this.center = box.getCenter();
+            this.power = left.power + right.power;
+            double radius = box.getMax().distance(box.getMin()) / 2;
+            this.radiusSquared = radius * radius;
+        }
+
+        /**
+         * Estimates the contribution of the node's lights at a point.
+         *
+         * @param point the shading point
+         * @return the importance of the node
+         */
+        double importance(Point point) {
+            double distanceSquared = center.distanceSquared(point);
+            return power / Math.max(Math.max(distanceSquared, radiusSquared), MIN_DISTANCE_SQUARED);
+        }
+    }
+
+    /** Lower bound of the squared distance in the importance estimate, avoiding a division by 0 */
+    private static final double MIN_DISTANCE_SQUARED = 1e-6;
+
+    /** The root of the tree, null if there are no positioned lights */
+    private final Node root;
+    /** The lights in the tree */
+    private final Map<LightSource, Boolean> lights = new IdentityHashMap<>();
+
+    /**
+     * Constructs the light tree of the positioned lights among the given light sources.
+     * Other light sources (e.g. directional lights) are not included in the tree.
+     *
+     * @param lightSources the light sources of the scene
+     */
+    public LightTree(List<LightSource> lightSources) {
+        List<Node> leaves = new ArrayList<>();
+        for (LightSource lightSource : lightSources)
+            if (lightSource instanceof PointLight pointLight && lights.put(pointLight, true) == null)
+                leaves.add(new Node(pointLight));
+        root = leaves.isEmpty() ? null : build(leaves);
+    }
+
+    /**
+     * Builds a subtree by splitting the nodes at the median of the largest axis of their centers.
+     *
+     * @param nodes the leaves of the subtree
+     * @return the root of the subtree
+     */
+    private static Node build(List<Node> nodes) {
+        if (nodes.size() == 1) return nodes.get(0);
+
+        BoundingBox bounds = nodes.get(0).box;
+        for (Node node : nodes) bounds = bounds.union(node.box);
+        int axis = bounds.getLongestAxis();
+
+        List<Node> sorted = new ArrayList<>(nodes);
+        Collections.sort(sorted, Comparator.comparingDouble(node -> node.box.getCenter(axis)));
+        int middle = sorted.size() / 2;
+        return new Node(build(sorted.subList(0, middle)), build(sorted.subList(middle, sorted.size())));
+    }
+
+    /**
+     * Returns the largest component of a triad.
+     *
+     * @param d the triad
+     * @return the largest component
+     */
+    private static double maxComponent(Double3 d) {
+        return Math.max(d.d1(), Math.max(d.d2(), d.d3()));
+    }
+
+    /**
+     * Checks whether there are no lights in the tree.
+     *
+     * @return true if the tree is empty
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Checks whether a light source is sampled by the tree.
+     *
+     * @param lightSource the light source
+     * @return true if the light is in the tree
+     */
+    public boolean contains(LightSource lightSource) {
+        return lights.containsKey(lightSource);
+    }
+
+    /**
+     * Selects a light of the tree for a shading point.
+     *
+     * @param point the shading point
+     * @param u     a uniform random number in range [0, 1)
+     * @return the selected light with its selection probability, null if the tree is empty
+     */
+    public Sample sample(Point point, double u) {
+        if (root == null) return null;
+        Node node = root;
+        double pdf = 1;
+        while (node.light == null) {
+            double leftImportance = node.left.importance(point);
+            double rightImportance = node.right.importance(point);
+            double total = leftImportance + rightImportance;
+            double pLeft = total > 0 ? leftImportance / total : 0.5;
+            // The random number is rescaled so that it is reused by the next levels
+            if (u < pLeft) {
+                u /= pLeft;
+                pdf *= pLeft;
+                node = node.left;
+            } else {
+                u = (u - pLeft) / (1 - pLeft);
+                pdf *= 1 - pLeft;
+                node = node.right;
+            }
+            u = Math.min(u, Math.nextDown(1d));
+        }
+        return new Sample(node.light, pdf);
+    }
+}
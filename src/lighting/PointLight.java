@@ -51,6 +51,38 @@ public class PointLight extends Light implements LightSource {
         return this;
     }
 
+    /**
+     * Getter for the position of the light source.
+     * @return The position of the light source.
+     */
+    public Point getPosition() {
+        return position;
+    }
+
+    /**
+     * Getter for the constant attenuation factor.
+     * @return The constant attenuation factor.
+     */
+    public double getKc() {
+        return kC;
+    }
+
+    /**
+     * Getter for the linear attenuation factor.
+     * @return The linear attenuation factor.
+     */
+    public double getKl() {
+        return kL;
+    }
+
+    /**
+     * Getter for the quadratic attenuation factor.
+     * @return The quadratic attenuation factor.
+     */
+    public double getKq() {
+        return kQ;
+    }
+
     @Override
     public Color getIntensity(Point p) {
         double d = position.distance(p); // Calculate the distance to the point
@@ -67,4 +99,25 @@ public class PointLight extends Light implements LightSource {
         return position.distance(point);
     }
 
+    @Override
+    public Illumination illuminate(Point p) {
+        // A single square root serves the direction, the distance and the attenuation
+        Vector toPoint = p.subtract(position);
+        double d = Math.sqrt(toPoint.lengthSquared());
+        return new Illumination(toPoint.scale(1 / d), d, intensity.scale(1 / (kC + kL * d + kQ * d * d)));
+    }
+
+    @Override
+    public double getInfluenceRadius(double threshold) {
+        Double3 rgb = intensity.getRgb();
+        double maxIntensity = Math.max(rgb.d1(), Math.max(rgb.d2(), rgb.d3()));
+        // The intensity is above the threshold while the attenuation is below this limit
+        double attenuationLimit = maxIntensity / threshold;
+        if (kC >= attenuationLimit) return 0;
+        if (kQ > 0) // the positive root of kQ*d^2 + kL*d + (kC - limit) = 0
+            return (-kL + Math.sqrt(kL * kL + 4 * kQ * (attenuationLimit - kC))) / (2 * kQ);
+        if (kL > 0) return (attenuationLimit - kC) / kL;
+        return Double.POSITIVE_INFINITY;
+    }
+
 }
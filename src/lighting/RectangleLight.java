@@ -0,0 +1,78 @@
+package lighting;
+
+import primitives.Color;
+import primitives.Point;
+import primitives.Point2D;
+import primitives.Vector;
+
+import static primitives.Util.isZero;
+
+/**
+ * The RectangleLight class represents a rectangular area light, e.g. a window or a ceiling panel.
+ * It is shaded as a point light at the center of the rectangle and casts soft shadows.
+ */
+public class RectangleLight extends PointLight implements AreaLight {
+    /** The first edge of the rectangle */
+    private final Vector edge1;
+    /** The second edge of the rectangle */
+    private final Vector edge2;
+
+    /**
+     * Constructs a rectangular light from its center and two edges.
+     *
+     * @param intensity the intensity of the light
+     * @param center    the center of the rectangle
+     * @param edge1     the first edge of the rectangle (its length is the rectangle's width)
+     * @param edge2     the second edge of the rectangle (its length is the rectangle's height)
+     * @throws IllegalArgumentException if the edges are parallel
+     */
+    public RectangleLight(Color intensity, Point center, Vector edge1, Vector edge2) {
+        super(intensity, center);
+        if (isZero(Math.abs(edge1.normalize().dotProduct(edge2.normalize())) - 1))
+            throw new IllegalArgumentException("The edges of a rectangle light cannot be parallel");
+        this.edge1 = edge1;
+        this.edge2 = edge2;
+    }
+
+    /**
+     * Getter for the first edge of the rectangle.
+     *
+     * @return the first edge
+     */
+    public Vector getEdge1() {
+        return edge1;
+    }
+
+    /**
+     * Getter for the second edge of the rectangle.
+     *
+     * @return the second edge
+     */
+    public Vector getEdge2() {
+        return edge2;
+    }
+
+    @Override
+    public RectangleLight setKc(double kC) {
+        return (RectangleLight) super.setKc(kC);
+    }
+
+    @Override
+    public RectangleLight setKl(double kL) {
+        return (RectangleLight) super.setKl(kL);
+    }
+
+    @Override
+    public RectangleLight setKq(double kQ) {
+        return (RectangleLight) super.setKq(kQ);
+    }
+
+    @Override
+    public Point getSamplePoint(Point p, Point2D uv) {
+        Point sample = getPosition();
+        double x = uv.getX() - 0.5, y = uv.getY() - 0.5;
+        if (!isZero(x)) sample = sample.add(edge1.scale(x));
+        if (!isZero(y)) sample = sample.add(edge2.scale(y));
+        return sample;
+    }
+}
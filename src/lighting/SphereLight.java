@@ -0,0 +1,71 @@
+package lighting;
+
+import primitives.Color;
+import primitives.Point;
+import primitives.Point2D;
+import primitives.Vector;
+
+import static primitives.Util.isZero;
+
+/**
+ * The SphereLight class represents a spherical area light, e.g. a light bulb or a lamp globe.
+ * It is shaded as a point light at the center of the sphere and casts soft shadows.
+ * The samples are taken on the disk of the sphere's silhouette, as seen from the shaded point.
+ */
+public class SphereLight extends PointLight implements AreaLight {
+    /** The radius of the sphere */
+    private final double radius;
+
+    /**
+     * Constructs a spherical light from its center and radius.
+     *
+     * @param intensity the intensity of the light
+     * @param center    the center of the sphere
+     * @param radius    the radius of the sphere
+     * @throws IllegalArgumentException if the radius is not positive
+     */
+    public SphereLight(Color intensity, Point center, double radius) {
+        super(intensity, center);
+        if (radius <= 0) throw new IllegalArgumentException("The radius of a sphere light must be positive");
+        this.radius = radius;
+    }
+
+    /**
+     * Getter for the radius of the sphere.
+     *
+     * @return the radius
+     */
+    public double getRadius() {
+        return radius;
+    }
+
+    @Override
+    public SphereLight setKc(double kC) {
+        return (SphereLight) super.setKc(kC);
+    }
+
+    @Override
+    public SphereLight setKl(double kL) {
+        return (SphereLight) super.setKl(kL);
+    }
+
+    @Override
+    public SphereLight setKq(double kQ) {
+        return (SphereLight) super.setKq(kQ);
+    }
+
+    @Override
+    public Point getSamplePoint(Point p, Point2D uv) {
+        Point2D disk = uv.toUnitDisk();
+        double x = radius * disk.getX(), y = radius * disk.getY();
+
+        // The disk is perpendicular to the direction from the point to the center
+        Vector axis = isZero(getPosition().distance(p)) ? Vector.AXIS_Z : getPosition().subtract(p).normalize();
+        Vector u = axis.orthogonal();
+        Vector v = axis.crossProduct(u);
+        Point sample = getPosition();
+        if (!isZero(x)) sample = sample.add(u.scale(x));
+        if (!isZero(y)) sample = sample.add(v.scale(y));
+        return sample;
+    }
+}
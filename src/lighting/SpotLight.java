@@ -9,7 +9,7 @@ import primitives.Vector;
  */
 public class SpotLight extends PointLight{
     /**
-     * The direction of the spotlight.
+     * The normalized direction of the spotlight.
      */
     private final Vector direction;
     /**
@@ -26,7 +26,23 @@ public class SpotLight extends PointLight{
      */
     public SpotLight(Color color, Point position,Vector direction) {
         super(color, position);
-        this.direction = direction;
+        this.direction = direction.normalize();
+    }
+
+    /**
+     * Getter for the direction of the spotlight.
+     * @return the normalized direction of the spotlight
+     */
+    public Vector getDirection() {
+        return direction;
+    }
+
+    /**
+     * Getter for the narrow beam exponent of the spotlight.
+     * @return the narrow beam exponent
+     */
+    public double getNarrowBeam() {
+        return narrowBeam;
     }
 
     /**
@@ -72,12 +88,29 @@ public class SpotLight extends PointLight{
         return this;
     }
 
+    @Override
+    public boolean mayContribute(Point point, double threshold) {
+        // Outside the cone there is no contribution, inside it the beam factor
+        // scales the intensity, i.e. it raises the effective threshold
+        double factor = direction.dotProduct(getL(point));
+        if (factor <= 0) return false;
+        factor = Math.pow(factor, narrowBeam);
+        return getDistance(point) <= getInfluenceRadius(threshold / factor);
+    }
+
     @Override
     public Color getIntensity(Point p) {
         // Calculate the factor based on the angle between the spotlight's direction and the direction to the point
-        double factor = Math.max(0, direction.normalize().dotProduct(getL(p)));
+        double factor = Math.max(0, direction.dotProduct(getL(p)));
         factor= Math.pow(factor, narrowBeam); // Apply the narrow beam effect
         // Scale the parent class's intensity by the factor
         return super.getIntensity(p).scale(factor);
     }
-}
\ No newline at end of file
+
+    @Override
+    public Illumination illuminate(Point p) {
+        Illumination illumination = super.illuminate(p);
+        double factor = Math.pow(Math.max(0, direction.dotProduct(illumination.l())), narrowBeam);
+        return new Illumination(illumination.l(), illumination.distance(), illumination.intensity().scale(factor));
+    }
+}
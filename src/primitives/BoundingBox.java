@@ -0,0 +1,225 @@
+package primitives;
+
+/**
+ * Class BoundingBox represents an axis-aligned bounding box (AABB) in 3D space.
+ * It is used for a cheap rejection of rays before the exact intersection of
+ * a geometry is calculated. This class is immutable.
+ */
+public class BoundingBox {
+    /** Tolerance of the slab tests, so that flat boxes and box faces are still hit */
+    private static final double EPSILON = 1e-7;
+
+    /** The minimal coordinates of the box */
+    private final double minX, minY, minZ;
+    /** The maximal coordinates of the box */
+    private final double maxX, maxY, maxZ;
+
+    /**
+     * Constructs a bounding box from its minimal and maximal coordinates.
+     *
+     * @param minX minimal X coordinate
+     * @param minY minimal Y coordinate
+     * @param minZ minimal Z coordinate
+     * @param maxX maximal X coordinate
+     * @param maxY maximal Y coordinate
+     * @param maxZ maximal Z coordinate
+     */
+    public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * Constructs the smallest bounding box containing all the given points.
+     *
+     * @param points the points to bound
+     * @return the bounding box of the points
+     * @throws IllegalArgumentException if no points are given
+     */
+    public static BoundingBox of(Point... points) {
+        if (points.length == 0) throw new IllegalArgumentException("Cannot bound an empty set of points");
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (Point p : points) {
+            minX = Math.min(minX, p.xyz.d1());
+            minY = Math.min(minY, p.xyz.d2());
+            minZ = Math.min(minZ, p.xyz.d3());
+            maxX = Math.max(maxX, p.xyz.d1());
+            maxY = Math.max(maxY, p.xyz.d2());
+            maxZ = Math.max(maxZ, p.xyz.d3());
+        }
+        return new BoundingBox(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Constructs the smallest bounding box containing this box and another box.
+     *
+     * @param other the other box
+     * @return the united bounding box
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY), Math.min(minZ, other.minZ),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY), Math.max(maxZ, other.maxZ));
+    }
+
+    /**
+     * Getter for the minimal corner of the box.
+     *
+     * @return the point of the minimal coordinates
+     */
+    public Point getMin() {
+        return new Point(minX, minY, minZ);
+    }
+
+    /**
+     * Getter for the maximal corner of the box.
+     *
+     * @return the point of the maximal coordinates
+     */
+    public Point getMax() {
+        return new Point(maxX, maxY, maxZ);
+    }
+
+    /**
+     * Getter for a minimal coordinate of the box.
+     *
+     * @param axis the axis index (0 - X, 1 - Y, 2 - Z)
+     * @return the minimal coordinate on the axis
+     */
+    public double getMin(int axis) {
+        return axis == 0 ? minX : axis == 1 ? minY : minZ;
+    }
+
+    /**
+     * Getter for a maximal coordinate of the box.
+     *
+     * @param axis the axis index (0 - X, 1 - Y, 2 - Z)
+     * @return the maximal coordinate on the axis
+     */
+    public double getMax(int axis) {
+        return axis == 0 ? maxX : axis == 1 ? maxY : maxZ;
+    }
+
+    /**
+     * Getter for the center of the box.
+     *
+     * @return the middle point between the minimal and the maximal corners
+     */
+    public Point getCenter() {
+        return new Point((minX + maxX) / 2, (minY + maxY) / 2, (minZ + maxZ) / 2);
+    }
+
+    /**
+     * Getter for a coordinate of the center of the box.
+     *
+     * @param axis the axis index (0 - X, 1 - Y, 2 - Z)
+     * @return the center coordinate on the axis
+     */
+    public double getCenter(int axis) {
+        return axis == 0 ? (minX + maxX) / 2 : axis == 1 ? (minY + maxY) / 2 : (minZ + maxZ) / 2;
+    }
+
+    /**
+     * Calculates the surface area of the box, which is proportional to the probability
+     * that a random ray crossing an enclosing box also crosses this box.
+     *
+     * @return the surface area
+     */
+    public double surfaceArea() {
+        double x = maxX - minX, y = maxY - minY, z = maxZ - minZ;
+        return 2 * (x * y + y * z + z * x);
+    }
+
+    /**
+     * Finds the axis along which the box is the longest.
+     *
+     * @return the axis index (0 - X, 1 - Y, 2 - Z)
+     */
+    public int getLongestAxis() {
+        double x = maxX - minX, y = maxY - minY, z = maxZ - minZ;
+        return x >= y && x >= z ? 0 : y >= z ? 1 : 2;
+    }
+
+    /**
+     * Checks whether a ray intersects the box, using the slab method.
+     *
+     * @param ray the ray to check
+     * @return true if the ray (in its positive direction) passes through the box
+     */
+    public boolean intersects(Ray ray) {
+        Double3 head = ray.getHead().xyz;
+        Double3 dir = ray.getDirection().xyz;
+        double[] range = {0, Double.POSITIVE_INFINITY};
+        return slab(head.d1(), dir.d1(), minX, maxX, range)
+                && slab(head.d2(), dir.d2(), minY, maxY, range)
+                && slab(head.d3(), dir.d3(), minZ, maxZ, range);
+    }
+
+    /**
+     * Checks conservatively whether any ray of a coherent packet may intersect the box,
+     * using interval arithmetic on the packet's origin and inverse direction bounds.
+     * A single test rejects the box for the whole packet.
+     *
+     * @param packet the coherent ray packet
+     * @return false if no ray of the packet intersects the box, true if some ray may intersect it
+     */
+    public boolean mayIntersect(RayPacket packet) {
+        double[] range = {0, Double.POSITIVE_INFINITY};
+        return packetSlab(packet, 0, minX, maxX, range)
+                && packetSlab(packet, 1, minY, maxY, range)
+                && packetSlab(packet, 2, minZ, maxZ, range);
+    }
+
+    /**
+     * Narrows the ray parameter range by the slab of one axis.
+     *
+     * @param origin the ray origin coordinate
+     * @param dir    the ray direction coordinate
+     * @param min    the minimal coordinate of the slab
+     * @param max    the maximal coordinate of the slab
+     * @param range  the current parameter range [tEnter, tExit], updated in place
+     * @return true if the range is still non-empty
+     */
+    private static boolean slab(double origin, double dir, double min, double max, double[] range) {
+        if (dir == 0) return origin >= min - EPSILON && origin <= max + EPSILON;
+        double t1 = (min - EPSILON - origin) / dir;
+        double t2 = (max + EPSILON - origin) / dir;
+        range[0] = Math.max(range[0], Math.min(t1, t2));
+        range[1] = Math.min(range[1], Math.max(t1, t2));
+        return range[0] <= range[1];
+    }
+
+    /**
+     * Narrows the conservative parameter range of a packet by the slab of one axis.
+     *
+     * @param packet the coherent ray packet
+     * @param axis   the axis index (0 - X, 1 - Y, 2 - Z)
+     * @param min    the minimal coordinate of the slab
+     * @param max    the maximal coordinate of the slab
+     * @param range  the current conservative range [lowest tEnter, highest tExit], updated in place
+     * @return true if the range is still non-empty
+     */
+    private static boolean packetSlab(RayPacket packet, int axis, double min, double max, double[] range) {
+        double oMin = packet.minOrigin(axis), oMax = packet.maxOrigin(axis);
+        double iMin = packet.minInverseDirection(axis), iMax = packet.maxInverseDirection(axis);
+        // Swap the slab planes for negative directions, as in the single ray test
+        double near = iMin > 0 ? min - EPSILON : max + EPSILON;
+        double far = iMin > 0 ? max + EPSILON : min - EPSILON;
+        double enter = Math.min(Math.min((near - oMin) * iMin, (near - oMin) * iMax),
+                Math.min((near - oMax) * iMin, (near - oMax) * iMax));
+        double exit = Math.max(Math.max((far - oMin) * iMin, (far - oMin) * iMax),
+                Math.max((far - oMax) * iMin, (far - oMax) * iMax));
+        range[0] = Math.max(range[0], enter);
+        range[1] = Math.min(range[1], exit);
+        return range[0] <= range[1];
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox{" + getMin() + " - " + getMax() + "}";
+    }
+}
@@ -1,13 +1,18 @@
 package primitives;
 
-public class Material {
+/**
+ * The Material class holds the coefficients of the shading of a geometry. A material is an
+ * immutable value, like {@link Double3} and {@link Color}: every setter returns a new material with
+ * the changed coefficient, so a material may be shared by any number of geometries.
+ */
+public final class Material {
     /**
      * The ambient reflection coefficient.
      * <p>
      * This determines the proportion of ambient light reflected by the material.
      * Ambient light is uniform and does not depend on the direction of the light source.
      */
-    public Double3 kA = Double3.ONE;
+    public final Double3 kA;
 
     /**
      * The diffuse reflection coefficient.
@@ -15,7 +20,7 @@ public class Material {
      * This determines the proportion of diffuse light reflected by the material.
      * Diffuse reflection depends on the angle between the light source and the surface normal.
      */
-    public Double3 kD = Double3.ZERO;
+    public final Double3 kD;
 
     /**
      * The specular reflection coefficient.
@@ -23,14 +28,14 @@ public class Material {
      * This determines the proportion of specular light reflected by the material.
      * Specular reflection creates highlights and depends on the angle between the viewer and the reflection direction.
      */
-    public Double3 kS = Double3.ZERO;
+    public final Double3 kS;
 
     /**
      * The shininess factor.
      * <p>
      * This determines the sharpness of specular highlights. Higher values result in smaller, sharper highlights.
      */
-    public int nShininess = 0;
+    public final int nShininess;
 
     /**
      * The transparency coefficient.
@@ -38,7 +43,7 @@ public class Material {
      * This determines the proportion of light that passes through the material (refraction).
      * A value of 0 means the material is opaque, while higher values indicate greater transparency.
      */
-    public Double3 kT = Double3.ZERO;
+    public final Double3 kT;
 
     /**
      * The reflection coefficient.
@@ -46,117 +51,179 @@ public class Material {
      * This determines the proportion of light that is reflected by the material (mirror-like reflection).
      * A value of 0 means no reflection, while higher values indicate greater reflectivity.
      */
-    public Double3 kR = Double3.ZERO;
+    public final Double3 kR;
+
+    /**
+     * The glossiness of the reflection.
+     * <p>
+     * The reflected rays are spread in a cone around the mirror direction, whose half-angle
+     * has this tangent. A value of 0 means a perfect mirror, while higher values give a
+     * blurrier, brushed-metal-like reflection.
+     */
+    public final double glossiness;
+
+    /**
+     * The blur of the transmission.
+     * <p>
+     * The transmitted rays are spread in a cone around the refraction direction, whose half-angle
+     * has this tangent. A value of 0 means clear transparency, while higher values give a
+     * diffuse, frosted-glass-like transmission.
+     */
+    public final double blur;
+
+    /**
+     * Constructs a material with the default coefficients - a full ambient reflection and nothing else.
+     */
+    public Material() {
+        this(Double3.ONE, Double3.ZERO, Double3.ZERO, 0, Double3.ZERO, Double3.ZERO, 0, 0);
+    }
+
+    /**
+     * Constructs a material with all its coefficients.
+     *
+     * @param kA         the ambient reflection coefficient
+     * @param kD         the diffuse reflection coefficient
+     * @param kS         the specular reflection coefficient
+     * @param nShininess the shininess factor
+     * @param kT         the transparency coefficient
+     * @param kR         the reflection coefficient
+     * @param glossiness the glossiness of the reflection
+     * @param blur       the blur of the transmission
+     */
+    private Material(Double3 kA, Double3 kD, Double3 kS, int nShininess, Double3 kT, Double3 kR,
+                     double glossiness, double blur) {
+        this.kA = kA;
+        this.kD = kD;
+        this.kS = kS;
+        this.nShininess = nShininess;
+        this.kT = kT;
+        this.kR = kR;
+        this.glossiness = glossiness;
+        this.blur = blur;
+    }
 
     /**
      * setter for kA- the ambient reflection coefficient.
      * @param kA
-     * @return Material after setting kA
+     * @return a new material with the changed kA
      */
     public Material setKA(Double3 kA) {
-        this.kA = kA;
-        return this;
+        return new Material(kA, kD, kS, nShininess, kT, kR, glossiness, blur);
     }
 
     /**
      * Setter for kA- the ambient reflection coefficient.
      * @param kA
-     * @return Material after setting kA
+     * @return a new material with the changed kA
      */
     public Material setKA(double kA) {
-        this.kA = new Double3(kA);
-        return this;
+        return new Material(new Double3(kA), kD, kS, nShininess, kT, kR, glossiness, blur);
     }
     /**
      * setter for kD- the diffuse reflection coefficient.
      * @param kD
-     * @return Material after setting kD
+     * @return a new material with the changed kD
      */
     public Material setKD(Double3 kD) {
-        this.kD = kD;
-        return this;
+        return new Material(kA, kD, kS, nShininess, kT, kR, glossiness, blur);
     }
 
     /**
      * Setter for kD- the diffuse reflection coefficient.
      * @param kD
-     * @return Material after setting kD
+     * @return a new material with the changed kD
      */
     public Material setKD(double kD) {
-        this.kD = new Double3(kD);
-        return this;
+        return new Material(kA, new Double3(kD), kS, nShininess, kT, kR, glossiness, blur);
     }
     /**
      * Setter for kS- the specular reflection coefficient.
      * @param kS
-     * @return Material after setting kS
+     * @return a new material with the changed kS
      */
     public Material setKS(Double3 kS) {
-        this.kS = kS;
-        return this;
+        return new Material(kA, kD, kS, nShininess, kT, kR, glossiness, blur);
     }
 
     /**
      * Setter for kS- the specular reflection coefficient.
      * @param kS
-     * @return Material after setting kS
+     * @return a new material with the changed kS
      */
     public Material setKS(double kS) {
-        this.kS = new Double3(kS);
-        return this;
+        return new Material(kA, kD, new Double3(kS), nShininess, kT, kR, glossiness, blur);
     }
 
     /**
      * Setter for nShininess- the shininess coefficient.
      * @param nShininess
-     * @return Material after setting nShininess
+     * @return a new material with the changed nShininess
      */
     public Material setShininess(int nShininess) {
-        this.nShininess = nShininess;
-        return this;
+        return new Material(kA, kD, kS, nShininess, kT, kR, glossiness, blur);
     }
 
     /**
      * Sets the transparency coefficient using a `Double3` value.
      *
      * @param kT The transparency coefficient.
-     * @return The current `Material` instance (for method chaining).
+     * @return A new material with the changed coefficient (for method chaining).
      */
     public Material setKT(Double3 kT) {
-        this.kT = kT;
-        return this;
+        return new Material(kA, kD, kS, nShininess, kT, kR, glossiness, blur);
     }
 
     /**
      * Sets the transparency coefficient using a single double value.
      *
      * @param value The transparency coefficient.
-     * @return The current `Material` instance (for method chaining).
+     * @return A new material with the changed coefficient (for method chaining).
      */
     public Material setKT(double value) {
-        this.kT = new Double3(value);
-        return this;
+        return new Material(kA, kD, kS, nShininess, new Double3(value), kR, glossiness, blur);
     }
 
     /**
      * Sets the reflection coefficient using a `Double3` value.
      *
      * @param kR The reflection coefficient.
-     * @return The current `Material` instance (for method chaining).
+     * @return A new material with the changed coefficient (for method chaining).
      */
     public Material setKR(Double3 kR) {
-        this.kR = kR;
-        return this;
+        return new Material(kA, kD, kS, nShininess, kT, kR, glossiness, blur);
     }
 
     /**
      * Sets the reflection coefficient using a single double value.
      *
      * @param value The reflection coefficient.
-     * @return The current `Material` instance (for method chaining).
+     * @return A new material with the changed coefficient (for method chaining).
      */
     public Material setKR(double value) {
-        this.kR = new Double3(value);
-        return this;
+        return new Material(kA, kD, kS, nShininess, kT, new Double3(value), glossiness, blur);
+    }
+
+    /**
+     * Sets the glossiness of the reflection.
+     *
+     * @param glossiness The tangent of the half-angle of the reflection cone, 0 for a perfect mirror.
+     * @return A new material with the changed coefficient (for method chaining).
+     * @throws IllegalArgumentException if the glossiness is negative
+     */
+    public Material setGlossiness(double glossiness) {
+        if (glossiness < 0) throw new IllegalArgumentException("Glossiness must be non-negative");
+        return new Material(kA, kD, kS, nShininess, kT, kR, glossiness, blur);
+    }
+
+    /**
+     * Sets the blur of the transmission.
+     *
+     * @param blur The tangent of the half-angle of the transmission cone, 0 for clear transparency.
+     * @return A new material with the changed coefficient (for method chaining).
+     * @throws IllegalArgumentException if the blur is negative
+     */
+    public Material setBlur(double blur) {
+        if (blur < 0) throw new IllegalArgumentException("Blur must be non-negative");
+        return new Material(kA, kD, kS, nShininess, kT, kR, glossiness, blur);
     }
 }
@@ -0,0 +1,179 @@
+package primitives;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The MaterialRegistry class interns the materials and the emission colors of the geometries, so
+ * that all the geometries with the same material share a single {@link Material} object and all
+ * the geometries with the same emission share a single {@link Color} object.
+ * <p>
+ * Materials are compared by the exact values of all their coefficients. Materials and colors are
+ * immutable, so the first registered object of each value is shared as is and no sharer can change
+ * the value seen by the others.
+ * </p>
+ * <p>
+ * The registry holds its entries weakly: an entry is released as soon as no geometry uses it, so
+ * the registry does not grow with every scene that is loaded in the process. The registry is safe
+ * for concurrent use.
+ * </p>
+ */
+public final class MaterialRegistry {
+    /** The default material - a {@link Material} with the default coefficients, never released */
+    public static final Material DEFAULT_MATERIAL;
+
+    /** The shared materials, by their values */
+    private static final Map<Key, Entry<Material>> materials = new HashMap<>();
+    /** The shared emission colors, by their values */
+    private static final Map<Key, Entry<Color>> emissions = new HashMap<>();
+    /** The queue of the released shared materials */
+    private static final ReferenceQueue<Material> releasedMaterials = new ReferenceQueue<>();
+    /** The queue of the released shared emission colors */
+    private static final ReferenceQueue<Color> releasedEmissions = new ReferenceQueue<>();
+
+    static {
+        DEFAULT_MATERIAL = intern(new Material());
+        intern(Color.BLACK);
+    }
+
+    /** Utility class - no instances */
+    private MaterialRegistry() {
+    }
+
+    /**
+     * Returns the shared instance of a material - the registered material with the same values.
+     * Materials are immutable, so the first registered material is shared as is.
+     *
+     * @param material the material
+     * @return the shared material
+     * @throws IllegalArgumentException if the material is null
+     */
+    public static synchronized Material intern(Material material) {
+        if (material == null) throw new IllegalArgumentException("Material must not be null");
+        expunge(materials, releasedMaterials);
+        Key key = key(material);
+        Entry<Material> entry = materials.get(key);
+        Material shared = entry == null ? null : entry.get();
+        if (shared == null) {
+            shared = material;
+            materials.put(key, new Entry<>(shared, key, releasedMaterials));
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the shared instance of an emission color - the registered color with the same
+     * components. Colors are immutable, so the first registered color is shared as is.
+     *
+     * @param emission the emission color
+     * @return the shared color
+     * @throws IllegalArgumentException if the color is null
+     */
+    public static synchronized Color intern(Color emission) {
+        if (emission == null) throw new IllegalArgumentException("Emission must not be null");
+        expunge(emissions, releasedEmissions);
+        Key key = key(emission);
+        Entry<Color> entry = emissions.get(key);
+        Color shared = entry == null ? null : entry.get();
+        if (shared == null) {
+            shared = emission;
+            emissions.put(key, new Entry<>(shared, key, releasedEmissions));
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the number of the shared materials that are still in use.
+     *
+     * @return the number of materials
+     */
+    public static synchronized int size() {
+        expunge(materials, releasedMaterials);
+        return materials.size();
+    }
+
+    /**
+     * Removes the entries of the released shared objects from a map.
+     *
+     * @param map      the map
+     * @param released the queue of the released shared objects of the map
+     * @param <T>      the type of the shared objects
+     */
+    private static <T> void expunge(Map<Key, Entry<T>> map, ReferenceQueue<T> released) {
+        for (Object reference; (reference = released.poll()) != null; ) {
+            Entry<?> entry = (Entry<?>) reference;
+            map.remove(entry.key, entry);
+        }
+    }
+
+    /**
+     * Creates the key of a material from all its coefficients.
+     *
+     * @param material the material
+     * @return the key
+     */
+    private static Key key(Material material) {
+        return new Key(new double[]{
+                material.kA.d1(), material.kA.d2(), material.kA.d3(),
+                material.kD.d1(), material.kD.d2(), material.kD.d3(),
+                material.kS.d1(), material.kS.d2(), material.kS.d3(),
+                material.kT.d1(), material.kT.d2(), material.kT.d3(),
+                material.kR.d1(), material.kR.d2(), material.kR.d3(),
+                material.nShininess, material.glossiness, material.blur});
+    }
+
+    /**
+     * Creates the key of a color from its components.
+     *
+     * @param color the color
+     * @return the key
+     */
+    private static Key key(Color color) {
+        Double3 rgb = color.getRgb();
+        return new Key(new double[]{rgb.d1(), rgb.d2(), rgb.d3()});
+    }
+
+    /**
+     * A key of the registry - the exact values of a material or a color.
+     *
+     * @param values the values
+     */
+    private record Key(double[] values) {
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key other && Arrays.equals(values, other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+
+    /**
+     * An entry of the registry - a weak reference to a shared object, which remembers its key so
+     * that the entry can be removed once the object is released.
+     *
+     * @param <T> the type of the shared object
+     */
+    private static final class Entry<T> extends WeakReference<T> {
+        /** The key of the shared object */
+        private final Key key;
+
+        /**
+         * Constructs an entry of a shared object.
+         *
+         * @param shared   the shared object
+         * @param key      the key of the shared object
+         * @param released the queue of the released shared objects
+         */
+        private Entry(T shared, Key key, ReferenceQueue<T> released) {
+            super(shared, released);
+            this.key = key;
+        }
+    }
+
+}
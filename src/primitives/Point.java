@@ -75,6 +75,33 @@ public class Point {
         return Math.sqrt(distanceSquared(p));
     }
 
+    /**
+     * Getter for the X coordinate of the point.
+     *
+     * @return the X coordinate
+     */
+    public double getX() {
+        return xyz.d1();
+    }
+
+    /**
+     * Getter for the Y coordinate of the point.
+     *
+     * @return the Y coordinate
+     */
+    public double getY() {
+        return xyz.d2();
+    }
+
+    /**
+     * Getter for the Z coordinate of the point.
+     *
+     * @return the Z coordinate
+     */
+    public double getZ() {
+        return xyz.d3();
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
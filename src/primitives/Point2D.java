@@ -12,6 +12,27 @@ public class Point2D {
     public double getX() { return x; }
     public double getY() { return y; }
 
+    /**
+     * Maps this point of the unit square [0,1]x[0,1] onto the unit disk around the origin,
+     * by the concentric mapping, which preserves the uniformity of the samples.
+     * The corners of the square are mapped onto the circle.
+     *
+     * @return the point on the unit disk
+     */
+    public Point2D toUnitDisk() {
+        double a = 2 * x - 1, b = 2 * y - 1;
+        if (a == 0 && b == 0) return new Point2D(0, 0);
+        double r, phi;
+        if (Math.abs(a) > Math.abs(b)) {
+            r = a;
+            phi = Math.PI / 4 * (b / a);
+        } else {
+            r = b;
+            phi = Math.PI / 2 - Math.PI / 4 * (a / b);
+        }
+        return new Point2D(r * Math.cos(phi), r * Math.sin(phi));
+    }
+
     @Override
     public String toString() {
         return "Point2D(" + x + ", " + y + ")";
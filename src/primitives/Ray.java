@@ -12,6 +12,7 @@ import static primitives.Util.isZero;
 public class Ray {
     private final Point head;
     private final Vector direction;
+    private final double time; // The shutter time of the ray, for motion blur
     private static final double DELTA = 0.1; // A small delta value to avoid self-intersection issues
 
     /**
@@ -23,8 +24,21 @@ public class Ray {
      * @throws IllegalArgumentException If the direction vector is a zero vector.
      */
     public Ray(Point head, Vector direction) {
+        this(head, direction, 0d);
+    }
+
+    /**
+     * Constructs a Ray with a given head point, direction vector and shutter time.
+     *
+     * @param head The starting point of the ray.
+     * @param direction The direction vector of the ray (will be normalized).
+     * @param time The time within the camera shutter interval at which the ray is cast.
+     * @throws IllegalArgumentException If the direction vector is a zero vector.
+     */
+    public Ray(Point head, Vector direction, double time) {
         this.head = head;
         this.direction = direction.normalize();
+        this.time = time;
     }
 
     /**
@@ -38,10 +52,25 @@ public class Ray {
      * @param normal    the normal vector used to adjust the starting point
      */
     public Ray(Point head, Vector direction, Vector normal) {
+        this(head, direction, normal, 0);
+    }
+
+    /**
+     * Constructs a new {@code Ray} with a given starting point, direction vector, normal vector
+     * and shutter time. The starting point is moved slightly along the normal vector, as in
+     * {@link #Ray(Point, Vector, Vector)}.
+     *
+     * @param head      the starting point of the ray
+     * @param direction the direction vector of the ray (will be normalized)
+     * @param normal    the normal vector used to adjust the starting point
+     * @param time      the time within the camera shutter interval at which the ray is cast
+     */
+    public Ray(Point head, Vector direction, Vector normal, double time) {
         double dot = alignZero(direction.dotProduct(normal));
         double scaleFactor = (dot > 0 ? DELTA : -DELTA);
         this.head = head.add(normal.scale(scaleFactor));
         this.direction = direction.normalize();
+        this.time = time;
     }
 
     /**
@@ -62,6 +91,15 @@ public class Ray {
         return direction;
     }
 
+    /**
+     * Returns the shutter time of the ray - the time at which moving geometries are intersected.
+     *
+     * @return The time of the ray (0 for a still ray).
+     */
+    public double getTime() {
+        return time;
+    }
+
 
 
     /**
@@ -102,16 +140,18 @@ public class Ray {
     }
 
     /**
-     * Finds the closest point to the head of the ray from a list of points.
+     * Finds the closest intersection to the head of the ray from a list of intersections of the
+     * ray. The intersections are compared by their distances along the ray, so their points are
+     * not calculated; only the intersections whose distance is unknown are compared by their points.
      *
-     * @param intersections The list of points to search.
-     * @return The closest point to the head of the ray.
+     * @param intersections The list of intersections of the ray to search.
+     * @return The closest intersection to the head of the ray.
      */
     public Intersection findClosestIntersection(List<Intersection> intersections) {
         Intersection closest = null;
         double minDistance = Double.POSITIVE_INFINITY;
         for (Intersection p : intersections) {
-            double distance = head.distance(p.point);
+            double distance = Double.isNaN(p.t) ? head.distance(p.point()) : p.t;
             if (distance < minDistance) {
                 minDistance = distance;
                 closest = p;
@@ -120,6 +160,23 @@ public class Ray {
         return closest;
     }
 
+    /**
+     * Calculates the distance of an intersection of the ray from a point. The intersection point
+     * is not calculated if its distance along the ray is known.
+     *
+     * @param point        the point
+     * @param intersection an intersection of the ray
+     * @return the distance between the point and the intersection point
+     */
+    public double distance(Point point, Intersection intersection) {
+        double t = intersection.t;
+        if (Double.isNaN(t)) return point.distance(intersection.point());
+        double x = head.getX() - point.getX() + direction.getX() * t;
+        double y = head.getY() - point.getY() + direction.getY() * t;
+        double z = head.getZ() - point.getZ() + direction.getZ() * t;
+        return Math.sqrt(x * x + y * y + z * z);
+    }
+
     /**
      * Finds the closest point to the head of the ray from a list of points.
      *
@@ -128,6 +185,6 @@ public class Ray {
      */
     public Point findClosestPoint(List<Point> points) {
         return points == null || points.isEmpty() ? null
-                : findClosestIntersection(points.stream().map(p -> new Intersection(null, p)).toList()).point;
+                : findClosestIntersection(points.stream().map(p -> new Intersection(null, p)).toList()).point();
     }
 }
@@ -0,0 +1,147 @@
+package primitives;
+
+/**
+ * Class RayPacket represents a small group of rays that are traced together,
+ * e.g. the primary rays of a 2&times;2 or 4&times;4 block of pixels, or the shadow rays
+ * of such a block toward the same light source.
+ * <p>
+ * A packet is coherent if all its directions have the same sign on every axis and are
+ * close to each other. For a coherent packet the bounds of its origins and inverse
+ * directions are kept, so that a bounding box can be rejected for the whole packet with
+ * a single test (see {@link BoundingBox#mayIntersect(RayPacket)}). An incoherent packet
+ * falls back to testing its rays one by one.
+ * </p>
+ */
+public class RayPacket {
+    /** Minimal cosine of the angle between the directions of a coherent packet */
+    private static final double COHERENCE = 0.9;
+
+    /** The rays of the packet */
+    private final Ray[] rays;
+    /** Whether the rays of the packet are coherent */
+    private final boolean coherent;
+    /** Bounds of the origins per axis (valid for a coherent packet only) */
+    private final double[] minOrigin = new double[3], maxOrigin = new double[3];
+    /** Bounds of the inverse directions per axis (valid for a coherent packet only) */
+    private final double[] minInverse = new double[3], maxInverse = new double[3];
+
+    /**
+     * Constructs a packet of the given rays.
+     *
+     * @param rays the rays of the packet
+     * @throws IllegalArgumentException if the packet is empty
+     */
+    public RayPacket(Ray... rays) {
+        if (rays.length == 0) throw new IllegalArgumentException("A ray packet cannot be empty");
+        this.rays = rays;
+        this.coherent = computeBounds();
+    }
+
+    /**
+     * Calculates the origin and inverse direction bounds of the packet.
+     *
+     * @return true if the packet is coherent
+     */
+    private boolean computeBounds() {
+        Vector first = rays[0].getDirection();
+        for (int axis = 0; axis < 3; ++axis) {
+            minOrigin[axis] = minInverse[axis] = Double.POSITIVE_INFINITY;
+            maxOrigin[axis] = maxInverse[axis] = Double.NEGATIVE_INFINITY;
+        }
+        for (Ray ray : rays) {
+            Double3 head = ray.getHead().xyz;
+            Double3 dir = ray.getDirection().xyz;
+            if (ray.getDirection().dotProduct(first) < COHERENCE) return false;
+            double[] o = {head.d1(), head.d2(), head.d3()};
+            double[] d = {dir.d1(), dir.d2(), dir.d3()};
+            for (int axis = 0; axis < 3; ++axis) {
+                // Directions parallel to an axis or of different signs make the packet diverge
+                if (Util.isZero(d[axis]) || !Util.compareSign(d[axis], component(first, axis)))
+                    return false;
+                minOrigin[axis] = Math.min(minOrigin[axis], o[axis]);
+                maxOrigin[axis] = Math.max(maxOrigin[axis], o[axis]);
+                minInverse[axis] = Math.min(minInverse[axis], 1 / d[axis]);
+                maxInverse[axis] = Math.max(maxInverse[axis], 1 / d[axis]);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a coordinate of a vector.
+     *
+     * @param v    the vector
+     * @param axis the axis index (0 - X, 1 - Y, 2 - Z)
+     * @return the coordinate
+     */
+    private static double component(Vector v, int axis) {
+        return axis == 0 ? v.xyz.d1() : axis == 1 ? v.xyz.d2() : v.xyz.d3();
+    }
+
+    /**
+     * Getter for the rays of the packet.
+     *
+     * @return the rays
+     */
+    public Ray[] getRays() {
+        return rays;
+    }
+
+    /**
+     * Getter for the amount of rays in the packet.
+     *
+     * @return the packet size
+     */
+    public int size() {
+        return rays.length;
+    }
+
+    /**
+     * Checks whether the packet is coherent and may be tested as a whole.
+     *
+     * @return true if the packet is coherent
+     */
+    public boolean isCoherent() {
+        return coherent;
+    }
+
+    /**
+     * Lowest origin coordinate of the packet on an axis.
+     *
+     * @param axis the axis index (0 - X, 1 - Y, 2 - Z)
+     * @return the coordinate
+     */
+    double minOrigin(int axis) {
+        return minOrigin[axis];
+    }
+
+    /**
+     * Highest origin coordinate of the packet on an axis.
+     *
+     * @param axis the axis index (0 - X, 1 - Y, 2 - Z)
+     * @return the coordinate
+     */
+    double maxOrigin(int axis) {
+        return maxOrigin[axis];
+    }
+
+    /**
+     * Lowest inverse direction coordinate of the packet on an axis.
+     *
+     * @param axis the axis index (0 - X, 1 - Y, 2 - Z)
+     * @return the coordinate
+     */
+    double minInverseDirection(int axis) {
+        return minInverse[axis];
+    }
+
+    /**
+     * Highest inverse direction coordinate of the packet on an axis.
+     *
+     * @param axis the axis index (0 - X, 1 - Y, 2 - Z)
+     * @return the coordinate
+     */
+    double maxInverseDirection(int axis) {
+        return maxInverse[axis];
+    }
+}
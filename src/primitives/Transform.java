@@ -0,0 +1,253 @@
+package primitives;
+
+import java.util.Arrays;
+
+import static primitives.Util.isZero;
+
+/**
+ * Class Transform represents an affine transform of the 3D space - a 4x4 matrix whose last row
+ * is (0, 0, 0, 1). It transforms points (including the translation), direction vectors (without
+ * the translation) and surface normals (by the inverse transpose of the matrix).
+ * <p>
+ * The inverse matrix is kept with the matrix: it is calculated once when a transform is created,
+ * and the inverse of a composed transform is composed from the inverses of its parts.
+ * This class is immutable.
+ * </p>
+ */
+public class Transform {
+    /** The identity transform */
+    public static final Transform IDENTITY = new Transform(
+            new double[]{1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0},
+            new double[]{1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0});
+
+    /** The first three rows of the matrix, row by row (the last row is always 0, 0, 0, 1) */
+    private final double[] m;
+    /** The first three rows of the inverse matrix, in the same layout */
+    private final double[] inv;
+
+    /**
+     * Constructs a transform from a matrix and its inverse.
+     *
+     * @param m   the first three rows of the matrix
+     * @param inv the first three rows of the inverse matrix
+     */
+    private Transform(double[] m, double[] inv) {
+        this.m = m;
+        this.inv = inv;
+    }
+
+    /**
+     * Creates a translation.
+     *
+     * @param offset the translation vector
+     * @return the translation transform
+     */
+    public static Transform translation(Vector offset) {
+        Double3 d = offset.xyz;
+        return new Transform(
+                new double[]{1, 0, 0, d.d1(), 0, 1, 0, d.d2(), 0, 0, 1, d.d3()},
+                new double[]{1, 0, 0, -d.d1(), 0, 1, 0, -d.d2(), 0, 0, 1, -d.d3()});
+    }
+
+    /**
+     * Creates a scaling about the origin.
+     *
+     * @param x the scale factor along the X axis
+     * @param y the scale factor along the Y axis
+     * @param z the scale factor along the Z axis
+     * @return the scaling transform
+     * @throws IllegalArgumentException if a scale factor is zero
+     */
+    public static Transform scaling(double x, double y, double z) {
+        if (isZero(x) || isZero(y) || isZero(z))
+            throw new IllegalArgumentException("Scale factors must not be zero");
+        return new Transform(
+                new double[]{x, 0, 0, 0, 0, y, 0, 0, 0, 0, z, 0},
+                new double[]{1 / x, 0, 0, 0, 0, 1 / y, 0, 0, 0, 0, 1 / z, 0});
+    }
+
+    /**
+     * Creates a uniform scaling about the origin.
+     *
+     * @param factor the scale factor
+     * @return the scaling transform
+     * @throws IllegalArgumentException if the scale factor is zero
+     */
+    public static Transform scaling(double factor) {
+        return scaling(factor, factor, factor);
+    }
+
+    /**
+     * Creates a rotation about an axis through the origin (right-handed).
+     *
+     * @param axis  the rotation axis
+     * @param angle the rotation angle, in degrees
+     * @return the rotation transform
+     */
+    public static Transform rotation(Vector axis, double angle) {
+        Double3 a = axis.normalize().xyz;
+        double x = a.d1(), y = a.d2(), z = a.d3();
+        double rad = Math.toRadians(angle);
+        double c = Math.cos(rad), s = Math.sin(rad), t = 1 - c;
+        double[] rotation = {
+                t * x * x + c, t * x * y - s * z, t * x * z + s * y, 0,
+                t * x * y + s * z, t * y * y + c, t * y * z - s * x, 0,
+                t * x * z - s * y, t * y * z + s * x, t * z * z + c, 0};
+        // The inverse of a rotation is its transpose
+        double[] inverse = {
+                rotation[0], rotation[4], rotation[8], 0,
+                rotation[1], rotation[5], rotation[9], 0,
+                rotation[2], rotation[6], rotation[10], 0};
+        return new Transform(rotation, inverse);
+    }
+
+    /**
+     * Composes this transform with another one, so that the other transform is applied first.
+     *
+     * @param other the transform to apply before this one
+     * @return the composed transform (this × other)
+     */
+    public Transform multiply(Transform other) {
+        return new Transform(multiply(m, other.m), multiply(other.inv, inv));
+    }
+
+    /**
+     * Creates the inverse transform.
+     *
+     * @return the transform that undoes this transform
+     */
+    public Transform inverse() {
+        return new Transform(inv, m);
+    }
+
+    /**
+     * Transforms a point.
+     *
+     * @param p the point
+     * @return the transformed point
+     */
+    public Point transform(Point p) {
+        return new Point(apply(m, p.xyz, 1));
+    }
+
+    /**
+     * Transforms a direction vector, ignoring the translation.
+     *
+     * @param v the vector
+     * @return the transformed vector (not normalized)
+     */
+    public Vector transform(Vector v) {
+        return new Vector(apply(m, v.xyz, 0));
+    }
+
+    /**
+     * Transforms a point by the inverse transform.
+     *
+     * @param p the point
+     * @return the point that this transform maps to the given point
+     */
+    public Point inverseTransform(Point p) {
+        return new Point(apply(inv, p.xyz, 1));
+    }
+
+    /**
+     * Transforms a direction vector by the inverse transform, ignoring the translation.
+     *
+     * @param v the vector
+     * @return the vector that this transform maps to the given vector (not normalized)
+     */
+    public Vector inverseTransform(Vector v) {
+        return new Vector(apply(inv, v.xyz, 0));
+    }
+
+    /**
+     * Transforms a surface normal by the inverse transpose of the matrix, so that it stays
+     * perpendicular to the transformed surface.
+     *
+     * @param n the normal
+     * @return the transformed normal, normalized
+     */
+    public Vector transformNormal(Vector n) {
+        Double3 d = n.xyz;
+        return new Vector(
+                inv[0] * d.d1() + inv[4] * d.d2() + inv[8] * d.d3(),
+                inv[1] * d.d1() + inv[5] * d.d2() + inv[9] * d.d3(),
+                inv[2] * d.d1() + inv[6] * d.d2() + inv[10] * d.d3()).normalize();
+    }
+
+    /**
+     * Transforms the bounding box of an object into the bounding box of the transformed object,
+     * by bounding the eight transformed corners of the box.
+     *
+     * @param box the box, null for an unbounded object
+     * @return the transformed box, null for an unbounded object
+     */
+    public BoundingBox transform(BoundingBox box) {
+        if (box == null) return null;
+        Double3 min = box.getMin().xyz, max = box.getMax().xyz;
+        Point[] corners = new Point[8];
+        for (int k = 0; k < 8; ++k)
+            corners[k] = transform(new Point((k & 1) == 0 ? min.d1() : max.d1(),
+                    (k & 2) == 0 ? min.d2() : max.d2(),
+                    (k & 4) == 0 ? min.d3() : max.d3()));
+        return BoundingBox.of(corners);
+    }
+
+    /**
+     * Multiplies the matrix by a homogeneous vector.
+     *
+     * @param matrix the first three rows of the matrix
+     * @param d      the first three coordinates of the vector
+     * @param w      the fourth coordinate - 1 for a point, 0 for a direction
+     * @return the first three coordinates of the product
+     */
+    private static Double3 apply(double[] matrix, Double3 d, double w) {
+        return new Double3(
+                matrix[0] * d.d1() + matrix[1] * d.d2() + matrix[2] * d.d3() + matrix[3] * w,
+                matrix[4] * d.d1() + matrix[5] * d.d2() + matrix[6] * d.d3() + matrix[7] * w,
+                matrix[8] * d.d1() + matrix[9] * d.d2() + matrix[10] * d.d3() + matrix[11] * w);
+    }
+
+    /**
+     * Multiplies two affine matrices.
+     *
+     * @param a the first three rows of the left matrix
+     * @param b the first three rows of the right matrix
+     * @return the first three rows of the product a × b
+     */
+    private static double[] multiply(double[] a, double[] b) {
+        double[] product = new double[12];
+        for (int row = 0; row < 3; ++row) {
+            for (int col = 0; col < 4; ++col) {
+                double sum = a[row * 4] * b[col] + a[row * 4 + 1] * b[4 + col] + a[row * 4 + 2] * b[8 + col];
+                product[row * 4 + col] = col == 3 ? sum + a[row * 4 + 3] : sum;
+            }
+        }
+        return product;
+    }
+
+    /**
+     * Compares the matrices exactly, so that equal transforms have equal hash codes. Transforms
+     * that differ by a rounding error are not equal.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Transform other)) return false;
+        for (int k = 0; k < 12; ++k)
+            if (m[k] != other.m[k]) return false;
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (double value : m) hash = 31 * hash + Double.hashCode(value + 0.0); // -0.0 hashes as 0.0
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "Transform" + Arrays.toString(m);
+    }
+}
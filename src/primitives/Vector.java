@@ -68,6 +68,18 @@ public class Vector extends Point {
         return new Vector(x, y, z);
     }
 
+    /**
+     * Creates a unit vector orthogonal to this vector.
+     *
+     * @return a normalized vector perpendicular to this vector
+     */
+    public Vector orthogonal() {
+        // Cross with the axis that is the least parallel to this vector
+        Vector axis = Math.abs(xyz.d1()) < Math.abs(xyz.d2()) && Math.abs(xyz.d1()) < Math.abs(xyz.d3())
+                ? AXIS_X : Math.abs(xyz.d2()) < Math.abs(xyz.d3()) ? AXIS_Y : AXIS_Z;
+        return crossProduct(axis).normalize();
+    }
+
     /**
      * Computes the square of the length of this vector.
      *
@@ -3,6 +3,7 @@ package renderer;
 import primitives.Point2D;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -56,6 +57,45 @@ public class Blackboard {
         return samples;
     }
 
+    /**
+     * Generates the samples of the pattern in a random order. The samples of the same
+     * pixel for another dimension (e.g. the lens of the camera) are paired with the
+     * sub-pixel samples this way, without multiplying the number of samples.
+     *
+     * @return the samples in the unit square, in a random order
+     */
+    public List<Point2D> generateShuffledSamples() {
+        List<Point2D> samples = generateSamples();
+        Collections.shuffle(samples, rand);
+        return samples;
+    }
+
+    /**
+     * Generates one-dimensional samples in range [0, 1) with the same pattern type
+     * and amount as the two-dimensional samples, in a random order (e.g. the shutter
+     * times of the rays of a pixel).
+     *
+     * @return the samples
+     */
+    public double[] generateShuffledValues() {
+        int totalSamples = resolution * resolution;
+        double[] values = new double[totalSamples];
+        for (int k = 0; k < totalSamples; k++) {
+            values[k] = switch (type) {
+                case GRID -> (k + 0.5) / totalSamples;
+                case RANDOM -> rand.nextDouble();
+                case JITTERED -> (k + rand.nextDouble()) / totalSamples;
+            };
+        }
+        for (int k = totalSamples - 1; k > 0; k--) {
+            int other = rand.nextInt(k + 1);
+            double value = values[k];
+            values[k] = values[other];
+            values[other] = value;
+        }
+        return values;
+    }
+
 //    public int getTotalSamples() {
 //        return resolution * resolution;
 //    }
@@ -14,6 +14,8 @@ import scene.Scene;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.MissingResourceException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 /**
@@ -35,6 +37,13 @@ public class Camera implements Cloneable {
     private boolean antiAliasingEnabled = false;
     private Blackboard blackboard;
 
+    // Depth of field fields - a thin lens focused at the focal distance
+    private double aperture = 0; // the radius of the lens, 0 for a pinhole camera
+    private double focalDistance = 0;
+
+    // Motion blur field - the rays of a pixel are cast at different times while the shutter is open
+    private boolean motionBlurEnabled = false;
+
     // Adaptive Super Sampling fields
     private boolean adaptiveSuperSamplingEnabled = false;
     private int adaptiveSuperSamplingDepth = 0;
@@ -46,6 +55,10 @@ public class Camera implements Cloneable {
     private double printInterval = 0; // printing progress percentage interval (0 – no printing)
     private PixelManager pixelManager; // pixel manager object
 
+    // Tile (batch) rendering fields
+    private int tileSize = 0; // 0 - pixel by pixel rendering
+    private static final int DEFAULT_TILE_SIZE = 16; // Tile size for batching ray tracers
+
 
     /**
      * Private constructor to enforce the use of the Builder pattern.
@@ -99,6 +112,9 @@ public class Camera implements Cloneable {
      */
     public Camera renderImage() {
         pixelManager = new PixelManager(Nx, Ny, printInterval);
+        rayTracer.resetStatistics();
+        if (tileSize > 0 && !adaptiveSuperSamplingEnabled && !antiAliasingEnabled)
+            return renderImageTiles();
         return switch (threadsCount) {
             case 0 -> renderImageNoThreads();
             case -1 -> renderImageStream();
@@ -168,6 +184,121 @@ public class Camera implements Cloneable {
     }
 
 
+    /**
+     * Renders the image tile by tile, tracing the primary rays of a whole tile
+     * as one batch (see {@link RayTracerBase#traceRays(Ray[])}).
+     * The tiles are distributed between the threads according to the
+     * multithreading setting.
+     *
+     * @return the camera object itself for method chaining
+     */
+    private Camera renderImageTiles() {
+        int tiles = tilesCount();
+        if (threadsCount == 0) {
+            for (int tile = 0; tile < tiles; ++tile)
+                renderTile(tile);
+        } else if (threadsCount == -1) {
+            IntStream.range(0, tiles).parallel().forEach(this::renderTile);
+        } else {
+            var nextTile = new AtomicInteger();
+            var threads = new LinkedList<Thread>();
+            for (int t = 0; t < threadsCount; ++t)
+                threads.add(new Thread(() -> {
+                    int tile;
+                    while ((tile = nextTile.getAndIncrement()) < tiles)
+                        renderTile(tile);
+                }));
+            for (var thread : threads) thread.start();
+            try {
+                for (var thread : threads) thread.join();
+            } catch (InterruptedException ignored) {}
+        }
+        return this;
+    }
+
+    /**
+     * Getter for the edge of the square pixel tiles of the image - the tile size of the
+     * camera, or the default tile size when the camera renders pixel by pixel.
+     *
+     * @return the tile edge in pixels
+     */
+    private int tileEdge() {
+        return tileSize > 0 ? tileSize : DEFAULT_TILE_SIZE;
+    }
+
+    /**
+     * Starts a tiled render of the image by a {@link RenderSession}, which casts the tiles
+     * of several cameras by its own threads.
+     *
+     * @return the amount of tiles in the image
+     */
+    int startTiles() {
+        pixelManager = new PixelManager(Nx, Ny, printInterval);
+        return tilesCount();
+    }
+
+    /**
+     * Getter for the amount of the pixel tiles of the image.
+     *
+     * @return the amount of tiles, row by row
+     */
+    private int tilesCount() {
+        int edge = tileEdge();
+        return ((Nx + edge - 1) / edge) * ((Ny + edge - 1) / edge);
+    }
+
+    /**
+     * Renders a tile of the image. A single ray per pixel is traced as one batch for the
+     * whole tile, and the pixels are cast one by one with anti-aliasing or adaptive super
+     * sampling.
+     *
+     * @param tile the index of the tile, row by row
+     */
+    void renderTile(int tile) {
+        int edge = tileEdge();
+        int tilesX = (Nx + edge - 1) / edge;
+        int x0 = tile % tilesX * edge, y0 = tile / tilesX * edge;
+        int width = Math.min(edge, Nx - x0), height = Math.min(edge, Ny - y0);
+        if (!adaptiveSuperSamplingEnabled && !antiAliasingEnabled)
+            castTile(x0, y0, width, height);
+        else
+            for (int y = y0; y < y0 + height; ++y)
+                for (int x = x0; x < x0 + width; ++x)
+                    castRay(y, x);
+    }
+
+    /**
+     * Casts the primary rays of a tile as a single batch and writes their colors.
+     *
+     * @param x0     the column of the top left pixel of the tile
+     * @param y0     the row of the top left pixel of the tile
+     * @param width  the amount of pixel columns in the tile
+     * @param height the amount of pixel rows in the tile
+     */
+    private void castTile(int x0, int y0, int width, int height) {
+        // Order the pixels in square blocks when the ray tracer traces ray packets
+        int block = Math.max(1, rayTracer.getPacketSize());
+        int[] xs = new int[width * height], ys = new int[width * height];
+        int count = 0;
+        for (int by = 0; by < height; by += block)
+            for (int bx = 0; bx < width; bx += block)
+                for (int y = by; y < Math.min(height, by + block); ++y)
+                    for (int x = bx; x < Math.min(width, bx + block); ++x) {
+                        xs[count] = x0 + x;
+                        ys[count++] = y0 + y;
+                    }
+
+        Ray[] rays = new Ray[count];
+        for (int p = 0; p < count; ++p)
+            rays[p] = constructPixelRay(xs[p], ys[p]);
+
+        Color[] colors = rayTracer.traceRays(rays);
+        for (int p = 0; p < count; ++p) {
+            imageWriter.writePixel(xs[p], ys[p], colors[p]);
+            pixelManager.pixelDone();
+        }
+    }
+
     /**
      * Prints a grid on the image with the specified interval and color.
      *
@@ -209,11 +340,17 @@ public class Camera implements Cloneable {
         } else if (antiAliasingEnabled && blackboard != null) {
             // Use regular Anti-Aliasing
             List<Point2D> samples = blackboard.generateSamples();
+            // The lens positions and the shutter times come from the same sample set, paired
+            // at random with the sub-pixel positions, so they do not multiply the ray count
+            List<Point2D> lensSamples = aperture > 0 ? blackboard.generateShuffledSamples() : null;
+            double[] times = motionBlurEnabled ? blackboard.generateShuffledValues() : null;
             Color accumulatedColor = Color.BLACK;
 
             // Cast multiple rays per pixel and average the colors
-            for (Point2D sample : samples) {
-                Ray ray = constructRay(i, j, sample.getX(), sample.getY());
+            for (int s = 0; s < samples.size(); s++) {
+                Point2D sample = samples.get(s);
+                Ray ray = constructRay(i, j, sample.getX(), sample.getY(),
+                        lensSamples == null ? null : lensSamples.get(s), times == null ? 0 : times[s]);
                 Color sampleColor = rayTracer.traceRay(ray);
                 accumulatedColor = accumulatedColor.add(sampleColor);
             }
@@ -222,7 +359,7 @@ public class Camera implements Cloneable {
             finalColor = accumulatedColor.scale((double) 1 / (samples.size()));
         } else {
             // Single ray
-            Ray ray = constructRay(Nx, Ny, j, i);
+            Ray ray = constructPixelRay(j, i);
             finalColor = rayTracer.traceRay(ray);
         }
 
@@ -298,7 +435,8 @@ public class Camera implements Cloneable {
         if (!isZero(Xj + offsetX)) pIJ = pIJ.add(vRight.scale(Xj + offsetX));
         if (!isZero(Yi + offsetY)) pIJ = pIJ.add(vUp.scale(Yi + offsetY));
 
-        Ray ray = new Ray(p0, pIJ.subtract(p0).normalize());
+        Ray ray = aperture == 0 && !motionBlurEnabled ? new Ray(p0, pIJ.subtract(p0).normalize())
+                : constructLensRay(pIJ, randomLensSample(), motionBlurEnabled ? ThreadLocalRandom.current().nextDouble() : 0);
         return rayTracer.traceRay(ray);
     }
 
@@ -475,7 +613,6 @@ public class Camera implements Cloneable {
          * @param nY the number of pixels in the y direction
          */
         public Builder setResolution(int nX, int nY) {
-            camera.imageWriter = new ImageWriter(nX, nY);
             camera.Nx = nX;
             camera.Ny = nY;
             return this;
@@ -486,6 +623,10 @@ public class Camera implements Cloneable {
                 case SIMPLE:
                     camera.rayTracer = new SimpleRayTracer(scene);
                     break;
+                case WAVEFRONT:
+                    camera.rayTracer = new WavefrontRayTracer(scene);
+                    if (camera.tileSize == 0) camera.tileSize = DEFAULT_TILE_SIZE;
+                    break;
                 default:
                     camera.rayTracer = null;
                     //throw new IllegalArgumentException("Invalid ray tracer type");
@@ -493,6 +634,33 @@ public class Camera implements Cloneable {
             return this;
         }
 
+        /**
+         * Sets a preconfigured ray tracer, e.g. a {@link SimpleRayTracer} with
+         * Russian roulette termination enabled.
+         *
+         * @param rayTracer the ray tracer to render with
+         * @return the builder instance
+         */
+        public Builder setRayTracer(RayTracerBase rayTracer) {
+            camera.rayTracer = rayTracer;
+            return this;
+        }
+
+        /**
+         * Sets the size of the square pixel tiles whose primary rays are traced as
+         * one batch. Tiles are used only for a single ray per pixel (without
+         * anti-aliasing or adaptive super sampling).
+         *
+         * @param tileSize the tile edge in pixels, 0 for pixel by pixel rendering
+         * @return the builder instance
+         * @throws IllegalArgumentException if the tile size is negative
+         */
+        public Builder setTileSize(int tileSize) {
+            if (tileSize < 0) throw new IllegalArgumentException("Tile size must be non-negative");
+            camera.tileSize = tileSize;
+            return this;
+        }
+
         public Builder setAntiAliasing(SamplingType samplingType, int resolution) {
             if (resolution <= 0) {
                 throw new IllegalArgumentException("Anti-aliasing resolution must be positive");
@@ -513,6 +681,37 @@ public class Camera implements Cloneable {
             return this;
         }
 
+        /**
+         * Sets a thin lens for depth of field. The geometries at the focal distance are sharp,
+         * and the others are blurred according to the aperture. The lens positions are sampled
+         * together with the anti-aliasing samples of the pixel.
+         *
+         * @param aperture      the radius of the lens, 0 for a pinhole camera
+         * @param focalDistance the distance of the focal plane from the camera, along its direction
+         * @return the builder instance
+         * @throws IllegalArgumentException if the aperture is negative or the focal distance is not positive
+         */
+        public Builder setDepthOfField(double aperture, double focalDistance) {
+            if (aperture < 0) throw new IllegalArgumentException("Aperture must be non-negative");
+            if (focalDistance <= 0) throw new IllegalArgumentException("Focal distance must be positive");
+            camera.aperture = aperture;
+            camera.focalDistance = focalDistance;
+            return this;
+        }
+
+        /**
+         * Enables or disables motion blur. The rays of a pixel are cast at different times while
+         * the shutter is open (see {@link geometries.MovingGeometry}). The shutter times are
+         * sampled together with the anti-aliasing samples of the pixel.
+         *
+         * @param enabled true to enable motion blur
+         * @return the builder instance
+         */
+        public Builder setMotionBlur(boolean enabled) {
+            camera.motionBlurEnabled = enabled;
+            return this;
+        }
+
         /**
          * Enables adaptive super sampling for the camera and sets the depth and color threshold.
          * Adaptive super sampling improves image quality by refining pixel sampling
@@ -584,7 +783,10 @@ public class Camera implements Cloneable {
             }
 
             try {
-                return (Camera) camera.clone();
+                Camera built = (Camera) camera.clone();
+                // Every built camera renders its own image, even when the builder is reused
+                built.imageWriter = new ImageWriter(built.Nx, built.Ny);
+                return built;
             } catch (CloneNotSupportedException exception) {
                 throw new RuntimeException(exception);
             }
@@ -602,6 +804,35 @@ public class Camera implements Cloneable {
      * @return        a ray passing through the specified sub-pixel point
      */
     public Ray constructRay(int i, int j, double offsetX, double offsetY) {
+        return new Ray(p0, viewPlanePoint(i, j, offsetX, offsetY).subtract(p0));
+    }
+
+    /**
+     * Constructs a ray from a point of the lens through a sub-pixel position on the view plane,
+     * cast at a given shutter time.
+     *
+     * @param i       pixel row index
+     * @param j       pixel column index
+     * @param offsetX relative horizontal offset within the pixel (0 to 1)
+     * @param offsetY relative vertical offset within the pixel (0 to 1)
+     * @param lens    the lens sample in the unit square, null for the lens center
+     * @param time    the shutter time of the ray
+     * @return        a ray passing through the specified sub-pixel point, or through its focal point
+     */
+    private Ray constructRay(int i, int j, double offsetX, double offsetY, Point2D lens, double time) {
+        return constructLensRay(viewPlanePoint(i, j, offsetX, offsetY), lens, time);
+    }
+
+    /**
+     * Calculates a sub-pixel position on the view plane.
+     *
+     * @param i       pixel row index
+     * @param j       pixel column index
+     * @param offsetX relative horizontal offset within the pixel (0 to 1)
+     * @param offsetY relative vertical offset within the pixel (0 to 1)
+     * @return        the point on the view plane
+     */
+    private Point viewPlanePoint(int i, int j, double offsetX, double offsetY) {
         // Pixel dimensions
         double rY = height / Ny;
         double rX = width / Nx;
@@ -620,8 +851,55 @@ public class Camera implements Cloneable {
         if (!isZero(yI)) {
             pij = pij.add(vUp.scale(yI));
         }
+        return pij;
+    }
 
-        Vector Vij = pij.subtract(p0);
-        return new Ray(p0, Vij);
+    /**
+     * Constructs the ray of a single sample per pixel, through the pixel center. With depth of
+     * field or motion blur, the lens position and the shutter time of the ray are random.
+     *
+     * @param j column index (pixel)
+     * @param i row index (pixel)
+     * @return the ray of the pixel
+     */
+    private Ray constructPixelRay(int j, int i) {
+        if (aperture == 0 && !motionBlurEnabled) return constructRay(Nx, Ny, j, i);
+        double time = motionBlurEnabled ? ThreadLocalRandom.current().nextDouble() : 0;
+        return constructRay(i, j, 0.5, 0.5, randomLensSample(), time);
+    }
+
+    /**
+     * Draws a random lens sample for the rays that are not part of a pixel's sample set.
+     *
+     * @return a random point of the unit square, null for a pinhole camera
+     */
+    private Point2D randomLensSample() {
+        if (aperture == 0) return null;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new Point2D(random.nextDouble(), random.nextDouble());
+    }
+
+    /**
+     * Constructs a ray through a point of the view plane. For a pinhole camera the ray starts at
+     * the camera location. For a thin lens the ray starts at the lens sample, mapped onto the
+     * lens disk, and passes through the point where the pinhole ray crosses the focal plane,
+     * so that only the geometries at the focal distance are sharp.
+     *
+     * @param pIJ  the point on the view plane
+     * @param lens the lens sample in the unit square, null for the lens center
+     * @param time the shutter time of the ray
+     * @return the ray
+     */
+    private Ray constructLensRay(Point pIJ, Point2D lens, double time) {
+        Vector direction = pIJ.subtract(p0);
+        if (aperture == 0 || lens == null) return new Ray(p0, direction, time);
+
+        // The view plane is at the view plane distance along vTo, the focal plane at the focal distance
+        Point focalPoint = p0.add(direction.scale(focalDistance / distance));
+        Point2D disk = lens.toUnitDisk();
+        Point origin = p0;
+        if (!isZero(disk.getX())) origin = origin.add(vRight.scale(disk.getX() * aperture));
+        if (!isZero(disk.getY())) origin = origin.add(vUp.scale(disk.getY() * aperture));
+        return new Ray(origin, focalPoint.subtract(origin), time);
     }
 }
@@ -3,6 +3,8 @@ import scene.Scene;
 import primitives.Color;
 import primitives.Ray;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * RayTracerBase class represents a base class for ray tracers.
  * A ray tracer is a class that renders a scene by tracing rays from the camera to the scene.
@@ -19,4 +21,55 @@ public abstract class  RayTracerBase  {
      * @return The color of the intersection point.
      */
     public abstract Color traceRay(Ray ray);
+
+    /**
+     * Traces a batch of rays through the scene. The default implementation traces
+     * the rays one by one, batching ray tracers override it.
+     * @param rays The rays to trace.
+     * @return The colors of the rays, in the order of the rays.
+     */
+    public Color[] traceRays(Ray[] rays) {
+        Color[] colors = new Color[rays.length];
+        for (int i = 0; i < rays.length; ++i)
+            colors[i] = traceRay(rays[i]);
+        return colors;
+    }
+
+    /**
+     * Getter for the edge of the square pixel blocks that the ray tracer traces as
+     * ray packets. The camera orders the rays of a batch so that every consecutive
+     * packet of rays belongs to one block of pixels.
+     * @return the packet edge in pixels, 0 if ray packets are not used
+     */
+    public int getPacketSize() {
+        return 0;
+    }
+
+    /**
+     * Prepares the data that the ray tracer derives from the scene, so that it is computed
+     * once before rendering rather than on the first rays. A {@link RenderSession} prepares
+     * its ray tracer once for all of its cameras. The default implementation does nothing.
+     */
+    public void prepare() {
+    }
+
+    /**
+     * Plays Russian roulette for a secondary branch: the branch survives with the given
+     * probability, and a surviving branch is scaled by the inverse of the probability to
+     * compensate for the pruned ones, so the expected color stays unbiased.
+     * @param survival the survival probability of the branch, 1 or more to always survive
+     * @return the compensation scale of the surviving branch, 1 if the roulette is not
+     *         played, or 0 if the branch is pruned
+     */
+    protected static double russianRoulette(double survival) {
+        if (survival >= 1) return 1;
+        return ThreadLocalRandom.current().nextDouble() < survival ? 1 / survival : 0;
+    }
+
+    /**
+     * Resets the statistics gathered by the ray tracer, called by the camera
+     * at the beginning of each render. The default implementation does nothing.
+     */
+    public void resetStatistics() {
+    }
 }
@@ -7,5 +7,7 @@ public enum RayTracerType {
    /** Simple (basic) ray tracer */
    SIMPLE,
    /** Ray tracer using regular grid */
-   GRID
+   GRID,
+   /** Breadth-first ray tracer processing batches of rays in waves */
+   WAVEFRONT
 }
@@ -0,0 +1,154 @@
+package renderer;
+
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * A render session renders several cameras against one scene, e.g. the product shots of a
+ * model from many angles.
+ * <p>
+ * All the cameras of a session share a single ray tracer, so the data that the tracer
+ * derives from the scene is prepared once for the session (see {@link RayTracerBase#prepare()})
+ * rather than once per camera. The images are rendered in tiles, and the tiles of all the
+ * cameras are interleaved in one queue that is drained by one set of threads, so the threads
+ * are kept busy until the last tile of the session instead of idling at the end of every image.
+ * </p>
+ */
+public class RenderSession {
+    /** Spare threads if trying to use all the cores */
+    private static final int SPARE_THREADS = 2;
+
+    /** The ray tracer that is shared by the cameras of the session */
+    private final RayTracerBase rayTracer;
+    /** The cameras of the session, in the order of their addition */
+    private final List<Camera> cameras = new ArrayList<>();
+    /** -2 auto, -1 range/stream, 0 no threads, 1+ number of threads */
+    private int threadsCount = 0;
+
+    /**
+     * Constructs a render session of a scene with a new ray tracer of the given type.
+     *
+     * @param scene         the scene to render
+     * @param rayTracerType the type of the ray tracer
+     * @throws IllegalArgumentException if the scene is missing or the ray tracer type is not supported
+     */
+    public RenderSession(Scene scene, RayTracerType rayTracerType) {
+        if (scene == null) throw new IllegalArgumentException("Scene must not be null");
+        rayTracer = switch (rayTracerType) {
+            case SIMPLE -> new SimpleRayTracer(scene);
+            case WAVEFRONT -> new WavefrontRayTracer(scene);
+            default -> throw new IllegalArgumentException("Unsupported ray tracer type " + rayTracerType);
+        };
+    }
+
+    /**
+     * Constructs a render session with a preconfigured ray tracer, e.g. a
+     * {@link SimpleRayTracer} with Russian roulette termination enabled.
+     *
+     * @param rayTracer the ray tracer to render with
+     * @throws IllegalArgumentException if the ray tracer is missing
+     */
+    public RenderSession(RayTracerBase rayTracer) {
+        if (rayTracer == null) throw new IllegalArgumentException("Ray tracer must not be null");
+        this.rayTracer = rayTracer;
+    }
+
+    /**
+     * Set multithreading parameter of the session, with the same meaning as in
+     * {@link Camera.Builder#setMultithreading(int)}. The threads render the tiles of all
+     * the cameras, and the multithreading settings of the cameras are ignored.
+     *
+     * @param threads number of threads
+     * @return the session itself for method chaining
+     * @throws IllegalArgumentException if the parameter is less than -2
+     */
+    public RenderSession setMultithreading(int threads) {
+        if (threads < -2)
+            throw new IllegalArgumentException("Multithreading parameter must be -2 or higher");
+        if (threads == -2) {
+            int cores = Runtime.getRuntime().availableProcessors() - SPARE_THREADS;
+            threadsCount = cores <= 2 ? 1 : cores;
+        } else
+            threadsCount = threads;
+        return this;
+    }
+
+    /**
+     * Builds a camera that renders with the ray tracer of the session and adds it to the
+     * session. The builder may be reused to add further cameras, e.g. after moving it.
+     *
+     * @param builder the builder of the camera
+     * @return the built camera, which holds the rendered image after {@link #renderImages()}
+     */
+    public Camera addCamera(Camera.Builder builder) {
+        Camera camera = builder.setRayTracer(rayTracer).build();
+        cameras.add(camera);
+        return camera;
+    }
+
+    /**
+     * Getter for the cameras of the session.
+     *
+     * @return an unmodifiable list of the cameras, in the order of their addition
+     */
+    public List<Camera> getCameras() {
+        return Collections.unmodifiableList(cameras);
+    }
+
+    /**
+     * Renders the images of all the cameras of the session. The ray tracer is prepared once,
+     * and the tiles of the cameras are queued round-robin - the first tile of every camera,
+     * then the second tile of every camera, and so on - so the threads share the work of all
+     * the images to the end.
+     *
+     * @return the session itself for method chaining
+     */
+    public RenderSession renderImages() {
+        rayTracer.prepare();
+        rayTracer.resetStatistics();
+
+        int[] tilesCounts = new int[cameras.size()];
+        int maxTiles = 0, total = 0;
+        for (int c = 0; c < tilesCounts.length; ++c) {
+            tilesCounts[c] = cameras.get(c).startTiles();
+            maxTiles = Math.max(maxTiles, tilesCounts[c]);
+            total += tilesCounts[c];
+        }
+        int[] tileCameras = new int[total], tiles = new int[total];
+        int queued = 0;
+        for (int tile = 0; tile < maxTiles; ++tile)
+            for (int c = 0; c < tilesCounts.length; ++c)
+                if (tile < tilesCounts[c]) {
+                    tileCameras[queued] = c;
+                    tiles[queued++] = tile;
+                }
+
+        if (threadsCount == 0) {
+            for (int task = 0; task < total; ++task)
+                cameras.get(tileCameras[task]).renderTile(tiles[task]);
+        } else if (threadsCount == -1) {
+            IntStream.range(0, total).parallel()
+                    .forEach(task -> cameras.get(tileCameras[task]).renderTile(tiles[task]));
+        } else {
+            var nextTask = new AtomicInteger();
+            var threads = new LinkedList<Thread>();
+            for (int t = 0; t < threadsCount; ++t)
+                threads.add(new Thread(() -> {
+                    int task;
+                    while ((task = nextTask.getAndIncrement()) < tiles.length)
+                        cameras.get(tileCameras[task]).renderTile(tiles[task]);
+                }));
+            for (var thread : threads) thread.start();
+            try {
+                for (var thread : threads) thread.join();
+            } catch (InterruptedException ignored) {}
+        }
+        return this;
+    }
+}
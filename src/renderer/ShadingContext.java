@@ -0,0 +1,62 @@
+package renderer;
+
+import geometries.Intersectable.Intersection;
+import lighting.LightSource;
+import primitives.Material;
+import primitives.Point;
+import primitives.Vector;
+
+/**
+ * The shading state of one bounce of a ray - the intersection that is shaded, the values
+ * derived from the ray that hit it, and the light source that is currently evaluated at it.
+ * <p>
+ * The intersections found by the geometries hold only the data of the hit, and a ray tracer
+ * shades them in contexts that it allocates once per render thread and reuses for every ray.
+ * The contexts of the consecutive bounces of a ray form a chain (see {@link #next()}), since
+ * the reflected and refracted rays are shaded while the values of their parent bounce are
+ * still needed.
+ * </p>
+ * <p>
+ * A context is mutable and must not be shared between threads.
+ * </p>
+ */
+public final class ShadingContext {
+    /** The shaded intersection */
+    public Intersection intersection;
+    /** The intersection point */
+    public Point point;
+    /** The material of the intersected geometry */
+    public Material material;
+    /** The shading normal of the geometry at the intersection point, in the hemisphere of the geometric normal */
+    public Vector normal;
+    /** The geometric normal of the surface at the intersection point, for ray offsets and side tests */
+    public Vector geometricNormal;
+    /** The direction of the ray that hit the intersection */
+    public Vector v;
+    /** The dot product of the ray direction and the geometric normal */
+    public double vNormal;
+    /** The time of the ray that hit the intersection */
+    public double time;
+    /** The light source that is evaluated at the intersection point */
+    public LightSource light;
+    /** The illumination of the intersection point by the light source */
+    public LightSource.Illumination illumination;
+    /** The direction from the light source to the intersection point */
+    public Vector l;
+    /** The dot product of the light direction and the shading normal */
+    public double lNormal;
+
+    /** The context of the next bounce, null until it is first needed */
+    private ShadingContext next;
+
+    /**
+     * Getter for the context of the next bounce, which shades the reflected and refracted rays
+     * of this one. It is created on the first call and reused afterward.
+     *
+     * @return the context of the next bounce
+     */
+    public ShadingContext next() {
+        if (next == null) next = new ShadingContext();
+        return next;
+    }
+}
@@ -1,10 +1,19 @@
 package renderer;
+import geometries.Geometry;
 import geometries.Intersectable.Intersection;
 import scene.Scene;
 import primitives.*;
+import lighting.AreaLight;
 import lighting.LightSource;
+import lighting.LightTree;
 import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
 
 import primitives.Material;
 
@@ -15,9 +24,46 @@ import static java.lang.Math.*;
  * by finding intersections and applying local lighting models (diffuse and specular).
  */
 public class SimpleRayTracer extends RayTracerBase{
-    private static final int MAX_CALC_COLOR_LEVEL = 10;
-    private static final double MIN_CALC_COLOR_K = 0.001;
+    protected static final int MAX_CALC_COLOR_LEVEL = 10;
+    protected static final double MIN_CALC_COLOR_K = 0.001;
     private static final Double3 INITIAL_K = Double3.ONE;
+
+    // Russian roulette fields
+    private boolean russianRouletteEnabled = false;
+    private double minSurvivalProbability = 0.05;
+    private int russianRouletteStartDepth = 2;
+
+    // Statistics of secondary (reflected / refracted) branches in the current render
+    protected final LongAdder tracedBranches = new LongAdder();
+    protected final LongAdder prunedBranches = new LongAdder();
+
+    // Light culling - a light is skipped where its contribution is surely below this intensity
+    private static final double DEFAULT_LIGHT_CUTOFF = 0.1;
+    private double lightCutoff = DEFAULT_LIGHT_CUTOFF;
+
+    // Shadow cache fields - the last opaque occluder of every light, kept per render thread
+    private boolean shadowCacheEnabled = false;
+    private final ThreadLocal<Map<LightSource, Geometry>> lastOccluders = ThreadLocal.withInitial(HashMap::new);
+    private final LongAdder shadowCacheHits = new LongAdder();
+    private final LongAdder shadowCacheMisses = new LongAdder();
+
+    // Soft shadows of area lights - the corners of the sampling square, mapped onto the light boundary
+    private static final List<Point2D> BOUNDARY_SAMPLES = List.of(
+            new Point2D(0, 0), new Point2D(1, 0), new Point2D(0, 1), new Point2D(1, 1));
+    private Blackboard softShadowBlackboard = new Blackboard(SamplingType.JITTERED, 4);
+    private boolean adaptiveSoftShadows = true;
+    private final LongAdder areaShadowRays = new LongAdder();
+
+    // Glossy reflection and blurry transmission - the maximal resolution of the cone rays grid
+    private static final int DEFAULT_CONE_SAMPLES = 4;
+    private int coneSamples = DEFAULT_CONE_SAMPLES;
+
+    // Many-lights mode - the light tree of the scene, built on the first shading point that samples it
+    private volatile LightTree lightTree;
+
+    // The shading contexts of the bounces of a ray, allocated once per render thread
+    private final ThreadLocal<ShadingContext> shadingContexts = ThreadLocal.withInitial(ShadingContext::new);
+
     /**
      * Constructs a SimpleRayTracer object with the given scene.
      * @param scene The scene to render.
@@ -26,28 +72,197 @@ public class SimpleRayTracer extends RayTracerBase{
         super(scene);
     }
 
+    /**
+     * Enables Russian roulette termination of secondary rays.
+     * <p>
+     * After {@code startDepth} bounces each reflected or refracted branch survives with
+     * a probability equal to its largest throughput component (but not less than
+     * {@code minSurvival}), and a surviving branch is scaled by the inverse of that
+     * probability, so the expected color stays unbiased while dim branches die early.
+     * </p>
+     *
+     * @param minSurvival the lowest survival probability, in range (0, 1]
+     * @param startDepth  the number of bounces traced before the roulette starts
+     * @return the ray tracer itself for method chaining
+     * @throws IllegalArgumentException if the probability or depth are out of range
+     */
+    public SimpleRayTracer setRussianRoulette(double minSurvival, int startDepth) {
+        if (minSurvival <= 0 || minSurvival > 1)
+            throw new IllegalArgumentException("Survival probability must be in range (0, 1]");
+        if (startDepth < 0)
+            throw new IllegalArgumentException("Russian roulette start depth must be non-negative");
+        russianRouletteEnabled = true;
+        minSurvivalProbability = minSurvival;
+        russianRouletteStartDepth = startDepth;
+        return this;
+    }
+
+    /**
+     * Disables Russian roulette termination of secondary rays.
+     *
+     * @return the ray tracer itself for method chaining
+     */
+    public SimpleRayTracer disableRussianRoulette() {
+        russianRouletteEnabled = false;
+        return this;
+    }
+
+    /**
+     * Sets the light culling cutoff. A light source is skipped at a shading point, without
+     * casting its shadow ray, when its attenuation or beam bounds guarantee that it adds less
+     * than the cutoff intensity (in color units) to the pixel.
+     *
+     * @param cutoff the minimal contribution of a light, 0 to disable light culling
+     * @return the ray tracer itself for method chaining
+     * @throws IllegalArgumentException if the cutoff is negative
+     */
+    public SimpleRayTracer setLightCutoff(double cutoff) {
+        if (cutoff < 0) throw new IllegalArgumentException("Light cutoff must be non-negative");
+        lightCutoff = cutoff;
+        return this;
+    }
+
+    /**
+     * Enables or disables the shadow cache.
+     * <p>
+     * With the cache, every render thread remembers for each light source the last geometry
+     * that blocked it opaquely. A shadow ray tests that geometry first, and if it still blocks
+     * the light the full traversal of the scene is skipped.
+     * </p>
+     *
+     * @param enabled true to enable the shadow cache
+     * @return the ray tracer itself for method chaining
+     */
+    public SimpleRayTracer setShadowCache(boolean enabled) {
+        shadowCacheEnabled = enabled;
+        return this;
+    }
+
+    /**
+     * Sets the sampling pattern of the area lights for soft shadows.
+     *
+     * @param type the sampling type of the light surface
+     * @param resolution the number of samples along each edge of the sampling square
+     * @return the ray tracer itself for method chaining
+     * @throws IllegalArgumentException if the resolution is not positive
+     */
+    public SimpleRayTracer setSoftShadows(SamplingType type, int resolution) {
+        if (resolution <= 0) throw new IllegalArgumentException("Soft shadow resolution must be positive");
+        softShadowBlackboard = new Blackboard(type, resolution);
+        return this;
+    }
+
+    /**
+     * Enables or disables the adaptive sampling of soft shadows. When enabled (the default),
+     * an area light is sampled densely only where the shadow rays toward its boundary disagree.
+     *
+     * @param adaptive true to enable the adaptive sampling
+     * @return the ray tracer itself for method chaining
+     */
+    public SimpleRayTracer setAdaptiveSoftShadows(boolean adaptive) {
+        adaptiveSoftShadows = adaptive;
+        return this;
+    }
+
+    /**
+     * Sets the maximal sampling of glossy reflections and blurry transmissions. A glossy or
+     * blurry branch is traced by up to resolution&times;resolution rays in a cone around the
+     * ideal ray, fewer for dim and deep branches.
+     *
+     * @param resolution the maximal number of cone rays along each edge of the sampling grid
+     * @return the ray tracer itself for method chaining
+     * @throws IllegalArgumentException if the resolution is not positive
+     */
+    public SimpleRayTracer setConeSamples(int resolution) {
+        if (resolution <= 0) throw new IllegalArgumentException("Cone sampling resolution must be positive");
+        coneSamples = resolution;
+        return this;
+    }
+
+    /**
+     * Getter for the number of shadow rays cast toward area lights since the last reset.
+     *
+     * @return the number of area light shadow rays
+     */
+    public long getAreaShadowRays() {
+        return areaShadowRays.sum();
+    }
+
+    /**
+     * Getter for the number of shadow rays resolved by the shadow cache since the last reset.
+     *
+     * @return the number of shadow cache hits
+     */
+    public long getShadowCacheHits() {
+        return shadowCacheHits.sum();
+    }
+
+    /**
+     * Getter for the number of shadow rays that needed a full traversal
+     * with the shadow cache enabled, since the last reset.
+     *
+     * @return the number of shadow cache misses
+     */
+    public long getShadowCacheMisses() {
+        return shadowCacheMisses.sum();
+    }
+
+    /**
+     * Getter for the number of secondary branches that were traced since the last reset.
+     *
+     * @return the number of traced reflection and refraction branches
+     */
+    public long getTracedBranches() {
+        return tracedBranches.sum();
+    }
+
+    /**
+     * Getter for the number of secondary branches that were pruned since the last reset,
+     * either by the throughput cutoff or by Russian roulette.
+     *
+     * @return the number of pruned reflection and refraction branches
+     */
+    public long getPrunedBranches() {
+        return prunedBranches.sum();
+    }
+
+    @Override
+    public void prepare() {
+        getLightTree();
+    }
+
+    @Override
+    public void resetStatistics() {
+        tracedBranches.reset();
+        prunedBranches.reset();
+        shadowCacheHits.reset();
+        shadowCacheMisses.reset();
+        areaShadowRays.reset();
+    }
+
     @Override
     public Color traceRay(Ray ray) {
-        List<Intersection> intersections = scene.geometries.calculateIntersectionsHelper(ray);
-        if (intersections == null || intersections.isEmpty()) {
+        Intersection in = findClosestIntersection(ray);
+        if (in == null) {
             return scene.background;
         }
-        Intersection in = findClosestIntersection(ray);
-        return calcColor(in,ray);
+        return calcColor(shadingContexts.get(), in, ray);
     }
 
     /**
      * Get the color of an intersection point
+     * @param context the shading context of the primary bounce
      * @param intersection point of intersection
+     * @param ray the intersecting ray
      * @return Color of the intersection point
      */
-    private Color calcColor(Intersection intersection, Ray ray) {
-        if (!preprocessIntersection(intersection, ray.getDirection())) {
+    protected Color calcColor(ShadingContext context, Intersection intersection, Ray ray) {
+        if (!preprocessIntersection(context, intersection, ray)) {
             return Color.BLACK;
         }
         return scene
-                .ambientLight.getIntensity().scale(intersection.geometry.getMaterial().kA)
-                .add(calcColor(intersection, MAX_CALC_COLOR_LEVEL, INITIAL_K));
+                .ambientLight.getIntensity().scale(context.material.kA)
+                .add(calcColor(context, MAX_CALC_COLOR_LEVEL, INITIAL_K));
     }
 
     /**
@@ -61,14 +276,14 @@ public class SimpleRayTracer extends RayTracerBase{
      * falls below {@code MIN_CALC_COLOR_K}.
      * </p>
      *
-     * @param intersection the intersection point, including geometry, normal, and material properties
+     * @param context the shading context of the intersection, including geometry, normal, and material
      * @param level the current recursion level for global effects
      * @param k the cumulative attenuation factor for recursive ray contributions
      * @return the calculated color, including local and global effects
      */
-    private Color calcColor(Intersection intersection, int level, Double3 k) {
-        Color color = calcColorLocalEffects(intersection, k);
-        return level == 1 ? color : color.add(calcGlobalEffects(intersection, level, k));
+    private Color calcColor(ShadingContext context, int level, Double3 k) {
+        Color color = calcColorLocalEffects(context, k);
+        return level == 1 ? color : color.add(calcGlobalEffects(context, level, k));
     }
 
     /**
@@ -80,11 +295,11 @@ public class SimpleRayTracer extends RayTracerBase{
      * pattern for handling transparent surfaces.
      * </p>
      *
-     * @param intersection the intersection point, including the point, normal, and view direction
+     * @param context the shading context, including the point, normal, and view direction
      * @return the refracted ray
      */
-    private Ray constructRefractedRay(Intersection intersection) {
-        return new Ray(intersection.point, intersection.v, intersection.normal);
+    protected Ray constructRefractedRay(ShadingContext context) {
+        return new Ray(context.point, context.v, context.geometricNormal, context.time);
     }
 
     /**
@@ -96,102 +311,233 @@ public class SimpleRayTracer extends RayTracerBase{
      * handling reflective surfaces.
      * </p>
      *
-     * @param intersection the intersection point, including the point, normal, and view direction
+     * @param context the shading context, including the point, normal, and view direction
      * @return the reflected ray
      */
-    private Ray constructReflectedRay(Intersection intersection) {
-        Vector v = intersection.v;
-        Vector n = intersection.normal;
-        double vn = v.dotProduct(n);
-        Vector r = v.subtract(n.scale(2 * vn));
-        return new Ray(intersection.point, r, n);
+    protected Ray constructReflectedRay(ShadingContext context) {
+        Vector v = context.v;
+        Vector n = context.normal;
+        Vector r = v.subtract(n.scale(2 * v.dotProduct(n)));
+        // A shading normal may reflect the ray into the surface - then it is reflected by the surface itself
+        if (n != context.geometricNormal && alignZero(r.dotProduct(context.geometricNormal)) * context.vNormal >= 0) {
+            n = context.geometricNormal;
+            r = v.subtract(n.scale(2 * v.dotProduct(n)));
+        }
+        return new Ray(context.point, r, context.geometricNormal, context.time);
     }
 
     /**
-     * Preprocesses the intersection by setting the view vector and calculating
-     * the dot product between the view vector and the surface normal.
-     * This is used to verify that the surface is visible from the camera's perspective.
+     * Preprocesses the intersection by setting it in the shading context with the view vector
+     * and the time of the ray, and calculating the dot product between the view vector and the
+     * surface normal. This is used to verify that the surface is visible from the camera's
+     * perspective. The normal is calculated unless it was already set by the intersected object
+     * (e.g. a moving geometry, whose normal is found at the point of its own time).
+     * The sides of the surface are told apart by its geometric normal, and an interpolated
+     * shading normal (e.g. of a smooth shaded mesh) is flipped into the geometric hemisphere.
      *
+     * @param context the shading context to set
      * @param intersection the intersection to process
-     * @param v the direction of the ray
+     * @param ray the intersecting ray
      * @return true if the surface is visible (dot product ≠ 0), false otherwise
      */
-    private boolean preprocessIntersection(Intersection intersection, Vector v) {
-        intersection.v = v;
-        intersection.normal = intersection.geometry.getNormal(intersection.point);
-        intersection.vNormal = alignZero(intersection.v.dotProduct(intersection.normal));
-        return intersection.vNormal != 0;
+    protected boolean preprocessIntersection(ShadingContext context, Intersection intersection, Ray ray) {
+        context.intersection = intersection;
+        context.point = intersection.point();
+        context.material = intersection.geometry.getMaterial();
+        context.v = ray.getDirection();
+        context.time = ray.getTime();
+        Vector geometricNormal;
+        if (intersection.normal != null) {
+            context.normal = intersection.normal;
+            geometricNormal = intersection.geometricNormal;
+        } else {
+            context.normal = intersection.geometry.getNormal(intersection);
+            geometricNormal = intersection.geometry.getGeometricNormal(intersection);
+        }
+        if (geometricNormal == null) {
+            context.geometricNormal = context.normal;
+        } else {
+            context.geometricNormal = geometricNormal;
+            if (context.normal.dotProduct(geometricNormal) < 0) context.normal = context.normal.scale(-1);
+        }
+        context.vNormal = alignZero(context.v.dotProduct(context.geometricNormal));
+        return context.vNormal != 0;
     }
 
     /**
      * Initializes the lighting parameters at the intersection point for a given light source.
-     * Calculates the direction from the point to the light and checks if the light contributes
-     * to the shading (i.e., both light and view are on the same side of the surface).
+     * Evaluates the light's direction, distance and intensity at the point in one call and checks
+     * if the light contributes to the shading (i.e., both light and view are on the same side of the surface).
      *
-     * @param intersection the intersection to update with lighting data
+     * @param context the shading context to update with lighting data
      * @param light the light source
      * @return true if the light contributes to the shading, false otherwise
      */
-    private boolean setLightSource(Intersection intersection, LightSource light) {
-        intersection.light = light;
-        intersection.l = light.getL(intersection.point);
-        intersection.lNormal = alignZero(intersection.l.dotProduct(intersection.normal));
-        return intersection.lNormal * intersection.vNormal > 0;
+    protected boolean setLightSource(ShadingContext context, LightSource light) {
+        return setLightSource(context, light, light.illuminate(context.point));
+    }
+
+    /**
+     * Initializes the lighting parameters at the intersection point from an already evaluated
+     * illumination of a light source.
+     *
+     * @param context the shading context to update with lighting data
+     * @param light the light source
+     * @param illumination the illumination of the intersection point by the light
+     * @return true if the light contributes to the shading, false otherwise
+     */
+    protected boolean setLightSource(ShadingContext context, LightSource light, LightSource.Illumination illumination) {
+        context.light = light;
+        context.illumination = illumination;
+        context.l = illumination.l();
+        context.lNormal = alignZero(context.l.dotProduct(context.normal));
+        // The light must be on the side of the viewer both by the surface and by the shading normal
+        if (context.geometricNormal != context.normal
+                && alignZero(context.l.dotProduct(context.geometricNormal)) * context.vNormal <= 0)
+            return false;
+        return context.lNormal * context.vNormal > 0;
     }
 
     /**
      * Calculates the color contribution from local lighting effects (diffuse and specular).
      * Iterates over all light sources and sums their influence on the given intersection,
-     * attenuated by transparency and cumulative factor k.
+     * attenuated by transparency and cumulative factor k. In the many-lights mode the lights
+     * of the light tree are replaced by a few samples of the tree.
      *
-     * @param intersection the intersection data containing geometry, normal, and material
+     * @param context the shading context containing geometry, normal, and material
      * @param k the cumulative attenuation factor (used for recursion depth and transparency)
      * @return the total local color contribution
      */
-    private Color calcColorLocalEffects(Intersection intersection, Double3 k) {
-        if (intersection == null) {
-            return scene.background;
-        }
-
-        Material material = intersection.material;
-        Color color = intersection.geometry.getEmission();
+    private Color calcColorLocalEffects(ShadingContext context, Double3 k) {
+        Color color = context.intersection.geometry.getEmission();
+        double threshold = lightThreshold(context, k);
+        LightTree tree = getLightTree();
 
         for (LightSource lightSource : scene.lights) {
-            if (!setLightSource(intersection, lightSource)) {
-                continue;
+            if (tree == null || !tree.contains(lightSource))
+                color = color.add(calcLightContribution(context, lightSource, k, threshold));
+        }
+
+        // In the many-lights mode the lights of the tree are sampled by their importance,
+        // each sample weighted by the inverse of its probability
+        if (tree != null && !tree.isEmpty()) {
+            for (int i = 0; i < scene.lightSamples; ++i) {
+                LightTree.Sample sample = tree.sample(context.point, ThreadLocalRandom.current().nextDouble());
+                double weight = 1 / (scene.lightSamples * sample.pdf());
+                color = color.add(calcLightContribution(context, sample.light(), k.scale(weight), threshold / weight)
+                        .scale(weight));
             }
+        }
 
-            // Compute transparency toward the light
-            Double3 ktr = transparency(intersection);
+        return color;
+    }
 
-            // If the light's contribution is negligible, skip it
-            if (ktr.product(k).lowerThan(MIN_CALC_COLOR_K)) {
-                continue;
-            }
+    /**
+     * Calculates the diffusive and specular contribution of a single light source
+     * at the intersection point, attenuated by the transparency toward the light.
+     *
+     * @param context the shading context containing geometry, normal, and material
+     * @param lightSource the light source
+     * @param k the cumulative attenuation factor
+     * @param threshold the intensity threshold of the light culling
+     * @return the light's contribution, black if the light is culled, blocked or on the other side
+     */
+    private Color calcLightContribution(ShadingContext context, LightSource lightSource, Double3 k, double threshold) {
+        if (!mayReach(context, lightSource, threshold) || !setLightSource(context, lightSource)
+                || !mayContribute(context, threshold)) {
+            return Color.BLACK;
+        }
 
-            // Compute light intensity at the intersection point, scaled by transparency
-            Color iL = lightSource.getIntensity(intersection.point).scale(ktr);
+        // Compute transparency toward the light
+        Double3 ktr = transparency(context);
 
-            // Add contribution from diffusive and specular effects
-            Double3 diff = calcDiffusive(intersection);
-            Double3 spec = calcSpecular(intersection);
-            color = color.add(iL.scale(diff.add(spec)));
+        // If the light's contribution is negligible, skip it
+        if (ktr.product(k).lowerThan(MIN_CALC_COLOR_K)) {
+            return Color.BLACK;
         }
 
-        return color;
+        // Compute light intensity at the intersection point, scaled by transparency
+        Color iL = context.illumination.intensity().scale(ktr);
+
+        // Add contribution from diffusive and specular effects
+        Double3 diff = calcDiffusive(context);
+        Double3 spec = calcSpecular(context);
+        return iL.scale(diff.add(spec));
+    }
+
+    /**
+     * Getter for the light tree of the many-lights mode. The tree is built from the
+     * scene lights once, on the first call, so the lights must be set before rendering.
+     *
+     * @return the light tree, null if the scene evaluates all the lights
+     */
+    protected LightTree getLightTree() {
+        if (scene.lightSamples == 0) return null;
+        LightTree tree = lightTree;
+        if (tree == null) {
+            synchronized (this) {
+                if (lightTree == null) lightTree = new LightTree(scene.lights);
+                tree = lightTree;
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Calculates the minimal light intensity at the intersection point that may add at least
+     * the light cutoff to the pixel, given the material's diffuse and specular coefficients
+     * and the cumulative attenuation factor.
+     *
+     * @param context the shading context containing the material
+     * @param k the cumulative attenuation factor
+     * @return the intensity threshold of the light culling
+     */
+    protected double lightThreshold(ShadingContext context, Double3 k) {
+        Material material = context.material;
+        Double3 kDS = material.kD.add(material.kS).product(k);
+        double maxFactor = max(kDS.d1(), max(kDS.d2(), kDS.d3()));
+        return maxFactor <= 0 ? Double.POSITIVE_INFINITY : lightCutoff / maxFactor;
+    }
+
+    /**
+     * Checks by the cheap bound of a light source - its influence radius, and the cone of a
+     * spotlight - whether it may contribute to the intersection point above the light culling
+     * threshold, before the light is evaluated at the point.
+     *
+     * @param context the shading context of the intersection point
+     * @param light the light source
+     * @param threshold the intensity threshold of the light culling
+     * @return false if the light is surely culled at the point
+     */
+    protected boolean mayReach(ShadingContext context, LightSource light, double threshold) {
+        return lightCutoff == 0 || light.mayContribute(context.point, threshold);
+    }
+
+    /**
+     * Checks whether the light source set at the intersection point contributes to it above
+     * the light culling threshold, before any shadow ray is cast.
+     *
+     * @param context the shading context with its evaluated illumination
+     * @param threshold the intensity threshold of the light culling
+     * @return false if the light is culled at the point
+     */
+    protected boolean mayContribute(ShadingContext context, double threshold) {
+        if (lightCutoff == 0) return true;
+        Double3 rgb = context.illumination.intensity().getRgb();
+        return max(rgb.d1(), max(rgb.d2(), rgb.d3())) >= threshold;
     }
 
     /**
      * Calculates the specular component of the lighting at the intersection point.
      *
-     * @param intersection the intersection point and its associated data
+     * @param context the shading context of the intersection point
      * @return the specular component as a {@link Double3} value
      */
-    private Double3 calcSpecular(Intersection intersection) {
-        Material material = intersection.geometry.getMaterial();
-        double nDotL = intersection.normal.dotProduct(intersection.l);
-        Vector r = intersection.l.subtract(intersection.normal.scale(2 * nDotL));
-        double rDotV = max(0, r.dotProduct((intersection.v).scale(-1)));
+    protected Double3 calcSpecular(ShadingContext context) {
+        Material material = context.material;
+        double nDotL = context.normal.dotProduct(context.l);
+        Vector r = context.l.subtract(context.normal.scale(2 * nDotL));
+        double rDotV = max(0, r.dotProduct((context.v).scale(-1)));
         return material.kS.scale(pow(rDotV, material.nShininess));
     }
 
@@ -200,14 +546,12 @@ public class SimpleRayTracer extends RayTracerBase{
      * using Lambert's cosine law. The result is proportional to the cosine
      * of the angle between the surface normal and the light direction.
      *
-     * @param intersection the intersection point and associated data
+     * @param context the shading context of the intersection point
      * @return the diffusive component as a {@link Double3} value
      */
-    private Double3 calcDiffusive(Intersection intersection){
-        if (intersection.lNormal < 0) {
-            return intersection.material.kD.scale(intersection.lNormal * -1);
-        }
-        return intersection.material.kD.scale(intersection.lNormal);
+    protected Double3 calcDiffusive(ShadingContext context){
+        Double3 kD = context.material.kD;
+        return kD.scale(context.lNormal < 0 ? -context.lNormal : context.lNormal);
     }
 
     /**
@@ -218,15 +562,15 @@ public class SimpleRayTracer extends RayTracerBase{
      * the point is considered shaded. Otherwise, it is unshaded.
      * </p>
      *
-     * @param intersection The intersection point to check for shading.
+     * @param context The shading context of the intersection point to check for shading.
      * @return true if the point is unshaded (no opaque object blocks the light), false otherwise.
      */
-    private boolean unshaded(Intersection intersection) {
+    private boolean unshaded(ShadingContext context) {
         // Calculate the direction from the intersection point toward the light source
-        Vector lightDirection = intersection.l.scale(-1);
+        Vector lightDirection = context.l.scale(-1);
 
         // Create the shadow ray using the offset constructor to avoid self-intersections
-        Ray shadowRay = new Ray(intersection.point, lightDirection, intersection.normal);
+        Ray shadowRay = new Ray(context.point, lightDirection, context.geometricNormal, context.time);
 
         // Find all intersections of the shadow ray with the scene's geometries
         List<Intersection> shadowIntersections = scene.geometries.calculateIntersectionsHelper(shadowRay);
@@ -234,11 +578,11 @@ public class SimpleRayTracer extends RayTracerBase{
             return true; // No objects intersect the shadow ray — point is illuminated
         }
 
-        double lightDistance = intersection.light.getDistance(intersection.point);
+        double lightDistance = context.illumination.distance();
 
         // Iterate through the intersections to check for opaque obstacles
         for (Intersection shadowIntersection : shadowIntersections) {
-            double distanceToShadowPoint = shadowIntersection.point.distance(intersection.point);
+            double distanceToShadowPoint = shadowRay.distance(context.point, shadowIntersection);
 
             // Only consider intersections that are between the point and the light source
             if (alignZero(distanceToShadowPoint - lightDistance) <= 0) {
@@ -260,16 +604,105 @@ public class SimpleRayTracer extends RayTracerBase{
      * If an opaque geometry (with {@code kT < MIN_CALC_COLOR_K}) is found, the transparency
      * factor is zero. Otherwise, it returns the product of all transparency coefficients.
      * This method supports soft shadows and partial transparency in the ray tracing pipeline.
+     * When the shadow cache is enabled, the last opaque occluder of the light is tested first.
      * </p>
      *
-     * @param intersection the intersection point, including point, light direction, and normal
+     * @param context the shading context, including point, light direction, and normal
      * @return the transparency factor as a {@link Double3} value (1 for fully transparent, 0 for fully opaque)
      */
-    private Double3 transparency(Intersection intersection) {
-        // Calculate the ray from the intersection point towards the light source
-        Vector pointToLight = intersection.l.scale(-1);
-        Ray shadowRay = new Ray(intersection.point, pointToLight, intersection.normal);
-        double maxDistance = intersection.light.getDistance(intersection.point);
+    private Double3 transparency(ShadingContext context) {
+        if (context.light instanceof AreaLight areaLight) return areaTransparency(context, areaLight);
+        return transparency(context, context.l.scale(-1), context.illumination.distance());
+    }
+
+    /**
+     * Calculates the average transparency factor toward an area light, i.e. the fraction of the
+     * light that is visible from the intersection point, for soft shadows.
+     * <p>
+     * With adaptive soft shadows, shadow rays are first cast toward the boundary of the light
+     * (the corners of the sampling square). If they all agree, the point is fully lit or fully
+     * shadowed and their common value is returned. Only in the penumbra, where they disagree,
+     * the light is sampled densely by the soft shadow blackboard.
+     * </p>
+     *
+     * @param context the shading context with the area light set
+     * @param light the area light
+     * @return the average transparency factor (1 for a fully lit point, 0 for a fully shadowed point)
+     */
+    protected Double3 areaTransparency(ShadingContext context, AreaLight light) {
+        if (adaptiveSoftShadows) {
+            Double3 first = null;
+            boolean agree = true;
+            for (Point2D uv : BOUNDARY_SAMPLES) {
+                Double3 ktr = sampleTransparency(context, light, uv);
+                if (first == null) {
+                    first = ktr;
+                } else if (!similar(first, ktr)) {
+                    agree = false;
+                    break;
+                }
+            }
+            if (agree) return first;
+        }
+
+        List<Point2D> samples = softShadowBlackboard.generateSamples();
+        Double3 sum = Double3.ZERO;
+        for (Point2D uv : samples)
+            sum = sum.add(sampleTransparency(context, light, uv));
+        return sum.reduce(samples.size());
+    }
+
+    /**
+     * Calculates the transparency factor toward a single sample point of an area light.
+     *
+     * @param context the shading context with the area light set
+     * @param light the area light
+     * @param uv the sample of the unit square
+     * @return the transparency factor toward the sample point
+     */
+    private Double3 sampleTransparency(ShadingContext context, AreaLight light, Point2D uv) {
+        areaShadowRays.increment();
+        Point target = light.getSamplePoint(context.point, uv);
+        double distance = context.point.distance(target);
+        if (isZero(distance)) return Double3.ONE;
+        return transparency(context, target.subtract(context.point).scale(1 / distance), distance);
+    }
+
+    /**
+     * Checks whether two transparency factors are equal up to the color precision.
+     *
+     * @param a the first factor
+     * @param b the second factor
+     * @return true if all the components differ by less than {@code MIN_CALC_COLOR_K}
+     */
+    private static boolean similar(Double3 a, Double3 b) {
+        return abs(a.d1() - b.d1()) < MIN_CALC_COLOR_K && abs(a.d2() - b.d2()) < MIN_CALC_COLOR_K
+                && abs(a.d3() - b.d3()) < MIN_CALC_COLOR_K;
+    }
+
+    /**
+     * Calculates the transparency factor of a single shadow ray from the intersection point.
+     *
+     * @param context the shading context, including the light source and the normal
+     * @param pointToLight the normalized direction of the shadow ray
+     * @param maxDistance the distance from the point to the light (or to its sample point)
+     * @return the transparency factor (1 for fully transparent, 0 for fully opaque)
+     */
+    private Double3 transparency(ShadingContext context, Vector pointToLight, double maxDistance) {
+        Point point = context.point;
+        Ray shadowRay = new Ray(point, pointToLight, context.geometricNormal, context.time);
+
+        // The cached occluders are tested at their still position, so rays cast while
+        // the shutter is open (motion blur) bypass the cache
+        boolean useCache = shadowCacheEnabled && isZero(context.time);
+        if (useCache) {
+            Geometry occluder = lastOccluders.get().get(context.light);
+            if (occluder != null && blocksOpaquely(occluder, shadowRay, point, maxDistance)) {
+                shadowCacheHits.increment();
+                return Double3.ZERO;
+            }
+            shadowCacheMisses.increment();
+        }
 
         // Find all intersections with the shadow ray
         List<Intersection> allIntersections = scene.geometries.calculateIntersections(shadowRay);
@@ -278,7 +711,7 @@ public class SimpleRayTracer extends RayTracerBase{
         List<Intersection> shadowIntersections = null;
         if (allIntersections != null) {
             shadowIntersections = allIntersections.stream()
-                    .filter(inter -> intersection.point.distance(inter.point) < maxDistance)
+                    .filter(inter -> shadowRay.distance(point, inter) < maxDistance)
                     .toList();
             if (shadowIntersections.isEmpty()) {
                 shadowIntersections = null;
@@ -298,6 +731,12 @@ public class SimpleRayTracer extends RayTracerBase{
 
             // If the accumulated transparency is too low, consider it opaque
             if (ktr.lowerThan(MIN_CALC_COLOR_K)) {
+                // An occluder hit through an instance transform cannot be tested again
+                // by itself in the world space, so it is not cached
+                if (useCache && !shadowInter.transformed
+                        && shadowInter.geometry.getMaterial().kT.lowerThan(MIN_CALC_COLOR_K)) {
+                    lastOccluders.get().put(context.light, shadowInter.geometry);
+                }
                 return Double3.ZERO;
             }
         }
@@ -305,6 +744,24 @@ public class SimpleRayTracer extends RayTracerBase{
         return ktr;
     }
 
+    /**
+     * Checks whether a single opaque geometry blocks a shadow ray before it reaches the light.
+     *
+     * @param occluder    the geometry to test
+     * @param shadowRay   the shadow ray
+     * @param point       the shaded point
+     * @param maxDistance the distance from the point to the light source
+     * @return true if the geometry is opaque and intersects the shadow ray before the light
+     */
+    private boolean blocksOpaquely(Geometry occluder, Ray shadowRay, Point point, double maxDistance) {
+        if (!occluder.getMaterial().kT.lowerThan(MIN_CALC_COLOR_K)) return false;
+        List<Intersection> intersections = occluder.calculateIntersections(shadowRay);
+        if (intersections == null) return false;
+        for (Intersection inter : intersections)
+            if (shadowRay.distance(point, inter) < maxDistance) return true;
+        return false;
+    }
+
     /**
      * Calculates the global lighting effects (reflection and refraction) at the intersection point.
      * <p>
@@ -314,14 +771,38 @@ public class SimpleRayTracer extends RayTracerBase{
      * the recursive ray tracing pattern for global illumination effects.
      * </p>
      *
-     * @param intersection the intersection point, including geometry, normal, and material properties
+     * @param context the shading context, including geometry, normal, and material properties
      * @param level the current recursion level
      * @param k the cumulative attenuation factor
      * @return the combined color from reflection and refraction
      */
-    private Color calcGlobalEffects(Intersection intersection, int level, Double3 k) {
-        return calcGlobalEffect(constructRefractedRay(intersection), level, k, intersection.geometry.getMaterial().kT)
-                .add(calcGlobalEffect(constructReflectedRay(intersection), level, k, intersection.geometry.getMaterial().kR));
+    private Color calcGlobalEffects(ShadingContext context, int level, Double3 k) {
+        Material material = context.material;
+        return calcGlobalEffect(context, constructRefractedRay(context), material.blur, level, k, material.kT)
+                .add(calcGlobalEffect(context, constructReflectedRay(context), material.glossiness, level, k, material.kR));
+    }
+
+    /**
+     * Calculates the color contribution of a glossy reflection or a blurry transmission,
+     * averaging a cone of rays around the ideal ray. The number of the cone rays adapts
+     * to the throughput and the level of the branch (see {@link #coneResolution(int, Double3)}).
+     *
+     * @param context the shading context of the intersection point
+     * @param ray the ideal reflected or refracted ray
+     * @param spread the tangent of the cone's half-angle, 0 for the ideal ray only
+     * @param level the current recursion level
+     * @param k the cumulative attenuation factor
+     * @param kx the material's reflection or transmission coefficient
+     * @return the color contribution of the global effect
+     */
+    private Color calcGlobalEffect(ShadingContext context, Ray ray, double spread, int level, Double3 k, Double3 kx) {
+        Double3 kkx = k.product(kx);
+        if (spread == 0 || kkx.lowerThan(MIN_CALC_COLOR_K)) return calcGlobalEffect(context.next(), ray, level, k, kx);
+        List<Ray> rays = constructConeRays(context, ray, spread, coneResolution(level, kkx));
+        Color color = Color.BLACK;
+        for (Ray coneRay : rays)
+            color = color.add(calcGlobalEffect(context.next(), coneRay, level, k, kx));
+        return color.reduce(rays.size());
     }
 
     /**
@@ -330,23 +811,105 @@ public class SimpleRayTracer extends RayTracerBase{
      * This method traces a ray (either reflected or refracted) and computes its color contribution,
      * scaled by the material's transmission or reflection coefficient ({@code kx}). If the
      * cumulative attenuation ({@code kkx}) falls below {@code MIN_CALC_COLOR_K}, the contribution
-     * is ignored to optimize performance. If no intersection is found, the background color is
-     * scaled by {@code kx}. This method follows the recursive ray tracing pattern.
+     * is ignored to optimize performance. When Russian roulette is enabled, deeper branches are
+     * additionally terminated at random according to their throughput. If no intersection is found,
+     * the background color is scaled by {@code kx}. This method follows the recursive ray tracing pattern.
      * </p>
      *
+     * @param context the shading context of the next bounce
      * @param ray the ray to trace (reflected or refracted)
      * @param level the current recursion level
      * @param k the cumulative attenuation factor
      * @param kx the material's reflection or transmission coefficient
      * @return the color contribution of the global effect
      */
-    private Color calcGlobalEffect(Ray ray, int level, Double3 k, Double3 kx) {
+    private Color calcGlobalEffect(ShadingContext context, Ray ray, int level, Double3 k, Double3 kx) {
         Double3 kkx = k.product(kx);
-        if (kkx.lowerThan(MIN_CALC_COLOR_K)) return Color.BLACK;
+        if (kkx.lowerThan(MIN_CALC_COLOR_K)) {
+            if (!kx.lowerThan(MIN_CALC_COLOR_K)) prunedBranches.increment();
+            return Color.BLACK;
+        }
+
+        double scale = russianRoulette(survivalProbability(level, kkx));
+        if (scale == 0) {
+            prunedBranches.increment();
+            return Color.BLACK;
+        }
+        if (scale != 1) {
+            kx = kx.scale(scale);
+            kkx = kkx.scale(scale);
+        }
+
+        tracedBranches.increment();
         Intersection intersection = findClosestIntersection(ray);
         if (intersection == null) return scene.background.scale(kx);
-        return preprocessIntersection(intersection, ray.getDirection())
-                ? calcColor(intersection, level - 1, kkx).scale(kx) : Color.BLACK;
+        return preprocessIntersection(context, intersection, ray)
+                ? calcColor(context, level - 1, kkx).scale(kx) : Color.BLACK;
+    }
+
+    /**
+     * Calculates the resolution of the cone rays grid of a glossy or blurry branch. The first
+     * visible bounce of a bright branch is sampled by the full grid, while the number of rays
+     * decreases with the throughput of the branch and halves with every further bounce, down
+     * to a single ray.
+     *
+     * @param level the current recursion level
+     * @param kkx the throughput of the branch
+     * @return the number of cone rays along each edge of the sampling square
+     */
+    protected int coneResolution(int level, Double3 kkx) {
+        double throughput = max(kkx.d1(), max(kkx.d2(), kkx.d3()));
+        double rays = coneSamples * coneSamples * min(1, throughput) / (1 << (MAX_CALC_COLOR_LEVEL - level));
+        return (int) max(1, min(coneSamples, ceil(sqrt(rays))));
+    }
+
+    /**
+     * Constructs a cone of rays around an ideal reflected or refracted ray, sampled by a
+     * jittered grid mapped onto the cone's cross-section disk. Rays that would cross the
+     * surface to the other side are replaced by the ideal ray.
+     *
+     * @param context the shading context of the intersection point
+     * @param ray the ideal ray
+     * @param spread the tangent of the cone's half-angle
+     * @param resolution the number of rays along each edge of the sampling grid
+     * @return the cone rays
+     */
+    protected List<Ray> constructConeRays(ShadingContext context, Ray ray, double spread, int resolution) {
+        if (resolution == 1) return List.of(ray);
+        Vector direction = ray.getDirection();
+        Vector u = direction.orthogonal();
+        Vector v = direction.crossProduct(u);
+        double side = alignZero(direction.dotProduct(context.geometricNormal));
+
+        // The jittered grid is drawn straight from the random generator of the render thread
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Ray> rays = new ArrayList<>(resolution * resolution);
+        for (int i = 0; i < resolution; i++)
+            for (int j = 0; j < resolution; j++) {
+                Point2D disk = new Point2D((j + random.nextDouble()) / resolution,
+                        (i + random.nextDouble()) / resolution).toUnitDisk();
+                Vector coneDirection = direction;
+                if (!isZero(disk.getX())) coneDirection = coneDirection.add(u.scale(disk.getX() * spread));
+                if (!isZero(disk.getY())) coneDirection = coneDirection.add(v.scale(disk.getY() * spread));
+                rays.add(alignZero(coneDirection.dotProduct(context.geometricNormal)) * side > 0
+                        ? new Ray(context.point, coneDirection, context.geometricNormal, context.time) : ray);
+            }
+        return rays;
+    }
+
+    /**
+     * Calculates the Russian roulette survival probability of a secondary branch.
+     * The probability is the largest component of the branch throughput, bounded
+     * below by the minimal survival probability.
+     *
+     * @param level the current recursion level
+     * @param kkx   the throughput of the branch
+     * @return the survival probability, 1 if the branch must not be terminated at random
+     */
+    protected double survivalProbability(int level, Double3 kkx) {
+        if (!russianRouletteEnabled || MAX_CALC_COLOR_LEVEL - level < russianRouletteStartDepth) return 1;
+        double throughput = max(kkx.d1(), max(kkx.d2(), kkx.d3()));
+        return min(1, max(minSurvivalProbability, throughput));
     }
 
     /**
@@ -0,0 +1,453 @@
+package renderer;
+
+import geometries.Intersectable.Intersection;
+import lighting.AreaLight;
+import lighting.LightSource;
+import lighting.LightTree;
+import primitives.*;
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * WavefrontRayTracer is a breadth-first ray tracing engine.
+ * <p>
+ * Instead of following every ray depth-first, it processes a batch of rays (usually an
+ * image tile) as a sequence of waves: all the rays of a wave are intersected with the scene
+ * in one pass, then all their shadow rays, and then all the reflected and refracted rays
+ * they spawn form the next wave. Each wave is kept as a structure of arrays. The shading
+ * model is the same as in {@link SimpleRayTracer}, so both produce the same image.
+ * </p>
+ * <p>
+ * Optionally the primary and the shadow rays are intersected as coherent packets of
+ * 2&times;2 or 4&times;4 rays, sharing the bounding box tests of the scene geometries.
+ * </p>
+ */
+public class WavefrontRayTracer extends SimpleRayTracer {
+
+    /**
+     * A wave of rays of the same recursion level, kept as a structure of arrays.
+     * Every entry holds the ray, the index of the batch ray (pixel) it contributes to
+     * and its cumulative attenuation factor.
+     */
+    private static final class Wave {
+        private final Ray[] rays;
+        private final int[] origins;
+        private final Double3[] weights;
+        private int size = 0;
+
+        /**
+         * Constructs an empty wave with the given capacity.
+         * @param capacity the maximal amount of rays in the wave
+         */
+        Wave(int capacity) {
+            rays = new Ray[capacity];
+            origins = new int[capacity];
+            weights = new Double3[capacity];
+        }
+
+        /**
+         * Appends a ray to the wave.
+         * @param ray    the ray
+         * @param origin the index of the batch ray the ray contributes to
+         * @param weight the cumulative attenuation factor of the ray
+         */
+        void add(Ray ray, int origin, Double3 weight) {
+            rays[size] = ray;
+            origins[size] = origin;
+            weights[size] = weight;
+            ++size;
+        }
+
+        /**
+         * Getter for the rays of the wave, trimmed to the wave size.
+         * @return the rays of the wave
+         */
+        Ray[] rays() {
+            return size == rays.length ? rays : Arrays.copyOf(rays, size);
+        }
+    }
+
+    /**
+     * The shadow rays of a wave, kept as a structure of arrays that grow as needed.
+     * Every entry holds the index of the wave hit, the light source with its illumination
+     * of the hit, the weight of the light's contribution and the shadow ray.
+     */
+    private static final class ShadowBatch {
+        private int[] hits;
+        private LightSource[] lights;
+        private LightSource.Illumination[] illuminations;
+        private double[] weights;
+        private Ray[] rays;
+        private int size = 0;
+
+        /**
+         * Constructs an empty batch with the given initial capacity.
+         * @param capacity the initial amount of shadow rays in the batch
+         */
+        ShadowBatch(int capacity) {
+            capacity = Math.max(capacity, 1);
+            hits = new int[capacity];
+            lights = new LightSource[capacity];
+            illuminations = new LightSource.Illumination[capacity];
+            weights = new double[capacity];
+            rays = new Ray[capacity];
+        }
+
+        /**
+         * Appends the shadow ray of the light source set at a hit.
+         * @param hit     the index of the hit in the wave
+         * @param context the shading context of the hit with the light source set
+         * @param weight  the weight of the light's contribution
+         */
+        void add(int hit, ShadingContext context, double weight) {
+            if (size == rays.length) {
+                int capacity = size * 2;
+                hits = Arrays.copyOf(hits, capacity);
+                lights = Arrays.copyOf(lights, capacity);
+                illuminations = Arrays.copyOf(illuminations, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+                rays = Arrays.copyOf(rays, capacity);
+            }
+            hits[size] = hit;
+            lights[size] = context.light;
+            illuminations[size] = context.illumination;
+            weights[size] = weight;
+            rays[size] = new Ray(context.point, context.l.scale(-1), context.geometricNormal, context.time);
+            ++size;
+        }
+
+        /**
+         * Getter for the shadow rays of the batch, trimmed to the batch size.
+         * @return the shadow rays of the batch
+         */
+        Ray[] rays() {
+            return size == rays.length ? rays : Arrays.copyOf(rays, size);
+        }
+    }
+
+    /** The edge of the square ray packets, 0 if ray packets are not used */
+    private int packetSize = 0;
+
+    /** The shading contexts of the hits of a wave, allocated once per render thread and grown as needed */
+    private final ThreadLocal<ShadingContext[]> waveContexts = ThreadLocal.withInitial(() -> new ShadingContext[0]);
+
+    /**
+     * Constructs a WavefrontRayTracer object with the given scene.
+     * @param scene The scene to render.
+     */
+    public WavefrontRayTracer(Scene scene) {
+        super(scene);
+    }
+
+    /**
+     * Sets the packet traversal mode of the primary and the shadow rays.
+     * @param packetSize the edge of the square ray packets: 2 or 4, or 0 to disable packets
+     * @return the ray tracer itself for method chaining
+     * @throws IllegalArgumentException if the packet size is not 0, 2 or 4
+     */
+    public WavefrontRayTracer setPacketSize(int packetSize) {
+        if (packetSize != 0 && packetSize != 2 && packetSize != 4)
+            throw new IllegalArgumentException("Ray packets must be of 2x2 or 4x4 rays");
+        this.packetSize = packetSize;
+        return this;
+    }
+
+    @Override
+    public int getPacketSize() {
+        return packetSize;
+    }
+
+    @Override
+    public Color traceRay(Ray ray) {
+        return traceRays(new Ray[]{ray})[0];
+    }
+
+    @Override
+    public Color[] traceRays(Ray[] rays) {
+        Color[] colors = new Color[rays.length];
+        Arrays.fill(colors, Color.BLACK);
+
+        Wave wave = new Wave(rays.length);
+        for (int i = 0; i < rays.length; ++i)
+            wave.add(rays[i], i, Double3.ONE);
+
+        for (int level = MAX_CALC_COLOR_LEVEL; wave.size > 0; --level) {
+            boolean primary = level == MAX_CALC_COLOR_LEVEL;
+            Intersection[] intersections = closestIntersections(wave, primary);
+            ShadingContext[] contexts = shadingContexts(wave.size);
+            ShadingContext[] hits = new ShadingContext[wave.size];
+
+            // Primary stage - emission, ambient light and background
+            for (int i = 0; i < wave.size; ++i) {
+                int origin = wave.origins[i];
+                Intersection intersection = intersections[i];
+                if (intersection == null) {
+                    Color background = primary ? scene.background : scene.background.scale(wave.weights[i]);
+                    colors[origin] = colors[origin].add(background);
+                } else if (preprocessIntersection(contexts[i], intersection, wave.rays[i])) {
+                    hits[i] = contexts[i];
+                    Color color = intersection.geometry.getEmission();
+                    if (primary)
+                        color = color.add(scene.ambientLight.getIntensity().scale(hits[i].material.kA));
+                    colors[origin] = colors[origin].add(color.scale(wave.weights[i]));
+                }
+            }
+
+            // Shadow stage - local effects of all the light sources
+            shadeLocalEffects(wave, hits, colors);
+
+            // Secondary stage - the reflected and refracted rays form the next wave
+            wave = level == 1 ? new Wave(0) : spawnSecondaryWave(wave, hits, level);
+        }
+        return colors;
+    }
+
+    /**
+     * Getter for the shading contexts of the current render thread, grown to the given count.
+     * The contexts are reused by every wave, since the hits of a wave are not needed
+     * after its secondary rays are spawned.
+     * @param count the number of the needed contexts
+     * @return the shading contexts, at least count of them
+     */
+    private ShadingContext[] shadingContexts(int count) {
+        ShadingContext[] contexts = waveContexts.get();
+        if (contexts.length < count) {
+            int size = contexts.length;
+            contexts = Arrays.copyOf(contexts, count);
+            for (int i = size; i < count; ++i) contexts[i] = new ShadingContext();
+            waveContexts.set(contexts);
+        }
+        return contexts;
+    }
+
+    /**
+     * Finds the closest intersection of every ray in the wave with one pass over the scene.
+     * @param wave    the wave of rays
+     * @param primary whether the wave consists of the primary rays (ordered in pixel packets)
+     * @return the closest intersections, null for rays that do not intersect the scene
+     */
+    private Intersection[] closestIntersections(Wave wave, boolean primary) {
+        Ray[] rays = wave.rays();
+        List<List<Intersection>> batch = calculateIntersections(rays, primary);
+        Intersection[] hits = new Intersection[rays.length];
+        for (int i = 0; i < rays.length; ++i) {
+            List<Intersection> intersections = batch.get(i);
+            hits[i] = intersections == null ? null : rays[i].findClosestIntersection(intersections);
+        }
+        return hits;
+    }
+
+    /**
+     * Adds the local lighting effects (diffuse and specular) of all the light sources at the
+     * wave hits, or of the light tree samples in the many-lights mode. All the shadow rays
+     * of the wave are intersected with the scene in one pass.
+     * @param wave   the wave of rays
+     * @param hits   the shading contexts of the wave hits (null for no contribution)
+     * @param colors the accumulated colors of the batch rays
+     */
+    private void shadeLocalEffects(Wave wave, ShadingContext[] hits, Color[] colors) {
+        // The shadow rays are ordered light by light, so that consecutive rays of
+        // neighboring points toward the same light form coherent packets
+        ShadowBatch shadows = new ShadowBatch(wave.size);
+        double[] thresholds = new double[wave.size];
+        for (int i = 0; i < wave.size; ++i)
+            if (hits[i] != null) thresholds[i] = lightThreshold(hits[i], wave.weights[i]);
+        LightTree tree = getLightTree();
+        for (LightSource lightSource : scene.lights) {
+            if (tree != null && tree.contains(lightSource)) continue;
+            for (int i = 0; i < wave.size; ++i) {
+                ShadingContext hit = hits[i];
+                if (hit == null || !mayReach(hit, lightSource, thresholds[i]) || !setLightSource(hit, lightSource)
+                        || !mayContribute(hit, thresholds[i])) continue;
+                queueShadow(shadows, wave, i, hit, 1, colors);
+            }
+        }
+        // In the many-lights mode the sampled lights follow, weighted by their inverse probability
+        if (tree != null && !tree.isEmpty()) {
+            for (int i = 0; i < wave.size; ++i) {
+                ShadingContext hit = hits[i];
+                if (hit == null) continue;
+                for (int n = 0; n < scene.lightSamples; ++n) {
+                    LightTree.Sample sample = tree.sample(hit.point, ThreadLocalRandom.current().nextDouble());
+                    double weight = 1 / (scene.lightSamples * sample.pdf());
+                    if (!mayReach(hit, sample.light(), thresholds[i] / weight) || !setLightSource(hit, sample.light())
+                            || !mayContribute(hit, thresholds[i] / weight)) continue;
+                    queueShadow(shadows, wave, i, hit, weight, colors);
+                }
+            }
+        }
+        if (shadows.size == 0) return;
+
+        List<List<Intersection>> batch = calculateIntersections(shadows.rays(), true);
+        for (int s = 0; s < shadows.size; ++s) {
+            int i = shadows.hits[s];
+            ShadingContext hit = hits[i];
+            LightSource.Illumination illumination = shadows.illuminations[s];
+            Double3 ktr = transparency(hit.point, shadows.rays[s], illumination.distance(), batch.get(s));
+            // Restore the light parameters of this shadow ray in the shading context of the hit
+            setLightSource(hit, shadows.lights[s], illumination);
+            addLocalEffect(wave, i, hit, shadows.weights[s], ktr, colors);
+        }
+    }
+
+    /**
+     * Queues the shadow ray of the light source set at a wave hit. The soft shadows of
+     * an area light need several adaptive shadow rays, so they are resolved at once and
+     * the light's contribution is added without queuing.
+     * @param shadows the shadow rays batch
+     * @param wave    the wave of rays
+     * @param i       the index of the hit in the wave
+     * @param hit     the shading context of the hit with the light source set
+     * @param weight  the weight of the light's contribution
+     * @param colors  the accumulated colors of the batch rays
+     */
+    private void queueShadow(ShadowBatch shadows, Wave wave, int i, ShadingContext hit, double weight, Color[] colors) {
+        if (hit.light instanceof AreaLight areaLight)
+            addLocalEffect(wave, i, hit, weight, areaTransparency(hit, areaLight), colors);
+        else
+            shadows.add(i, hit, weight);
+    }
+
+    /**
+     * Adds the diffuse and specular contribution of the light source set at a wave hit.
+     * @param wave   the wave of rays
+     * @param i      the index of the hit in the wave
+     * @param hit    the shading context of the hit with the light source set
+     * @param weight the weight of the light's contribution
+     * @param ktr    the transparency factor toward the light
+     * @param colors the accumulated colors of the batch rays
+     */
+    private void addLocalEffect(Wave wave, int i, ShadingContext hit, double weight, Double3 ktr, Color[] colors) {
+        Double3 k = wave.weights[i].scale(weight);
+        if (ktr.product(k).lowerThan(MIN_CALC_COLOR_K)) return;
+        Color iL = hit.illumination.intensity().scale(ktr);
+        Color color = iL.scale(calcDiffusive(hit).add(calcSpecular(hit)));
+        int origin = wave.origins[i];
+        colors[origin] = colors[origin].add(color.scale(k));
+    }
+
+    /**
+     * Intersects a batch of rays with the scene, as ray packets when packet traversal is
+     * enabled and the rays are ordered in packets.
+     * @param rays    the rays
+     * @param packets whether consecutive rays of the batch form coherent packets
+     * @return the intersection lists of the rays, in the order of the rays
+     */
+    private List<List<Intersection>> calculateIntersections(Ray[] rays, boolean packets) {
+        if (packetSize == 0 || !packets) return scene.geometries.calculateIntersections(rays);
+        int raysPerPacket = packetSize * packetSize;
+        List<List<Intersection>> batch = new ArrayList<>(rays.length);
+        for (int first = 0; first < rays.length; first += raysPerPacket) {
+            Ray[] packetRays = Arrays.copyOfRange(rays, first, Math.min(rays.length, first + raysPerPacket));
+            batch.addAll(scene.geometries.calculateIntersections(new RayPacket(packetRays)));
+        }
+        return batch;
+    }
+
+    /**
+     * Calculates the transparency factor of a shadow ray from its intersections.
+     * @param point         the shaded point
+     * @param shadowRay     the shadow ray
+     * @param lightDistance the distance from the point to the light source
+     * @param intersections the intersections of the shadow ray (may be null)
+     * @return the transparency factor (1 for fully transparent, 0 for fully opaque)
+     */
+    private Double3 transparency(Point point, Ray shadowRay, double lightDistance, List<Intersection> intersections) {
+        Double3 ktr = Double3.ONE;
+        if (intersections == null) return ktr;
+        for (Intersection shadowInter : intersections) {
+            if (shadowRay.distance(point, shadowInter) >= lightDistance) continue;
+            ktr = ktr.product(shadowInter.geometry.getMaterial().kT);
+            if (ktr.lowerThan(MIN_CALC_COLOR_K)) return Double3.ZERO;
+        }
+        return ktr;
+    }
+
+    /**
+     * Builds the next wave from the refracted and reflected rays of the wave hits.
+     * @param wave  the current wave
+     * @param hits  the shading contexts of the wave hits (null for no contribution)
+     * @param level the recursion level of the current wave
+     * @return the wave of the secondary rays
+     */
+    private Wave spawnSecondaryWave(Wave wave, ShadingContext[] hits, int level) {
+        // Glossy and blurry hits spawn a cone of rays per branch, so the capacity is found first
+        List<List<Ray>> refracted = new ArrayList<>(wave.size);
+        List<List<Ray>> reflected = new ArrayList<>(wave.size);
+        int capacity = 0;
+        for (int i = 0; i < wave.size; ++i) {
+            ShadingContext hit = hits[i];
+            if (hit == null) {
+                refracted.add(null);
+                reflected.add(null);
+                continue;
+            }
+            Material material = hit.material;
+            List<Ray> rays = secondaryRays(hit, constructRefractedRay(hit), material.blur, wave.weights[i], material.kT, level);
+            refracted.add(rays);
+            capacity += rays.size();
+            rays = secondaryRays(hit, constructReflectedRay(hit), material.glossiness, wave.weights[i], material.kR, level);
+            reflected.add(rays);
+            capacity += rays.size();
+        }
+
+        Wave next = new Wave(capacity);
+        for (int i = 0; i < wave.size; ++i) {
+            if (hits[i] == null) continue;
+            Material material = hits[i].material;
+            for (Ray ray : refracted.get(i))
+                spawnSecondaryRay(next, ray, wave.origins[i], wave.weights[i], material.kT, refracted.get(i).size(), level);
+            for (Ray ray : reflected.get(i))
+                spawnSecondaryRay(next, ray, wave.origins[i], wave.weights[i], material.kR, reflected.get(i).size(), level);
+        }
+        return next;
+    }
+
+    /**
+     * Constructs the rays of a secondary branch - the ideal ray, or a cone of rays around it
+     * for a glossy reflection or a blurry transmission.
+     * @param hit    the shading context of the wave hit
+     * @param ray    the ideal reflected or refracted ray
+     * @param spread the tangent of the cone's half-angle, 0 for the ideal ray only
+     * @param k      the cumulative attenuation factor of the parent ray
+     * @param kx     the material's reflection or transmission coefficient
+     * @param level  the recursion level of the parent ray
+     * @return the rays of the branch
+     */
+    private List<Ray> secondaryRays(ShadingContext hit, Ray ray, double spread, Double3 k, Double3 kx, int level) {
+        Double3 kkx = k.product(kx);
+        if (spread == 0 || kkx.lowerThan(MIN_CALC_COLOR_K)) return List.of(ray);
+        return constructConeRays(hit, ray, spread, coneResolution(level, kkx));
+    }
+
+    /**
+     * Appends a secondary ray to the next wave unless its contribution is negligible
+     * or it is terminated by Russian roulette.
+     * @param next   the next wave
+     * @param ray    the secondary ray
+     * @param origin the index of the batch ray the ray contributes to
+     * @param k      the cumulative attenuation factor of the parent ray
+     * @param kx     the material's reflection or transmission coefficient
+     * @param rays   the number of rays of the branch, sharing its contribution
+     * @param level  the recursion level of the parent ray
+     */
+    private void spawnSecondaryRay(Wave next, Ray ray, int origin, Double3 k, Double3 kx, int rays, int level) {
+        Double3 kkx = k.product(kx);
+        if (kkx.lowerThan(MIN_CALC_COLOR_K)) {
+            if (!kx.lowerThan(MIN_CALC_COLOR_K)) prunedBranches.increment();
+            return;
+        }
+        double scale = russianRoulette(survivalProbability(level, kkx));
+        if (scale == 0) {
+            prunedBranches.increment();
+            return;
+        }
+        if (scale != 1) kkx = kkx.scale(scale);
+        tracedBranches.increment();
+        next.add(ray, origin, rays == 1 ? kkx : kkx.reduce(rays));
+    }
+}
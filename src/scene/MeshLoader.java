@@ -0,0 +1,1046 @@
+package scene;
+
+import geometries.Geometries;
+import geometries.Mesh;
+import geometries.OffHeap;
+import geometries.Precision;
+import primitives.Color;
+import primitives.Material;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.Buffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * The MeshLoader class loads triangle meshes from Wavefront OBJ files and binary PLY files into
+ * compact {@link Mesh} buffers, without an object for every vertex or face.
+ * <p>
+ * The files are read through a memory mapped NIO channel and the numbers are parsed straight from
+ * the bytes, without creating strings. An OBJ file is split into chunks at line boundaries, and
+ * the chunks are parsed in parallel in two passes: the first pass counts the vertices and the
+ * triangles of every chunk, so that the second pass writes every chunk directly into its own part
+ * of the final vertex and index buffers. Polygonal faces are split into triangle fans, and the
+ * faces are grouped into a mesh for every {@code usemtl} material name, with the material and
+ * emission that are set for the name in the loader. All the meshes of a file share its vertex
+ * buffer. The fixed size vertex records of a PLY file are parsed in parallel as well. The buffers
+ * may be allocated off the heap, so that large models do not load the garbage collector, and the
+ * coordinates may be stored in single precision, which halves the memory of the vertices and of
+ * the hierarchies.
+ * </p>
+ * <p>
+ * The vertex normals of a file (OBJ {@code vn} statements with the normal indices of the face
+ * corners, or PLY {@code nx}, {@code ny} and {@code nz} vertex properties) make its meshes smooth
+ * shaded. The meshes of files without normals are shaded flat, unless the loader calculates
+ * smooth normals for them (see {@link #setSmoothNormals(boolean)}).
+ * </p>
+ */
+public class MeshLoader {
+    /** The material name of the faces that come before any {@code usemtl} statement */
+    public static final String DEFAULT_GROUP = "default";
+    /** The default size of the chunks of an OBJ file that are parsed in parallel */
+    private static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+    /** The size of the buffer that is used to find the line boundaries of the chunks */
+    private static final int SCAN_BUFFER_SIZE = 4096;
+    /** The exact powers of 10 that are representable by a double */
+    private static final double[] POWERS_OF_10 = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    /** The materials of the material names */
+    private final Map<String, Material> materials = new HashMap<>();
+    /** The emission colors of the material names */
+    private final Map<String, Color> emissions = new HashMap<>();
+    /** The material of the names without a material */
+    private Material defaultMaterial = new Material();
+    /** The emission color of the names without an emission color */
+    private Color defaultEmission = Color.BLACK;
+    /** The size of the chunks of an OBJ file that are parsed in parallel */
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    /** Whether the meshes are stored off the heap */
+    private boolean offHeap = false;
+    /** The precision of the coordinates of the meshes */
+    private Precision precision = Precision.DOUBLE;
+    /** Whether the meshes of files without normals get smooth normals from their triangles */
+    private boolean smoothNormals = false;
+
+    /**
+     * Sets the material of the faces of a material name (an OBJ {@code usemtl} statement).
+     *
+     * @param name     the material name
+     * @param material the material
+     * @return the loader instance
+     */
+    public MeshLoader setMaterial(String name, Material material) {
+        materials.put(name, material);
+        return this;
+    }
+
+    /**
+     * Sets the emission color of the faces of a material name (an OBJ {@code usemtl} statement).
+     *
+     * @param name     the material name
+     * @param emission the emission color
+     * @return the loader instance
+     */
+    public MeshLoader setEmission(String name, Color emission) {
+        emissions.put(name, emission);
+        return this;
+    }
+
+    /**
+     * Sets the material of the faces whose material name has no material, and of PLY files.
+     *
+     * @param material the material
+     * @return the loader instance
+     */
+    public MeshLoader setDefaultMaterial(Material material) {
+        this.defaultMaterial = material;
+        return this;
+    }
+
+    /**
+     * Sets the emission color of the faces whose material name has no emission color, and of
+     * PLY files.
+     *
+     * @param emission the emission color
+     * @return the loader instance
+     */
+    public MeshLoader setDefaultEmission(Color emission) {
+        this.defaultEmission = emission;
+        return this;
+    }
+
+    /**
+     * Sets the size of the chunks of an OBJ file that are parsed in parallel.
+     *
+     * @param chunkSize the chunk size in bytes
+     * @return the loader instance
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public MeshLoader setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("Chunk size must be positive");
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Sets whether the vertices, the indices and the hierarchies of the meshes are stored off the
+     * heap (see {@link geometries.OffHeap}). The files are parsed straight into the off-heap buffers.
+     *
+     * @param offHeap true to store the meshes off the heap
+     * @return the loader instance
+     */
+    public MeshLoader setOffHeap(boolean offHeap) {
+        this.offHeap = offHeap;
+        return this;
+    }
+
+    /**
+     * Sets the precision of the coordinates of the meshes (see {@link Mesh}). The files are parsed
+     * straight into buffers of the precision.
+     *
+     * @param precision the precision
+     * @return the loader instance
+     * @throws IllegalArgumentException if the precision is null
+     */
+    public MeshLoader setPrecision(Precision precision) {
+        if (precision == null) throw new IllegalArgumentException("Precision must not be null");
+        this.precision = precision;
+        return this;
+    }
+
+    /**
+     * Sets whether the meshes of files without vertex normals are smooth shaded by normals that
+     * are calculated from their triangles (see {@link Mesh#setSmoothNormals()}), instead of flat.
+     *
+     * @param smoothNormals true to calculate smooth normals
+     * @return the loader instance
+     */
+    public MeshLoader setSmoothNormals(boolean smoothNormals) {
+        this.smoothNormals = smoothNormals;
+        return this;
+    }
+
+    /**
+     * Allocates a vertex buffer - of doubles or of floats, on the heap or off it by the loader settings.
+     *
+     * @param count the number of coordinates
+     * @return the buffer
+     */
+    private Buffer allocateVertices(int count) {
+        if (precision == Precision.FLOAT) return offHeap ? OffHeap.floats(count) : FloatBuffer.allocate(count);
+        return offHeap ? OffHeap.doubles(count) : DoubleBuffer.allocate(count);
+    }
+
+    /**
+     * Stores a coordinate in a vertex buffer, in the precision of the buffer.
+     *
+     * @param vertices the vertex buffer
+     * @param index    the position of the coordinate
+     * @param value    the coordinate
+     */
+    private static void putCoordinate(Buffer vertices, int index, double value) {
+        if (vertices instanceof FloatBuffer floats) floats.put(index, (float) value);
+        else ((DoubleBuffer) vertices).put(index, value);
+    }
+
+    /**
+     * Allocates a buffer of integers, on the heap or off it by the loader settings.
+     *
+     * @param count the number of integers
+     * @return the buffer
+     */
+    private IntBuffer allocateInts(int count) {
+        return offHeap ? OffHeap.ints(count) : IntBuffer.allocate(count);
+    }
+
+    /**
+     * Creates a mesh, sets its normals and assigns the material and the emission color of its
+     * material name.
+     *
+     * @param name          the material name
+     * @param vertices      the shared vertex buffer
+     * @param indices       the vertex indices of the triangles
+     * @param normals       the shared normal buffer, in the precision of the vertices, null if
+     *                      the file has no normals
+     * @param normalIndices the normal indices of the triangle corners, null if the file has no normals
+     * @return the mesh
+     */
+    private Mesh createMesh(String name, Buffer vertices, IntBuffer indices, Buffer normals, IntBuffer normalIndices) {
+        Mesh mesh = vertices instanceof FloatBuffer floats ? new Mesh(floats, indices)
+                : new Mesh((DoubleBuffer) vertices, indices);
+        if (normals instanceof FloatBuffer floats) mesh.setNormals(floats, normalIndices);
+        else if (normals != null) mesh.setNormals((DoubleBuffer) normals, normalIndices);
+        else if (smoothNormals) mesh.setSmoothNormals();
+        mesh.setMaterial(materials.getOrDefault(name, defaultMaterial));
+        mesh.setEmission(emissions.getOrDefault(name, defaultEmission));
+        return mesh;
+    }
+
+    // ***************** OBJ ********************** //
+
+    /** The counts of a chunk of an OBJ file, found by the first pass */
+    private static final class ObjChunk {
+        /** The mapped bytes of the chunk */
+        private final MappedByteBuffer buffer;
+        /** The number of vertices of the chunk */
+        private int vertexCount = 0;
+        /** The number of vertex normals of the chunk */
+        private int normalCount = 0;
+        /** The number of triangles of every material name, in the order of appearance (null - the name at the chunk start) */
+        private final Map<String, Integer> triangleCounts = new LinkedHashMap<>();
+        /** The last material name of the chunk, null if it has no {@code usemtl} statement */
+        private String lastGroup = null;
+        /** The material name at the start of the chunk */
+        private String firstGroup;
+        /** The index of the first vertex of the chunk */
+        private int vertexBase;
+        /** The index of the first vertex normal of the chunk */
+        private int normalBase;
+        /** The next position of every material name in its index array */
+        private final Map<String, int[]> positions = new HashMap<>();
+
+        /**
+         * Constructs the chunk.
+         *
+         * @param buffer the mapped bytes of the chunk
+         */
+        ObjChunk(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * Loads the meshes of a Wavefront OBJ file - a mesh for every material name. Only the vertex
+     * positions ({@code v}), the vertex normals ({@code vn}), the faces ({@code f}) and the
+     * material names ({@code usemtl}) are read; other statements are ignored. The corners of the
+     * faces without normal indices are shaded flat in a file with normals.
+     *
+     * @param file the OBJ file
+     * @return the meshes of the file
+     * @throws IllegalArgumentException if the file is malformed or has no faces
+     * @throws IllegalStateException    if the file cannot be read
+     */
+    public Geometries loadObj(Path file) {
+        List<ObjChunk> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] boundaries = chunkBoundaries(channel);
+            for (int k = 0; k + 1 < boundaries.length; ++k)
+                chunks.add(new ObjChunk(channel.map(FileChannel.MapMode.READ_ONLY, boundaries[k],
+                        boundaries[k + 1] - boundaries[k])));
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error - cannot read the OBJ file " + file, e);
+        }
+
+        // First pass - count the vertices and the triangles of every chunk
+        chunks.parallelStream().forEach(MeshLoader::countObj);
+
+        // Resolve the material names at the chunk starts and lay out the buffers
+        int vertexCount = 0, normalCount = 0;
+        Map<String, Integer> triangleCounts = new LinkedHashMap<>();
+        String group = DEFAULT_GROUP;
+        for (ObjChunk chunk : chunks) {
+            chunk.firstGroup = group;
+            chunk.vertexBase = vertexCount;
+            vertexCount += chunk.vertexCount;
+            chunk.normalBase = normalCount;
+            normalCount += chunk.normalCount;
+            // The faces of the inherited name and of a later usemtl of the same name share one slice
+            Map<String, Integer> chunkCounts = new LinkedHashMap<>();
+            chunk.triangleCounts.forEach((name, count) -> chunkCounts.merge(name == null ? chunk.firstGroup : name,
+                    count, Integer::sum));
+            for (Map.Entry<String, Integer> entry : chunkCounts.entrySet()) {
+                int offset = triangleCounts.getOrDefault(entry.getKey(), 0);
+                chunk.positions.put(entry.getKey(), new int[]{offset * 3});
+                triangleCounts.put(entry.getKey(), offset + entry.getValue());
+            }
+            if (chunk.lastGroup != null) group = chunk.lastGroup;
+        }
+        Buffer vertices = allocateVertices(vertexCount * 3);
+        Map<String, IntBuffer> indices = new LinkedHashMap<>();
+        triangleCounts.forEach((name, count) -> {
+            if (count > 0) indices.put(name, allocateInts(count * 3));
+        });
+        if (indices.isEmpty()) throw new IllegalArgumentException("The OBJ file has no faces: " + file);
+        Buffer normals = normalCount == 0 ? null : allocateVertices(normalCount * 3);
+        Map<String, IntBuffer> normalIndices = new HashMap<>();
+        if (normals != null) indices.forEach((name, triangles) -> normalIndices.put(name, allocateInts(triangles.limit())));
+
+        // Second pass - parse every chunk into its parts of the buffers
+        chunks.parallelStream().forEach(chunk -> parseObj(chunk, vertices, indices, normals, normalIndices));
+
+        Geometries meshes = new Geometries();
+        indices.forEach((name, triangles) ->
+                meshes.add(createMesh(name, vertices, triangles, normals, normalIndices.get(name))));
+        return meshes;
+    }
+
+    /**
+     * Splits a file into chunks of about the chunk size, that end at line ends.
+     *
+     * @param channel the file channel
+     * @return the chunk boundaries - the first is 0 and the last is the file size
+     * @throws IOException if the file cannot be read
+     */
+    private long[] chunkBoundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = chunkSize;
+        while (position < size) {
+            // Move the boundary to the character after the next line end
+            long boundary = size;
+            search:
+            while (position < size) {
+                scan.clear();
+                int read = channel.read(scan, position);
+                if (read <= 0) break;
+                for (int k = 0; k < read; ++k)
+                    if (scan.get(k) == '\n') {
+                        boundary = position + k + 1;
+                        break search;
+                    }
+                position += read;
+            }
+            if (boundary >= size) break;
+            boundaries.add(boundary);
+            position = boundary + chunkSize;
+        }
+        boundaries.add(size);
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Counts the vertices and the triangles of every material name in a chunk of an OBJ file.
+     *
+     * @param chunk the chunk
+     */
+    private static void countObj(ObjChunk chunk) {
+        Cursor cursor = new Cursor(chunk.buffer);
+        String group = null;
+        while (cursor.nextLine()) {
+            int statement = cursor.statement();
+            if (statement == 'v') {
+                ++chunk.vertexCount;
+            } else if (statement == 'n') {
+                ++chunk.normalCount;
+            } else if (statement == 'f') {
+                int corners = 0;
+                while (cursor.skipToken()) ++corners;
+                if (corners >= 3) chunk.triangleCounts.merge(group, corners - 2, Integer::sum);
+            } else if (statement == 'u') {
+                group = cursor.token();
+                chunk.lastGroup = group;
+                chunk.triangleCounts.putIfAbsent(group, 0);
+            }
+            cursor.skipLine();
+        }
+    }
+
+    /**
+     * Parses the vertices, the normals and the triangles of a chunk of an OBJ file into the buffers.
+     *
+     * @param chunk         the chunk, with its layout in the buffers
+     * @param vertices      the vertex coordinates of the file
+     * @param indices       the vertex indices of every material name
+     * @param normals       the normal coordinates of the file, null if it has no normals
+     * @param normalIndices the normal indices of every material name, empty if the file has no normals
+     */
+    private static void parseObj(ObjChunk chunk, Buffer vertices, Map<String, IntBuffer> indices,
+                                 Buffer normals, Map<String, IntBuffer> normalIndices) {
+        Cursor cursor = new Cursor(chunk.buffer);
+        String group = chunk.firstGroup;
+        int vertex = chunk.vertexBase, normal = chunk.normalBase;
+        while (cursor.nextLine()) {
+            int statement = cursor.statement();
+            if (statement == 'v') {
+                for (int axis = 0; axis < 3; ++axis) putCoordinate(vertices, vertex * 3 + axis, cursor.parseDouble());
+                ++vertex;
+            } else if (statement == 'n') {
+                for (int axis = 0; axis < 3; ++axis) putCoordinate(normals, normal * 3 + axis, cursor.parseDouble());
+                ++normal;
+            } else if (statement == 'f') {
+                int first = -1, previous = -1, firstNormal = -1, previousNormal = -1;
+                IntBuffer triangles = indices.get(group), cornerNormals = normalIndices.get(group);
+                int[] position = chunk.positions.get(group);
+                while (cursor.hasToken()) {
+                    int index = cursor.parseInt();
+                    int normalIndex = cursor.parseNormalIndex();
+                    cursor.skipRest();
+                    // Positive indices count from 1, negative ones back from the last vertex or normal
+                    if (index == 0) throw new IllegalArgumentException("OBJ vertex indices start at 1");
+                    int current = index > 0 ? index - 1 : vertex + index;
+                    int currentNormal = normalIndex > 0 ? normalIndex - 1 : normalIndex < 0 ? normal + normalIndex : -1;
+                    if (normalIndex != 0 && (normals == null || currentNormal < 0 || currentNormal >= normals.limit() / 3))
+                        throw new IllegalArgumentException("OBJ normal index out of range");
+                    if (first < 0) {
+                        first = current;
+                        firstNormal = currentNormal;
+                    } else if (previous < 0) {
+                        previous = current;
+                        previousNormal = currentNormal;
+                    } else {
+                        if (cornerNormals != null) {
+                            cornerNormals.put(position[0], firstNormal);
+                            cornerNormals.put(position[0] + 1, previousNormal);
+                            cornerNormals.put(position[0] + 2, currentNormal);
+                        }
+                        triangles.put(position[0]++, first);
+                        triangles.put(position[0]++, previous);
+                        triangles.put(position[0]++, current);
+                        previous = current;
+                        previousNormal = currentNormal;
+                    }
+                }
+            } else if (statement == 'u') {
+                group = cursor.token();
+            }
+            cursor.skipLine();
+        }
+    }
+
+    // ***************** PLY ********************** //
+
+    /**
+     * A property of a PLY element.
+     *
+     * @param name      the property name
+     * @param type      the value type, or the index type of a list
+     * @param countType the count type of a list, null for a scalar property
+     */
+    private record PlyProperty(String name, String type, String countType) {
+    }
+
+    /**
+     * An element of a PLY file.
+     *
+     * @param name       the element name
+     * @param count      the number of records
+     * @param properties the properties of every record
+     */
+    private record PlyElement(String name, int count, List<PlyProperty> properties) {
+        /**
+         * Calculates the size of a record, if it has no lists.
+         *
+         * @return the record size in bytes, -1 if a property is a list
+         */
+        int stride() {
+            int size = 0;
+            for (PlyProperty property : properties) {
+                if (property.countType != null) return -1;
+                size += typeSize(property.type);
+            }
+            return size;
+        }
+
+        /**
+         * Finds the offset of a scalar property within a fixed size record.
+         *
+         * @param name the property name
+         * @return the offset in bytes
+         * @throws IllegalArgumentException if there is no such property
+         */
+        int offset(String name) {
+            int offset = 0;
+            for (PlyProperty property : properties) {
+                if (property.name.equals(name)) return offset;
+                offset += typeSize(property.type);
+            }
+            throw new IllegalArgumentException("The PLY " + this.name + " element has no " + name + " property");
+        }
+
+        /**
+         * Checks whether the element has a property.
+         *
+         * @param name the property name
+         * @return true if there is such a property
+         */
+        boolean has(String name) {
+            return properties.stream().anyMatch(p -> p.name.equals(name));
+        }
+
+        /**
+         * Finds the type of a property.
+         *
+         * @param name the property name
+         * @return the value type
+         */
+        String type(String name) {
+            return properties.stream().filter(p -> p.name.equals(name)).findFirst().orElseThrow().type;
+        }
+    }
+
+    /**
+     * Loads the mesh of a binary PLY file (little or big endian). The vertex positions ({@code x},
+     * {@code y}, {@code z}), the vertex normals ({@code nx}, {@code ny}, {@code nz}) if they are
+     * present, and the vertex index lists of the faces are read; other elements and properties
+     * are skipped. The mesh gets the default material and emission color.
+     *
+     * @param file the PLY file
+     * @return the mesh of the file
+     * @throws IllegalArgumentException if the file is malformed, is not binary or has no faces
+     * @throws IllegalStateException    if the file cannot be read
+     */
+    public Mesh loadPly(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<PlyElement> elements = new ArrayList<>();
+            ByteOrder[] order = new ByteOrder[1];
+            long dataStart = readPlyHeader(channel, elements, order);
+            long dataSize = channel.size() - dataStart;
+            if (dataSize > Integer.MAX_VALUE) throw new IllegalArgumentException("The PLY data is too large to map");
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, dataStart, dataSize).order(order[0]);
+
+            Buffer vertices = null, normals = null;
+            IntBuffer indices = null;
+            int position = 0;
+            for (PlyElement element : elements) {
+                if (element.name.equals("vertex")) {
+                    vertices = parsePlyVertices(data, position, element, "x", "y", "z");
+                    if (element.has("nx")) normals = parsePlyVertices(data, position, element, "nx", "ny", "nz");
+                    position += element.count * element.stride();
+                } else if (element.name.equals("face")) {
+                    indices = parsePlyFaces(data, position, element);
+                    position = skipPlyElement(data, position, element);
+                } else {
+                    position = skipPlyElement(data, position, element);
+                }
+            }
+            if (vertices == null || indices == null || indices.limit() == 0)
+                throw new IllegalArgumentException("The PLY file has no faces: " + file);
+            return createMesh(DEFAULT_GROUP, vertices, indices, normals, normals == null ? null : indices);
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error - cannot read the PLY file " + file, e);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("The PLY file is truncated: " + file, e);
+        }
+    }
+
+    /**
+     * Reads the header of a PLY file.
+     *
+     * @param channel  the file channel
+     * @param elements the elements of the file, filled in place
+     * @param order    the byte order of the data, set in place
+     * @return the position of the data after the header
+     * @throws IOException if the file cannot be read
+     */
+    private static long readPlyHeader(FileChannel channel, List<PlyElement> elements, ByteOrder[] order)
+            throws IOException {
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        StringBuilder line = new StringBuilder();
+        long position = 0;
+        boolean first = true;
+        while (true) {
+            scan.clear();
+            int read = channel.read(scan, position);
+            if (read <= 0) throw new IllegalArgumentException("The PLY header has no end_header");
+            for (int k = 0; k < read; ++k) {
+                char c = (char) (scan.get(k) & 0xff);
+                if (c != '\n') {
+                    if (c != '\r') line.append(c);
+                    continue;
+                }
+                String[] words = line.toString().trim().split("\\s+");
+                line.setLength(0);
+                if (first) {
+                    if (!words[0].equals("ply")) throw new IllegalArgumentException("Not a PLY file");
+                    first = false;
+                    continue;
+                }
+                switch (words[0]) {
+                    case "format" -> order[0] = switch (words[1]) {
+                        case "binary_little_endian" -> ByteOrder.LITTLE_ENDIAN;
+                        case "binary_big_endian" -> ByteOrder.BIG_ENDIAN;
+                        default -> throw new IllegalArgumentException("Only binary PLY files are supported");
+                    };
+                    case "element" -> elements.add(new PlyElement(words[1], Integer.parseInt(words[2]), new ArrayList<>()));
+                    case "property" -> {
+                        if (elements.isEmpty()) throw new IllegalArgumentException("PLY property before an element");
+                        elements.get(elements.size() - 1).properties.add(words[1].equals("list")
+                                ? new PlyProperty(words[4], words[3], words[2])
+                                : new PlyProperty(words[2], words[1], null));
+                    }
+                    case "end_header" -> {
+                        if (order[0] == null) throw new IllegalArgumentException("The PLY header has no format");
+                        return position + k + 1;
+                    }
+                    default -> { } // comments and object information
+                }
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Parses a triple of the vertices of a PLY file - the positions or the normals - in parallel.
+     *
+     * @param data     the data of the file
+     * @param position the position of the vertex element
+     * @param element  the vertex element
+     * @param axes     the names of the three properties of the triple
+     * @return the coordinates of the triples, three for every vertex
+     */
+    private Buffer parsePlyVertices(ByteBuffer data, int position, PlyElement element, String... axes) {
+        int stride = element.stride();
+        if (stride < 0) throw new IllegalArgumentException("PLY vertices must have a fixed size");
+        int[] offsets = new int[3];
+        String[] types = new String[3];
+        for (int axis = 0; axis < 3; ++axis) {
+            offsets[axis] = element.offset(axes[axis]);
+            types[axis] = element.type(axes[axis]);
+        }
+        Buffer vertices = allocateVertices(element.count * 3);
+        IntStream.range(0, element.count).parallel().forEach(k -> {
+            int record = position + k * stride;
+            for (int axis = 0; axis < 3; ++axis)
+                putCoordinate(vertices, k * 3 + axis, readScalar(data, record + offsets[axis], types[axis]));
+        });
+        return vertices;
+    }
+
+    /**
+     * Parses the vertex index lists of the faces of a PLY file into triangle fans - in parallel
+     * if the face records have a fixed size, and in two serial passes otherwise.
+     *
+     * @param data     the data of the file
+     * @param position the position of the face element
+     * @param element  the face element
+     * @return the vertex indices of the triangles
+     */
+    private IntBuffer parsePlyFaces(ByteBuffer data, int position, PlyElement element) {
+        PlyProperty list = element.properties.stream()
+                .filter(p -> p.countType != null && (p.name.equals("vertex_indices") || p.name.equals("vertex_index")))
+                .findFirst().orElseThrow(() -> new IllegalArgumentException("PLY faces have no vertex index list"));
+
+        IntBuffer uniform = parseUniformPlyFaces(data, position, element, list);
+        if (uniform != null) return uniform;
+
+        // The first pass counts the triangles, the second one writes them
+        int triangles = 0;
+        IntBuffer indices = null;
+        for (int pass = 0; pass < 2; ++pass) {
+            int current = position, written = 0;
+            for (int face = 0; face < element.count; ++face) {
+                for (PlyProperty property : element.properties) {
+                    if (property.countType == null) {
+                        current += typeSize(property.type);
+                        continue;
+                    }
+                    int count = (int) readScalar(data, current, property.countType);
+                    current += typeSize(property.countType);
+                    int size = typeSize(property.type);
+                    if (property == list && count >= 3) {
+                        if (indices == null) {
+                            triangles += count - 2;
+                        } else {
+                            int first = (int) readScalar(data, current, property.type);
+                            int previous = (int) readScalar(data, current + size, property.type);
+                            for (int corner = 2; corner < count; ++corner) {
+                                int next = (int) readScalar(data, current + corner * size, property.type);
+                                indices.put(written++, first);
+                                indices.put(written++, previous);
+                                indices.put(written++, next);
+                                previous = next;
+                            }
+                        }
+                    }
+                    current += count * size;
+                }
+            }
+            if (indices == null) indices = allocateInts(triangles * 3);
+        }
+        return indices;
+    }
+
+    /**
+     * Parses the faces of a PLY file in parallel if they all have the same number of corners and
+     * no other list, so that the face records have a fixed size - e.g. a file of triangles only.
+     * The faces are checked in parallel first: while all the faces before a face have the same
+     * number of corners, the fixed size finds the exact position of that face, so the first face
+     * with another number of corners is always found.
+     *
+     * @param data     the data of the file
+     * @param position the position of the face element
+     * @param element  the face element
+     * @param list     the vertex index list property
+     * @return the vertex indices of the triangles, or null if the face records have no fixed size
+     */
+    private IntBuffer parseUniformPlyFaces(ByteBuffer data, int position, PlyElement element, PlyProperty list) {
+        if (element.count == 0) return null;
+        int listOffset = 0, tail = 0;
+        boolean afterList = false;
+        for (PlyProperty property : element.properties) {
+            if (property.countType != null && property != list) return null;
+            if (property == list) afterList = true;
+            else if (afterList) tail += typeSize(property.type);
+            else listOffset += typeSize(property.type);
+        }
+        int countSize = typeSize(list.countType), size = typeSize(list.type);
+        int corners = (int) readScalar(data, position + listOffset, list.countType);
+        if (corners < 0) return null;
+        long stride = listOffset + countSize + (long) corners * size + tail;
+        if (position + element.count * stride > data.limit()) return null;
+        int recordSize = (int) stride, start = position + listOffset;
+        if (!IntStream.range(1, element.count).parallel().allMatch(face ->
+                readScalar(data, start + face * recordSize, list.countType) == corners)) return null;
+
+        int perFace = Math.max(corners - 2, 0) * 3;
+        IntBuffer indices = allocateInts(element.count * perFace);
+        if (perFace == 0) return indices;
+        IntStream.range(0, element.count).parallel().forEach(face -> {
+            int current = start + face * recordSize + countSize, written = face * perFace;
+            int first = (int) readScalar(data, current, list.type);
+            int previous = (int) readScalar(data, current + size, list.type);
+            for (int corner = 2; corner < corners; ++corner) {
+                int next = (int) readScalar(data, current + corner * size, list.type);
+                indices.put(written++, first);
+                indices.put(written++, previous);
+                indices.put(written++, next);
+                previous = next;
+            }
+        });
+        return indices;
+    }
+
+    /**
+     * Skips the records of a PLY element.
+     *
+     * @param data     the data of the file
+     * @param position the position of the element
+     * @param element  the element
+     * @return the position after the element
+     */
+    private static int skipPlyElement(ByteBuffer data, int position, PlyElement element) {
+        int stride = element.stride();
+        if (stride >= 0) return position + element.count * stride;
+        for (int record = 0; record < element.count; ++record)
+            for (PlyProperty property : element.properties) {
+                if (property.countType == null) {
+                    position += typeSize(property.type);
+                } else {
+                    int count = (int) readScalar(data, position, property.countType);
+                    position += typeSize(property.countType) + count * typeSize(property.type);
+                }
+            }
+        return position;
+    }
+
+    /**
+     * Finds the size of a PLY value type.
+     *
+     * @param type the type name
+     * @return the size in bytes
+     * @throws IllegalArgumentException if the type is unknown
+     */
+    private static int typeSize(String type) {
+        return switch (type) {
+            case "char", "uchar", "int8", "uint8" -> 1;
+            case "short", "ushort", "int16", "uint16" -> 2;
+            case "int", "uint", "int32", "uint32", "float", "float32" -> 4;
+            case "double", "float64" -> 8;
+            default -> throw new IllegalArgumentException("Unknown PLY type " + type);
+        };
+    }
+
+    /**
+     * Reads a PLY value.
+     *
+     * @param data     the data of the file
+     * @param position the position of the value
+     * @param type     the type name
+     * @return the value
+     */
+    private static double readScalar(ByteBuffer data, int position, String type) {
+        return switch (type) {
+            case "char", "int8" -> data.get(position);
+            case "uchar", "uint8" -> data.get(position) & 0xff;
+            case "short", "int16" -> data.getShort(position);
+            case "ushort", "uint16" -> data.getShort(position) & 0xffff;
+            case "int", "int32" -> data.getInt(position);
+            case "uint", "uint32" -> data.getInt(position) & 0xffffffffL;
+            case "float", "float32" -> data.getFloat(position);
+            case "double", "float64" -> data.getDouble(position);
+            default -> throw new IllegalArgumentException("Unknown PLY type " + type);
+        };
+    }
+
+    // ***************** Text parsing ********************** //
+
+    /**
+     * A position in the mapped bytes of a text chunk, with parsers of the numbers that read the
+     * bytes directly.
+     */
+    private static final class Cursor {
+        /** The bytes */
+        private final ByteBuffer buffer;
+        /** The end of the bytes */
+        private final int limit;
+        /** The current position */
+        private int position = 0;
+
+        /**
+         * Constructs a cursor at the start of the bytes.
+         *
+         * @param buffer the bytes
+         */
+        Cursor(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.limit = buffer.limit();
+        }
+
+        /**
+         * Skips the blanks of the current line.
+         */
+        private void skipBlanks() {
+            while (position < limit) {
+                byte b = buffer.get(position);
+                if (b != ' ' && b != '\t' && b != '\r') return;
+                ++position;
+            }
+        }
+
+        /**
+         * Moves to the start of the next non-empty line.
+         *
+         * @return false at the end of the bytes
+         */
+        boolean nextLine() {
+            while (position < limit) {
+                skipBlanks();
+                if (position < limit && buffer.get(position) == '\n') ++position;
+                else return position < limit;
+            }
+            return false;
+        }
+
+        /**
+         * Moves after the end of the current line.
+         */
+        void skipLine() {
+            while (position < limit && buffer.get(position) != '\n') ++position;
+            if (position < limit) ++position;
+        }
+
+        /**
+         * Reads the statement keyword of the current line: {@code v}, {@code vn}, {@code f} or
+         * {@code usemtl}.
+         *
+         * @return 'v', 'n', 'f' or 'u' for these keywords (and moves after it), 0 for any other line
+         */
+        int statement() {
+            if (matches("v")) return 'v';
+            if (matches("vn")) return 'n';
+            if (matches("f")) return 'f';
+            if (matches("usemtl")) return 'u';
+            return 0;
+        }
+
+        /**
+         * Checks whether the line continues with a keyword followed by a blank, and moves after it.
+         *
+         * @param keyword the keyword
+         * @return true if the keyword was found
+         */
+        private boolean matches(String keyword) {
+            int end = position + keyword.length();
+            if (end >= limit) return false;
+            for (int k = 0; k < keyword.length(); ++k)
+                if (buffer.get(position + k) != keyword.charAt(k)) return false;
+            byte next = buffer.get(end);
+            if (next != ' ' && next != '\t') return false;
+            position = end;
+            return true;
+        }
+
+        /**
+         * Checks whether another token follows on the current line.
+         *
+         * @return true if there is another token
+         */
+        boolean hasToken() {
+            skipBlanks();
+            return position < limit && buffer.get(position) != '\n' && buffer.get(position) != '#';
+        }
+
+        /**
+         * Skips the next token of the line.
+         *
+         * @return true if a token was skipped, false at the end of the line
+         */
+        boolean skipToken() {
+            if (!hasToken()) return false;
+            skipRest();
+            return true;
+        }
+
+        /**
+         * Skips the rest of the current token.
+         */
+        void skipRest() {
+            while (position < limit && !isBlank(buffer.get(position))) ++position;
+        }
+
+        /**
+         * Reads the next token of the line as a string (only for names, such as material names).
+         *
+         * @return the token
+         * @throws IllegalArgumentException if there is no token
+         */
+        String token() {
+            if (!hasToken()) throw new IllegalArgumentException("Missing OBJ name");
+            int start = position;
+            skipRest();
+            byte[] bytes = new byte[position - start];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Checks whether a byte ends a token.
+         *
+         * @param b the byte
+         * @return true for a blank or a line end
+         */
+        private static boolean isBlank(byte b) {
+            return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+        }
+
+        /**
+         * Parses the next integer of the line; the token continues after its digits (e.g. "3/1/2").
+         *
+         * @return the integer
+         * @throws IllegalArgumentException if there is no integer
+         */
+        int parseInt() {
+            if (!hasToken()) throw new IllegalArgumentException("Missing OBJ index");
+            boolean negative = buffer.get(position) == '-';
+            if (negative || buffer.get(position) == '+') ++position;
+            int start = position;
+            long value = 0;
+            while (position < limit) {
+                int digit = buffer.get(position) - '0';
+                if (digit < 0 || digit > 9) break;
+                value = value * 10 + digit;
+                if (value > Integer.MAX_VALUE) throw new IllegalArgumentException("OBJ index out of range");
+                ++position;
+            }
+            if (position == start) throw new IllegalArgumentException("Malformed OBJ index");
+            return (int) (negative ? -value : value);
+        }
+
+        /**
+         * Parses the normal index of a face corner, after its vertex index - the third index of a
+         * "v/t/n" or a "v//n" corner.
+         *
+         * @return the normal index, 0 if the corner has no normal index
+         * @throws IllegalArgumentException if the normal index is malformed
+         */
+        int parseNormalIndex() {
+            if (position >= limit || buffer.get(position) != '/') return 0;
+            ++position;
+            while (position < limit && buffer.get(position) != '/' && !isBlank(buffer.get(position))) ++position;
+            if (position >= limit || buffer.get(position) != '/') return 0;
+            ++position;
+            return position < limit && !isBlank(buffer.get(position)) ? parseInt() : 0;
+        }
+
+        /**
+         * Parses the next decimal number of the line, with an optional fraction and exponent.
+         *
+         * @return the number
+         * @throws IllegalArgumentException if there is no number
+         */
+        double parseDouble() {
+            if (!hasToken()) throw new IllegalArgumentException("Missing OBJ coordinate");
+            boolean negative = buffer.get(position) == '-';
+            if (negative || buffer.get(position) == '+') ++position;
+            long mantissa = 0;
+            int exponent = 0, digits = 0;
+            boolean fraction = false;
+            for (; position < limit; ++position) {
+                byte b = buffer.get(position);
+                if (b == '.' && !fraction) {
+                    fraction = true;
+                    continue;
+                }
+                int digit = b - '0';
+                if (digit < 0 || digit > 9) break;
+                ++digits;
+                // Digits beyond the precision of a long only scale the number
+                if (mantissa < Long.MAX_VALUE / 10 - 9) {
+                    mantissa = mantissa * 10 + digit;
+                    if (fraction) --exponent;
+                } else if (!fraction) {
+                    ++exponent;
+                }
+            }
+            if (digits == 0) throw new IllegalArgumentException("Malformed OBJ coordinate");
+            if (position < limit && (buffer.get(position) == 'e' || buffer.get(position) == 'E')) {
+                ++position;
+                exponent += parseInt();
+            }
+            double value = mantissa;
+            if (exponent != 0) {
+                value = Math.abs(exponent) < POWERS_OF_10.length
+                        ? exponent > 0 ? value * POWERS_OF_10[exponent] : value / POWERS_OF_10[-exponent]
+                        : value * Math.pow(10, exponent);
+            }
+            return negative ? -value : value;
+        }
+    }
+}
@@ -18,6 +18,11 @@ public class Scene {
     public AmbientLight ambientLight = AmbientLight.NONE;
     public Geometries geometries = new Geometries();
     public List<LightSource> lights= new LinkedList<>();
+    /**
+     * The number of lights sampled at every shading point from the light tree of the
+     * point lights and spotlights, or 0 to evaluate all the lights (the default).
+     */
+    public int lightSamples = 0;
     /**
      * Constructs a scene with the given name.
      * @param name The name of the scene.
@@ -68,4 +73,20 @@ public class Scene {
         return this;
     }
 
+    /**
+     * Enables the many-lights mode: instead of evaluating all the point lights and spotlights
+     * at every shading point, the given number of them is selected stochastically from a
+     * light hierarchy, according to their estimated contribution at the point. Other lights
+     * are still evaluated at every point.
+     *
+     * @param lightSamples the number of light samples per shading point, 0 to evaluate all the lights
+     * @return The scene object.
+     * @throws IllegalArgumentException if the number of samples is negative
+     */
+    public Scene setLightSamples(int lightSamples) {
+        if (lightSamples < 0) throw new IllegalArgumentException("Number of light samples must be non-negative");
+        this.lightSamples = lightSamples;
+        return this;
+    }
+
 }
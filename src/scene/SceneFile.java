@@ -0,0 +1,544 @@
+package scene;
+
+import geometries.Geometries;
+import geometries.Intersectable;
+import geometries.Mesh;
+import geometries.Precision;
+import lighting.AmbientLight;
+import lighting.DirectionalLight;
+import lighting.LightSource;
+import lighting.PointLight;
+import lighting.RectangleLight;
+import lighting.SphereLight;
+import lighting.SpotLight;
+import primitives.Color;
+import primitives.Double3;
+import primitives.Material;
+import primitives.Point;
+import primitives.Vector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The SceneFile class stores a scene of triangle meshes in a compact binary container that is
+ * opened without parsing. The container has a header, a material table, a light table, a vertex
+ * buffer table, a mesh table and the data blocks of the buffers. Every mesh refers to a shared
+ * vertex buffer, a material and its index buffer, and optionally to its prebuilt hierarchy.
+ * <p>
+ * A container is opened by mapping every data block with {@link FileChannel#map}, and the meshes
+ * read their vertices, indices and hierarchies straight from the mapped buffers, without copying
+ * them onto the heap. The pages are read only when the rays reach them, and several processes
+ * that render the same container share a single copy of it in the page cache. The data is
+ * little endian and every block is aligned to 8 bytes. A block is limited to 2GB, but the
+ * container may be larger.
+ * </p>
+ */
+public final class SceneFile {
+    /** The magic number at the start of a container ("RSCF") */
+    private static final int MAGIC = 0x52534346;
+    /** The format version */
+    private static final int VERSION = 1;
+    /** The size of the fixed part of the header, before the scene name */
+    private static final int HEADER_SIZE = 4 * 4 + 7 * 8 + 4 * 4;
+    /** The size of a material record: 17 doubles, the shininess and padding */
+    private static final int MATERIAL_SIZE = 17 * 8 + 8;
+    /** The size of a light record: its type, padding and 16 doubles */
+    private static final int LIGHT_SIZE = 8 + 16 * 8;
+    /** The size of a vertex buffer record: its offset and its number of coordinates */
+    private static final int BUFFER_SIZE = 16;
+    /** The size of a mesh record */
+    private static final int MESH_SIZE = 4 + 4 + 3 * 8 + 8 + 4 + 4 + 8;
+    /** The size of the buffer that copies the data blocks into the file */
+    private static final int COPY_BUFFER_SIZE = 1 << 20;
+
+    /** The light record types */
+    private static final int DIRECTIONAL = 0, POINT = 1, SPOT = 2, SPHERE = 3, RECTANGLE = 4;
+
+    /** Utility class - no instances */
+    private SceneFile() {
+    }
+
+    // ***************** Writing ********************** //
+
+    /**
+     * Writes a scene into a container. The geometries of the scene must be meshes, possibly in
+     * nested collections. The file is written to a temporary file that replaces the target at once.
+     *
+     * @param scene       the scene
+     * @param file        the container file
+     * @param hierarchies whether to store the hierarchies of the meshes, so they are not built on loading
+     * @throws IllegalArgumentException if a geometry is not a flat double precision mesh, or a light is
+     *                                  of an unknown type
+     * @throws IllegalStateException    if the file cannot be written
+     */
+    public static void write(Scene scene, Path file, boolean hierarchies) {
+        List<Mesh> meshes = new ArrayList<>();
+        collectMeshes(scene.geometries, meshes);
+        Map<Material, Integer> materials = new IdentityHashMap<>();
+        Map<DoubleBuffer, Integer> buffers = new IdentityHashMap<>();
+        List<Material> materialList = new ArrayList<>();
+        List<DoubleBuffer> bufferList = new ArrayList<>();
+        for (Mesh mesh : meshes) {
+            if (materials.putIfAbsent(mesh.getMaterial(), materials.size()) == null) materialList.add(mesh.getMaterial());
+            if (buffers.putIfAbsent(mesh.getVertices(), buffers.size()) == null) bufferList.add(mesh.getVertices());
+        }
+        byte[] name = scene.name == null ? new byte[0] : scene.name.getBytes(StandardCharsets.UTF_8);
+
+        // Lay out the tables and the data blocks
+        long headerSize = align(HEADER_SIZE + name.length);
+        long tablesSize = headerSize + (long) materialList.size() * MATERIAL_SIZE + (long) scene.lights.size() * LIGHT_SIZE
+                + (long) bufferList.size() * BUFFER_SIZE + (long) meshes.size() * MESH_SIZE;
+        if (tablesSize > Integer.MAX_VALUE) throw new IllegalArgumentException("The scene file tables are too large");
+        long position = tablesSize;
+        long[] bufferOffsets = new long[bufferList.size()];
+        for (int k = 0; k < bufferList.size(); ++k) {
+            bufferOffsets[k] = position;
+            position += align(blockSize(bufferList.get(k).limit(), 8));
+        }
+        long[] indexOffsets = new long[meshes.size()], hierarchyOffsets = new long[meshes.size()];
+        for (int k = 0; k < meshes.size(); ++k) {
+            Mesh mesh = meshes.get(k);
+            indexOffsets[k] = position;
+            position += align(blockSize(mesh.getIndices().limit(), 4));
+            hierarchyOffsets[k] = -1;
+            if (hierarchies) {
+                hierarchyOffsets[k] = position;
+                Mesh.Hierarchy hierarchy = mesh.getHierarchy();
+                position += align(blockSize(hierarchy.bounds().limit(), 8))
+                        + align(blockSize(hierarchy.nodes().limit(), 4)) + align(blockSize(hierarchy.order().limit(), 4));
+            }
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer tables = ByteBuffer.allocate((int) tablesSize).order(ByteOrder.LITTLE_ENDIAN);
+            tables.putInt(MAGIC).putInt(VERSION).putInt(scene.lightSamples).putInt(name.length);
+            putColor(tables, scene.background);
+            putColor(tables, scene.ambientLight.getIntensity());
+            tables.putDouble(0); // reserved
+            tables.putInt(materialList.size()).putInt(scene.lights.size()).putInt(bufferList.size()).putInt(meshes.size());
+            tables.put(name);
+            tables.position((int) headerSize);
+            for (Material material : materialList) putMaterial(tables, material);
+            for (LightSource light : scene.lights) putLight(tables, light);
+            for (int k = 0; k < bufferList.size(); ++k)
+                tables.putLong(bufferOffsets[k]).putLong(bufferList.get(k).limit());
+            for (int k = 0; k < meshes.size(); ++k) {
+                Mesh mesh = meshes.get(k);
+                tables.putInt(buffers.get(mesh.getVertices())).putInt(materials.get(mesh.getMaterial()));
+                putColor(tables, mesh.getEmission());
+                tables.putLong(indexOffsets[k]).putInt(mesh.size()).putInt(mesh.getHierarchy().nodes().limit() / 2)
+                        .putLong(hierarchyOffsets[k]);
+            }
+            tables.flip();
+            while (tables.hasRemaining()) channel.write(tables, tables.position());
+
+            ByteBuffer copy = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            for (int k = 0; k < bufferList.size(); ++k) writeDoubles(channel, copy, bufferList.get(k), bufferOffsets[k]);
+            for (int k = 0; k < meshes.size(); ++k) {
+                Mesh mesh = meshes.get(k);
+                writeInts(channel, copy, mesh.getIndices(), indexOffsets[k]);
+                if (hierarchyOffsets[k] < 0) continue;
+                Mesh.Hierarchy hierarchy = mesh.getHierarchy();
+                long offset = hierarchyOffsets[k];
+                writeDoubles(channel, copy, (DoubleBuffer) hierarchy.bounds(), offset);
+                offset += align(blockSize(hierarchy.bounds().limit(), 8));
+                writeInts(channel, copy, hierarchy.nodes(), offset);
+                offset += align(blockSize(hierarchy.nodes().limit(), 4));
+                writeInts(channel, copy, hierarchy.order(), offset);
+            }
+            if (channel.size() < position) channel.write(ByteBuffer.allocate(1), position - 1);
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error - cannot write the scene file " + file, e);
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error - cannot replace the scene file " + file, e);
+        }
+    }
+
+    /**
+     * Collects the meshes of a geometry.
+     *
+     * @param geometry the geometry - a mesh or a collection
+     * @param meshes   the meshes, filled in place
+     * @throws IllegalArgumentException if a geometry is not a flat double precision mesh
+     */
+    private static void collectMeshes(Intersectable geometry, List<Mesh> meshes) {
+        if (geometry instanceof Mesh mesh) {
+            if (mesh.getPrecision() != Precision.DOUBLE)
+                throw new IllegalArgumentException("A scene file stores only double precision meshes");
+            if (mesh.hasNormals())
+                throw new IllegalArgumentException("A scene file stores only flat shaded meshes");
+            meshes.add(mesh);
+        } else if (geometry instanceof Geometries collection)
+            for (Intersectable member : collection.getGeometries()) collectMeshes(member, meshes);
+        else throw new IllegalArgumentException("A scene file stores only meshes, not " + geometry.getClass().getSimpleName());
+    }
+
+    /**
+     * Calculates the size of a data block.
+     *
+     * @param count the number of values
+     * @param size  the size of a value in bytes
+     * @return the block size in bytes
+     * @throws IllegalArgumentException if the block is too large to be mapped
+     */
+    private static long blockSize(int count, int size) {
+        long bytes = (long) count * size;
+        if (bytes > Integer.MAX_VALUE) throw new IllegalArgumentException("A scene file block is limited to 2GB");
+        return bytes;
+    }
+
+    /**
+     * Rounds a size up to a multiple of 8.
+     *
+     * @param size the size
+     * @return the aligned size
+     */
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * Writes a buffer of doubles into the file.
+     *
+     * @param channel the file channel
+     * @param copy    the copy buffer
+     * @param values  the values, from 0 to the limit
+     * @param offset  the position in the file
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeDoubles(FileChannel channel, ByteBuffer copy, DoubleBuffer values, long offset)
+            throws IOException {
+        for (int start = 0; start < values.limit(); start += COPY_BUFFER_SIZE / 8) {
+            int count = Math.min(COPY_BUFFER_SIZE / 8, values.limit() - start);
+            copy.clear();
+            copy.asDoubleBuffer().put(values.duplicate().position(start).limit(start + count));
+            copy.limit(count * 8);
+            while (copy.hasRemaining()) offset += channel.write(copy, offset);
+        }
+    }
+
+    /**
+     * Writes a buffer of integers into the file.
+     *
+     * @param channel the file channel
+     * @param copy    the copy buffer
+     * @param values  the values, from 0 to the limit
+     * @param offset  the position in the file
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeInts(FileChannel channel, ByteBuffer copy, IntBuffer values, long offset)
+            throws IOException {
+        for (int start = 0; start < values.limit(); start += COPY_BUFFER_SIZE / 4) {
+            int count = Math.min(COPY_BUFFER_SIZE / 4, values.limit() - start);
+            copy.clear();
+            copy.asIntBuffer().put(values.duplicate().position(start).limit(start + count));
+            copy.limit(count * 4);
+            while (copy.hasRemaining()) offset += channel.write(copy, offset);
+        }
+    }
+
+    /**
+     * Writes a color.
+     *
+     * @param buffer the buffer
+     * @param color  the color
+     */
+    private static void putColor(ByteBuffer buffer, Color color) {
+        putDouble3(buffer, color.getRgb());
+    }
+
+    /**
+     * Writes three numbers.
+     *
+     * @param buffer the buffer
+     * @param value  the numbers
+     */
+    private static void putDouble3(ByteBuffer buffer, Double3 value) {
+        buffer.putDouble(value.d1()).putDouble(value.d2()).putDouble(value.d3());
+    }
+
+    /**
+     * Writes a point or a vector.
+     *
+     * @param buffer the buffer
+     * @param x      the X coordinate
+     * @param y      the Y coordinate
+     * @param z      the Z coordinate
+     */
+    private static void putXYZ(ByteBuffer buffer, double x, double y, double z) {
+        buffer.putDouble(x).putDouble(y).putDouble(z);
+    }
+
+    /**
+     * Writes a material record.
+     *
+     * @param buffer   the buffer
+     * @param material the material
+     */
+    private static void putMaterial(ByteBuffer buffer, Material material) {
+        putDouble3(buffer, material.kA);
+        putDouble3(buffer, material.kD);
+        putDouble3(buffer, material.kS);
+        putDouble3(buffer, material.kT);
+        putDouble3(buffer, material.kR);
+        buffer.putDouble(material.glossiness).putDouble(material.blur).putInt(material.nShininess).putInt(0);
+    }
+
+    /**
+     * Writes a light record: its type, intensity, position, direction or first edge, second
+     * edge, attenuation factors and radius or narrow beam exponent.
+     *
+     * @param buffer the buffer
+     * @param light  the light
+     * @throws IllegalArgumentException if the light is of an unknown type
+     */
+    private static void putLight(ByteBuffer buffer, LightSource light) {
+        int start = buffer.position();
+        if (light instanceof DirectionalLight directional) {
+            buffer.putInt(DIRECTIONAL).putInt(0);
+            putColor(buffer, directional.getIntensity());
+            putXYZ(buffer, 0, 0, 0);
+            Vector direction = directional.getDirection();
+            putXYZ(buffer, direction.getX(), direction.getY(), direction.getZ());
+        } else if (light instanceof PointLight point) {
+            int type = point instanceof SpotLight ? SPOT : point instanceof SphereLight ? SPHERE
+                    : point instanceof RectangleLight ? RECTANGLE : POINT;
+            if (type == POINT && point.getClass() != PointLight.class)
+                throw new IllegalArgumentException("Unknown light type " + point.getClass().getSimpleName());
+            buffer.putInt(type).putInt(0);
+            putColor(buffer, point.getIntensity());
+            Point position = point.getPosition();
+            putXYZ(buffer, position.getX(), position.getY(), position.getZ());
+            Vector first = point instanceof SpotLight spot ? spot.getDirection()
+                    : point instanceof RectangleLight rectangle ? rectangle.getEdge1() : null;
+            Vector second = point instanceof RectangleLight rectangle ? rectangle.getEdge2() : null;
+            if (first == null) putXYZ(buffer, 0, 0, 0);
+            else putXYZ(buffer, first.getX(), first.getY(), first.getZ());
+            if (second == null) putXYZ(buffer, 0, 0, 0);
+            else putXYZ(buffer, second.getX(), second.getY(), second.getZ());
+            buffer.putDouble(point.getKc()).putDouble(point.getKl()).putDouble(point.getKq());
+            buffer.putDouble(point instanceof SpotLight spot ? spot.getNarrowBeam()
+                    : point instanceof SphereLight sphere ? sphere.getRadius() : 0);
+        } else {
+            throw new IllegalArgumentException("Unknown light type " + light.getClass().getSimpleName());
+        }
+        buffer.position(start + LIGHT_SIZE);
+    }
+
+    // ***************** Reading ********************** //
+
+    /**
+     * Opens a container. The geometry is not read: the meshes refer to the mapped data blocks.
+     *
+     * @param file the container file
+     * @return the scene, with a mesh for every mesh record
+     * @throws IllegalArgumentException if the file is not a scene container or is damaged
+     * @throws IllegalStateException    if the file cannot be read
+     */
+    public static Scene load(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = map(channel, 0, Math.min(size, HEADER_SIZE));
+            if (header.limit() < HEADER_SIZE || header.getInt() != MAGIC)
+                throw new IllegalArgumentException("Not a scene file: " + file);
+            if (header.getInt() != VERSION) throw new IllegalArgumentException("Unsupported scene file version: " + file);
+            int lightSamples = header.getInt(), nameLength = header.getInt();
+            Color background = getColor(header), ambient = getColor(header);
+            header.getDouble(); // reserved
+            int materialCount = header.getInt(), lightCount = header.getInt();
+            int bufferCount = header.getInt(), meshCount = header.getInt();
+            long headerSize = align(HEADER_SIZE + (long) nameLength);
+            long tablesSize = headerSize + (long) materialCount * MATERIAL_SIZE + (long) lightCount * LIGHT_SIZE
+                    + (long) bufferCount * BUFFER_SIZE + (long) meshCount * MESH_SIZE;
+            if (nameLength < 0 || materialCount < 0 || lightCount < 0 || bufferCount < 0 || meshCount < 0
+                    || tablesSize > size || tablesSize > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Damaged scene file: " + file);
+            ByteBuffer tables = map(channel, 0, tablesSize);
+
+            byte[] name = new byte[nameLength];
+            tables.get(HEADER_SIZE, name);
+            Scene scene = new Scene(new String(name, StandardCharsets.UTF_8)).setBackground(background)
+                    .setAmbientLight(new AmbientLight(ambient)).setLightSamples(lightSamples);
+            tables.position((int) headerSize);
+            Material[] materials = new Material[materialCount];
+            for (int k = 0; k < materialCount; ++k) materials[k] = getMaterial(tables);
+            List<LightSource> lights = new LinkedList<>();
+            for (int k = 0; k < lightCount; ++k) lights.add(getLight(tables));
+            scene.setLights(lights);
+
+            DoubleBuffer[] buffers = new DoubleBuffer[bufferCount];
+            for (int k = 0; k < bufferCount; ++k) {
+                long offset = tables.getLong(), count = tables.getLong();
+                buffers[k] = map(channel, offset, checkedSize(count, 8, size - offset, file)).asDoubleBuffer();
+            }
+            for (int k = 0; k < meshCount; ++k) {
+                int buffer = tables.getInt(), material = tables.getInt();
+                Color emission = getColor(tables);
+                long indexOffset = tables.getLong();
+                int triangles = tables.getInt(), nodeCount = tables.getInt();
+                long hierarchyOffset = tables.getLong();
+                if (buffer < 0 || buffer >= bufferCount || material < 0 || material >= materialCount)
+                    throw new IllegalArgumentException("Damaged scene file: " + file);
+                IntBuffer indices = map(channel, indexOffset,
+                        checkedSize(triangles * 3L, 4, size - indexOffset, file)).asIntBuffer();
+                Mesh mesh;
+                if (hierarchyOffset < 0) {
+                    mesh = new Mesh(buffers[buffer], indices);
+                } else {
+                    long boundsSize = checkedSize(nodeCount * 6L, 8, size - hierarchyOffset, file);
+                    long nodesOffset = hierarchyOffset + align(boundsSize);
+                    long nodesSize = checkedSize(nodeCount * 2L, 4, size - nodesOffset, file);
+                    long orderOffset = nodesOffset + align(nodesSize);
+                    long orderSize = checkedSize(triangles, 4, size - orderOffset, file);
+                    mesh = new Mesh(buffers[buffer], indices, new Mesh.Hierarchy(
+                            map(channel, hierarchyOffset, boundsSize).asDoubleBuffer(),
+                            map(channel, nodesOffset, nodesSize).asIntBuffer(),
+                            map(channel, orderOffset, orderSize).asIntBuffer()));
+                }
+                mesh.setMaterial(materials[material]).setEmission(emission);
+                scene.geometries.add(mesh);
+            }
+            return scene;
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error - cannot read the scene file " + file, e);
+        }
+    }
+
+    /**
+     * Maps a block of the file.
+     *
+     * @param channel the file channel
+     * @param offset  the position of the block
+     * @param size    the block size in bytes
+     * @return the mapped little endian block
+     * @throws IOException if the file cannot be mapped
+     */
+    private static ByteBuffer map(FileChannel channel, long offset, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Checks the size of a data block against the file.
+     *
+     * @param count     the number of values
+     * @param size      the size of a value in bytes
+     * @param available the number of bytes from the block position to the end of the file
+     * @param file      the container file
+     * @return the block size in bytes
+     * @throws IllegalArgumentException if the block does not fit in the file
+     */
+    private static long checkedSize(long count, int size, long available, Path file) {
+        long bytes = count * size;
+        if (count < 0 || bytes > available || bytes > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Damaged scene file: " + file);
+        return bytes;
+    }
+
+    /**
+     * Reads three numbers.
+     *
+     * @param buffer the buffer
+     * @return the numbers
+     */
+    private static Double3 getDouble3(ByteBuffer buffer) {
+        return new Double3(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+    }
+
+    /**
+     * Reads a color.
+     *
+     * @param buffer the buffer
+     * @return the color
+     */
+    private static Color getColor(ByteBuffer buffer) {
+        return new Color(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+    }
+
+    /**
+     * Reads a point.
+     *
+     * @param buffer the buffer
+     * @return the point
+     */
+    private static Point getPoint(ByteBuffer buffer) {
+        return new Point(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+    }
+
+    /**
+     * Reads a vector.
+     *
+     * @param buffer the buffer
+     * @return the vector
+     */
+    private static Vector getVector(ByteBuffer buffer) {
+        return new Vector(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+    }
+
+    /**
+     * Reads a material record.
+     *
+     * @param buffer the buffer
+     * @return the material
+     */
+    private static Material getMaterial(ByteBuffer buffer) {
+        Material material = new Material().setKA(getDouble3(buffer)).setKD(getDouble3(buffer)).setKS(getDouble3(buffer))
+                .setKT(getDouble3(buffer)).setKR(getDouble3(buffer))
+                .setGlossiness(buffer.getDouble()).setBlur(buffer.getDouble()).setShininess(buffer.getInt());
+        buffer.getInt(); // padding
+        return material;
+    }
+
+    /**
+     * Reads a light record.
+     *
+     * @param buffer the buffer
+     * @return the light
+     * @throws IllegalArgumentException if the light type is unknown
+     */
+    private static LightSource getLight(ByteBuffer buffer) {
+        int start = buffer.position();
+        int type = buffer.getInt();
+        buffer.getInt(); // padding
+        Color intensity = getColor(buffer);
+        if (type == DIRECTIONAL) {
+            getPoint(buffer); // unused position
+            LightSource light = new DirectionalLight(intensity, getVector(buffer));
+            buffer.position(start + LIGHT_SIZE);
+            return light;
+        }
+        Point position = getPoint(buffer);
+        int vectors = buffer.position();
+        double kC = buffer.getDouble(vectors + 48), kL = buffer.getDouble(vectors + 56), kQ = buffer.getDouble(vectors + 64);
+        double parameter = buffer.getDouble(vectors + 72);
+        PointLight light = switch (type) {
+            case POINT -> new PointLight(intensity, position);
+            case SPOT -> new SpotLight(intensity, position, getVector(buffer)).setNarrowBeam(parameter);
+            case SPHERE -> new SphereLight(intensity, position, parameter);
+            case RECTANGLE -> new RectangleLight(intensity, position, getVector(buffer), getVector(buffer));
+            default -> throw new IllegalArgumentException("Unknown light type in a scene file: " + type);
+        };
+        light.setKc(kC).setKl(kL).setKq(kQ);
+        buffer.position(start + LIGHT_SIZE);
+        return light;
+    }
+}
@@ -0,0 +1,628 @@
+package scene;
+
+import geometries.BVH;
+import geometries.Cylinder;
+import geometries.Geometries;
+import geometries.Geometry;
+import geometries.Instance;
+import geometries.Intersectable;
+import geometries.Node;
+import geometries.Plane;
+import geometries.Polygon;
+import geometries.Precision;
+import geometries.Sphere;
+import geometries.Triangle;
+import geometries.Tube;
+import lighting.AmbientLight;
+import lighting.DirectionalLight;
+import lighting.LightSource;
+import lighting.PointLight;
+import lighting.RectangleLight;
+import lighting.SphereLight;
+import lighting.SpotLight;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+import primitives.Color;
+import primitives.Double3;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Transform;
+import primitives.Vector;
+import renderer.Camera;
+import renderer.RayTracerType;
+import renderer.SamplingType;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * The SceneLoader class builds a {@link Scene} and a {@link Camera.Builder} from an XML scene
+ * description, so that scenes that are generated by other tools are rendered without compiling
+ * Java code. Points, vectors and colors are written as three numbers separated by blanks, e.g.
+ * {@code center="0 0 -100"} or {@code color="255 191 191"}:
+ * <pre>{@code
+ * <scene name="Two color" background-color="75 127 90">
+ *     <ambient-light color="255 191 191"/>
+ *     <materials>
+ *         <material id="shiny" kd="0.5" ks="0.5" shininess="60"/>
+ *     </materials>
+ *     <lights>
+ *         <spot-light color="800 400 400" position="0 50 50" direction="0 -1 -2" kl="0.001"/>
+ *     </lights>
+ *     <prototypes>
+ *         <prototype id="tree" bvh="true">
+ *             <mesh file="tree.obj" material="shiny">
+ *                 <group name="leaves" emission="0 60 0"/>
+ *             </mesh>
+ *         </prototype>
+ *     </prototypes>
+ *     <geometries bvh="true">
+ *         <sphere center="0 0 -100" radius="50" material="shiny" emission="0 0 100"/>
+ *         <triangle p0="-100 0 -100" p1="0 100 -100" p2="-100 100 -100"/>
+ *         <instance prototype="tree" translate="30 0 -150" rotate="0 1 0 45" scale="2"/>
+ *         <node translate="0 -50 0"> ... </node>
+ *     </geometries>
+ *     <camera location="0 0 0" target="0 0 -1" up="0 1 0" vp-size="500 500" vp-distance="100"
+ *             resolution="1000 1000" ray-tracer="SIMPLE" threads="-2" anti-aliasing="JITTERED 4"/>
+ * </scene>
+ * }</pre>
+ * <p>
+ * The geometries are also {@code polygon} (with {@code vertices="x y z, x y z, ..."}),
+ * {@code plane}, {@code tube} and {@code cylinder}, and the lights are also
+ * {@code directional-light}, {@code point-light}, {@code sphere-light} and
+ * {@code rectangle-light}. Mesh files (OBJ or binary PLY) are found relative to the scene file,
+ * {@code off-heap="true"} stores a mesh off the Java heap, and {@code smooth="true"} shades the
+ * meshes of a file without vertex normals by smooth normals calculated from their triangles. The
+ * {@code precision} attribute of the scene ({@code double} or {@code float}) is the precision of
+ * the coordinates of its meshes, and may be overridden by the same attribute of a mesh.
+ * </p>
+ * <p>
+ * The independent expensive parts - the meshes, the prototypes and the hierarchies - are built
+ * lazily and in parallel: every one of them becomes an asynchronous task once it is needed, and a
+ * collection is combined when the tasks of its members are done. A prototype is built once, by
+ * its first instance, and a prototype without instances is never built.
+ * </p>
+ */
+public class SceneLoader {
+    /** The directory of the scene file, for the relative mesh files */
+    private final Path directory;
+    /** The named materials */
+    private final Map<String, Material> materials = new HashMap<>();
+    /** The prototype elements by their ids */
+    private final Map<String, Element> prototypeElements = new HashMap<>();
+    /** The construction tasks of the prototypes that were referenced */
+    private final Map<String, CompletableFuture<Intersectable>> prototypes = new HashMap<>();
+    /** The prototypes whose elements are being read, to detect a prototype that contains itself */
+    private final Set<String> pending = new HashSet<>();
+    /** The default precision of the coordinates of the meshes */
+    private final Precision precision;
+    /** The loaded scene */
+    private final Scene scene;
+    /** The camera builder of the scene, null if the description has no camera */
+    private final Camera.Builder cameraBuilder;
+
+    /**
+     * Loads a scene description file.
+     *
+     * @param file the XML scene description
+     * @throws IllegalArgumentException if the description is malformed
+     * @throws IllegalStateException    if a file cannot be read
+     */
+    public SceneLoader(Path file) {
+        this.directory = file.toAbsolutePath().getParent();
+        Element root;
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            Document document = factory.newDocumentBuilder().parse(file.toFile());
+            root = document.getDocumentElement();
+        } catch (IOException e) {
+            throw new IllegalStateException("I/O error - cannot read the scene file " + file, e);
+        } catch (SAXException e) {
+            throw new IllegalArgumentException("Malformed scene file " + file + ": " + e.getMessage(), e);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Cannot create an XML parser", e);
+        }
+        if (!root.getTagName().equals("scene")) throw new IllegalArgumentException("The root element must be scene");
+
+        precision = root.hasAttribute("precision") ? parsePrecision(root.getAttribute("precision")) : Precision.DOUBLE;
+        scene = new Scene(root.getAttribute("name"));
+        if (root.hasAttribute("background-color")) scene.setBackground(parseColor(root.getAttribute("background-color")));
+        if (root.hasAttribute("light-samples")) scene.setLightSamples(parseInt(root.getAttribute("light-samples")));
+
+        Element ambient = child(root, "ambient-light");
+        if (ambient != null) scene.setAmbientLight(new AmbientLight(parseColor(ambient.getAttribute("color"))));
+        Element materialList = child(root, "materials");
+        if (materialList != null)
+            for (Element material : children(materialList)) materials.put(required(material, "id"), parseMaterial(material));
+        Element prototypeList = child(root, "prototypes");
+        if (prototypeList != null)
+            for (Element prototype : children(prototypeList)) prototypeElements.put(required(prototype, "id"), prototype);
+        Element lightList = child(root, "lights");
+        if (lightList != null) {
+            List<LightSource> lights = new LinkedList<>();
+            for (Element light : children(lightList)) lights.add(parseLight(light));
+            scene.setLights(lights);
+        }
+
+        Element geometryList = child(root, "geometries");
+        if (geometryList != null) {
+            Intersectable geometries = join(collection(geometryList));
+            scene.setGeometries(geometries instanceof Geometries collection ? collection : new Geometries(geometries));
+        }
+
+        Element camera = child(root, "camera");
+        cameraBuilder = camera == null ? null : parseCamera(camera);
+    }
+
+    /**
+     * Getter for the loaded scene.
+     *
+     * @return the scene
+     */
+    public Scene getScene() {
+        return scene;
+    }
+
+    /**
+     * Getter for the camera builder of the scene, with its ray tracer set to the loaded scene.
+     * More settings may be added before the camera is built.
+     *
+     * @return the camera builder
+     * @throws IllegalStateException if the description has no camera
+     */
+    public Camera.Builder getCameraBuilder() {
+        if (cameraBuilder == null) throw new IllegalStateException("The scene description has no camera");
+        return cameraBuilder;
+    }
+
+    // ***************** Geometries ********************** //
+
+    /**
+     * Starts building a collection of geometries from the child elements of an element. With
+     * {@code bvh="true"} the collection is a bounding volume hierarchy.
+     *
+     * @param element the element of the collection
+     * @return the construction task of the collection
+     */
+    private CompletableFuture<Intersectable> collection(Element element) {
+        List<CompletableFuture<Intersectable>> members = new ArrayList<>();
+        for (Element child : children(element)) members.add(geometry(child));
+        boolean bvh = Boolean.parseBoolean(element.getAttribute("bvh"));
+        return CompletableFuture.allOf(members.toArray(CompletableFuture[]::new)).thenApplyAsync(done -> {
+            List<Intersectable> list = members.stream().map(CompletableFuture::join).toList();
+            return bvh ? new BVH(list, true) : new Geometries(list.toArray(Intersectable[]::new));
+        });
+    }
+
+    /**
+     * Starts building a geometry from its element. The primitives are created at once, and the
+     * meshes, the prototypes and the collections are built by asynchronous tasks.
+     *
+     * @param element the element of the geometry
+     * @return the construction task of the geometry
+     * @throws IllegalArgumentException if the element is unknown or malformed
+     */
+    private CompletableFuture<Intersectable> geometry(Element element) {
+        return switch (element.getTagName()) {
+            case "mesh" -> CompletableFuture.supplyAsync(() -> parseMesh(element));
+            case "instance" -> prototype(required(element, "prototype"))
+                    .thenApply(prototype -> new Instance(prototype, parseTransform(element)));
+            case "node" -> collection(element).thenApply(children -> new Node(children).setTransform(parseTransform(element)));
+            case "geometries" -> collection(element);
+            default -> CompletableFuture.completedFuture(parseGeometry(element));
+        };
+    }
+
+    /**
+     * Finds the construction task of a prototype, and starts it on its first reference.
+     *
+     * @param id the prototype id
+     * @return the construction task of the prototype
+     * @throws IllegalArgumentException if there is no such prototype
+     */
+    private CompletableFuture<Intersectable> prototype(String id) {
+        Element element = prototypeElements.get(id);
+        if (element == null) throw new IllegalArgumentException("Unknown prototype " + id);
+        CompletableFuture<Intersectable> task = prototypes.get(id);
+        if (task == null) {
+            if (!pending.add(id)) throw new IllegalArgumentException("The prototype " + id + " contains itself");
+            task = collection(element);
+            pending.remove(id);
+            prototypes.put(id, task);
+        }
+        return task;
+    }
+
+    /**
+     * Creates a primitive geometry, with its material and emission color.
+     *
+     * @param element the element of the geometry
+     * @return the geometry
+     * @throws IllegalArgumentException if the element is unknown or malformed
+     */
+    private Geometry parseGeometry(Element element) {
+        Geometry geometry = switch (element.getTagName()) {
+            case "sphere" -> new Sphere(parsePoint(required(element, "center")), parseDouble(required(element, "radius")));
+            case "triangle" -> new Triangle(parsePoint(required(element, "p0")), parsePoint(required(element, "p1")),
+                    parsePoint(required(element, "p2")));
+            case "polygon" -> {
+                String[] vertices = required(element, "vertices").split(",");
+                Point[] points = new Point[vertices.length];
+                for (int k = 0; k < vertices.length; ++k) points[k] = parsePoint(vertices[k]);
+                yield new Polygon(points);
+            }
+            case "plane" -> new Plane(parsePoint(required(element, "point")), parseVector(required(element, "normal")));
+            case "tube" -> new Tube(parseDouble(required(element, "radius")), parseAxis(element));
+            case "cylinder" -> new Cylinder(parseDouble(required(element, "radius")), parseAxis(element),
+                    parseDouble(required(element, "height")));
+            default -> throw new IllegalArgumentException("Unknown geometry " + element.getTagName());
+        };
+        applyAppearance(geometry, element);
+        return geometry;
+    }
+
+    /**
+     * Sets the material and the emission color of a geometry from the attributes of its element.
+     *
+     * @param geometry the geometry
+     * @param element  the element of the geometry
+     */
+    private void applyAppearance(Geometry geometry, Element element) {
+        if (element.hasAttribute("material")) geometry.setMaterial(material(element.getAttribute("material")));
+        if (element.hasAttribute("emission")) geometry.setEmission(parseColor(element.getAttribute("emission")));
+    }
+
+    /**
+     * Loads the meshes of a mesh file. The {@code material} and {@code emission} attributes are
+     * the defaults, and {@code group} child elements set them for the material names of the file.
+     * With {@code off-heap="true"} the meshes are stored off the heap, with {@code smooth="true"} the
+     * meshes without normals in the file get smooth normals, and the {@code precision} attribute
+     * overrides the precision of the scene.
+     *
+     * @param element the mesh element
+     * @return the meshes of the file
+     */
+    private Intersectable parseMesh(Element element) {
+        MeshLoader loader = new MeshLoader().setOffHeap(Boolean.parseBoolean(element.getAttribute("off-heap")))
+                .setSmoothNormals(Boolean.parseBoolean(element.getAttribute("smooth")))
+                .setPrecision(element.hasAttribute("precision") ? parsePrecision(element.getAttribute("precision")) : precision);
+        if (element.hasAttribute("material")) loader.setDefaultMaterial(material(element.getAttribute("material")));
+        if (element.hasAttribute("emission")) loader.setDefaultEmission(parseColor(element.getAttribute("emission")));
+        for (Element group : children(element)) {
+            String name = required(group, "name");
+            if (group.hasAttribute("material")) loader.setMaterial(name, material(group.getAttribute("material")));
+            if (group.hasAttribute("emission")) loader.setEmission(name, parseColor(group.getAttribute("emission")));
+        }
+        Path file = directory.resolve(required(element, "file"));
+        return file.toString().toLowerCase(Locale.ROOT).endsWith(".ply") ? loader.loadPly(file) : loader.loadObj(file);
+    }
+
+    /**
+     * Creates the axis of a tube or a cylinder from the {@code axis-head} and
+     * {@code axis-direction} attributes.
+     *
+     * @param element the element of the tube or cylinder
+     * @return the axis ray
+     */
+    private static Ray parseAxis(Element element) {
+        return new Ray(parsePoint(required(element, "axis-head")), parseVector(required(element, "axis-direction")));
+    }
+
+    /**
+     * Creates a transform from the {@code scale}, {@code rotate} ("axis x y z and degrees") and
+     * {@code translate} attributes, that are applied in this order.
+     *
+     * @param element the element of the instance or node
+     * @return the transform, the identity if there are no transform attributes
+     */
+    private static Transform parseTransform(Element element) {
+        Transform transform = Transform.IDENTITY;
+        if (element.hasAttribute("scale")) {
+            double[] scale = parseNumbers(element.getAttribute("scale"));
+            transform = switch (scale.length) {
+                case 1 -> Transform.scaling(scale[0]);
+                case 3 -> Transform.scaling(scale[0], scale[1], scale[2]);
+                default -> throw new IllegalArgumentException("A scale must have 1 or 3 factors");
+            };
+        }
+        if (element.hasAttribute("rotate")) {
+            double[] rotate = parseNumbers(element.getAttribute("rotate"));
+            if (rotate.length != 4) throw new IllegalArgumentException("A rotation must have an axis and an angle");
+            transform = Transform.rotation(new Vector(rotate[0], rotate[1], rotate[2]), rotate[3]).multiply(transform);
+        }
+        if (element.hasAttribute("translate"))
+            transform = Transform.translation(parseVector(element.getAttribute("translate"))).multiply(transform);
+        return transform;
+    }
+
+    // ***************** Materials and lights ********************** //
+
+    /**
+     * Finds a named material.
+     *
+     * @param id the material id
+     * @return the material
+     * @throws IllegalArgumentException if there is no such material
+     */
+    private Material material(String id) {
+        Material material = materials.get(id);
+        if (material == null) throw new IllegalArgumentException("Unknown material " + id);
+        return material;
+    }
+
+    /**
+     * Creates a material. The coefficients are a single number or three numbers.
+     *
+     * @param element the material element
+     * @return the material
+     */
+    private static Material parseMaterial(Element element) {
+        Material material = new Material();
+        if (element.hasAttribute("ka")) material = material.setKA(parseDouble3(element.getAttribute("ka")));
+        if (element.hasAttribute("kd")) material = material.setKD(parseDouble3(element.getAttribute("kd")));
+        if (element.hasAttribute("ks")) material = material.setKS(parseDouble3(element.getAttribute("ks")));
+        if (element.hasAttribute("kt")) material = material.setKT(parseDouble3(element.getAttribute("kt")));
+        if (element.hasAttribute("kr")) material = material.setKR(parseDouble3(element.getAttribute("kr")));
+        if (element.hasAttribute("shininess")) material = material.setShininess(parseInt(element.getAttribute("shininess")));
+        if (element.hasAttribute("glossiness")) material = material.setGlossiness(parseDouble(element.getAttribute("glossiness")));
+        if (element.hasAttribute("blur")) material = material.setBlur(parseDouble(element.getAttribute("blur")));
+        return material;
+    }
+
+    /**
+     * Creates a light source.
+     *
+     * @param element the light element
+     * @return the light source
+     * @throws IllegalArgumentException if the element is unknown or malformed
+     */
+    private static LightSource parseLight(Element element) {
+        Color color = parseColor(required(element, "color"));
+        if (element.getTagName().equals("directional-light"))
+            return new DirectionalLight(color, parseVector(required(element, "direction")));
+        PointLight light = switch (element.getTagName()) {
+            case "point-light" -> new PointLight(color, parsePoint(required(element, "position")));
+            case "spot-light" -> {
+                SpotLight spot = new SpotLight(color, parsePoint(required(element, "position")),
+                        parseVector(required(element, "direction")));
+                if (element.hasAttribute("narrow-beam")) spot.setNarrowBeam(parseDouble(element.getAttribute("narrow-beam")));
+                yield spot;
+            }
+            case "sphere-light" -> new SphereLight(color, parsePoint(required(element, "center")),
+                    parseDouble(required(element, "radius")));
+            case "rectangle-light" -> new RectangleLight(color, parsePoint(required(element, "center")),
+                    parseVector(required(element, "edge1")), parseVector(required(element, "edge2")));
+            default -> throw new IllegalArgumentException("Unknown light " + element.getTagName());
+        };
+        if (element.hasAttribute("kc")) light.setKc(parseDouble(element.getAttribute("kc")));
+        if (element.hasAttribute("kl")) light.setKl(parseDouble(element.getAttribute("kl")));
+        if (element.hasAttribute("kq")) light.setKq(parseDouble(element.getAttribute("kq")));
+        return light;
+    }
+
+    // ***************** Camera ********************** //
+
+    /**
+     * Creates the camera builder, with its ray tracer set to the loaded scene.
+     *
+     * @param element the camera element
+     * @return the camera builder
+     */
+    private Camera.Builder parseCamera(Element element) {
+        Camera.Builder builder = Camera.getBuilder().setLocation(parsePoint(required(element, "location")));
+        Vector up = parseVector(required(element, "up"));
+        if (element.hasAttribute("target")) builder.setDirection(parsePoint(element.getAttribute("target")), up);
+        else builder.setDirection(parseVector(required(element, "direction")), up);
+        double[] size = parseNumbers(required(element, "vp-size"), 2);
+        builder.setVpSize(size[0], size[1]).setVpDistance(parseDouble(required(element, "vp-distance")));
+        double[] resolution = parseNumbers(required(element, "resolution"), 2);
+        builder.setResolution((int) resolution[0], (int) resolution[1]);
+        if (element.hasAttribute("threads")) builder.setMultithreading(parseInt(element.getAttribute("threads")));
+        if (element.hasAttribute("anti-aliasing")) {
+            String[] words = element.getAttribute("anti-aliasing").trim().split("\\s+");
+            if (words.length != 2) throw new IllegalArgumentException("Anti-aliasing must have a type and a resolution");
+            builder.setAntiAliasing(SamplingType.valueOf(words[0].toUpperCase(Locale.ROOT)), parseInt(words[1]));
+        }
+        if (element.hasAttribute("adaptive-super-sampling"))
+            builder.setAdaptiveSuperSampling(parseInt(element.getAttribute("adaptive-super-sampling")));
+        if (element.hasAttribute("depth-of-field")) {
+            double[] lens = parseNumbers(element.getAttribute("depth-of-field"), 2);
+            builder.setDepthOfField(lens[0], lens[1]);
+        }
+        if (element.hasAttribute("motion-blur"))
+            builder.setMotionBlur(Boolean.parseBoolean(element.getAttribute("motion-blur")));
+        String rayTracer = element.hasAttribute("ray-tracer") ? element.getAttribute("ray-tracer") : "SIMPLE";
+        return builder.setRayTracer(scene, RayTracerType.valueOf(rayTracer.toUpperCase(Locale.ROOT)));
+    }
+
+    // ***************** Parsing helpers ********************** //
+
+    /**
+     * Waits for a construction task, and unwraps the exception of a failed task.
+     *
+     * @param task the construction task
+     * @return the constructed geometry
+     */
+    private static Intersectable join(CompletableFuture<Intersectable> task) {
+        try {
+            return task.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Finds the first child element with a given name.
+     *
+     * @param element the parent element
+     * @param name    the element name
+     * @return the child element, null if there is none
+     */
+    private static Element child(Element element, String name) {
+        for (Element child : children(element))
+            if (child.getTagName().equals(name)) return child;
+        return null;
+    }
+
+    /**
+     * Lists the child elements of an element.
+     *
+     * @param element the parent element
+     * @return the child elements, in their order
+     */
+    private static List<Element> children(Element element) {
+        List<Element> children = new ArrayList<>();
+        NodeList nodes = element.getChildNodes();
+        for (int k = 0; k < nodes.getLength(); ++k)
+            if (nodes.item(k) instanceof Element child) children.add(child);
+        return children;
+    }
+
+    /**
+     * Reads a required attribute.
+     *
+     * @param element the element
+     * @param name    the attribute name
+     * @return the attribute value
+     * @throws IllegalArgumentException if the element has no such attribute
+     */
+    private static String required(Element element, String name) {
+        if (!element.hasAttribute(name))
+            throw new IllegalArgumentException("The " + element.getTagName() + " element has no " + name + " attribute");
+        return element.getAttribute(name);
+    }
+
+    /**
+     * Parses numbers separated by blanks.
+     *
+     * @param text the text
+     * @return the numbers
+     * @throws IllegalArgumentException if a number is malformed
+     */
+    private static double[] parseNumbers(String text) {
+        String[] words = text.trim().split("\\s+");
+        double[] numbers = new double[words.length];
+        for (int k = 0; k < words.length; ++k) numbers[k] = parseDouble(words[k]);
+        return numbers;
+    }
+
+    /**
+     * Parses a given count of numbers separated by blanks.
+     *
+     * @param text  the text
+     * @param count the number of numbers
+     * @return the numbers
+     * @throws IllegalArgumentException if a number is malformed or the count is wrong
+     */
+    private static double[] parseNumbers(String text, int count) {
+        double[] numbers = parseNumbers(text);
+        if (numbers.length != count) throw new IllegalArgumentException("Expected " + count + " numbers: " + text);
+        return numbers;
+    }
+
+    /**
+     * Parses a number.
+     *
+     * @param text the text
+     * @return the number
+     * @throws IllegalArgumentException if the number is malformed
+     */
+    private static double parseDouble(String text) {
+        try {
+            return Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed number: " + text, e);
+        }
+    }
+
+    /**
+     * Parses an integer.
+     *
+     * @param text the text
+     * @return the integer
+     * @throws IllegalArgumentException if the integer is malformed
+     */
+    private static int parseInt(String text) {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed integer: " + text, e);
+        }
+    }
+
+    /**
+     * Parses a precision - {@code double} or {@code float}.
+     *
+     * @param text the text
+     * @return the precision
+     * @throws IllegalArgumentException if the precision is unknown
+     */
+    private static Precision parsePrecision(String text) {
+        return Precision.valueOf(text.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Parses a point of three coordinates.
+     *
+     * @param text the text
+     * @return the point
+     */
+    private static Point parsePoint(String text) {
+        double[] xyz = parseNumbers(text, 3);
+        return new Point(xyz[0], xyz[1], xyz[2]);
+    }
+
+    /**
+     * Parses a vector of three coordinates.
+     *
+     * @param text the text
+     * @return the vector
+     */
+    private static Vector parseVector(String text) {
+        double[] xyz = parseNumbers(text, 3);
+        return new Vector(xyz[0], xyz[1], xyz[2]);
+    }
+
+    /**
+     * Parses a color of three components.
+     *
+     * @param text the text
+     * @return the color
+     */
+    private static Color parseColor(String text) {
+        double[] rgb = parseNumbers(text, 3);
+        return new Color(rgb[0], rgb[1], rgb[2]);
+    }
+
+    /**
+     * Parses a coefficient of a single number or of three numbers.
+     *
+     * @param text the text
+     * @return the coefficient
+     */
+    private static Double3 parseDouble3(String text) {
+        double[] numbers = parseNumbers(text);
+        return switch (numbers.length) {
+            case 1 -> new Double3(numbers[0]);
+            case 3 -> new Double3(numbers[0], numbers[1], numbers[2]);
+            default -> throw new IllegalArgumentException("A coefficient must have 1 or 3 numbers: " + text);
+        };
+    }
+}
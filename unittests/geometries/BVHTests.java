@@ -0,0 +1,225 @@
+package geometries;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Transform;
+import primitives.Vector;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Testing BVH Class
+ */
+class BVHTests {
+    /** Default constructor to satisfy JavaDoc generator */
+    BVHTests() { /* to satisfy JavaDoc generator */ }
+
+    /** The direction of the test rays */
+    private final Vector direction = new Vector(0, 0, -1);
+
+    /**
+     * Test method for {@link geometries.BVH#findIntersections(Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        List<Intersectable> spheres = new ArrayList<>();
+        for (int i = 0; i < 10; ++i)
+            spheres.add(new Sphere(new Point(i * 3, 0, 0), 1));
+        BVH bvh = new BVH(spheres);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The ray crosses a single sphere of the tree
+        assertEquals(List.of(new Point(9, 0, 1), new Point(9, 0, -1)),
+                bvh.findIntersections(new Ray(new Point(9, 0, 5), direction)), "Wrong points");
+        // TC02: The ray misses all the spheres
+        assertNull(bvh.findIntersections(new Ray(new Point(1.5, 0, 5), direction)), "The ray must miss");
+        // TC03: An unbounded object is tested outside the tree
+        BVH withPlane = new BVH(new Sphere(Point.ZERO, 1), new Plane(new Point(0, 0, -5), Vector.AXIS_Z));
+        assertEquals(3, withPlane.findIntersections(new Ray(new Point(0, 0, 5), direction)).size(),
+                "Wrong number of points with a plane");
+        assertNull(withPlane.getBoundingBox(), "A tree with a plane must be unbounded");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: An empty tree
+        assertNull(new BVH().findIntersections(new Ray(Point.ZERO, direction)), "An empty tree has no points");
+    }
+
+    /**
+     * Test method for {@link geometries.BVH#refit()}.
+     */
+    @Test
+    void testRefit() {
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < 8; ++i)
+            nodes.add(new Node(new Sphere(Point.ZERO, 1)).setTransform(Transform.translation(new Vector(3 + i * 3, 0, 0))));
+        BVH bvh = new BVH(nodes).setRebuildThreshold(100);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A moved object is found at its new place after a refit
+        nodes.get(0).setTransform(Transform.translation(new Vector(3, 10, 0)));
+        assertFalse(bvh.refit(), "A small move must not rebuild the tree");
+        assertEquals(List.of(new Point(3, 10, 1), new Point(3, 10, -1)),
+                bvh.findIntersections(new Ray(new Point(3, 10, 5), direction)), "Wrong points after the refit");
+        assertEquals(new Point(25, 11, 1), bvh.getBoundingBox().getMax(), "Wrong box after the refit");
+        // TC02: Swapping far objects degrades the tree and the refit rebuilds it
+        bvh.setRebuildThreshold(1.1);
+        nodes.get(1).setTransform(Transform.translation(new Vector(24, 0, 0)));
+        nodes.get(7).setTransform(Transform.translation(new Vector(6, 0, 0)));
+        assertTrue(bvh.refit(), "A degraded tree must be rebuilt");
+        assertFalse(bvh.refit(), "The rebuilt tree is the new reference and must not be rebuilt again");
+        assertEquals(List.of(new Point(24, 0, 1), new Point(24, 0, -1)),
+                bvh.findIntersections(new Ray(new Point(24, 0, 5), direction)), "Wrong points after the rebuild");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A threshold below 1
+        assertThrows(IllegalArgumentException.class, () -> bvh.setRebuildThreshold(0.5), "The threshold must be at least 1");
+    }
+
+    /**
+     * Test method for {@link geometries.BVH#BVH(List, boolean)}.
+     */
+    @Test
+    void testParallelBuild() {
+        Random random = new Random(7);
+        List<Intersectable> spheres = new ArrayList<>();
+        for (int i = 0; i < 5000; ++i)
+            spheres.add(new Sphere(new Point(random.nextDouble() * 100, random.nextDouble() * 100,
+                    random.nextDouble() * 100), 0.5));
+        BVH median = new BVH(spheres);
+        BVH linear = new BVH(spheres, true);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The linear tree finds the same points as the median split tree
+        for (int k = 0; k < 200; ++k) {
+            Ray ray = new Ray(new Point(random.nextDouble() * 100, random.nextDouble() * 100, 150), direction);
+            List<Point> expected = median.findIntersections(ray);
+            List<Point> result = linear.findIntersections(ray);
+            assertEquals(sorted(ray, expected), sorted(ray, result), "The linear tree must find the same points");
+        }
+        assertEquals(median.getBoundingBox().getMin(), linear.getBoundingBox().getMin(), "Wrong box minimum");
+        assertEquals(median.getBoundingBox().getMax(), linear.getBoundingBox().getMax(), "Wrong box maximum");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: Objects with equal centers get equal codes and are still split
+        BVH same = new BVH(List.of(new Sphere(Point.ZERO, 1), new Sphere(Point.ZERO, 2), new Sphere(Point.ZERO, 3)), true);
+        assertEquals(6, same.findIntersections(new Ray(new Point(0, 0, 5), direction)).size(),
+                "Wrong number of points of equal codes");
+        // TC11: A single object
+        assertEquals(2, new BVH(List.of(new Sphere(Point.ZERO, 1)), true)
+                .findIntersections(new Ray(new Point(0, 0, 5), direction)).size(), "Wrong points of a single object");
+    }
+
+    /**
+     * Test method for {@link geometries.BVH#optimize()}.
+     */
+    @Test
+    void testOptimize() {
+        Random random = new Random(11);
+        List<Intersectable> spheres = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i)
+            spheres.add(new Sphere(new Point(random.nextDouble() * 100, random.nextDouble() * 10,
+                    random.nextDouble() * 100), 1 + random.nextDouble() * 4));
+        BVH linear = new BVH(spheres, true);
+        Ray ray = new Ray(new Point(50, 5, 150), direction);
+        List<Point> before = linear.findIntersections(ray);
+        double cost = linear.getCost();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The rotations reduce the cost and keep the points
+        assertTrue(linear.optimize().getCost() < cost, "The rotations must reduce the cost");
+        assertEquals(sorted(ray, before), sorted(ray, linear.findIntersections(ray)), "The rotations must keep the points");
+    }
+
+    /**
+     * Test method for {@link geometries.BVH#cached(List, boolean, Path)}.
+     *
+     * @param directory a temporary cache directory
+     * @throws IOException if the cache directory cannot be listed
+     */
+    @Test
+    void testCached(@TempDir Path directory) throws IOException {
+        Random random = new Random(3);
+        List<Intersectable> spheres = new ArrayList<>();
+        for (int i = 0; i < 500; ++i)
+            spheres.add(new Sphere(new Point(random.nextDouble() * 100, random.nextDouble() * 100,
+                    random.nextDouble() * 100), 1));
+        spheres.add(new Plane(new Point(0, 0, -10), Vector.AXIS_Z));
+        Ray ray = new Ray(new Point(50, 50, 150), new Vector(0.1, 0.2, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The first run builds the tree and saves it
+        BVH built = BVH.cached(spheres, true, directory);
+        assertEquals(1, fileCount(directory), "The tree must be saved");
+        // TC02: The second run loads the same tree
+        BVH loaded = BVH.cached(spheres, true, directory);
+        assertEquals(built.getCost(), loaded.getCost(), 1e-10, "The loaded tree must have the same cost");
+        assertEquals(sorted(ray, built.findIntersections(ray)), sorted(ray, loaded.findIntersections(ray)),
+                "The loaded tree must find the same points");
+        assertNull(loaded.getBoundingBox(), "The plane must stay outside the loaded tree");
+        // TC03: A changed scene is not matched by the saved tree
+        spheres.set(0, new Sphere(new Point(200, 0, 0), 1));
+        assertNull(BVH.load(spheres, true, firstFile(directory)),
+                "A tree of other objects must not be loaded");
+        BVH changed = BVH.cached(spheres, true, directory);
+        assertEquals(2, fileCount(directory), "The changed scene must be saved separately");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A damaged file is not loaded
+        Path file = directory.resolve("damaged.bvh");
+        changed.save(file);
+        assertNotNull(BVH.load(spheres, true, file), "The saved file must be loaded");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertNull(BVH.load(spheres, true, file), "A damaged file must not be loaded");
+    }
+
+    /**
+     * Sorts intersection points by their distance from the head of the ray.
+     *
+     * @param ray    the ray
+     * @param points the points, or null
+     * @return the sorted points, null if there are none
+     */
+    private List<Point> sorted(Ray ray, List<Point> points) {
+        return points == null ? null
+                : points.stream().sorted(Comparator.comparingDouble(p -> p.distance(ray.getHead()))).toList();
+    }
+
+    /**
+     * Counts the files of a directory, closing the listing.
+     *
+     * @param directory the directory
+     * @return the number of files
+     * @throws IOException if the directory cannot be listed
+     */
+    private static long fileCount(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    /**
+     * Finds the first file of a directory, closing the listing.
+     *
+     * @param directory the directory
+     * @return the first file
+     * @throws IOException if the directory cannot be listed
+     */
+    private static Path firstFile(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.findFirst().orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package geometries;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Transform;
+import primitives.Vector;
+
+import java.util.List;
+
+/**
+ * Testing Instance Class
+ */
+class InstanceTests {
+    /** Default constructor to satisfy JavaDoc generator */
+    InstanceTests() { /* to satisfy JavaDoc generator */ }
+
+    /** The shared prototype - a unit sphere at the origin */
+    private final Geometries prototype = new Geometries(new Sphere(Point.ZERO, 1));
+    /** The prototype scaled by 2 and moved to (10, 0, 0) */
+    private final Instance instance = new Instance(prototype,
+            Transform.translation(new Vector(10, 0, 0)).multiply(Transform.scaling(2)));
+
+    /**
+     * Test method for {@link geometries.Instance#calculateIntersections(Ray)}.
+     */
+    @Test
+    void testCalculateIntersections() {
+        Vector direction = new Vector(0, 0, -1);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The ray crosses the placed copy
+        List<Intersectable.Intersection> result = instance.calculateIntersections(new Ray(new Point(10, 0, 5), direction));
+        assertNotNull(result, "The ray must cross the copy");
+        assertEquals(List.of(new Point(10, 0, 2), new Point(10, 0, -2)),
+                result.stream().map(intersection -> intersection.point()).toList(), "Wrong world points");
+        assertEquals(new Vector(0, 0, 1), result.get(0).normal, "Wrong world normal");
+        // TC02: The ray crosses the prototype position but misses the copy
+        assertNull(instance.findIntersections(new Ray(new Point(0, 0, 5), direction)), "The ray must miss the copy");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A copy of a copy - the transforms are nested
+        Instance nested = new Instance(new Geometries(instance), Transform.translation(new Vector(0, 5, 0)));
+        assertEquals(List.of(new Point(10, 5, 2), new Point(10, 5, -2)),
+                nested.findIntersections(new Ray(new Point(10, 5, 5), direction)), "Wrong nested points");
+    }
+
+    /**
+     * Test method for {@link geometries.Instance#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The box of the placed copy
+        assertEquals(new Point(8, -2, -2), instance.getBoundingBox().getMin(), "Wrong box minimum");
+        assertEquals(new Point(12, 2, 2), instance.getBoundingBox().getMax(), "Wrong box maximum");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A copy of an unbounded prototype is unbounded
+        assertNull(new Instance(new Plane(Point.ZERO, Vector.AXIS_Y), Transform.IDENTITY).getBoundingBox(),
+                "A copy of a plane must be unbounded");
+    }
+}
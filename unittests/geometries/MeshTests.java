@@ -0,0 +1,425 @@
+package geometries;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import renderer.Camera;
+import renderer.RayTracerType;
+import renderer.SimpleRayTracer;
+import scene.Scene;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Testing Mesh Class
+ */
+class MeshTests {
+    /** Default constructor to satisfy JavaDoc generator */
+    MeshTests() { /* to satisfy JavaDoc generator */ }
+
+    /** A square of two triangles on the XY plane, from (0, 0, 0) to (2, 2, 0) */
+    private final Mesh square = new Mesh(new double[]{0, 0, 0, 2, 0, 0, 2, 2, 0, 0, 2, 0},
+            new int[]{0, 1, 2, 0, 2, 3});
+
+    /**
+     * Test method for {@link geometries.Mesh#Mesh(double[], int[])}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A correct mesh
+        assertEquals(2, square.size(), "Wrong number of triangles");
+        assertEquals(new Point(2, 2, 0), square.getBoundingBox().getMax(), "Wrong box maximum");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: Vertex coordinates that are not triples
+        assertThrows(IllegalArgumentException.class, () -> new Mesh(new double[]{0, 0}, new int[]{0, 0, 0}),
+                "Coordinates must come in triples");
+        // TC11: No triangles
+        assertThrows(IllegalArgumentException.class, () -> new Mesh(new double[]{0, 0, 0}, new int[0]),
+                "A mesh must have triangles");
+        // TC12: A vertex index out of range
+        assertThrows(IllegalArgumentException.class, () -> new Mesh(new double[]{0, 0, 0}, new int[]{0, 0, 1}),
+                "Indices must refer to vertices");
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#calculateIntersections(Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        Vector down = new Vector(0, 0, -1);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The ray crosses the first triangle
+        assertEquals(List.of(new Point(1.5, 0.5, 0)), square.findIntersections(new Ray(new Point(1.5, 0.5, 1), down)),
+                "Wrong point in the first triangle");
+        // TC02: The ray crosses the second triangle
+        assertEquals(List.of(new Point(0.5, 1.5, 0)), square.findIntersections(new Ray(new Point(0.5, 1.5, 1), down)),
+                "Wrong point in the second triangle");
+        // TC03: The ray misses the mesh
+        assertNull(square.findIntersections(new Ray(new Point(3, 1, 1), down)), "The ray must miss the mesh");
+        // TC04: The ray points away from the mesh
+        assertNull(square.findIntersections(new Ray(new Point(1.5, 0.5, 1), Vector.AXIS_Z)), "The mesh is behind the ray");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A ray through an outer edge intersects the mesh, unlike a separate triangle
+        assertEquals(List.of(new Point(1, 0, 0)), square.findIntersections(new Ray(new Point(1, 0, 1), down)),
+                "An edge of a mesh is an intersection");
+        // TC11: Rays along the diagonal that the two triangles share find the mesh once
+        for (int k = 1; k <= 9; ++k) {
+            double c = k * 0.2;
+            assertEquals(List.of(new Point(c, c, 0)), square.findIntersections(new Ray(new Point(c, c, 1), down)),
+                    "A ray on the shared edge must find the mesh once at " + c);
+        }
+        // TC12: A ray through the edge that two quads of a grid share, and through their shared vertices
+        Mesh grid = new Mesh(new double[]{0, 0, 0, 1, 0, 0, 2, 0, 0, 0, 1, 0, 1, 1, 0, 2, 1, 0},
+                new int[]{0, 1, 4, 0, 4, 3, 1, 2, 5, 1, 5, 4});
+        for (double y : new double[]{0, 0.3, 0.5, 1})
+            assertEquals(List.of(new Point(1, y, 0)), grid.findIntersections(new Ray(new Point(1, y, 1), down)),
+                    "A ray on the shared edge of the quads must find the grid once at " + y);
+
+        // ============ Hierarchy Tests ==============
+        // TC20: A large mesh finds the same points as its separate triangles
+        Random random = new Random(5);
+        int count = 2000;
+        double[] vertices = new double[count * 9];
+        int[] indices = new int[count * 3];
+        Geometries triangles = new Geometries();
+        for (int t = 0; t < count; ++t) {
+            double x = random.nextDouble() * 20, y = random.nextDouble() * 20, z = random.nextDouble() * 20;
+            Point[] corners = {new Point(x, y, z), new Point(x + 1, y, z + 0.3), new Point(x, y + 1, z - 0.2)};
+            for (int c = 0; c < 3; ++c) {
+                vertices[t * 9 + c * 3] = corners[c].getX();
+                vertices[t * 9 + c * 3 + 1] = corners[c].getY();
+                vertices[t * 9 + c * 3 + 2] = corners[c].getZ();
+                indices[t * 3 + c] = t * 3 + c;
+            }
+            triangles.add(new Triangle(corners[0], corners[1], corners[2]));
+        }
+        Mesh mesh = new Mesh(vertices, indices);
+        for (int r = 0; r < 50; ++r) {
+            Ray ray = new Ray(new Point(random.nextDouble() * 20, random.nextDouble() * 20, 30),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -3));
+            assertEquals(sorted(ray, triangles.findIntersections(ray)), sorted(ray, mesh.findIntersections(ray)),
+                    "The mesh must find the points of its triangles");
+        }
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#getNormal(Point)}.
+     */
+    @Test
+    void testGetNormal() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The normal of a point on the mesh
+        assertEquals(Vector.AXIS_Z, square.getNormal(new Point(1.5, 0.5, 0)), "Wrong normal");
+        // TC02: The intersections find the normal of their triangle
+        Intersectable.Intersection intersection = square.calculateIntersections(new Ray(new Point(0.5, 1.5, 1),
+                new Vector(0, 0, -1))).get(0);
+        assertEquals(1, intersection.primitive, "Wrong intersection triangle");
+        assertEquals(Vector.AXIS_Z, square.getNormal(intersection), "Wrong intersection normal");
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#toOffHeap()}.
+     */
+    @Test
+    void testToOffHeap() {
+        square.setEmission(new Color(1, 2, 3));
+        Mesh copy = square.toOffHeap();
+        Ray ray = new Ray(new Point(0.5, 1.5, 1), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The copy is stored off the heap
+        assertTrue(copy.getVertices().isDirect() && copy.getIndices().isDirect()
+                && copy.getHierarchy().nodes().isDirect(), "The copy must be off the heap");
+        // TC02: The copy finds the same points, with the same appearance
+        assertEquals(square.findIntersections(ray), copy.findIntersections(ray), "Wrong off-heap points");
+        assertSame(square.getEmission(), copy.getEmission(), "Wrong emission");
+        // TC03: A mesh of off-heap buffers builds its hierarchy off the heap
+        Mesh built = new Mesh(OffHeap.copy(square.getVertices()), OffHeap.copy(square.getIndices()));
+        assertTrue(built.getHierarchy().bounds().isDirect(), "The hierarchy must follow the indices");
+        assertEquals(square.findIntersections(ray), built.findIntersections(ray), "Wrong points of the built mesh");
+    }
+
+    /**
+     * Test of the seams of {@link geometries.Mesh} in both precisions: a camera whose pixel rays
+     * pass through the shared edges and vertices of a grid, at coordinates that are not exact in
+     * either precision, sees no holes.
+     */
+    @Test
+    void testPrecisionSeams() {
+        // A grid of 0.1 squares, each split along its diagonal, on the view plane of the camera
+        int cells = 24;
+        double[] vertices = new double[(cells + 1) * (cells + 1) * 3];
+        for (int i = 0; i <= cells; ++i)
+            for (int j = 0; j <= cells; ++j) {
+                int v = (i * (cells + 1) + j) * 3;
+                vertices[v] = (j - cells / 2) * 0.1;
+                vertices[v + 1] = (i - cells / 2) * 0.1;
+                vertices[v + 2] = -10;
+            }
+        int[] indices = new int[cells * cells * 6];
+        for (int i = 0, k = 0; i < cells; ++i)
+            for (int j = 0; j < cells; ++j) {
+                int a = i * (cells + 1) + j, b = a + 1, c = a + cells + 2, d = a + cells + 1;
+                int[] quad = {a, b, c, a, c, d};
+                System.arraycopy(quad, 0, indices, k, 6);
+                k += 6;
+            }
+        Color emission = new Color(0, 100, 0);
+        Mesh doubles = (Mesh) new Mesh(vertices, indices).setEmission(emission);
+        Mesh floats = (Mesh) doubles.toPrecision(Precision.FLOAT).setEmission(emission);
+        // The pixel centers are on the vertices, the edges and the diagonals of the squares
+        Camera camera = Camera.getBuilder().setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), Vector.AXIS_Y)
+                .setVpDistance(10).setVpSize(2.1, 2.1).setResolution(43, 43)
+                .setRayTracer(new Scene("Seams"), RayTracerType.SIMPLE).build();
+        Scene doubleScene = new Scene("Double seams"), floatScene = new Scene("Float seams");
+        doubleScene.geometries.add(doubles);
+        floatScene.geometries.add(floats);
+        SimpleRayTracer doubleTracer = new SimpleRayTracer(doubleScene), floatTracer = new SimpleRayTracer(floatScene);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Every pixel sees the mesh in both precisions, with the same color
+        for (int i = 0; i < 43; ++i)
+            for (int j = 0; j < 43; ++j) {
+                Ray ray = camera.constructRay(43, 43, j, i);
+                Color doubleColor = doubleTracer.traceRay(ray), floatColor = floatTracer.traceRay(ray);
+                assertEquals(emission.getRgb(), doubleColor.getRgb(), "A hole in the double mesh at " + j + "," + i);
+                assertEquals(emission.getRgb(), floatColor.getRgb(), "A hole in the float mesh at " + j + "," + i);
+            }
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#toPrecision(Precision)}.
+     */
+    @Test
+    void testToPrecision() {
+        Ray ray = new Ray(new Point(0.5, 1.5, 1), new Vector(0, 0, -1));
+        Mesh floats = square.toPrecision(Precision.FLOAT);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The copy stores single precision vertices and bounds, and finds the same points
+        assertEquals(Precision.FLOAT, floats.getPrecision(), "Wrong precision");
+        assertTrue(floats.getVertices() == null && floats.getFloatVertices() != null
+                && floats.getHierarchy().bounds() instanceof java.nio.FloatBuffer, "The copy must store floats");
+        assertEquals(square.findIntersections(ray), floats.findIntersections(ray), "Wrong single precision points");
+        assertEquals(Vector.AXIS_Z, floats.getNormal(floats.calculateIntersections(ray).get(0)),
+                "Wrong single precision normal");
+        // TC02: A single precision mesh built from its arrays
+        Mesh built = new Mesh(new float[]{0, 0, 0, 2, 0, 0, 2, 2, 0, 0, 2, 0}, new int[]{0, 1, 2, 0, 2, 3});
+        assertEquals(square.findIntersections(ray), built.findIntersections(ray), "Wrong points of the built mesh");
+        // TC03: The bounds are rounded outwards, so they contain the rounded triangles
+        Mesh thin = new Mesh(new double[]{0.1, 0.1, 0.1, 0.7, 0.1, 0.1, 0.1, 0.3, 0.1}, new int[]{0, 1, 2})
+                .toPrecision(Precision.FLOAT);
+        assertTrue(thin.getBoundingBox().getMin().getX() <= (float) 0.1
+                && thin.getBoundingBox().getMax().getX() >= (float) 0.7, "The bounds must contain the triangle");
+        // TC04: The single precision points of a large mesh are close to the double precision ones
+        Random random = new Random(7);
+        int count = 2000;
+        double[] vertices = new double[count * 9];
+        int[] indices = new int[count * 3];
+        for (int t = 0; t < count; ++t) {
+            double x = random.nextDouble() * 20, y = random.nextDouble() * 20, z = random.nextDouble() * 20;
+            double[] corners = {x, y, z, x + 1.1, y, z + 0.3, x, y + 0.9, z - 0.2};
+            System.arraycopy(corners, 0, vertices, t * 9, 9);
+        }
+        for (int k = 0; k < indices.length; ++k) indices[k] = k;
+        Mesh mesh = new Mesh(vertices, indices), single = mesh.toPrecision(Precision.FLOAT);
+        int differences = 0;
+        for (int r = 0; r < 200; ++r) {
+            Ray probe = new Ray(new Point(random.nextDouble() * 20, random.nextDouble() * 20, 30),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -3));
+            List<Point> expected = sorted(probe, mesh.findIntersections(probe));
+            List<Point> actual = sorted(probe, single.findIntersections(probe));
+            if (expected.size() != actual.size()) {
+                ++differences;
+                continue;
+            }
+            for (int k = 0; k < expected.size(); ++k)
+                assertEquals(0, expected.get(k).distance(actual.get(k)), 1e-4, "Single precision point too far");
+        }
+        assertTrue(differences <= 2, "Too many rays hit other triangles in single precision");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: The same precision gives the mesh itself, and back to double precision finds the same points
+        assertSame(square, square.toPrecision(Precision.DOUBLE), "The mesh already has the precision");
+        assertEquals(square.findIntersections(ray), floats.toPrecision(Precision.DOUBLE).findIntersections(ray),
+                "Wrong points back in double precision");
+        // TC11: A hierarchy of another precision
+        assertThrows(IllegalArgumentException.class, () -> new Mesh(square.getVertices(), square.getIndices(),
+                floats.getHierarchy()), "The hierarchy must have the precision of the vertices");
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#setNormals(DoubleBuffer, IntBuffer)}.
+     */
+    @Test
+    void testSetNormals() {
+        // The normals lean toward -X at x = 0 and toward +X at x = 2, like a cylinder
+        Mesh mesh = new Mesh(square.getVertices(), square.getIndices()).setNormals(
+                DoubleBuffer.wrap(new double[]{-1, 0, 1, 1, 0, 1, 1, 0, 1, -1, 0, 1}), square.getIndices());
+        Ray ray = new Ray(new Point(1.5, 0.5, 1), new Vector(0, 0, -1));
+        Vector expected = new Vector(0.5, 0, 1).normalize();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The normal is interpolated by the barycentric coordinates of the hit
+        assertEquals(expected, mesh.getNormal(mesh.calculateIntersections(ray).get(0)), "Wrong interpolated normal");
+        // TC02: The copies keep the normals
+        Mesh copy = mesh.toOffHeap();
+        assertTrue(copy.getNormals().isDirect() && copy.getNormalIndices().isDirect(), "Wrong memory of the normals");
+        assertEquals(expected, copy.getNormal(copy.calculateIntersections(ray).get(0)), "Wrong off-heap normal");
+        Mesh floats = mesh.toPrecision(Precision.FLOAT);
+        assertInstanceOf(FloatBuffer.class, floats.getNormals(), "Wrong precision of the normals");
+        assertEquals(expected, floats.getNormal(floats.calculateIntersections(ray).get(0)), "Wrong single precision normal");
+        // TC03: The normal of a point is flat
+        assertEquals(Vector.AXIS_Z, mesh.getNormal(new Point(1.5, 0.5, 0)), "Wrong normal of a point");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A triangle with a corner without a normal is flat
+        Mesh partial = new Mesh(square.getVertices(), square.getIndices()).setNormals(
+                DoubleBuffer.wrap(new double[]{-1, 0, 1, 1, 0, 1}), IntBuffer.wrap(new int[]{0, 1, 1, 0, 1, -1}));
+        assertEquals(expected, partial.getNormal(partial.calculateIntersections(ray).get(0)), "Wrong normal");
+        Intersectable.Intersection flat = partial.calculateIntersections(
+                new Ray(new Point(0.5, 1.5, 1), new Vector(0, 0, -1))).get(0);
+        assertEquals(Vector.AXIS_Z, partial.getNormal(flat), "A corner without a normal must be flat");
+        // TC11: Normals of another precision or size
+        assertThrows(IllegalArgumentException.class, () -> floats.setNormals(DoubleBuffer.allocate(12), square.getIndices()),
+                "The normals must have the mesh precision");
+        assertThrows(IllegalArgumentException.class, () -> new Mesh(square.getVertices(), square.getIndices())
+                .setNormals(DoubleBuffer.allocate(12), IntBuffer.allocate(3)), "Every corner must have a normal index");
+        // TC12: Normal indices out of range
+        Mesh unset = new Mesh(square.getVertices(), square.getIndices());
+        assertThrows(IllegalArgumentException.class, () -> unset.setNormals(DoubleBuffer.allocate(6),
+                IntBuffer.wrap(new int[]{0, 1, 2, 0, 1, 1})), "A normal index beyond the normals must be rejected");
+        assertThrows(IllegalArgumentException.class, () -> unset.setNormals(DoubleBuffer.allocate(6),
+                IntBuffer.wrap(new int[]{0, 1, -2, 0, 1, 1})), "A negative normal index other than -1 must be rejected");
+        assertFalse(unset.hasNormals(), "Rejected normals must not be set");
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#getGeometricNormal(Intersectable.Intersection)}.
+     */
+    @Test
+    void testGetGeometricNormal() {
+        Ray ray = new Ray(new Point(1.5, 0.5, 1), new Vector(0, 0, -1));
+        Mesh smooth = new Mesh(square.getVertices(), square.getIndices()).setNormals(
+                DoubleBuffer.wrap(new double[]{-1, 0, 1, 1, 0, 1, 1, 0, 1, -1, 0, 1}), square.getIndices());
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A smooth shaded mesh has the normal of the triangle as its geometric normal
+        assertEquals(Vector.AXIS_Z, smooth.getGeometricNormal(smooth.calculateIntersections(ray).get(0)),
+                "Wrong geometric normal");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: The geometric normal of a flat mesh is its shading normal
+        assertNull(square.getGeometricNormal(square.calculateIntersections(ray).get(0)),
+                "A flat mesh has no separate geometric normal");
+    }
+
+    /**
+     * Test method for {@link geometries.Mesh#setSmoothNormals()}.
+     */
+    @Test
+    void testSetSmoothNormals() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A smooth sphere of 2k triangles is shaded far closer to the true sphere than a flat one
+        Mesh flat = sphere(32, 32), smooth = sphere(32, 32).setSmoothNormals();
+        double flatError = normalError(flat), smoothError = normalError(smooth);
+        assertTrue(smoothError < 0.006, "The smooth normals must follow the sphere");
+        assertTrue(smoothError * 5 < flatError, "The smooth normals must be better than the flat ones");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A flat mesh keeps its normal
+        Mesh plane = new Mesh(square.getVertices(), square.getIndices()).setSmoothNormals();
+        assertEquals(Vector.AXIS_Z, plane.getNormal(plane.calculateIntersections(
+                new Ray(new Point(0.5, 1.5, 1), new Vector(0, 0, -1))).get(0)), "Wrong normal of a flat mesh");
+    }
+
+    /**
+     * Creates a unit sphere around the origin, with a vertex at each pole and a ring of vertices
+     * at every latitude.
+     *
+     * @param rings    the number of the latitude bands
+     * @param segments the number of the longitude bands
+     * @return the sphere mesh
+     */
+    private static Mesh sphere(int rings, int segments) {
+        double[] vertices = new double[(2 + (rings - 1) * segments) * 3];
+        vertices[2] = 1;
+        vertices[5] = -1;
+        for (int i = 1; i < rings; ++i)
+            for (int j = 0; j < segments; ++j) {
+                double theta = Math.PI * i / rings, phi = 2 * Math.PI * j / segments;
+                int k = (2 + (i - 1) * segments + j) * 3;
+                vertices[k] = Math.sin(theta) * Math.cos(phi);
+                vertices[k + 1] = Math.sin(theta) * Math.sin(phi);
+                vertices[k + 2] = Math.cos(theta);
+            }
+        int[] indices = new int[(rings - 1) * segments * 6];
+        int p = 0;
+        int last = 2 + (rings - 2) * segments;
+        for (int j = 0; j < segments; ++j) {
+            int next = (j + 1) % segments;
+            indices[p++] = 0; indices[p++] = 2 + j; indices[p++] = 2 + next;
+            indices[p++] = 1; indices[p++] = last + next; indices[p++] = last + j;
+        }
+        for (int i = 1; i < rings - 1; ++i)
+            for (int j = 0; j < segments; ++j) {
+                int a = 2 + (i - 1) * segments + j, b = 2 + (i - 1) * segments + (j + 1) % segments;
+                indices[p++] = a; indices[p++] = a + segments; indices[p++] = b + segments;
+                indices[p++] = a; indices[p++] = b + segments; indices[p++] = b;
+            }
+        return new Mesh(vertices, indices);
+    }
+
+    /**
+     * Measures the mean angle between the normals of a unit sphere mesh and the normals of the
+     * true sphere, at the hits of random rays toward the origin.
+     *
+     * @param mesh the sphere mesh
+     * @return the mean angle in radians
+     */
+    private static double normalError(Mesh mesh) {
+        Random random = new Random(3);
+        double sum = 0;
+        int hits = 0;
+        for (int r = 0; r < 500; ++r) {
+            Vector target = new Vector(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()).normalize();
+            Point head = Point.ZERO.add(target.scale(5));
+            Ray ray = new Ray(head, Point.ZERO.add(target.scale(0.5)).add(
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, random.nextDouble() - 0.5)).subtract(head));
+            List<Intersectable.Intersection> intersections = mesh.calculateIntersections(ray);
+            if (intersections == null) continue;
+            Intersectable.Intersection hit = ray.findClosestIntersection(intersections);
+            Vector exact = hit.point().subtract(Point.ZERO).normalize();
+            sum += Math.acos(Math.min(1, Math.abs(exact.dotProduct(mesh.getNormal(hit)))));
+            ++hits;
+        }
+        return sum / hits;
+    }
+
+    /**
+     * Sorts points by their distance from the head of a ray.
+     *
+     * @param ray    the ray
+     * @param points the points, may be null
+     * @return the sorted points, an empty list for null
+     */
+    private static List<Point> sorted(Ray ray, List<Point> points) {
+        List<Point> result = points == null ? new ArrayList<>() : new ArrayList<>(points);
+        result.sort(Comparator.comparingDouble(p -> p.distanceSquared(ray.getHead())));
+        return result;
+    }
+}
@@ -0,0 +1,55 @@
+package geometries;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.List;
+
+/**
+ * Testing MovingGeometry Class
+ */
+class MovingGeometryTests {
+    /** Default constructor to satisfy JavaDoc generator */
+    MovingGeometryTests() { /* to satisfy JavaDoc generator */ }
+
+    /** A unit sphere at the origin, moving by 4 along the X axis while the shutter is open */
+    private final MovingGeometry moving = new MovingGeometry(new Sphere(Point.ZERO, 1), new Vector(4, 0, 0));
+
+    /**
+     * Test method for {@link geometries.MovingGeometry#findIntersections(Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        Vector direction = new Vector(0, 0, -1);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: In the middle of the shutter interval the sphere is half-way
+        List<Point> result = moving.findIntersections(new Ray(new Point(2, 0, 5), direction, 0.5));
+        assertEquals(List.of(new Point(2, 0, 1), new Point(2, 0, -1)), result, "Wrong points at half time");
+        // TC02: The sphere left the ray before that time
+        assertNull(moving.findIntersections(new Ray(new Point(0, 0, 5), direction, 0.5)),
+                "The sphere must have moved away");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: The shutter opens - the sphere at its start position
+        result = moving.findIntersections(new Ray(new Point(0, 0, 5), direction));
+        assertEquals(List.of(new Point(0, 0, 1), new Point(0, 0, -1)), result, "Wrong points at time 0");
+        // TC11: The shutter closes - the sphere at its end position
+        result = moving.findIntersections(new Ray(new Point(4, 0, 5), direction, 1));
+        assertEquals(List.of(new Point(4, 0, 1), new Point(4, 0, -1)), result, "Wrong points at time 1");
+    }
+
+    /**
+     * Test method for {@link geometries.MovingGeometry#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The box covers the whole path of the geometry
+        assertEquals(new Point(-1, -1, -1), moving.getBoundingBox().getMin(), "Wrong box minimum");
+        assertEquals(new Point(5, 1, 1), moving.getBoundingBox().getMax(), "Wrong box maximum");
+    }
+}
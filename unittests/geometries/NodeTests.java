@@ -0,0 +1,118 @@
+package geometries;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Transform;
+import primitives.Vector;
+
+import java.util.List;
+
+/**
+ * Testing Node Class
+ */
+class NodeTests {
+    /** Default constructor to satisfy JavaDoc generator */
+    NodeTests() { /* to satisfy JavaDoc generator */ }
+
+    /** The direction of the test rays */
+    private final Vector direction = new Vector(0, 0, -1);
+
+    /**
+     * Test method for {@link geometries.Node#calculateIntersections(Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        Node wheel = new Node(new Sphere(Point.ZERO, 1)).setTransform(Transform.translation(new Vector(2, 0, 0)));
+        Node car = new Node(wheel).setTransform(Transform.translation(new Vector(0, 3, 0)));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The nested transforms place the sphere at (2, 3, 0)
+        assertEquals(List.of(new Point(2, 3, 1), new Point(2, 3, -1)),
+                car.findIntersections(new Ray(new Point(2, 3, 5), direction)), "Wrong nested points");
+        // TC02: Moving the parent moves the assembly
+        car.setTransform(Transform.translation(new Vector(0, -3, 0)));
+        assertNull(car.findIntersections(new Ray(new Point(2, 3, 5), direction)), "The assembly must have moved");
+        assertEquals(List.of(new Point(2, -3, 1), new Point(2, -3, -1)),
+                car.findIntersections(new Ray(new Point(2, -3, 5), direction)), "Wrong points after the move");
+        // TC03: The world transform of the child combines the transforms
+        assertEquals(new Point(2, -3, 0), wheel.getWorldTransform().transform(Point.ZERO), "Wrong world transform");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A node with a parent cannot be added again
+        assertThrows(IllegalArgumentException.class, () -> new Node(wheel), "A node has a single parent");
+        // TC11: A node cannot contain its ancestor
+        assertThrows(IllegalArgumentException.class, () -> wheel.add(car), "A node cannot contain itself");
+    }
+
+    /**
+     * Test method for {@link geometries.Node#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        Node wheel = new Node(new Sphere(Point.ZERO, 1));
+        Node car = new Node(wheel).setTransform(Transform.scaling(2));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The box of the scaled assembly
+        assertEquals(new Point(-2, -2, -2), car.getBoundingBox().getMin(), "Wrong box minimum");
+        // TC02: Moving a child updates the cached box of its parent
+        wheel.setTransform(Transform.translation(new Vector(5, 0, 0)));
+        assertEquals(new Point(12, 2, 2), car.getBoundingBox().getMax(), "The box must follow the child");
+        // TC03: Adding a child updates the cached box
+        car.add(new Sphere(new Point(0, 10, 0), 1));
+        assertEquals(new Point(12, 22, 2), car.getBoundingBox().getMax(), "The box must include the new child");
+
+        // TC04: Moving a root node updates the cached box of the collection that holds it
+        Node box = new Node(new Sphere(Point.ZERO, 1));
+        Geometries scene = new Geometries(box, new Sphere(new Point(0, 0, -10), 1));
+        assertEquals(new Point(1, 1, 1), scene.getBoundingBox().getMax(), "Wrong box of the collection");
+        box.setTransform(Transform.translation(new Vector(20, 0, 0)));
+        assertEquals(new Point(21, 1, 1), scene.getBoundingBox().getMax(), "The collection box must follow the node");
+        assertEquals(List.of(new Point(20, 0, 1), new Point(20, 0, -1)),
+                scene.findIntersections(new Ray(new Point(20, 0, 5), direction)), "The moved node must not be culled");
+        // TC05: Adding to a child of a root node updates the cached box of the collection
+        Node inner = new Node();
+        box.add(inner);
+        scene.getBoundingBox();
+        inner.add(new Sphere(new Point(0, 30, 0), 1));
+        assertEquals(new Point(21, 31, 1), scene.getBoundingBox().getMax(), "The collection box must include the new child");
+
+        // TC06: Moving a node in a doubly nested collection updates the boxes of all the collections above it
+        Node nested = new Node(new Sphere(Point.ZERO, 1));
+        Geometries innerCollection = new Geometries(nested);
+        Geometries outerCollection = new Geometries(innerCollection);
+        Geometries world = new Geometries(outerCollection, new Sphere(new Point(0, 0, -10), 1));
+        Ray shifted = new Ray(new Point(10, 0, 5), direction);
+        assertNull(world.findIntersections(shifted), "The node must not be hit before the move");
+        nested.setTransform(Transform.translation(new Vector(10, 0, 0)));
+        assertEquals(List.of(new Point(10, 0, 1), new Point(10, 0, -1)), world.findIntersections(shifted),
+                "The moved nested node must not be culled");
+        assertEquals(new Point(11, 1, 1), world.getBoundingBox().getMax(), "The world box must follow the node");
+        // TC07: A node held by two collections updates the boxes of both
+        Node shared = new Node(new Sphere(Point.ZERO, 1));
+        Geometries first = new Geometries(shared), second = new Geometries(shared);
+        first.getBoundingBox();
+        second.getBoundingBox();
+        shared.setTransform(Transform.translation(new Vector(0, 10, 0)));
+        assertEquals(new Point(1, 11, 1), first.getBoundingBox().getMax(), "The first collection box must follow");
+        assertEquals(new Point(1, 11, 1), second.getBoundingBox().getMax(), "The second collection box must follow");
+        // TC08: Moving the prototype node of an instance updates the boxes of the instance and its collection
+        Node prototype = new Node(new Sphere(Point.ZERO, 1));
+        Instance instance = new Instance(prototype, Transform.translation(new Vector(0, 0, -20)));
+        Geometries instances = new Geometries(instance);
+        assertEquals(new Point(1, 1, -19), instances.getBoundingBox().getMax(), "Wrong box of the instance");
+        prototype.setTransform(Transform.translation(new Vector(5, 0, 0)));
+        assertEquals(new Point(6, 1, -19), instance.getBoundingBox().getMax(), "The instance box must follow");
+        assertEquals(new Point(6, 1, -19), instances.getBoundingBox().getMax(), "The collection box must follow");
+        assertEquals(List.of(new Point(5, 0, -19), new Point(5, 0, -21)),
+                instances.findIntersections(new Ray(new Point(5, 0, 5), direction)), "The instance must not be culled");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A node with an unbounded child is unbounded
+        car.add(new Plane(Point.ZERO, Vector.AXIS_Y));
+        assertNull(car.getBoundingBox(), "A node with a plane must be unbounded");
+    }
+}
@@ -0,0 +1,68 @@
+package lighting;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Point;
+import primitives.Point2D;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the sampling of the area lights
+ */
+class AreaLightTests {
+    /** Default constructor to satisfy JavaDoc generator */
+    AreaLightTests() { /* to satisfy JavaDoc generator */ }
+
+    /**
+     * Test method for {@link lighting.RectangleLight#getSamplePoint(Point, Point2D)}.
+     */
+    @Test
+    void testRectangleSamplePoint() {
+        RectangleLight light = new RectangleLight(new Color(100, 100, 100), new Point(0, 0, 10),
+                new Vector(4, 0, 0), new Vector(0, 2, 0));
+        Point p = Point.ZERO;
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A sample inside the rectangle
+        assertEquals(new Point(-1, 0.5, 10), light.getSamplePoint(p, new Point2D(0.25, 0.75)),
+                "Wrong sample inside the rectangle");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: The center of the sampling square is the center of the light
+        assertEquals(new Point(0, 0, 10), light.getSamplePoint(p, new Point2D(0.5, 0.5)),
+                "Wrong sample at the center");
+        // TC11: A corner of the sampling square is a corner of the rectangle
+        assertEquals(new Point(2, -1, 10), light.getSamplePoint(p, new Point2D(1, 0)), "Wrong sample at a corner");
+        // TC12: Parallel edges
+        assertThrows(IllegalArgumentException.class,
+                () -> new RectangleLight(new Color(1, 1, 1), Point.ZERO, new Vector(1, 0, 0), new Vector(-2, 0, 0)),
+                "Parallel edges must be rejected");
+    }
+
+    /**
+     * Test method for {@link lighting.SphereLight#getSamplePoint(Point, Point2D)}.
+     */
+    @Test
+    void testSphereSamplePoint() {
+        Point center = new Point(0, 0, 10);
+        SphereLight light = new SphereLight(new Color(100, 100, 100), center, 2);
+        Point p = new Point(3, 0, 0);
+        Vector axis = center.subtract(p);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A sample inside the silhouette disk, which is perpendicular to the view of the point
+        Point sample = light.getSamplePoint(p, new Point2D(0.3, 0.6));
+        assertTrue(sample.distance(center) < 2, "The sample must be inside the disk");
+        assertEquals(0, sample.subtract(center).dotProduct(axis), 1e-9, "The sample must be on the disk");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: The center of the sampling square is the center of the light
+        assertEquals(center, light.getSamplePoint(p, new Point2D(0.5, 0.5)), "Wrong sample at the center");
+        // TC11: The corners of the sampling square are on the silhouette circle
+        for (Point2D corner : new Point2D[] { new Point2D(0, 0), new Point2D(1, 0), new Point2D(0, 1), new Point2D(1, 1) }) {
+            sample = light.getSamplePoint(p, corner);
+            assertEquals(2, sample.distance(center), 1e-9, "A corner must be on the circle");
+            assertEquals(0, sample.subtract(center).dotProduct(axis), 1e-9, "A corner must be on the disk");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package lighting;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Point;
+import primitives.Vector;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the light hierarchy of the many-lights mode
+ */
+class LightTreeTests {
+    /** Default constructor to satisfy JavaDoc generator */
+    LightTreeTests() { /* to satisfy JavaDoc generator */ }
+
+    /** Four equal lights on the X axis */
+    private final List<LightSource> lights = List.of(
+            new PointLight(new Color(100, 100, 100), new Point(0, 0, 0)),
+            new PointLight(new Color(100, 100, 100), new Point(10, 0, 0)),
+            new PointLight(new Color(100, 100, 100), new Point(100, 0, 0)),
+            new SpotLight(new Color(100, 100, 100), new Point(110, 0, 0), new Vector(0, 0, -1)));
+
+    /**
+     * Collects the distinct lights selected at a point and their probabilities,
+     * sweeping the random number over its range.
+     *
+     * @param tree  the light tree
+     * @param point the shading point
+     * @return the probabilities of the selected lights
+     */
+    private Map<LightSource, Double> sweep(LightTree tree, Point point) {
+        Map<LightSource, Double> pdfs = new IdentityHashMap<>();
+        for (int i = 0; i < 1000; ++i) {
+            LightTree.Sample sample = tree.sample(point, i / 1000d);
+            Double pdf = pdfs.put(sample.light(), sample.pdf());
+            if (pdf != null) assertEquals(pdf, sample.pdf(), 1e-12, "Inconsistent probability of a light");
+        }
+        return pdfs;
+    }
+
+    /**
+     * Test method for {@link lighting.LightTree#sample(Point, double)}.
+     */
+    @Test
+    void testSample() {
+        LightTree tree = new LightTree(lights);
+        Point point = new Point(5, 0, 5);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Every light may be selected and the probabilities sum up to 1
+        Map<LightSource, Double> pdfs = sweep(tree, point);
+        assertEquals(lights.size(), pdfs.size(), "Every light must be selectable");
+        assertEquals(1, pdfs.values().stream().mapToDouble(Double::doubleValue).sum(), 1e-9,
+                "The selection probabilities must sum up to 1");
+        // TC02: The near lights are more likely than the far ones
+        assertTrue(pdfs.get(lights.get(0)) > pdfs.get(lights.get(2)), "A near light must be more probable");
+        assertTrue(pdfs.get(lights.get(1)) > pdfs.get(lights.get(3)), "A near light must be more probable");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: The shading point at the position of a light
+        pdfs = sweep(tree, new Point(10, 0, 0));
+        assertEquals(1, pdfs.values().stream().mapToDouble(Double::doubleValue).sum(), 1e-9,
+                "The selection probabilities must sum up to 1");
+        // TC11: A single light is always selected
+        LightTree single = new LightTree(List.of(lights.get(0)));
+        assertEquals(1, single.sample(point, 0.5).pdf(), 1e-12, "A single light must always be selected");
+    }
+
+    /**
+     * Test method for {@link lighting.LightTree#contains(LightSource)}.
+     */
+    @Test
+    void testContains() {
+        DirectionalLight directional = new DirectionalLight(new Color(100, 100, 100), new Vector(0, 0, -1));
+        LightTree tree = new LightTree(List.of(lights.get(0), directional));
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A point light is sampled by the tree
+        assertTrue(tree.contains(lights.get(0)), "A point light must be in the tree");
+        // TC02: A directional light is evaluated everywhere, not sampled
+        assertFalse(tree.contains(directional), "A directional light must not be in the tree");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A tree without positioned lights
+        LightTree empty = new LightTree(List.of(directional));
+        assertTrue(empty.isEmpty(), "The tree must be empty");
+        assertNull(empty.sample(Point.ZERO, 0.5), "An empty tree must not select a light");
+    }
+}
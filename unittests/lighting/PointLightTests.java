@@ -0,0 +1,91 @@
+package lighting;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Point;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing PointLight Class
+ */
+class PointLightTests {
+    /** Default constructor to satisfy JavaDoc generator */
+    PointLightTests() { /* to satisfy JavaDoc generator */ }
+
+    /**
+     * Test method for {@link lighting.PointLight#getInfluenceRadius(double)}.
+     */
+    @Test
+    void testGetInfluenceRadius() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Quadratic attenuation - 100 / (1 + d^2) = 1 at d = sqrt(99)
+        PointLight quadratic = new PointLight(new Color(100, 50, 0), Point.ZERO).setKq(1);
+        assertEquals(Math.sqrt(99), quadratic.getInfluenceRadius(1), 1e-9, "Wrong quadratic influence radius");
+        // TC02: Linear attenuation - 100 / (1 + 2d) = 1 at d = 49.5
+        PointLight linear = new PointLight(new Color(100, 50, 0), Point.ZERO).setKl(2);
+        assertEquals(49.5, linear.getInfluenceRadius(1), 1e-9, "Wrong linear influence radius");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: No attenuation - the influence is unbounded
+        assertEquals(Double.POSITIVE_INFINITY, new PointLight(new Color(100, 50, 0), Point.ZERO).getInfluenceRadius(1),
+                "A light without attenuation must have an unbounded influence");
+        // TC11: The light is below the threshold everywhere
+        assertEquals(0, new PointLight(new Color(1, 1, 1), Point.ZERO).setKc(2).getInfluenceRadius(1),
+                "A dim light must have no influence");
+    }
+
+    /**
+     * Test method for {@link lighting.PointLight#mayContribute(Point, double)}.
+     */
+    @Test
+    void testMayContribute() {
+        PointLight light = new PointLight(new Color(100, 50, 0), Point.ZERO).setKq(1);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A point inside the influence region
+        assertTrue(light.mayContribute(new Point(5, 0, 0), 1), "A close point must be lit");
+        // TC02: A point outside the influence region
+        assertFalse(light.mayContribute(new Point(0, 0, 11), 1), "A far point must not be lit");
+    }
+
+    /**
+     * Test method for {@link lighting.SpotLight#mayContribute(Point, double)}.
+     */
+    @Test
+    void testSpotMayContribute() {
+        SpotLight spot = new SpotLight(new Color(100, 100, 100), Point.ZERO, new Vector(0, 0, -1)).setKq(1);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A point inside the cone and the influence region
+        assertTrue(spot.mayContribute(new Point(0, 1, -5), 1), "A point in the beam must be lit");
+        // TC02: A point behind the spot
+        assertFalse(spot.mayContribute(new Point(0, 0, 5), 1), "A point behind the spot must not be lit");
+        // TC03: A point at the edge of a narrow beam
+        assertFalse(spot.setNarrowBeam(50).mayContribute(new Point(0, 4, -5), 1),
+                "A point off the narrow beam must not be lit");
+    }
+
+    /**
+     * Test method for {@link lighting.LightSource#illuminate(Point)}.
+     */
+    @Test
+    void testIlluminate() {
+        Point p = new Point(3, 4, -12);
+        LightSource[] lights = {
+                new PointLight(new Color(100, 50, 0), Point.ZERO).setKl(0.1).setKq(0.01),
+                new SpotLight(new Color(100, 100, 100), new Point(1, 1, 1), new Vector(0, 0, -2)).setKq(0.01)
+                        .setNarrowBeam(3),
+                new DirectionalLight(new Color(100, 100, 100), new Vector(1, 1, -1)) };
+        // ============ Equivalence Partitions Tests ==============
+        // TC01..TC03: The compiled evaluation of a point light, a spotlight and a directional light
+        // must agree with the separate evaluation of the direction, the distance and the intensity
+        for (LightSource light : lights) {
+            LightSource.Illumination illumination = light.illuminate(p);
+            assertEquals(light.getL(p), illumination.l(), "Wrong direction of " + light.getClass().getSimpleName());
+            assertEquals(light.getDistance(p), illumination.distance(), 1e-12,
+                    "Wrong distance of " + light.getClass().getSimpleName());
+            assertEquals(0, light.getIntensity(p).colorDistance(illumination.intensity()), 1e-12,
+                    "Wrong intensity of " + light.getClass().getSimpleName());
+        }
+    }
+}
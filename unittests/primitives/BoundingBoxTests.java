@@ -0,0 +1,80 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing BoundingBox Class
+ */
+class BoundingBoxTests {
+    /** Default constructor to satisfy JavaDoc generator */
+    BoundingBoxTests() { /* to satisfy JavaDoc generator */ }
+
+    /** The unit cube box used in the tests */
+    private final BoundingBox box = new BoundingBox(0, 0, 0, 1, 1, 1);
+
+    /**
+     * Test method for {@link primitives.BoundingBox#intersects(Ray)}.
+     */
+    @Test
+    void testIntersects() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The ray passes through the box
+        assertTrue(box.intersects(new Ray(new Point(-1, 0.5, 0.5), new Vector(1, 0.1, 0))),
+                "The ray passes through the box");
+        // TC02: The ray misses the box
+        assertFalse(box.intersects(new Ray(new Point(-1, 2, 0.5), new Vector(1, 0.1, 0))),
+                "The ray misses the box");
+        // TC03: The box is behind the ray
+        assertFalse(box.intersects(new Ray(new Point(2, 0.5, 0.5), new Vector(1, 0, 0))),
+                "The box is behind the ray");
+        // TC04: The ray starts inside the box
+        assertTrue(box.intersects(new Ray(new Point(0.5, 0.5, 0.5), new Vector(1, 1, 1))),
+                "The ray starts inside the box");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: The ray is parallel to an axis and passes inside the box
+        assertTrue(box.intersects(new Ray(new Point(0.5, 0.5, 5), new Vector(0, 0, -1))),
+                "The axis parallel ray passes through the box");
+        // TC11: The ray is parallel to an axis and passes outside the box
+        assertFalse(box.intersects(new Ray(new Point(1.5, 0.5, 5), new Vector(0, 0, -1))),
+                "The axis parallel ray misses the box");
+        // TC12: The ray hits a flat box
+        assertTrue(new BoundingBox(0, 0, 0, 1, 1, 0).intersects(new Ray(new Point(0.5, 0.5, 1), new Vector(0, 0, -1))),
+                "The ray hits the flat box");
+    }
+
+    /**
+     * Test method for {@link primitives.BoundingBox#mayIntersect(RayPacket)}.
+     */
+    @Test
+    void testMayIntersect() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: One ray of the packet hits the box
+        RayPacket hitting = new RayPacket(new Ray(new Point(-1, 0.5, 0.5), new Vector(1, 0.1, 0.1)),
+                new Ray(new Point(-1, 3, 3), new Vector(1, 0.1, 0.1)));
+        assertTrue(hitting.isCoherent(), "The packet should be coherent");
+        assertTrue(box.mayIntersect(hitting), "A ray of the packet hits the box");
+        // TC02: All the rays of the packet miss the box
+        RayPacket missing = new RayPacket(new Ray(new Point(-1, 3, 3), new Vector(1, 0.1, 0.1)),
+                new Ray(new Point(-1, 3.5, 3), new Vector(1, 0.1, 0.1)));
+        assertFalse(box.mayIntersect(missing), "All the rays of the packet miss the box");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A packet of diverging rays is not coherent
+        assertFalse(new RayPacket(new Ray(Point.ZERO, new Vector(1, 1, 1)),
+                new Ray(Point.ZERO, new Vector(-1, 1, 1))).isCoherent(),
+                "Diverging rays must not form a coherent packet");
+    }
+
+    /**
+     * Test method for {@link primitives.BoundingBox#union(BoundingBox)}.
+     */
+    @Test
+    void testUnion() {
+        BoundingBox united = box.union(BoundingBox.of(new Point(2, -1, 0.5)));
+        assertEquals(new Point(0, -1, 0), united.getMin(), "Wrong minimal corner");
+        assertEquals(new Point(2, 1, 1), united.getMax(), "Wrong maximal corner");
+    }
+}
@@ -0,0 +1,117 @@
+package primitives;
+
+import geometries.Sphere;
+import geometries.Triangle;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing MaterialRegistry Class
+ */
+class MaterialRegistryTests {
+    /** Default constructor to satisfy JavaDoc generator */
+    MaterialRegistryTests() { /* to satisfy JavaDoc generator */ }
+
+    /**
+     * Test method for {@link primitives.MaterialRegistry#intern(Material)}.
+     */
+    @Test
+    void testInternMaterial() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Materials with the same values share the first material
+        Material first = new Material().setKD(0.31).setKS(0.42).setShininess(17);
+        Material shared = MaterialRegistry.intern(first);
+        assertSame(first, shared, "The registry must share the first material");
+        assertSame(shared, MaterialRegistry.intern(new Material().setKD(0.31).setKS(0.42).setShininess(17)),
+                "Equal materials must be shared");
+        assertEquals(17, shared.nShininess, "Wrong shared material");
+        // TC02: A material with a different value is not shared
+        assertNotSame(shared, MaterialRegistry.intern(new Material().setKD(0.31).setKS(0.42).setShininess(18)),
+                "Different materials must not be shared");
+        // TC03: A setter of the shared material returns a new material and leaves the shared one as is
+        Material changed = shared.setKD(0.25);
+        assertNotSame(shared, changed, "A setter must return a new material");
+        assertEquals(0.31, shared.kD.d1(), 1e-12, "The shared material must not be changed");
+        assertEquals(0.25, changed.kD.d1(), 1e-12, "Wrong changed material");
+        // TC04: A material with the changed value is registered with its own value
+        Material later = MaterialRegistry.intern(new Material().setKD(0.25).setKS(0.42).setShininess(17));
+        assertEquals(0.25, later.kD.d1(), 1e-12, "The registry must not return a changed shared material");
+        assertEquals(0.31, MaterialRegistry.intern(new Material().setKD(0.31).setKS(0.42).setShininess(17)).kD.d1(),
+                1e-12, "The registry must keep the value of the shared material");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A default material is the default material
+        assertSame(MaterialRegistry.DEFAULT_MATERIAL, MaterialRegistry.intern(new Material()),
+                "A default material must be the default material");
+        // TC11: A shared material is shared as is
+        assertSame(shared, MaterialRegistry.intern(shared), "A shared material must be shared as is");
+        // TC12: A null material
+        assertThrows(IllegalArgumentException.class, () -> MaterialRegistry.intern((Material) null),
+                "A null material must be rejected");
+    }
+
+    /**
+     * Test method for {@link primitives.MaterialRegistry#size()}.
+     */
+    @Test
+    void testSize() throws InterruptedException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The materials that are no longer used are released
+        Sphere kept = (Sphere) new Sphere(new Point(0, 0, 0), 1).setMaterial(new Material().setKD(0.0123));
+        int size = MaterialRegistry.size();
+        for (int i = 1; i <= 1000; ++i)
+            new Sphere(new Point(0, 0, 0), 1).setMaterial(new Material().setKR(0.0001 * i).setBlur(0.321));
+        for (int i = 0; i < 100 && MaterialRegistry.size() > size; ++i) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertTrue(MaterialRegistry.size() <= size, "The unused materials must be released");
+        // TC02: A material that is still used is kept
+        assertSame(kept.getMaterial(), MaterialRegistry.intern(new Material().setKD(0.0123)),
+                "A used material must be kept");
+    }
+
+    /**
+     * Test method for {@link primitives.MaterialRegistry#intern(Color)}.
+     */
+    @Test
+    void testInternColor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Colors with the same components share the first instance
+        Color first = new Color(12, 34, 56.5);
+        assertSame(first, MaterialRegistry.intern(first), "The first color must be shared");
+        assertSame(first, MaterialRegistry.intern(new Color(12, 34, 56.5)), "Equal colors must be shared");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: Black is the shared black color
+        assertSame(Color.BLACK, MaterialRegistry.intern(new Color(0, 0, 0)), "Black must be shared");
+    }
+
+    /**
+     * Test of the materials and the emissions of {@link geometries.Geometry}.
+     */
+    @Test
+    void testGeometry() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Geometries with equal materials and emissions share them
+        Material material = new Material().setKD(0.77).setKT(0.11);
+        Sphere sphere = (Sphere) new Sphere(new Point(0, 0, 0), 1)
+                .setMaterial(material).setEmission(new Color(99, 1, 2));
+        Triangle triangle = (Triangle) new Triangle(new Point(0, 0, 0), new Point(1, 0, 0), new Point(0, 1, 0))
+                .setMaterial(new Material().setKD(0.77).setKT(0.11)).setEmission(new Color(99, 1, 2));
+        assertSame(sphere.getMaterial(), triangle.getMaterial(), "Equal materials must be shared");
+        assertSame(sphere.getEmission(), triangle.getEmission(), "Equal emissions must be shared");
+        // TC02: Changing a material after setting it does not change the geometries
+        material = material.setKD(0.1);
+        assertEquals(0.1, material.kD.d1(), 1e-12, "Wrong changed material");
+        assertEquals(0.77, sphere.getMaterial().kD.d1(), 1e-12, "The geometry must keep its material");
+        assertEquals(0.77, triangle.getMaterial().kD.d1(), 1e-12, "The sharers must keep their material");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A new geometry has the default material and black emission
+        Sphere plain = new Sphere(new Point(0, 0, 0), 1);
+        assertSame(MaterialRegistry.DEFAULT_MATERIAL, plain.getMaterial(), "Wrong default material");
+        assertSame(Color.BLACK, plain.getEmission(), "Wrong default emission");
+    }
+}
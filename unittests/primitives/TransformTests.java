@@ -0,0 +1,105 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing Transform Class
+ */
+class TransformTests {
+    /** Default constructor to satisfy JavaDoc generator */
+    TransformTests() { /* to satisfy JavaDoc generator */ }
+
+    /** A rotation by 90 degrees about the Z axis, then a translation by (1, 2, 3) */
+    private final Transform transform = Transform.translation(new Vector(1, 2, 3))
+            .multiply(Transform.rotation(Vector.AXIS_Z, 90));
+
+    /**
+     * Test method for {@link primitives.Transform#transform(Point)}.
+     */
+    @Test
+    void testTransformPoint() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The point is rotated and then translated
+        assertEquals(new Point(1, 3, 3), transform.transform(new Point(1, 0, 0)), "Wrong transformed point");
+        // TC02: The inverse transform restores the point
+        assertEquals(new Point(4, 5, 6), transform.inverseTransform(transform.transform(new Point(4, 5, 6))),
+                "The inverse transform must restore the point");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: The identity keeps the point
+        assertEquals(new Point(4, 5, 6), Transform.IDENTITY.transform(new Point(4, 5, 6)),
+                "The identity must keep the point");
+    }
+
+    /**
+     * Test method for {@link primitives.Transform#transform(Vector)}.
+     */
+    @Test
+    void testTransformVector() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A direction is rotated but not translated
+        assertEquals(new Vector(0, 1, 0), transform.transform(new Vector(1, 0, 0)), "Wrong transformed vector");
+    }
+
+    /**
+     * Test method for {@link primitives.Transform#transformNormal(Vector)}.
+     */
+    @Test
+    void testTransformNormal() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A non-uniform scaling keeps the normal perpendicular to the surface
+        Transform stretch = Transform.scaling(2, 1, 1);
+        Vector tangent = stretch.transform(new Vector(1, -1, 0));
+        Vector normal = stretch.transformNormal(new Vector(1, 1, 0));
+        assertEquals(0, tangent.dotProduct(normal), 1e-10, "The normal must stay perpendicular");
+        assertEquals(1, normal.length(), 1e-10, "The normal must be normalized");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A zero scale factor
+        assertThrows(IllegalArgumentException.class, () -> Transform.scaling(1, 0, 1),
+                "A zero scale factor must throw");
+    }
+
+    /**
+     * Test method for {@link primitives.Transform#transform(BoundingBox)}.
+     */
+    @Test
+    void testTransformBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The box of the transformed corners
+        BoundingBox box = transform.transform(new BoundingBox(0, 0, 0, 1, 2, 1));
+        assertEquals(new Point(-1, 2, 3), box.getMin(), "Wrong box minimum");
+        assertEquals(new Point(1, 3, 4), box.getMax(), "Wrong box maximum");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: An unbounded object stays unbounded
+        assertNull(transform.transform((BoundingBox) null), "An unbounded box must stay null");
+    }
+
+    /**
+     * Test method for {@link primitives.Transform#equals(Object)} and {@link primitives.Transform#hashCode()}.
+     */
+    @Test
+    void testEquals() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Equal transforms have equal hash codes
+        Transform same = Transform.translation(new Vector(1, 2, 3)).multiply(Transform.rotation(Vector.AXIS_Z, 90));
+        Transform other = Transform.translation(new Vector(1, 2, 3)).multiply(Transform.rotation(Vector.AXIS_Z, 90));
+        assertEquals(same, other, "Equal transforms must be equal");
+        assertEquals(same.hashCode(), other.hashCode(), "Equal transforms must have equal hash codes");
+        // TC02: Different transforms are not equal
+        assertNotEquals(Transform.IDENTITY, Transform.scaling(2), "Different transforms must not be equal");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A rounding difference is a different transform
+        assertNotEquals(Transform.translation(new Vector(0.5, 0, 1)),
+                Transform.translation(new Vector(0.5 + 1e-12, 0, 1)), "The comparison must be exact");
+        // TC11: A negative zero equals zero and has the same hash code
+        Transform negativeZero = Transform.translation(new Vector(-0.0, 0, 1));
+        Transform positiveZero = Transform.translation(new Vector(0, 0, 1));
+        assertEquals(positiveZero, negativeZero, "A negative zero must equal zero");
+        assertEquals(positiveZero.hashCode(), negativeZero.hashCode(), "A negative zero must hash as zero");
+    }
+}
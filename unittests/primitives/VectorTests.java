@@ -196,4 +196,23 @@ class VectorTests {
         assertEquals(1, normalized.length(), DELTA, "ERROR: normalize() does not produce a unit vector");
         assertThrows(IllegalArgumentException.class, () -> normalized.crossProduct(v), "ERROR: normalize() result is not parallel to the original vector");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link primitives.Vector#orthogonal()}.
+     */
+    @Test
+    void testOrthogonal() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A general vector
+        Vector v = new Vector(1, 2, 3);
+        Vector o = v.orthogonal();
+        assertEquals(0, v.dotProduct(o), DELTA, "ERROR: orthogonal() is not perpendicular");
+        assertEquals(1, o.length(), DELTA, "ERROR: orthogonal() is not normalized");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A vector parallel to an axis
+        o = Vector.AXIS_Z.orthogonal();
+        assertEquals(0, Vector.AXIS_Z.dotProduct(o), DELTA, "ERROR: orthogonal() is not perpendicular to an axis");
+        assertEquals(1, o.length(), DELTA, "ERROR: orthogonal() is not normalized");
+    }
+}
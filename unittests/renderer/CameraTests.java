@@ -3,7 +3,15 @@ package renderer;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import geometries.Polygon;
 import primitives.*;
+import scene.Scene;
 
 /**
  * Testing Camera Class
@@ -86,4 +94,73 @@ class CameraTests {
       // BV01: set to a target on Y-axis without up
       assertThrows(IllegalArgumentException.class, () -> cameraBuilder.setDirection(new Point(0, 10, 0)).build());
    }
+
+   /**
+    * Test method for
+    * {@link renderer.Camera.Builder#setDepthOfField(double, double)}.
+    */
+   @Test
+   void testSetDepthOfField() {
+      cameraBuilder.setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0)).setVpSize(8, 8).setResolution(4, 4);
+
+      // ============ Equivalence Partitions Tests ==============
+      // EP01: a pinhole camera - the rays of the pixels are unchanged
+      Camera camera = cameraBuilder.setDepthOfField(0, 20).build();
+      assertEquals(new Ray(Point.ZERO, new Vector(1, -1, -10)), camera.constructRay(4, 4, 1, 1), BAD_RAY);
+      // EP02: a negative aperture
+      assertThrows(IllegalArgumentException.class, () -> cameraBuilder.setDepthOfField(-1, 20));
+
+      // =============== Boundary Values Tests ==================
+      // BV01: a zero focal distance
+      assertThrows(IllegalArgumentException.class, () -> cameraBuilder.setDepthOfField(1, 0));
+   }
+
+   /**
+    * Renders a square that faces the camera - with and without a thin lens focused at 200 - and
+    * reads the image back.
+    * @param  distance the distance of the square from the camera
+    * @param  aperture the radius of the lens, 0 for a pinhole camera
+    * @param  name     the name of the image file
+    * @return          the image
+    */
+   private static BufferedImage renderSquare(double distance, double aperture, String name) {
+      // The square covers exactly the 2x2 central pixels of the pinhole image
+      double half = distance / 10;
+      Scene scene = new Scene("Focus scene");
+      scene.geometries.add(new Polygon(new Point(-half, -half, -distance), new Point(-half, half, -distance),
+                                       new Point(half, half, -distance), new Point(half, -half, -distance))
+         .setEmission(new Color(200, 200, 200)));
+      Camera.getBuilder().setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), Vector.AXIS_Y) //
+         .setVpDistance(100).setVpSize(100, 100).setResolution(10, 10) //
+         .setRayTracer(scene, RayTracerType.SIMPLE) //
+         .setAntiAliasing(SamplingType.JITTERED, 8).setDepthOfField(aperture, 200) //
+         .build().renderImage().writeToImage(name);
+      try {
+         return ImageIO.read(new File(System.getProperty("user.dir") + "/images/" + name + ".png"));
+      } catch (IOException e) {
+         throw new IllegalStateException("I/O error - missing image " + name, e);
+      }
+   }
+
+   /**
+    * Test of the focus of {@link renderer.Camera.Builder#setDepthOfField(double, double)}.
+    */
+   @Test
+   void testDepthOfFieldFocus() {
+      // ============ Equivalence Partitions Tests ==============
+      // EP01: a square on the focal plane stays sharp - every pixel is as in the pinhole image
+      BufferedImage pinhole = renderSquare(200, 0, "focusPinhole");
+      BufferedImage lens = renderSquare(200, 20, "focusLens");
+      for (int y = 0; y < 10; ++y)
+         for (int x = 0; x < 10; ++x)
+            assertEquals(pinhole.getRGB(x, y), lens.getRGB(x, y), "The focal plane must stay sharp at " + x + "," + y);
+      // EP02: a square in front of the focal plane is blurred - its edge pixels lose light to their
+      // neighbors, which are black in the pinhole image
+      BufferedImage pinholeNear = renderSquare(100, 0, "focusPinholeNear");
+      BufferedImage lensNear = renderSquare(100, 20, "focusLensNear");
+      assertEquals(0, pinholeNear.getRGB(3, 4) & 0xffffff, "The pinhole image must be sharp");
+      assertNotEquals(0, lensNear.getRGB(3, 4) & 0xffffff, "The light must spread out of the square");
+      assertTrue((lensNear.getRGB(4, 4) & 0xff) < (pinholeNear.getRGB(4, 4) & 0xff),
+                 "The edge of the square must be darker");
+   }
 }
@@ -104,5 +104,81 @@ class FeaturesTests {
                 .writeToImage("enhancedHouseSceneWithAllEffects+AntiAliasing");
     }
 
+    /**
+     * Produce a picture of spheres at different depths with a thin lens focused on the
+     * middle one, and a moving sphere blurred by the shutter time
+     */
+    @Test
+    void depthOfFieldAndMotionBlur() {
+        Material material = new Material().setKD(0.5).setKS(0.3).setShininess(60);
+        scene.geometries.add(
+                new Plane(new Point(0, -50, 0), Vector.AXIS_Y)
+                        .setEmission(new Color(40, 40, 40)).setMaterial(material),
+                new Sphere(new Point(-60, -20, 100), 30)
+                        .setEmission(new Color(RED)).setMaterial(material),
+                new Sphere(new Point(0, -20, -100), 30)
+                        .setEmission(new Color(GREEN)).setMaterial(material),
+                new Sphere(new Point(60, -20, -400), 30)
+                        .setEmission(new Color(BLUE)).setMaterial(material),
+                new MovingGeometry(new Sphere(new Point(-40, 30, -100), 15)
+                        .setEmission(new Color(YELLOW)).setMaterial(material), new Vector(60, 0, 0)));
+        scene.setAmbientLight(new AmbientLight(new Color(30, 30, 30)));
+        scene.lights.add(new DirectionalLight(new Color(500, 500, 500), new Vector(1, -1, -1)));
+
+        cameraBuilder
+                .setLocation(new Point(0, 0, 500))
+                .setDirection(new Point(0, -20, -100), Vector.AXIS_Y)
+                .setVpDistance(500).setVpSize(300, 300)
+                .setResolution(500, 500)
+                // 16 samples per pixel cover the sub-pixel position, the lens and the shutter time together
+                .setAntiAliasing(SamplingType.JITTERED, 4)
+                .setDepthOfField(8, 600)
+                .setMotionBlur(true)
+                .setMultithreading(-1)
+                .build()
+                .renderImage()
+                .writeToImage("depthOfFieldAndMotionBlur");
+    }
 
+    /**
+     * Produce a picture of a forest - one tree prototype placed many times by instances,
+     * each with its own position, rotation and size
+     */
+    @Test
+    void instancedForest() {
+        Material bark = new Material().setKD(0.6).setKS(0.1).setShininess(10);
+        Material leaves = new Material().setKD(0.7).setKS(0.2).setShininess(30);
+        Geometries tree = new Geometries(
+                new Polygon(new Point(-3, 0, 0), new Point(3, 0, 0), new Point(3, 20, 0), new Point(-3, 20, 0))
+                        .setEmission(new Color(90, 50, 20)).setMaterial(bark),
+                new Triangle(new Point(-15, 15, 0), new Point(15, 15, 0), new Point(0, 45, 0))
+                        .setEmission(new Color(20, 110, 30)).setMaterial(leaves),
+                new Triangle(new Point(0, 15, -15), new Point(0, 15, 15), new Point(0, 45, 0))
+                        .setEmission(new Color(20, 100, 30)).setMaterial(leaves),
+                new Sphere(new Point(0, 48, 0), 4)
+                        .setEmission(new Color(30, 130, 40)).setMaterial(leaves));
+
+        scene.geometries.add(new Plane(new Point(0, 0, 0), Vector.AXIS_Y)
+                .setEmission(new Color(60, 80, 40)).setMaterial(bark));
+        for (int row = 0; row < 10; ++row)
+            for (int col = 0; col < 10; ++col) {
+                Transform place = Transform.translation(new Vector(col * 40 - 180 + (row % 2) * 20, 0, -row * 40))
+                        .multiply(Transform.rotation(Vector.AXIS_Y, (row * 37 + col * 53) % 90))
+                        .multiply(Transform.scaling(0.8 + ((row + col) % 5) * 0.1));
+                scene.geometries.add(new Instance(tree, place));
+            }
+        scene.setAmbientLight(new AmbientLight(new Color(40, 40, 40)));
+        scene.lights.add(new DirectionalLight(new Color(250, 250, 200), new Vector(-1, -1, -1)));
+        scene.setBackground(new Color(135, 206, 250));
+
+        cameraBuilder
+                .setLocation(new Point(0, 80, 300))
+                .setDirection(new Point(0, 20, -150), Vector.AXIS_Y)
+                .setVpDistance(300).setVpSize(300, 300)
+                .setResolution(500, 500)
+                .setMultithreading(-1)
+                .build()
+                .renderImage()
+                .writeToImage("instancedForest");
+    }
 }
@@ -1,6 +1,9 @@
 package renderer;
 
 import static java.awt.Color.BLUE;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
@@ -266,4 +269,78 @@ class LightsTests {
               .renderImage() //
               .writeToImage("lightTrianglesSpotSharp");
    }
-}
\ No newline at end of file
+
+   /**
+    * Produce a picture of two triangles lighted by a grid of 400 street lamps,
+    * of which only a few are sampled per point from the light tree
+    */
+   @Test
+   void trianglesManyLampsSampled() {
+      scene2.geometries.add(triangle1, triangle2);
+      for (int i = -10; i < 10; ++i)
+         for (int j = -10; j < 10; ++j)
+            scene2.lights.add(new PointLight(new Color(40, 30, 15), new Point(i * 11 + 5, j * 11 + 5, -120)) //
+                    .setKl(0.01).setKq(0.01));
+      scene2.setLightSamples(16);
+
+      camera2.setResolution(500, 500) //
+              .build() //
+              .renderImage() //
+              .writeToImage("lightTrianglesManyLampsSampled");
+   }
+
+   /**
+    * A point light that counts its evaluations at shading points.
+    */
+   private static class CountingLight extends PointLight {
+      /** The number of evaluations of the light */
+      private final AtomicInteger evaluations = new AtomicInteger();
+
+      /**
+       * Constructs the light.
+       * @param intensity the intensity of the light
+       * @param position  the position of the light
+       */
+      CountingLight(Color intensity, Point position) {
+         super(intensity, position);
+      }
+
+      @Override
+      public Illumination illuminate(Point p) {
+         evaluations.incrementAndGet();
+         return super.illuminate(p);
+      }
+   }
+
+   /**
+    * Test method for {@link renderer.SimpleRayTracer#mayReach(ShadingContext, LightSource, double)}:
+    * a light beyond its influence radius is culled before it is evaluated
+    */
+   @Test
+   void testLightCulling() {
+      Scene scene = new Scene("Culling scene");
+      scene.geometries.add(new Plane(Point.ZERO, Vector.AXIS_Z).setMaterial(new Material().setKD(1)));
+      CountingLight near = new CountingLight(new Color(100, 100, 100), new Point(0, 0, 10));
+      CountingLight far = new CountingLight(new Color(100, 100, 100), new Point(0, 0, 5000));
+      near.setKl(1);
+      far.setKl(1);
+      scene.lights.add(near);
+      scene.lights.add(far);
+      Ray ray = new Ray(new Point(0, 0, 1), new Vector(0, 0, -1));
+
+      // ============ Equivalence Partitions Tests ==============
+      // TC01: The simple ray tracer evaluates only the light within its influence radius
+      new SimpleRayTracer(scene).traceRay(ray);
+      assertEquals(1, near.evaluations.get(), "The near light must be evaluated");
+      assertEquals(0, far.evaluations.get(), "The far light must be culled before it is evaluated");
+      // TC02: The wavefront ray tracer culls the far light as well
+      new WavefrontRayTracer(scene).traceRays(new Ray[]{ ray });
+      assertEquals(2, near.evaluations.get(), "The near light must be evaluated");
+      assertEquals(0, far.evaluations.get(), "The far light must be culled before it is evaluated");
+
+      // =============== Boundary Values Tests ==================
+      // TC10: Without light culling every light is evaluated
+      new SimpleRayTracer(scene).setLightCutoff(0).traceRay(ray);
+      assertEquals(1, far.evaluations.get(), "Without culling the far light must be evaluated");
+   }
+}
@@ -1,6 +1,9 @@
 package renderer;
 
 import static java.awt.Color.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
@@ -200,4 +203,151 @@ class ReflectionRefractionTests {
               .writeToImage("enhancedHouseSceneWithAllEffects");
    }
 
+   /**
+    * Produce a picture of a sphere between two facing mirrors (a mirror corridor),
+    * with Russian roulette termination of the secondary rays
+    */
+   @Test
+   void mirrorCorridorRussianRoulette() {
+      scene.geometries.add( //
+                           new Sphere(new Point(0, 0, -100), 30d).setEmission(new Color(100, 30, 30)) //
+                              .setMaterial(new Material().setKD(0.4).setKS(0.4).setShininess(50)), //
+                           new Polygon(new Point(-80, -100, 800), new Point(-80, 100, 800), //
+                                       new Point(-80, 100, -800), new Point(-80, -100, -800)) //
+                              .setEmission(new Color(10, 10, 20)) //
+                              .setMaterial(new Material().setKD(0.1).setKR(0.85)), //
+                           new Polygon(new Point(80, -100, 800), new Point(80, -100, -800), //
+                                       new Point(80, 100, -800), new Point(80, 100, 800)) //
+                              .setEmission(new Color(10, 10, 20)) //
+                              .setMaterial(new Material().setKD(0.1).setKR(0.85)));
+      scene.setAmbientLight(new AmbientLight(new Color(30, 30, 30)));
+      scene.lights.add(new PointLight(new Color(600, 500, 400), new Point(0, 80, 0)).setKl(0.001).setKq(0.00001));
+
+      SimpleRayTracer rayTracer = new SimpleRayTracer(scene).setRussianRoulette(0.1, 2);
+      cameraBuilder
+         .setRayTracer(rayTracer) //
+         .setLocation(new Point(0, 0, 200)) //
+         .setDirection(new Point(0, 0, -100), Vector.AXIS_Y) //
+         .setVpDistance(100).setVpSize(200, 200) //
+         .setResolution(400, 400) //
+         .build() //
+         .renderImage() //
+         .writeToImage("reflectionMirrorCorridorRussianRoulette");
+
+      assertTrue(rayTracer.getPrunedBranches() > 0, "Russian roulette should prune some of the mirror branches");
+   }
+
+   /**
+    * Test that Russian roulette termination is unbiased: the mean radiance of a ray traced many
+    * times with the roulette matches the radiance traced without it
+    */
+   @Test
+   void russianRouletteUnbiased() {
+      scene.geometries.add( //
+                           new Sphere(new Point(0, 0, -700), 30d).setEmission(new Color(100, 30, 30)) //
+                              .setMaterial(new Material().setKD(0.4).setKS(0.4).setShininess(50)), //
+                           new Polygon(new Point(-80, -100, 800), new Point(-80, 100, 800), //
+                                       new Point(-80, 100, -800), new Point(-80, -100, -800)) //
+                              .setEmission(new Color(10, 10, 20)) //
+                              .setMaterial(new Material().setKD(0.1).setKR(0.85)), //
+                           new Polygon(new Point(80, -100, 800), new Point(80, -100, -800), //
+                                       new Point(80, 100, -800), new Point(80, 100, 800)) //
+                              .setEmission(new Color(10, 10, 20)) //
+                              .setMaterial(new Material().setKD(0.1).setKR(0.85)));
+      scene.setAmbientLight(new AmbientLight(new Color(30, 30, 30)));
+      scene.lights.add(new PointLight(new Color(600, 500, 400), new Point(0, 80, 0)).setKl(0.001).setKq(0.00001));
+      Ray ray = new Ray(new Point(0, 0, 200), new Vector(1, 0.02, -1.5));
+
+      double[] expected = channels(new SimpleRayTracer(scene).traceRay(ray).getRgb());
+      SimpleRayTracer rayTracer = new SimpleRayTracer(scene).setRussianRoulette(0.2, 0);
+      final int samples = 20000;
+      double[] sum = new double[3], sumSquares = new double[3];
+      for (int k = 0; k < samples; ++k) {
+         double[] rgb = channels(rayTracer.traceRay(ray).getRgb());
+         for (int c = 0; c < 3; ++c) {
+            sum[c] += rgb[c];
+            sumSquares[c] += rgb[c] * rgb[c];
+         }
+      }
+      assertTrue(rayTracer.getPrunedBranches() > 0, "Russian roulette should prune some of the mirror branches");
+      for (int c = 0; c < 3; ++c) {
+         double mean = sum[c] / samples;
+         double standardError = Math.sqrt(Math.max(0, sumSquares[c] / samples - mean * mean) / samples);
+         assertEquals(expected[c], mean, 5 * standardError + 1e-6,
+                      "The roulette must not bias the radiance of channel " + c);
+      }
+   }
+
+   /**
+    * Lists the components of a triad.
+    * @param  triad the triad
+    * @return       the three components
+    */
+   private static double[] channels(Double3 triad) {
+      return new double[] { triad.d1(), triad.d2(), triad.d3() };
+   }
+
+   /**
+    * Produce a picture of a frosted glass sphere over a brushed metal mirror - glossy
+    * reflection and blurry transmission with adaptive cone sampling
+    */
+   @Test
+   void frostedSphereOnGlossyMirror() {
+      scene.geometries.add( //
+                           new Sphere(new Point(0, 0, -50), 50d).setEmission(new Color(20, 40, 60)) //
+                              .setMaterial(new Material().setKD(0.2).setKS(0.3).setShininess(100) //
+                                 .setKT(0.6).setBlur(0.15)), //
+                           new Sphere(new Point(0, 0, -50), 25d).setEmission(new Color(RED)) //
+                              .setMaterial(new Material().setKD(0.5).setKS(0.5).setShininess(100)), //
+                           new Sphere(new Point(60, 60, -150), 30d).setEmission(new Color(GREEN).reduce(2)) //
+                              .setMaterial(new Material().setKD(0.5).setKS(0.5).setShininess(100)), //
+                           new Polygon(new Point(-200, -100, 200), new Point(-200, -100, -400), //
+                                       new Point(200, -100, -400), new Point(200, -100, 200)) //
+                              .setEmission(new Color(20, 20, 20)) //
+                              .setMaterial(new Material().setKD(0.2).setKR(0.7).setGlossiness(0.08)));
+      scene.setAmbientLight(new AmbientLight(new Color(30, 30, 30)));
+      scene.lights.add(new SpotLight(new Color(600, 500, 400), new Point(-100, 200, 300), new Vector(1, -2, -3)) //
+         .setKl(0.0004).setKq(0.0000006));
+
+      cameraBuilder
+         .setRayTracer(new SimpleRayTracer(scene).setConeSamples(4)) //
+         .setLocation(new Point(0, 50, 600)) //
+         .setDirection(new Point(0, -30, -50), Vector.AXIS_Y) //
+         .setVpDistance(600).setVpSize(300, 300) //
+         .setResolution(500, 500) //
+         .build() //
+         .renderImage() //
+         .writeToImage("refractionFrostedSphereGlossyMirror");
+   }
+
+   /**
+    * Test method for {@link renderer.SimpleRayTracer#constructConeRays(ShadingContext, Ray, double, int)}:
+    * the jittered cone rays stay inside the cone and on the side of the ideal ray
+    */
+   @Test
+   void testConstructConeRays() {
+      SimpleRayTracer tracer = new SimpleRayTracer(scene);
+      ShadingContext context = new ShadingContext();
+      context.point = Point.ZERO;
+      context.normal = context.geometricNormal = Vector.AXIS_Z;
+      Ray ideal = new Ray(Point.ZERO, new Vector(1, 0, 1), Vector.AXIS_Z);
+      double spread = 0.1;
+
+      // ============ Equivalence Partitions Tests ==============
+      // TC01: A ray for every cell of the grid, inside the cone and above the surface
+      List<Ray> rays = tracer.constructConeRays(context, ideal, spread, 3);
+      assertEquals(9, rays.size(), "Wrong number of cone rays");
+      for (Ray ray : rays) {
+         assertTrue(ray.getDirection().dotProduct(ideal.getDirection()) >= 1 / Math.sqrt(1 + spread * spread) - 1e-10,
+                    "A cone ray must be inside the cone");
+         assertTrue(ray.getDirection().getZ() > 0, "A cone ray must stay above the surface");
+      }
+      // TC02: The rays are jittered anew for every shading point
+      assertNotEquals(rays.get(0).getDirection(), tracer.constructConeRays(context, ideal, spread, 3).get(0).getDirection(),
+                      "The cone rays must be jittered");
+
+      // =============== Boundary Values Tests ==================
+      // TC10: A single ray is the ideal ray
+      assertEquals(List.of(ideal), tracer.constructConeRays(context, ideal, spread, 1), "A single ray must be ideal");
+   }
 }
@@ -0,0 +1,154 @@
+package renderer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+import geometries.*;
+import lighting.*;
+import primitives.*;
+import scene.Scene;
+
+/**
+ * Testing RenderSession Class
+ */
+class RenderSessionTests {
+   /** Default constructor to satisfy JavaDoc generator */
+   RenderSessionTests() { /* to satisfy JavaDoc generator */ }
+
+   /** Resolution of the images of the tests - not a multiple of the tile size */
+   private static final int RESOLUTION = 50;
+
+   /** Scene of the tests - a reflective sphere over a plane */
+   private final Scene scene = new Scene("Session scene") //
+      .setAmbientLight(new AmbientLight(new Color(30, 30, 30)));
+
+   /** Initialize the scene of the tests */
+   private void initScene() {
+      scene.geometries.add( //
+                           new Sphere(new Point(0, 0, 0), 50d).setEmission(new Color(80, 20, 20)) //
+                              .setMaterial(new Material().setKD(0.4).setKS(0.3).setShininess(30).setKR(0.2)), //
+                           new Plane(new Point(0, 0, -50), Vector.AXIS_Z).setEmission(new Color(20, 40, 20)) //
+                              .setMaterial(new Material().setKD(0.5)));
+      scene.lights.add(new PointLight(new Color(600, 600, 600), new Point(100, -100, 200)).setKl(0.001));
+   }
+
+   /**
+    * Creates a camera builder looking at the origin from the given location.
+    * @param  location the location of the camera
+    * @return          the camera builder
+    */
+   private static Camera.Builder cameraBuilder(Point location) {
+      return Camera.getBuilder() //
+         .setLocation(location) //
+         .setDirection(Point.ZERO, Vector.AXIS_Z) //
+         .setVpDistance(300).setVpSize(150, 150) //
+         .setResolution(RESOLUTION, RESOLUTION);
+   }
+
+   /**
+    * Reads back an image written by a camera.
+    * @param  imageName the name of the image file
+    * @return           the image
+    */
+   private static BufferedImage readImage(String imageName) {
+      try {
+         return ImageIO.read(new File(System.getProperty("user.dir") + "/images/" + imageName + ".png"));
+      } catch (IOException e) {
+         throw new IllegalStateException("I/O error - missing image " + imageName, e);
+      }
+   }
+
+   /**
+    * Checks that two written images are identical.
+    * @param expected the name of the expected image
+    * @param actual   the name of the actual image
+    */
+   private static void assertSameImage(String expected, String actual) {
+      BufferedImage expectedImage = readImage(expected), actualImage = readImage(actual);
+      for (int y = 0; y < RESOLUTION; ++y)
+         for (int x = 0; x < RESOLUTION; ++x)
+            assertEquals(expectedImage.getRGB(x, y), actualImage.getRGB(x, y),
+                         "Wrong color of pixel (" + x + ", " + y + ") in " + actual);
+   }
+
+   /** Test method for {@link renderer.RenderSession#renderImages()}. */
+   @Test
+   void testRenderImages() {
+      initScene();
+      Point[] locations = { new Point(-300, 0, 0), new Point(0, -300, 0), new Point(300, 300, 0) };
+      for (int c = 0; c < locations.length; ++c)
+         cameraBuilder(locations[c]).setRayTracer(scene, RayTracerType.SIMPLE).build() //
+            .renderImage().writeToImage("sessionExpected" + c);
+
+      // ============ Equivalence Partitions Tests ==============
+      // TC01: Cameras of one reused builder rendered without threads match separate renders
+      RenderSession session = new RenderSession(scene, RayTracerType.SIMPLE);
+      Camera.Builder builder = cameraBuilder(locations[0]);
+      for (Point location : locations)
+         session.addCamera(builder.setLocation(location).setDirection(Point.ZERO, Vector.AXIS_Z));
+      assertEquals(locations.length, session.getCameras().size(), "Wrong amount of cameras");
+      session.renderImages();
+      for (int c = 0; c < locations.length; ++c) {
+         session.getCameras().get(c).writeToImage("sessionActual" + c);
+         assertSameImage("sessionExpected" + c, "sessionActual" + c);
+      }
+
+      // TC02: Interleaved tiles rendered by several threads match separate renders
+      session = new RenderSession(scene, RayTracerType.WAVEFRONT).setMultithreading(3);
+      for (Point location : locations)
+         session.addCamera(cameraBuilder(location));
+      session.renderImages();
+      for (int c = 0; c < locations.length; ++c) {
+         session.getCameras().get(c).writeToImage("sessionThreads" + c);
+         assertSameImage("sessionExpected" + c, "sessionThreads" + c);
+      }
+
+      // TC03: Cameras with anti-aliasing are rendered pixel by pixel in their tiles
+      cameraBuilder(locations[0]).setAntiAliasing(SamplingType.GRID, 2).setRayTracer(scene, RayTracerType.SIMPLE)
+         .build().renderImage().writeToImage("sessionExpectedAntiAliasing");
+      session = new RenderSession(new SimpleRayTracer(scene)).setMultithreading(-1);
+      Camera camera = session.addCamera(cameraBuilder(locations[0]).setAntiAliasing(SamplingType.GRID, 2));
+      session.renderImages();
+      camera.writeToImage("sessionAntiAliasing");
+      assertSameImage("sessionExpectedAntiAliasing", "sessionAntiAliasing");
+
+      // =============== Boundary Values Tests ==================
+      // TC10: A session without cameras renders nothing
+      assertDoesNotThrow(() -> new RenderSession(scene, RayTracerType.SIMPLE).renderImages(),
+                         "An empty session must render nothing");
+   }
+
+   /** Test method for {@link renderer.RenderSession#RenderSession(Scene, RayTracerType)}. */
+   @Test
+   void testConstructor() {
+      // ============ Equivalence Partitions Tests ==============
+      // TC01: Unsupported ray tracer type
+      assertThrows(IllegalArgumentException.class, () -> new RenderSession(scene, RayTracerType.GRID),
+                   "An unsupported ray tracer type must be rejected");
+      // TC02: Missing scene
+      assertThrows(IllegalArgumentException.class, () -> new RenderSession(null, RayTracerType.SIMPLE),
+                   "A missing scene must be rejected");
+      // TC03: Missing ray tracer
+      assertThrows(IllegalArgumentException.class, () -> new RenderSession((RayTracerBase) null),
+                   "A missing ray tracer must be rejected");
+   }
+
+   /** Test method for {@link renderer.RenderSession#setMultithreading(int)}. */
+   @Test
+   void testSetMultithreading() {
+      RenderSession session = new RenderSession(scene, RayTracerType.SIMPLE);
+      // =============== Boundary Values Tests ==================
+      // TC10: The automatic thread count is accepted
+      assertDoesNotThrow(() -> session.setMultithreading(-2), "Automatic threads must be accepted");
+      // TC11: Below the automatic thread count
+      assertThrows(IllegalArgumentException.class, () -> session.setMultithreading(-3),
+                   "A thread count below -2 must be rejected");
+   }
+}
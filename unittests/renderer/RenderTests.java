@@ -9,6 +9,9 @@ import geometries.Triangle;
 import lighting.AmbientLight;
 import primitives.*;
 import scene.Scene;
+import scene.SceneLoader;
+
+import java.nio.file.Path;
 
 /**
  * Test rendering a basic image
@@ -88,16 +91,9 @@ class RenderTests {
    /** Test for XML based scene - for bonus */
    @Test
    void basicRenderXml() {
-      Scene scene = new Scene("Using XML");
-      // enter XML file name and parse from XML file into scene object instead of the
-      // new Scene above,
-      // Use the code you added in appropriate packages
-      // ...
-      // NB: unit tests is not the correct place to put XML parsing code
+      SceneLoader loader = new SceneLoader(Path.of("xml", "renderTestTwoColors.xml"));
 
-      camera //
-              .setRayTracer(scene, RayTracerType.SIMPLE) //
-              .setResolution(1000, 1000) //
+      loader.getCameraBuilder() //
               .build() //
               .renderImage() //
               .printGrid(100, new Color(YELLOW)) //
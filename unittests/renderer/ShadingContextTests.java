@@ -0,0 +1,144 @@
+package renderer;
+
+import geometries.Intersectable.Intersection;
+import geometries.Mesh;
+import geometries.Plane;
+import geometries.Sphere;
+import lighting.AmbientLight;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import scene.Scene;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing ShadingContext Class
+ */
+class ShadingContextTests {
+    /** Default constructor to satisfy JavaDoc generator */
+    ShadingContextTests() { /* to satisfy JavaDoc generator */ }
+
+    /**
+     * Test method for {@link renderer.ShadingContext#next()}.
+     */
+    @Test
+    void testNext() {
+        ShadingContext context = new ShadingContext();
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The next bounce has its own context
+        ShadingContext next = context.next();
+        assertNotSame(context, next, "The next bounce must not share the context");
+        // TC02: The context of the next bounce is reused
+        assertSame(next, context.next(), "The context of the next bounce must be reused");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: The chain continues for the deeper bounces
+        assertNotSame(next, next.next(), "Every bounce must have its own context");
+        assertNotSame(context, next.next(), "Every bounce must have its own context");
+    }
+
+    /**
+     * Creates a triangle on the XY plane, facing +Z, with the same vertex normal at all its corners.
+     *
+     * @param normal the coordinates of the vertex normal
+     * @return the smooth shaded triangle
+     */
+    private static Mesh smoothTriangle(double... normal) {
+        IntBuffer indices = IntBuffer.wrap(new int[]{0, 1, 2});
+        return new Mesh(DoubleBuffer.wrap(new double[]{0, 0, 0, 1, 0, 0, 0, 1, 0}), indices)
+                .setNormals(DoubleBuffer.wrap(new double[]{normal[0], normal[1], normal[2],
+                        normal[0], normal[1], normal[2], normal[0], normal[1], normal[2]}), IntBuffer.wrap(new int[]{0, 0, 0}));
+    }
+
+    /**
+     * Test method for {@link renderer.SimpleRayTracer#preprocessIntersection(ShadingContext, Intersection, Ray)}:
+     * the geometric normal of a smooth shaded surface is kept for the offsets and the side tests.
+     */
+    @Test
+    void testGeometricNormal() {
+        SimpleRayTracer tracer = new SimpleRayTracer(new Scene("Smooth triangle"));
+        // A grazing ray toward +X, that the tilted shading normal would reflect into the surface
+        Ray ray = new Ray(new Point(-4.75, 0.25, 1), new Vector(5, 0, -1));
+        Mesh tilted = smoothTriangle(1, 0, 0.3);
+        ShadingContext context = new ShadingContext();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The geometric normal is the normal of the triangle, and the shading normal is interpolated
+        assertTrue(tracer.preprocessIntersection(context, tilted.calculateIntersections(ray).get(0), ray),
+                "The surface must be visible");
+        assertEquals(Vector.AXIS_Z, context.geometricNormal, "Wrong geometric normal");
+        assertEquals(new Vector(1, 0, 0.3).normalize(), context.normal, "Wrong shading normal");
+        assertTrue(context.vNormal < 0, "The side of the viewer must be found by the geometric normal");
+        // TC02: A reflection into the surface is reflected by the geometric normal, and offset above the surface
+        Ray reflected = tracer.constructReflectedRay(context);
+        assertEquals(new Vector(5, 0, 1).normalize(), reflected.getDirection(), "Wrong reflected direction");
+        assertTrue(reflected.getHead().getZ() > 0, "The reflected ray must start above the surface");
+        // TC03: A refracted ray is offset below the surface
+        assertTrue(tracer.constructRefractedRay(context).getHead().getZ() < 0,
+                "The refracted ray must start below the surface");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A shading normal opposite to the surface is flipped into its hemisphere
+        Mesh inverted = smoothTriangle(0, 0, -1);
+        tracer.preprocessIntersection(context, inverted.calculateIntersections(ray).get(0), ray);
+        assertEquals(Vector.AXIS_Z, context.normal, "The shading normal must be flipped");
+    }
+
+    /**
+     * Test method for {@link renderer.SimpleRayTracer#calcColor(ShadingContext, Intersection, Ray)}:
+     * the shading state is kept in the contexts, so an intersection may be shaded by several threads.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    void testSharedIntersection() throws InterruptedException {
+        Scene scene = new Scene("Shared intersection").setAmbientLight(new AmbientLight(new Color(20, 20, 20)));
+        Sphere sphere = (Sphere) new Sphere(new Point(0, 0, -100), 50).setEmission(new Color(40, 10, 10))
+                .setMaterial(new Material().setKD(0.5).setKS(0.4).setShininess(30).setKR(0.3));
+        scene.geometries.add(sphere, new Plane(new Point(0, -60, 0), Vector.AXIS_Y).setEmission(new Color(10, 30, 10))
+                .setMaterial(new Material().setKD(0.6).setKR(0.2)));
+        scene.lights.add(new PointLight(new Color(500, 400, 300), new Point(60, 80, 0)).setKl(0.001));
+        SimpleRayTracer tracer = new SimpleRayTracer(scene);
+        Ray ray = new Ray(new Point(0, 0, 100), new Vector(0.1, -0.05, -1));
+        Intersection intersection = sphere.calculateIntersections(ray).get(0);
+        Point point = intersection.point();
+        Color expected = tracer.calcColor(new ShadingContext(), intersection, ray);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Two contexts shading the same intersection get the same color
+        assertEquals(expected.getRgb(), tracer.calcColor(new ShadingContext(), intersection, ray).getRgb(),
+                "Another context must get the same color");
+        // TC02: Two threads shading the same intersection at once get the same colors
+        List<Color> colors = Collections.synchronizedList(new ArrayList<>());
+        Runnable shade = () -> {
+            ShadingContext context = new ShadingContext();
+            for (int k = 0; k < 500; ++k) colors.add(tracer.calcColor(context, intersection, ray));
+        };
+        Thread first = new Thread(shade), second = new Thread(shade);
+        first.start();
+        second.start();
+        first.join();
+        second.join();
+        assertEquals(1000, colors.size(), "Every shading must finish");
+        for (Color color : colors)
+            assertEquals(expected.getRgb(), color.getRgb(), "Every thread must get the same color");
+        // TC03: The shading does not change the intersection
+        assertSame(sphere, intersection.geometry, "The geometry must be unchanged");
+        assertSame(point, intersection.point(), "The point must be unchanged");
+        assertNull(intersection.normal, "The shading normal must not be stored in the intersection");
+        assertNull(intersection.geometricNormal, "The geometric normal must not be stored in the intersection");
+        assertEquals(-1, intersection.primitive, "The primitive must be unchanged");
+        assertFalse(intersection.transformed, "The transform flag must be unchanged");
+    }
+}
@@ -1,6 +1,7 @@
 package renderer;
 
 import static java.awt.Color.BLUE;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
@@ -120,4 +121,101 @@ class ShadowTests {
               .writeToImage("shadowTrianglesSphere");
    }
 
+   /**
+    * Produce a picture of two triangles shaded by a sphere, using the shadow cache
+    * of the last occluder
+    */
+   @Test
+   void trianglesSphereShadowCache() {
+      scene.geometries //
+              .add( //
+                      new Triangle(new Point(-150, -150, -115), new Point(150, -150, -135), new Point(75, 75, -150)) //
+                              .setMaterial(new Material().setKD(0.5).setKS(0.8).setShininess(60)), //
+                      new Triangle(new Point(-150, -150, -115), new Point(-70, 70, -140), new Point(75, 75, -150)) //
+                              .setMaterial(new Material().setKD(0.5).setKS(0.8).setShininess(60)), //
+                      new Sphere(new Point(0, 0, -11), 30d) //
+                              .setEmission(new Color(BLUE)) //
+                              .setMaterial(new Material().setKD(0.5).setKS(0.5).setShininess(30)) //
+              );
+      scene.setAmbientLight(new AmbientLight(new Color(38, 38, 38)));
+      scene.lights //
+              .add(new SpotLight(new Color(700, 400, 400), new Point(40, 40, 115), new Vector(-1, -1, -4)) //
+                      .setKl(4E-4).setKq(2E-5));
+
+      SimpleRayTracer rayTracer = new SimpleRayTracer(scene).setShadowCache(true);
+      camera //
+              .setRayTracer(rayTracer) //
+              .setResolution(600, 600) //
+              .build() //
+              .renderImage() //
+              .writeToImage("shadowTrianglesSphereCache");
+
+      assertTrue(rayTracer.getShadowCacheHits() > 0, "The shadow cache should resolve some of the shadow rays");
+   }
+
+   /**
+    * Helper function for the soft shadow tests - two triangles shaded by a sphere under an area light
+    * @param light the area light
+    */
+   private void softShadowScene(LightSource light) {
+      scene.geometries //
+              .add( //
+                      new Triangle(new Point(-150, -150, -115), new Point(150, -150, -135), new Point(75, 75, -150)) //
+                              .setMaterial(new Material().setKD(0.5).setKS(0.8).setShininess(60)), //
+                      new Triangle(new Point(-150, -150, -115), new Point(-70, 70, -140), new Point(75, 75, -150)) //
+                              .setMaterial(new Material().setKD(0.5).setKS(0.8).setShininess(60)), //
+                      new Sphere(new Point(0, 0, -11), 30d) //
+                              .setEmission(new Color(BLUE)) //
+                              .setMaterial(new Material().setKD(0.5).setKS(0.5).setShininess(30)) //
+              );
+      scene.setAmbientLight(new AmbientLight(new Color(38, 38, 38)));
+      scene.lights.add(light);
+   }
+
+   /** Produce a picture of two triangles with the soft shadow of a sphere under a rectangle light */
+   @Test
+   void trianglesSphereRectangleLight() {
+      softShadowScene(new RectangleLight(new Color(700, 400, 400), new Point(40, 40, 115), //
+              new Vector(40, 0, 0), new Vector(0, 40, 0)).setKl(4E-4).setKq(2E-5));
+
+      camera //
+              .setRayTracer(new SimpleRayTracer(scene).setSoftShadows(SamplingType.JITTERED, 8)) //
+              .setResolution(600, 600) //
+              .build() //
+              .renderImage() //
+              .writeToImage("shadowTrianglesSphereRectangleLight");
+   }
+
+   /** Produce a picture of two triangles with the soft shadow of a sphere under a sphere light */
+   @Test
+   void trianglesSphereSphereLight() {
+      softShadowScene(new SphereLight(new Color(700, 400, 400), new Point(40, 40, 115), 15) //
+              .setKl(4E-4).setKq(2E-5));
+
+      camera //
+              .setRayTracer(scene, RayTracerType.WAVEFRONT) //
+              .setResolution(600, 600) //
+              .build() //
+              .renderImage() //
+              .writeToImage("shadowTrianglesSphereSphereLight");
+   }
+
+   /**
+    * Test method for {@link renderer.SimpleRayTracer#setAdaptiveSoftShadows(boolean)}:
+    * the adaptive sampling casts dense shadow rays only in the penumbra
+    */
+   @Test
+   void adaptiveSoftShadows() {
+      softShadowScene(new SphereLight(new Color(700, 400, 400), new Point(40, 40, 115), 15) //
+              .setKl(4E-4).setKq(2E-5));
+      SimpleRayTracer adaptive = new SimpleRayTracer(scene);
+      SimpleRayTracer dense = new SimpleRayTracer(scene).setAdaptiveSoftShadows(false);
+      camera.setResolution(100, 100);
+      camera.setRayTracer(adaptive).build().renderImage();
+      camera.setRayTracer(dense).build().renderImage();
+
+      assertTrue(adaptive.getAreaShadowRays() > 0, "Shadow rays should be cast toward the area light");
+      assertTrue(adaptive.getAreaShadowRays() * 2 < dense.getAreaShadowRays(),
+              "Fully lit and fully shadowed points should not be sampled densely");
+   }
 }
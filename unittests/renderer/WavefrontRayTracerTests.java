@@ -0,0 +1,114 @@
+package renderer;
+
+import static java.awt.Color.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import geometries.*;
+import lighting.*;
+import primitives.*;
+import scene.Scene;
+
+/**
+ * Testing the breadth-first (wavefront) ray tracer
+ */
+class WavefrontRayTracerTests {
+   /** Default constructor to satisfy JavaDoc generator */
+   WavefrontRayTracerTests() { /* to satisfy JavaDoc generator */ }
+
+   /** Scene of the tests - spheres with transparency and reflection over mirrors */
+   private final Scene          scene         = new Scene("Wavefront scene");
+   /** Camera builder of the tests */
+   private final Camera.Builder cameraBuilder = Camera.getBuilder()
+      .setLocation(new Point(0, 0, 10000)) //
+      .setDirection(Point.ZERO, Vector.AXIS_Y) //
+      .setVpDistance(10000).setVpSize(2500, 2500);
+
+   /** Initialize the scene of the tests */
+   private void initScene() {
+      scene.geometries.add( //
+                           new Sphere(new Point(-950, -900, -1000), 400d).setEmission(new Color(0, 50, 100)) //
+                              .setMaterial(new Material().setKD(0.25).setKS(0.25).setShininess(20) //
+                                 .setKT(new Double3(0.5, 0, 0))), //
+                           new Sphere(new Point(-950, -900, -1000), 200d).setEmission(new Color(100, 50, 20)) //
+                              .setMaterial(new Material().setKD(0.25).setKS(0.25).setShininess(20)), //
+                           new Triangle(new Point(1500, -1500, -1500), new Point(-1500, 1500, -1500), //
+                                        new Point(670, 670, 3000)) //
+                              .setEmission(new Color(20, 20, 20)) //
+                              .setMaterial(new Material().setKR(1)), //
+                           new Triangle(new Point(1500, -1500, -1500), new Point(-1500, 1500, -1500), //
+                                        new Point(-1500, -1500, -2000)) //
+                              .setEmission(new Color(20, 20, 20)) //
+                              .setMaterial(new Material().setKR(new Double3(0.5, 0, 0.4))));
+      scene.setAmbientLight(new AmbientLight(new Color(26, 26, 26)));
+      scene.lights.add(new SpotLight(new Color(1020, 400, 400), new Point(-750, -750, -150), new Vector(-1, -1, -4)) //
+         .setKl(0.00001).setKq(0.000005));
+      scene.lights.add(new DirectionalLight(new Color(100, 100, 150), new Vector(1, -1, -1)));
+   }
+
+   /**
+    * Test method for {@link renderer.WavefrontRayTracer#traceRays(Ray[])}:
+    * the wavefront tracer must produce the same colors as the simple ray tracer
+    */
+   @Test
+   void testTraceRays() {
+      initScene();
+      Camera camera = cameraBuilder.setResolution(40, 40).build();
+      Ray[] rays = new Ray[40 * 40];
+      for (int i = 0; i < 40; ++i)
+         for (int j = 0; j < 40; ++j)
+            rays[i * 40 + j] = camera.constructRay(40, 40, j, i);
+
+      SimpleRayTracer simple = new SimpleRayTracer(scene);
+      Color[] colors = new WavefrontRayTracer(scene).traceRays(rays);
+      assertEquals(rays.length, colors.length, "Wrong amount of colors");
+      for (int i = 0; i < rays.length; ++i)
+         assertEquals(0, simple.traceRay(rays[i]).colorDistance(colors[i]), 0.01, "Wrong color of ray " + i);
+   }
+
+   /**
+    * Test method for {@link renderer.WavefrontRayTracer#setPacketSize(int)}:
+    * tracing the rays in packets must not change the colors
+    */
+   @Test
+   void testTraceRayPackets() {
+      initScene();
+      Camera camera = cameraBuilder.setResolution(40, 40).build();
+      Ray[] rays = new Ray[40 * 40];
+      for (int i = 0; i < 40; ++i)
+         for (int j = 0; j < 40; ++j)
+            rays[i * 40 + j] = camera.constructRay(40, 40, j, i);
+
+      Color[] expected = new WavefrontRayTracer(scene).traceRays(rays);
+      Color[] colors = new WavefrontRayTracer(scene).setPacketSize(4).traceRays(rays);
+      for (int i = 0; i < rays.length; ++i)
+         assertEquals(0, expected[i].colorDistance(colors[i]), 0.01, "Wrong color of ray " + i);
+   }
+
+   /** Produce a picture of the mirrored spheres with the wavefront tracer in 4x4 ray packets */
+   @Test
+   void twoSpheresOnMirrorsPackets() {
+      initScene();
+      cameraBuilder //
+         .setRayTracer(new WavefrontRayTracer(scene).setPacketSize(4)) //
+         .setTileSize(16) //
+         .setResolution(500, 500) //
+         .build() //
+         .renderImage() //
+         .writeToImage("wavefrontTwoSpheresMirroredPackets");
+   }
+
+   /** Produce a picture of the mirrored spheres with the wavefront tracer in tiles */
+   @Test
+   void twoSpheresOnMirrorsWavefront() {
+      initScene();
+      cameraBuilder //
+         .setRayTracer(scene, RayTracerType.WAVEFRONT) //
+         .setMultithreading(-1) //
+         .setResolution(500, 500) //
+         .build() //
+         .renderImage() //
+         .writeToImage("wavefrontTwoSpheresMirrored");
+   }
+}
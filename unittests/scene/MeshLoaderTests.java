@@ -0,0 +1,336 @@
+package scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import geometries.Geometries;
+import geometries.Intersectable;
+import geometries.Intersectable.Intersection;
+import geometries.Mesh;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.Color;
+import primitives.Material;
+import primitives.MaterialRegistry;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Testing MeshLoader Class
+ */
+class MeshLoaderTests {
+    /** Default constructor to satisfy JavaDoc generator */
+    MeshLoaderTests() { /* to satisfy JavaDoc generator */ }
+
+    /** A ray down through the inside of the unit square at z = 0 */
+    private final Ray down = new Ray(new Point(0.7, 0.2, 1), new Vector(0, 0, -1));
+
+    /**
+     * Test method for {@link scene.MeshLoader#loadObj(Path)}.
+     *
+     * @param directory the temporary directory of the files
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    void testLoadObj(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("model.obj");
+        Files.writeString(file, """
+                # two groups
+                v 0 0 0
+                v 1.0 0 0
+                v 1 1e0 0
+                v 0 1 -0.0
+                vt 0 0
+                f 1/1 2/1 3/1 4/1
+                usemtl red
+                v 5 0 0
+                v 6 0 0
+                v 6 1 0
+                f -3 -2 -1
+                """);
+        Material red = new Material().setKD(0.7);
+        MeshLoader loader = new MeshLoader().setMaterial("red", red).setEmission("red", new Color(255, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A quad is split into two triangles, and every material name gets a mesh
+        Geometries meshes = loader.loadObj(file);
+        List<Intersection> points = meshes.calculateIntersections(down);
+        assertEquals(List.of(new Point(0.7, 0.2, 0)), points.stream().map(i -> i.point()).toList(), "Wrong quad point");
+        // TC02: Negative indices refer back to the last vertices, and the group gets its material
+        List<Intersection> redPoints = meshes.calculateIntersections(new Ray(new Point(5.7, 0.2, 1), new Vector(0, 0, -1)));
+        assertEquals(new Point(5.7, 0.2, 0), redPoints.get(0).point(), "Wrong point of the red group");
+        assertSame(MaterialRegistry.intern(red), redPoints.get(0).geometry.getMaterial(), "Wrong material of the group");
+        // TC03: Small chunks give the same meshes as a single chunk
+        Geometries chunked = new MeshLoader().setChunkSize(16).loadObj(file);
+        assertEquals(new Point(5.7, 0.2, 0), chunked.calculateIntersections(new Ray(new Point(5.7, 0.2, 1),
+                new Vector(0, 0, -1))).get(0).point(), "Chunks must not change the meshes");
+        assertEquals(meshes.getBoundingBox().getMax(), chunked.getBoundingBox().getMax(), "Wrong chunked box");
+        // TC04: The meshes are parsed straight off the heap
+        Geometries offHeap = new MeshLoader().setOffHeap(true).loadObj(file);
+        Mesh first = (Mesh) offHeap.calculateIntersections(down).get(0).geometry;
+        assertTrue(first.getVertices().isDirect() && first.getHierarchy().order().isDirect(), "Wrong memory");
+        assertEquals(new Point(0.7, 0.2, 0), first.findIntersections(down).get(0), "Wrong off-heap point");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A file without faces
+        Path empty = directory.resolve("empty.obj");
+        Files.writeString(empty, "v 0 0 0\n");
+        assertThrows(IllegalArgumentException.class, () -> loader.loadObj(empty), "A file must have faces");
+        // TC11: A missing file
+        assertThrows(IllegalStateException.class, () -> loader.loadObj(directory.resolve("missing.obj")),
+                "A missing file is an I/O error");
+    }
+
+    /**
+     * Test method for {@link scene.MeshLoader#setChunkSize(int)}: chunks that continue the
+     * material name of the previous chunk and switch back to it must keep their faces apart.
+     *
+     * @param directory the temporary directory of the files
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    void testLoadObjChunks(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("alternating.obj");
+        StringBuilder text = new StringBuilder("v 0 0 0\nv 1 0 0\nv 0 1 0\nv 1 1 0\n");
+        // The faces do not use the first vertex, so that unwritten indices are noticed
+        for (int k = 0; k < 50; ++k)
+            text.append("usemtl A\nf 2 3 4\nf 2 4 3\nf 3 2 4\nusemtl B\nf 4 3 2\n");
+        Files.writeString(file, text.toString());
+        List<Intersectable> expected = new MeshLoader().loadObj(file).getGeometries();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Small chunks with alternating material names give the same triangles as a single chunk
+        List<Intersectable> chunked = new MeshLoader().setChunkSize(300).loadObj(file).getGeometries();
+        assertEquals(expected.size(), chunked.size(), "Wrong number of meshes");
+        int triangles = 0;
+        for (int k = 0; k < expected.size(); ++k) {
+            IntBuffer expectedIndices = ((Mesh) expected.get(k)).getIndices();
+            IntBuffer indices = ((Mesh) chunked.get(k)).getIndices();
+            assertEquals(expectedIndices.limit(), indices.limit(), "Wrong number of triangles in mesh " + k);
+            for (int i = 0; i < indices.limit(); ++i)
+                assertEquals(expectedIndices.get(i), indices.get(i), "Wrong index " + i + " in mesh " + k);
+            triangles += indices.limit() / 3;
+        }
+        assertEquals(200, triangles, "Wrong number of triangles");
+    }
+
+    /**
+     * Test method for {@link scene.MeshLoader#loadPly(Path)}.
+     *
+     * @param directory the temporary directory of the files
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    void testLoadPly(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("model.ply");
+        String header = """
+                ply
+                format binary_little_endian 1.0
+                comment a unit square
+                element vertex 4
+                property float x
+                property float y
+                property float z
+                property uchar red
+                element face 1
+                property list uchar int vertex_indices
+                end_header
+                """;
+        ByteBuffer data = ByteBuffer.allocate(4 * 13 + 1 + 16).order(ByteOrder.LITTLE_ENDIAN);
+        float[][] corners = {{0, 0, 0}, {1, 0, 0}, {1, 1, 0}, {0, 1, 0}};
+        for (float[] corner : corners) {
+            for (float c : corner) data.putFloat(c);
+            data.put((byte) 200);
+        }
+        data.put((byte) 4).putInt(0).putInt(1).putInt(2).putInt(3);
+        byte[] bytes = header.getBytes(StandardCharsets.US_ASCII);
+        Files.write(file, bytes);
+        Files.write(file, data.array(), java.nio.file.StandardOpenOption.APPEND);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A binary quad is split into two triangles
+        Mesh mesh = new MeshLoader().loadPly(file);
+        assertEquals(2, mesh.size(), "Wrong number of triangles");
+        assertEquals(List.of(new Point(0.7, 0.2, 0)), mesh.findIntersections(down), "Wrong point");
+
+        // TC02: A strip of triangles, parsed in parallel, gives the triangles of the faces
+        int columns = 300;
+        List<int[]> faces = new ArrayList<>();
+        for (int i = 0; i < columns - 1; ++i) {
+            faces.add(new int[]{2 * i, 2 * i + 2, 2 * i + 1});
+            faces.add(new int[]{2 * i + 1, 2 * i + 2, 2 * i + 3});
+        }
+        Path strip = writeStrip(directory.resolve("triangles.ply"), columns, faces);
+        assertEquals(sortedTriangles(faces), sortedTriangles(new MeshLoader().loadPly(strip).getIndices()),
+                "Wrong triangles of the strip");
+        // TC03: A strip of a triangle and quads, parsed serially, gives the same triangles
+        List<int[]> mixed = new ArrayList<>();
+        mixed.add(new int[]{0, 2, 1});
+        mixed.add(new int[]{1, 2, 3});
+        for (int i = 1; i < columns - 1; ++i) mixed.add(new int[]{2 * i, 2 * i + 2, 2 * i + 3, 2 * i + 1});
+        Path mixedStrip = writeStrip(directory.resolve("mixed.ply"), columns, mixed);
+        List<int[]> fans = new ArrayList<>(mixed.subList(0, 2));
+        for (int[] quad : mixed.subList(2, mixed.size())) {
+            fans.add(new int[]{quad[0], quad[1], quad[2]});
+            fans.add(new int[]{quad[0], quad[2], quad[3]});
+        }
+        assertEquals(sortedTriangles(fans), sortedTriangles(new MeshLoader().loadPly(mixedStrip).getIndices()),
+                "Wrong triangles of the mixed strip");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: An ascii file is not supported
+        Path ascii = directory.resolve("ascii.ply");
+        Files.writeString(ascii, "ply\nformat ascii 1.0\nend_header\n");
+        assertThrows(IllegalArgumentException.class, () -> new MeshLoader().loadPly(ascii), "Only binary files");
+        // TC11: A truncated file
+        Path truncated = directory.resolve("truncated.ply");
+        Files.write(truncated, bytes);
+        assertThrows(IllegalArgumentException.class, () -> new MeshLoader().loadPly(truncated), "The data is missing");
+    }
+
+    /**
+     * Writes a binary PLY file of a strip of vertices in two rows along the x axis.
+     *
+     * @param file    the file
+     * @param columns the number of the vertices in each row
+     * @param faces   the vertex indices of the faces
+     * @return the file
+     * @throws IOException if the file cannot be written
+     */
+    private static Path writeStrip(Path file, int columns, List<int[]> faces) throws IOException {
+        String header = "ply\nformat binary_big_endian 1.0\nelement vertex " + columns * 2
+                + "\nproperty double x\nproperty double y\nproperty double z\nelement face " + faces.size()
+                + "\nproperty uchar flags\nproperty list uchar int vertex_indices\nproperty float quality\nend_header\n";
+        int size = columns * 2 * 24;
+        for (int[] face : faces) size += 1 + 1 + face.length * 4 + 4;
+        ByteBuffer data = ByteBuffer.allocate(size);
+        for (int i = 0; i < columns; ++i)
+            data.putDouble(i).putDouble(0).putDouble(0).putDouble(i).putDouble(1).putDouble(0);
+        for (int[] face : faces) {
+            data.put((byte) 7).put((byte) face.length);
+            for (int index : face) data.putInt(index);
+            data.putFloat(0.5f);
+        }
+        Files.write(file, header.getBytes(StandardCharsets.US_ASCII));
+        Files.write(file, data.array(), java.nio.file.StandardOpenOption.APPEND);
+        return file;
+    }
+
+    /**
+     * Lists triangles in a canonical order, to compare them regardless of their order in a mesh.
+     *
+     * @param triangles the vertex indices of the triangles
+     * @return the triangles as strings, sorted
+     */
+    private static List<String> sortedTriangles(List<int[]> triangles) {
+        return triangles.stream().map(Arrays::toString).sorted().toList();
+    }
+
+    /**
+     * Lists the triangles of mesh indices in a canonical order.
+     *
+     * @param indices the vertex indices of the triangles, three for every triangle
+     * @return the triangles as strings, sorted
+     */
+    private static List<String> sortedTriangles(IntBuffer indices) {
+        List<int[]> triangles = new ArrayList<>();
+        for (int k = 0; k < indices.limit(); k += 3)
+            triangles.add(new int[]{indices.get(k), indices.get(k + 1), indices.get(k + 2)});
+        return sortedTriangles(triangles);
+    }
+
+    /**
+     * Test of the vertex normals of {@link scene.MeshLoader#loadObj(Path)} and
+     * {@link scene.MeshLoader#loadPly(Path)}.
+     *
+     * @param directory the temporary directory of the files
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    void testLoadNormals(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("smooth.obj");
+        Files.writeString(file, """
+                v 0 0 0
+                v 1 0 0
+                v 1 1 0
+                v 0 1 0
+                vt 0 0
+                vn -1 0 1
+                vn 1 0 1
+                f 1//1 2//2 3/1/2 4//-2
+                usemtl flat
+                v 5 0 0
+                v 6 0 0
+                v 6 1 0
+                f -3 -2 -1
+                """);
+        Vector tilted = new Vector(0.4, 0, 1).normalize();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The normals of the corners are interpolated at the intersection
+        Geometries meshes = new MeshLoader().loadObj(file);
+        Intersection hit = meshes.calculateIntersections(down).get(0);
+        assertEquals(tilted, hit.geometry.getNormal(hit), "Wrong interpolated OBJ normal");
+        // TC02: The normals of the vertices of a PLY file are interpolated
+        Path ply = directory.resolve("smooth.ply");
+        Files.write(ply, """
+                ply
+                format binary_little_endian 1.0
+                element vertex 4
+                property float x
+                property float y
+                property float z
+                property float nx
+                property float ny
+                property float nz
+                element face 1
+                property list uchar int vertex_indices
+                end_header
+                """.getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer data = ByteBuffer.allocate(4 * 24 + 1 + 16).order(ByteOrder.LITTLE_ENDIAN);
+        float[][] vertices = {{0, 0, 0, -1, 0, 1}, {1, 0, 0, 1, 0, 1}, {1, 1, 0, 1, 0, 1}, {0, 1, 0, -1, 0, 1}};
+        for (float[] vertex : vertices)
+            for (float c : vertex) data.putFloat(c);
+        data.put((byte) 4).putInt(0).putInt(1).putInt(2).putInt(3);
+        Files.write(ply, data.array(), java.nio.file.StandardOpenOption.APPEND);
+        Mesh mesh = new MeshLoader().loadPly(ply);
+        assertTrue(mesh.hasNormals(), "The PLY mesh must have normals");
+        assertEquals(tilted, mesh.getNormal(mesh.calculateIntersections(down).get(0)), "Wrong interpolated PLY normal");
+        // TC03: Smooth normals are calculated for a file without normals
+        Path plain = directory.resolve("plain.obj");
+        Files.writeString(plain, "v 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0\nf 1 2 3 4\n");
+        Mesh calculated = (Mesh) new MeshLoader().setSmoothNormals(true).loadObj(plain).getGeometries().get(0);
+        assertTrue(calculated.hasNormals(), "The smooth normals must be calculated");
+        assertEquals(Vector.AXIS_Z, calculated.getNormal(calculated.calculateIntersections(down).get(0)),
+                "Wrong calculated normal");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: Faces without normal indices are shaded flat
+        Intersection flat = meshes.calculateIntersections(new Ray(new Point(5.7, 0.2, 1), new Vector(0, 0, -1))).get(0);
+        assertEquals(Vector.AXIS_Z, flat.geometry.getNormal(flat), "A face without normals must be flat");
+        // TC11: A file without normals is shaded flat by default
+        assertFalse(((Mesh) new MeshLoader().loadObj(plain).getGeometries().get(0)).hasNormals(),
+                "A file without normals must be flat");
+        // TC12: A normal index beyond the normals of the file
+        Path beyond = directory.resolve("beyond.obj");
+        Files.writeString(beyond, "v 0 0 0\nv 1 0 0\nv 0 1 0\nvn 0 0 1\nf 1//1 2//7 3//1\n");
+        assertThrows(IllegalArgumentException.class, () -> new MeshLoader().loadObj(beyond),
+                "A normal index must refer to a normal of the file");
+        // TC13: A normal index in a file without normals
+        Path missing = directory.resolve("missing.obj");
+        Files.writeString(missing, "v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1//1 2//1 3//1\n");
+        assertThrows(IllegalArgumentException.class, () -> new MeshLoader().loadObj(missing),
+                "A normal index requires normals");
+    }
+}
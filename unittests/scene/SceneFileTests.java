@@ -0,0 +1,119 @@
+package scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import geometries.Geometries;
+import geometries.Intersectable.Intersection;
+import geometries.Mesh;
+import geometries.Sphere;
+import lighting.AmbientLight;
+import lighting.RectangleLight;
+import lighting.SpotLight;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Testing SceneFile Class
+ */
+class SceneFileTests {
+    /** Default constructor to satisfy JavaDoc generator */
+    SceneFileTests() { /* to satisfy JavaDoc generator */ }
+
+    /**
+     * Creates a scene of two meshes that share a vertex buffer.
+     *
+     * @return the scene
+     */
+    private static Scene createScene() {
+        Material red = new Material().setKD(0.5).setKS(0.25).setShininess(30);
+        DoubleBuffer vertices = DoubleBuffer.wrap(new double[]{0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0,
+                5, 0, 0, 6, 0, 0, 6, 1, 0});
+        Scene scene = new Scene("meshes").setBackground(new Color(1, 2, 3))
+                .setAmbientLight(new AmbientLight(new Color(10, 10, 10)));
+        scene.geometries.add(new Mesh(vertices, IntBuffer.wrap(new int[]{0, 1, 2, 0, 2, 3})).setMaterial(red),
+                new Geometries(new Mesh(vertices, IntBuffer.wrap(new int[]{4, 5, 6}))
+                        .setEmission(new Color(0, 50, 0))));
+        scene.lights = List.of(new SpotLight(new Color(100, 100, 100), new Point(0, 0, 10), new Vector(0, 0, -1))
+                        .setNarrowBeam(4).setKl(0.1),
+                new RectangleLight(new Color(50, 50, 50), new Point(0, 5, 10), new Vector(1, 0, 0), new Vector(0, 1, 0)));
+        return scene;
+    }
+
+    /**
+     * Test method for {@link scene.SceneFile#write(Scene, Path, boolean)} and
+     * {@link scene.SceneFile#load(Path)}.
+     *
+     * @param directory the temporary directory of the files
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    void testWriteLoad(@TempDir Path directory) throws IOException {
+        Scene scene = createScene();
+        Path file = directory.resolve("scene.bin");
+        Vector down = new Vector(0, 0, -1);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The scene attributes, materials and lights are restored
+        SceneFile.write(scene, file, true);
+        Scene loaded = SceneFile.load(file);
+        assertEquals("meshes", loaded.name, "Wrong name");
+        assertEquals(new Color(1, 2, 3).getRgb(), loaded.background.getRgb(), "Wrong background");
+        assertEquals(2, loaded.lights.size(), "Wrong number of lights");
+        SpotLight spot = (SpotLight) loaded.lights.get(0);
+        assertEquals(4, spot.getNarrowBeam(), 1e-10, "Wrong narrow beam");
+        assertEquals(0.1, spot.getKl(), 1e-10, "Wrong attenuation");
+        assertEquals(new Vector(0, 1, 0), ((RectangleLight) loaded.lights.get(1)).getEdge2(), "Wrong edge");
+        // TC02: The meshes are read from the mapped file, with their materials and emissions
+        List<Intersection> hits =
+                loaded.geometries.calculateIntersections(new Ray(new Point(0.7, 0.2, 1), down));
+        assertEquals(new Point(0.7, 0.2, 0), hits.get(0).point(), "Wrong mesh point");
+        Mesh mesh = (Mesh) hits.get(0).geometry;
+        assertTrue(mesh.getVertices().isDirect() && mesh.getHierarchy().bounds().isDirect(),
+                "The mesh must read the mapped file");
+        assertEquals(30, mesh.getMaterial().nShininess, "Wrong material");
+        Mesh second = (Mesh) loaded.geometries.calculateIntersections(new Ray(new Point(5.7, 0.2, 1), down)).get(0).geometry;
+        assertEquals(new Color(0, 50, 0).getRgb(), second.getEmission().getRgb(), "Wrong emission");
+        // TC03: The shared vertex buffer is stored once
+        assertSame(mesh.getVertices(), second.getVertices(), "The vertex buffer must be shared");
+        // TC04: Without the hierarchies they are built on loading
+        SceneFile.write(scene, file, false);
+        Scene rebuilt = SceneFile.load(file);
+        assertEquals(new Point(5.7, 0.2, 0), rebuilt.geometries.calculateIntersections(
+                new Ray(new Point(5.7, 0.2, 1), down)).get(0).point(), "Wrong point with a rebuilt hierarchy");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: Only meshes are stored
+        Scene spheres = new Scene("spheres");
+        spheres.geometries.add(new Sphere(Point.ZERO, 1));
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.write(spheres, file, true), "Only meshes");
+        // TC11: A file that is not a container
+        Path other = directory.resolve("other.bin");
+        Files.writeString(other, "not a scene file, but long enough to hold a whole header of a scene container......");
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.load(other), "Not a scene file");
+        // TC12: A truncated container
+        Path truncated = directory.resolve("truncated.bin");
+        Files.write(truncated, Arrays.copyOf(Files.readAllBytes(file), 200));
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.load(truncated), "A truncated file");
+        // TC13: Only double precision meshes are stored
+        Scene floats = new Scene("floats");
+        floats.geometries.add(new Mesh(new float[]{0, 0, 0, 1, 0, 0, 0, 1, 0}, new int[]{0, 1, 2}));
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.write(floats, file, true), "Only double meshes");
+        // TC14: Only flat shaded meshes are stored
+        Scene smooth = new Scene("smooth");
+        smooth.geometries.add(new Mesh(new double[]{0, 0, 0, 1, 0, 0, 0, 1, 0}, new int[]{0, 1, 2}).setSmoothNormals());
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.write(smooth, file, true), "Only flat meshes");
+    }
+}
@@ -0,0 +1,263 @@
+package scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import geometries.Intersectable.Intersection;
+import geometries.Mesh;
+import geometries.Precision;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.Color;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import renderer.Camera;
+import renderer.SimpleRayTracer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Testing SceneLoader Class
+ */
+class SceneLoaderTests {
+    /** Default constructor to satisfy JavaDoc generator */
+    SceneLoaderTests() { /* to satisfy JavaDoc generator */ }
+
+    /** A ray down the Z axis */
+    private final Vector down = new Vector(0, 0, -1);
+
+    /**
+     * Writes a scene file.
+     *
+     * @param directory the directory of the file
+     * @param body      the elements inside the scene element
+     * @return the scene file
+     * @throws IOException if the file cannot be written
+     */
+    private static Path write(Path directory, String body) throws IOException {
+        Path file = directory.resolve("scene.xml");
+        Files.writeString(file, "<scene name=\"test\" background-color=\"10 20 30\">" + body + "</scene>");
+        return file;
+    }
+
+    /**
+     * Test method for {@link scene.SceneLoader#SceneLoader(Path)}.
+     *
+     * @param directory the temporary directory of the files
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    void testLoad(@TempDir Path directory) throws IOException {
+        Files.writeString(directory.resolve("quad.obj"), "v 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0\nf 1 2 3 4\n");
+        Path file = write(directory, """
+                <ambient-light color="20 20 20"/>
+                <materials><material id="matte" kd="0.6" ks="0.1 0.2 0.3" shininess="20"/></materials>
+                <lights>
+                    <point-light color="100 100 100" position="0 0 10" kq="0.01"/>
+                    <directional-light color="50 50 50" direction="0 0 -1"/>
+                </lights>
+                <prototypes>
+                    <prototype id="quad"><mesh file="quad.obj" material="matte"/></prototype>
+                    <prototype id="unused"><mesh file="missing.obj"/></prototype>
+                </prototypes>
+                <geometries bvh="true">
+                    <sphere center="0 0 -100" radius="10" material="matte" emission="0 0 100"/>
+                    <instance prototype="quad" translate="20 0 0" scale="2"/>
+                    <instance prototype="quad" translate="40 0 0"/>
+                    <node translate="0 50 0"><triangle p0="0 0 0" p1="1 0 0" p2="0 1 0"/></node>
+                </geometries>
+                <camera location="0 0 50" target="0 0 0" up="0 1 0" vp-size="100 100" vp-distance="50"
+                        resolution="10 10" anti-aliasing="JITTERED 2"/>
+                """);
+        SceneLoader loader = new SceneLoader(file);
+        Scene scene = loader.getScene();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The scene attributes and the lights
+        assertEquals(new Color(10, 20, 30).getRgb(), scene.background.getRgb(), "Wrong background");
+        assertEquals(2, scene.lights.size(), "Wrong number of lights");
+        // TC02: A primitive with its material and emission
+        List<Intersection> sphere = scene.geometries.calculateIntersections(new Ray(new Point(0, 0, 0), down));
+        assertEquals(new Point(0, 0, -90), sphere.get(0).point(), "Wrong sphere point");
+        assertEquals(0.6, sphere.get(0).geometry.getMaterial().kD.d1(), 1e-10, "Wrong material");
+        // TC03: A scaled instance of a mesh prototype, and a second instance that shares it
+        assertEquals(new Point(21.5, 1, 0), scene.geometries.calculateIntersections(
+                new Ray(new Point(21.5, 1, 5), down)).get(0).point(), "Wrong scaled instance point");
+        assertEquals(new Point(40.7, 0.2, 0), scene.geometries.calculateIntersections(
+                new Ray(new Point(40.7, 0.2, 5), down)).get(0).point(), "Wrong instance point");
+        // TC04: A node places its children
+        assertEquals(new Point(0.2, 50.2, 0), scene.geometries.calculateIntersections(
+                new Ray(new Point(0.2, 50.2, 5), down)).get(0).point(), "Wrong node point");
+        // TC05: The camera is ready to build and render
+        assertDoesNotThrow(() -> loader.getCameraBuilder().build().renderImage(), "The camera must be complete");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: An unknown material
+        Path unknownMaterial = write(directory, "<geometries><sphere center=\"0 0 0\" radius=\"1\" material=\"x\"/></geometries>");
+        assertThrows(IllegalArgumentException.class, () -> new SceneLoader(unknownMaterial), "Unknown material");
+        // TC11: A malformed point
+        Path malformed = write(directory, "<geometries><sphere center=\"0 0\" radius=\"1\"/></geometries>");
+        assertThrows(IllegalArgumentException.class, () -> new SceneLoader(malformed), "Malformed point");
+        // TC12: A prototype that contains itself
+        Path cycle = write(directory, "<prototypes><prototype id=\"a\"><instance prototype=\"a\"/></prototype></prototypes>"
+                + "<geometries><instance prototype=\"a\"/></geometries>");
+        assertThrows(IllegalArgumentException.class, () -> new SceneLoader(cycle), "A prototype cannot contain itself");
+        // TC13: A failure of a mesh task is reported as is
+        Path missingMesh = write(directory, "<geometries><mesh file=\"missing.obj\"/></geometries>");
+        assertThrows(IllegalStateException.class, () -> new SceneLoader(missingMesh), "A missing mesh file");
+        // TC14: A description without a camera
+        Path noCamera = write(directory, "<geometries><sphere center=\"0 0 0\" radius=\"1\"/></geometries>");
+        assertThrows(IllegalStateException.class, () -> new SceneLoader(noCamera).getCameraBuilder(), "No camera");
+    }
+
+    /**
+     * Test of the {@code precision} attribute of {@link scene.SceneLoader#SceneLoader(Path)}: a
+     * mesh scene rendered in single precision must look like the double precision rendering.
+     *
+     * @param directory the temporary directory of the files
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    void testPrecision(@TempDir Path directory) throws IOException {
+        // A sphere of 40 x 80 quads, with a radius of 30 around (0, 0, -100)
+        StringBuilder obj = new StringBuilder();
+        int rings = 40, segments = 80;
+        for (int i = 0; i <= rings; ++i)
+            for (int j = 0; j < segments; ++j) {
+                double theta = Math.PI * i / rings, phi = 2 * Math.PI * j / segments;
+                obj.append("v ").append(30 * Math.sin(theta) * Math.cos(phi)).append(' ')
+                        .append(30 * Math.cos(theta)).append(' ')
+                        .append(30 * Math.sin(theta) * Math.sin(phi) - 100).append('\n');
+            }
+        for (int i = 0; i < rings; ++i)
+            for (int j = 0; j < segments; ++j) {
+                int a = i * segments + j + 1, b = i * segments + (j + 1) % segments + 1;
+                obj.append("f ").append(a).append(' ').append(b).append(' ').append(b + segments).append(' ')
+                        .append(a + segments).append('\n');
+            }
+        Files.writeString(directory.resolve("ball.obj"), obj);
+        String body = """
+                <ambient-light color="20 20 20"/>
+                <materials><material id="shiny" kd="0.5" ks="0.5" shininess="30" kr="0.2"/></materials>
+                <lights><point-light color="500 400 300" position="40 60 0" kl="0.001"/></lights>
+                <geometries>
+                    <mesh file="ball.obj" material="shiny"/>
+                    <plane point="0 -30 0" normal="0 1 0" material="shiny"/>
+                </geometries>
+                <camera location="0 0 0" target="0 0 -100" up="0 1 0" vp-size="80 80" vp-distance="100"
+                        resolution="60 60"/>
+                """;
+        Path doubles = directory.resolve("double.xml"), floats = directory.resolve("float.xml");
+        Files.writeString(doubles, "<scene name=\"double\">" + body + "</scene>");
+        Files.writeString(floats, "<scene name=\"float\" precision=\"float\">" + body + "</scene>");
+        SceneLoader doubleLoader = new SceneLoader(doubles), floatLoader = new SceneLoader(floats);
+        Camera camera = doubleLoader.getCameraBuilder().build();
+        SimpleRayTracer doubleTracer = new SimpleRayTracer(doubleLoader.getScene());
+        SimpleRayTracer floatTracer = new SimpleRayTracer(floatLoader.getScene());
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The meshes of the scene are loaded in single precision
+        Intersection hit = floatLoader.getScene().geometries.calculateIntersections(
+                new Ray(new Point(0.3, 0.2, 0), new Vector(0, 0, -1))).get(0);
+        assertEquals(Precision.FLOAT, ((Mesh) hit.geometry).getPrecision(), "Wrong precision");
+        // TC02: At most 1% of the 8 bit pixels differ from the double precision image, and only slightly
+        double total = 0;
+        int changed = 0;
+        for (int i = 0; i < 60; ++i)
+            for (int j = 0; j < 60; ++j) {
+                Ray ray = camera.constructRay(60, 60, j, i);
+                double distance = doubleTracer.traceRay(ray).colorDistance(floatTracer.traceRay(ray));
+                total += distance;
+                if (distance > 0) ++changed;
+            }
+        assertTrue(total / 3600 < 0.001, "The average pixel difference is too large: " + total / 3600);
+        assertTrue(changed <= 36, "Too many pixels differ: " + changed);
+
+        // =============== Boundary Values Tests ==================
+        // TC10: A mesh overrides the precision of the scene
+        Path mixed = directory.resolve("mixed.xml");
+        Files.writeString(mixed, "<scene precision=\"float\"><geometries><mesh file=\"ball.obj\" precision=\"double\"/>"
+                + "</geometries></scene>");
+        assertEquals(Precision.DOUBLE, ((Mesh) new SceneLoader(mixed).getScene().geometries
+                .calculateIntersections(new Ray(new Point(0.3, 0.2, 0), new Vector(0, 0, -1))).get(0).geometry).getPrecision(),
+                "The mesh precision must override the scene precision");
+        // TC11: An unknown precision
+        Path unknown = directory.resolve("unknown.xml");
+        Files.writeString(unknown, "<scene precision=\"half\"/>");
+        assertThrows(IllegalArgumentException.class, () -> new SceneLoader(unknown), "Unknown precision");
+    }
+
+    /**
+     * Test of the {@code smooth} attribute of the meshes of {@link scene.SceneLoader}: a coarse
+     * smooth shaded mesh sphere must look closer to a true sphere than the same mesh shaded flat.
+     *
+     * @param directory the temporary directory of the files
+     * @throws IOException if a file cannot be written
+     */
+    @Test
+    void testSmooth(@TempDir Path directory) throws IOException {
+        // A sphere of 12 x 24 quads, with a radius of 30 around (0, 0, -100)
+        StringBuilder obj = new StringBuilder("v 0 30 -100\nv 0 -30 -100\n");
+        int rings = 12, segments = 24;
+        for (int i = 1; i < rings; ++i)
+            for (int j = 0; j < segments; ++j) {
+                double theta = Math.PI * i / rings, phi = 2 * Math.PI * j / segments;
+                obj.append("v ").append(30 * Math.sin(theta) * Math.cos(phi)).append(' ')
+                        .append(30 * Math.cos(theta)).append(' ')
+                        .append(30 * Math.sin(theta) * Math.sin(phi) - 100).append('\n');
+            }
+        int last = 3 + (rings - 2) * segments;
+        for (int j = 0; j < segments; ++j) {
+            int next = (j + 1) % segments;
+            obj.append("f 1 ").append(3 + next).append(' ').append(3 + j).append('\n');
+            obj.append("f 2 ").append(last + j).append(' ').append(last + next).append('\n');
+        }
+        for (int i = 1; i < rings - 1; ++i)
+            for (int j = 0; j < segments; ++j) {
+                int a = 3 + (i - 1) * segments + j, b = 3 + (i - 1) * segments + (j + 1) % segments;
+                obj.append("f ").append(a).append(' ').append(b).append(' ').append(b + segments).append(' ')
+                        .append(a + segments).append('\n');
+            }
+        Files.writeString(directory.resolve("ball.obj"), obj);
+        String scene = """
+                <scene>
+                    <ambient-light color="20 20 20"/>
+                    <materials><material id="shiny" kd="0.6" ks="0.4" shininess="30"/></materials>
+                    <lights><point-light color="500 400 300" position="40 60 0" kl="0.001"/></lights>
+                    <geometries>%s</geometries>
+                    <camera location="0 0 0" target="0 0 -100" up="0 1 0" vp-size="80 80" vp-distance="100"
+                            resolution="60 60"/>
+                </scene>
+                """;
+        Path exact = directory.resolve("exact.xml"), flat = directory.resolve("flat.xml"),
+                smooth = directory.resolve("smooth.xml");
+        Files.writeString(exact, scene.formatted("<sphere center=\"0 0 -100\" radius=\"30\" material=\"shiny\"/>"));
+        Files.writeString(flat, scene.formatted("<mesh file=\"ball.obj\" material=\"shiny\"/>"));
+        Files.writeString(smooth, scene.formatted("<mesh file=\"ball.obj\" material=\"shiny\" smooth=\"true\"/>"));
+        SceneLoader exactLoader = new SceneLoader(exact), smoothLoader = new SceneLoader(smooth);
+        Camera camera = exactLoader.getCameraBuilder().build();
+        SimpleRayTracer exactTracer = new SimpleRayTracer(exactLoader.getScene());
+        SimpleRayTracer flatTracer = new SimpleRayTracer(new SceneLoader(flat).getScene());
+        SimpleRayTracer smoothTracer = new SimpleRayTracer(smoothLoader.getScene());
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The mesh of a smooth element gets normals
+        Intersection hit = smoothLoader.getScene().geometries.calculateIntersections(
+                new Ray(new Point(0.3, 0.2, 0), new Vector(0, 0, -1))).get(0);
+        assertTrue(((Mesh) hit.geometry).hasNormals(), "The smooth mesh must have normals");
+        // TC02: The smooth mesh is shaded much closer to the true sphere than the flat one
+        double flatDistance = 0, smoothDistance = 0;
+        for (int i = 0; i < 60; ++i)
+            for (int j = 0; j < 60; ++j) {
+                Ray ray = camera.constructRay(60, 60, j, i);
+                Color color = exactTracer.traceRay(ray);
+                flatDistance += color.colorDistance(flatTracer.traceRay(ray));
+                smoothDistance += color.colorDistance(smoothTracer.traceRay(ray));
+            }
+        assertTrue(smoothDistance * 2 < flatDistance,
+                "The smooth mesh is not closer to the sphere: " + smoothDistance + " vs " + flatDistance);
+    }
+}